@@ -0,0 +1,33 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the iCalendar feeds of tasks and scheduled visits.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.calendar.feed")
+@Data
+public class CalendarFeedConfig {
+
+    /**
+     * Number of generated feeds kept; the least recently read is evicted first
+     * Default: 1000
+     */
+    private int cacheMaxEntries = 1000;
+
+    /**
+     * Seconds a generated feed is served; writes on this instance invalidate it immediately,
+     * the TTL bounds staleness from writes on other instances and from caregiver link changes
+     * Default: 600
+     */
+    private int cacheTtlSeconds = 600;
+
+    /**
+     * Value of the calendar's PRODID property
+     * Default: -//CareConnect//Care Calendar//EN
+     */
+    private String productId = "-//CareConnect//Care Calendar//EN";
+}
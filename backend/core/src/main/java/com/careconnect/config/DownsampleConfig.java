@@ -0,0 +1,34 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for server-side downsampling of vitals series.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.downsample")
+@Data
+public class DownsampleConfig {
+
+    /**
+     * Points per metric returned when the caller gives neither maxPoints nor resolution;
+     * series with fewer samples are returned unchanged
+     * Default: 2000
+     */
+    private int defaultMaxPoints = 2000;
+
+    /**
+     * Upper bound on the points per metric a caller may request
+     * Default: 10000
+     */
+    private int maxPointsLimit = 10000;
+
+    /**
+     * Windows up to this length are downsampled in memory from the raw samples; longer
+     * windows are pre-bucketed in SQL unless the vitals cache already holds them
+     * Default: 31 days
+     */
+    private int inMemoryMaxDays = 31;
+}
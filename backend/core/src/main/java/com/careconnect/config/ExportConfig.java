@@ -0,0 +1,69 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for vitals report exports.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.export")
+@Data
+public class ExportConfig {
+
+    /**
+     * Rows fetched per round trip while streaming an export from the database
+     * Default: 1000
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Whether streamed exports are gzip-compressed for clients that accept it
+     * Default: true
+     */
+    private boolean gzip = true;
+
+    /**
+     * Table rows rendered into the PDF before they are flushed to the output and released
+     * Default: 500
+     */
+    private int pdfChunkRows = 500;
+
+    /**
+     * Worker threads generating asynchronous export jobs
+     * Default: 2
+     */
+    private int jobWorkers = 2;
+
+    /**
+     * Export jobs waiting for a worker before new submissions are refused
+     * Default: 50
+     */
+    private int jobQueueCapacity = 50;
+
+    /**
+     * Directory holding generated export files; blank means a folder under the system temp directory
+     * Default: blank
+     */
+    private String jobStorageDir = "";
+
+    /**
+     * Minutes a finished export is kept and reused for identical requests before it is deleted
+     * Default: 60
+     */
+    private int jobRetentionMinutes = 60;
+
+    /**
+     * Minutes a signed download link stays valid
+     * Default: 15
+     */
+    private int linkTtlMinutes = 15;
+
+    /**
+     * HMAC key for signed download links; blank means a random key per process, so links
+     * do not survive a restart and only work on the instance that issued them
+     * Default: blank
+     */
+    private String signingSecret = "";
+}
@@ -0,0 +1,44 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the live analytics (SSE) stream.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.live")
+@Data
+public class LiveMetricsConfig {
+
+    /**
+     * How long a single SSE connection stays open before the client must reconnect
+     * Default: 30 minutes
+     */
+    private long emitterTimeoutMs = 30 * 60 * 1000L;
+
+    /**
+     * How often dirty topics are recomputed; writes within one tick are coalesced
+     * Default: 1000 ms
+     */
+    private long tickMs = 1000;
+
+    /**
+     * Maximum age of a pushed dashboard when no writes arrive (the window keeps sliding)
+     * Default: 60000 ms
+     */
+    private long refreshIntervalMs = 60000;
+
+    /**
+     * Interval of keep-alive comments, which also detect disconnected clients
+     * Default: 15000 ms
+     */
+    private long heartbeatIntervalMs = 15000;
+
+    /**
+     * Dashboard window in days
+     * Default: 1
+     */
+    private int windowDays = 1;
+}
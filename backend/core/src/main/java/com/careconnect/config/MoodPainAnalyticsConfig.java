@@ -0,0 +1,40 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for mood and pain analytics.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.mood-pain")
+@Data
+public class MoodPainAnalyticsConfig {
+
+    /**
+     * Days covered by the rolling means of the daily series, including the day itself
+     * Default: 7
+     */
+    private int rollingDays = 7;
+
+    /**
+     * Ranges with at most this many entries also return every entry as the raw time series;
+     * larger ranges return the daily series only
+     * Default: 500
+     */
+    private int rawSeriesLimit = 500;
+
+    /**
+     * Number of (patient, range) results kept; the least recently read is evicted first
+     * Default: 2000
+     */
+    private int cacheMaxEntries = 2000;
+
+    /**
+     * Seconds a cached result is served; writes on this instance invalidate it immediately,
+     * the TTL bounds staleness from writes on other instances
+     * Default: 300
+     */
+    private int cacheTtlSeconds = 300;
+}
@@ -0,0 +1,61 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the {@code ScheduledNotification} dispatch engine.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.notifications.dispatch")
+@Data
+public class NotificationDispatchConfig {
+
+    /**
+     * Whether this node leases and dispatches scheduled notifications
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Identifier written to leased rows; a random ID is used when blank
+     */
+    private String nodeId;
+
+    /**
+     * How far ahead due notifications are leased into the in-memory timing wheel
+     * Default: 60 minutes
+     */
+    private int horizonMinutes = 60;
+
+    /**
+     * How long after its scheduled time a leased row may be taken over by another node
+     * Default: 5 minutes
+     */
+    private int leaseGraceMinutes = 5;
+
+    /**
+     * Number of rows leased per query
+     * Default: 1000
+     */
+    private int leaseBatchSize = 1000;
+
+    /**
+     * Maximum number of rows leased per lease cycle
+     * Default: 50000
+     */
+    private int maxLeasedPerCycle = 50000;
+
+    /**
+     * Number of due notifications delivered and updated together
+     * Default: 500
+     */
+    private int dispatchBatchSize = 500;
+
+    /**
+     * Width of one timing wheel bucket, which is also the dispatch tick
+     * Default: 1000 ms
+     */
+    private long tickMs = 1000;
+}
@@ -0,0 +1,45 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the per-user notification log used to replay
+ * missed WebSocket notifications on reconnect.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.notifications.log")
+@Data
+public class NotificationLogConfig {
+
+    /**
+     * Whether notifications are appended to the log at all
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of buffered entries written per flush
+     * Default: 500
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of days a logged notification is kept before it expires
+     * Default: 7 days
+     */
+    private int retentionDays = 7;
+
+    /**
+     * Number of newest entries kept per user by compaction
+     * Default: 1000
+     */
+    private int maxEntriesPerUser = 1000;
+
+    /**
+     * Maximum number of entries replayed in one resume
+     * Default: 500
+     */
+    private int maxReplay = 500;
+}
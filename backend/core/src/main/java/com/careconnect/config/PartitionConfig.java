@@ -0,0 +1,33 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the monthly partitions of the vitals tables.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.partitions")
+@Data
+public class PartitionConfig {
+
+    /**
+     * Whether partitions are created ahead of time and expired ones dropped
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Months after the current one that always have a partition ready
+     * Default: 3
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Whole months of data kept before the current month; older partitions are dropped.
+     * 0 keeps everything
+     * Default: 84 (7 years)
+     */
+    private int retentionMonths = 84;
+}
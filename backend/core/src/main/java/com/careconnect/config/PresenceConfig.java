@@ -0,0 +1,27 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for user presence tracking.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.presence")
+@Data
+public class PresenceConfig {
+
+    /**
+     * A user without any heartbeat or message for this long is considered offline.
+     * Clients ping every 30 seconds, so this tolerates two missed pings.
+     * Default: 90 seconds
+     */
+    private int ttlSeconds = 90;
+
+    /**
+     * How often silent users are expired
+     * Default: 15000 ms
+     */
+    private long sweepIntervalMs = 15000;
+}
@@ -0,0 +1,56 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for batched push notification delivery.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.push")
+@Data
+public class PushNotificationConfig {
+
+    /**
+     * Push transport: "firebase" sends through FCM, "local" only logs and records messages
+     * Default: local
+     */
+    private String transport = "local";
+
+    /**
+     * Maximum number of device messages per transport call (FCM allows 500)
+     * Default: 500
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of threads sending batches concurrently
+     * Default: 4
+     */
+    private int poolSize = 4;
+
+    /**
+     * Batches allowed to wait for a sender thread before callers send inline
+     * Default: 100
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Total attempts for messages failing with a retryable error
+     * Default: 3
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Backoff before the first retry; doubled on each further attempt
+     * Default: 500 ms
+     */
+    private long initialBackoffMs = 500;
+
+    /**
+     * Upper bound for the retry backoff
+     * Default: 10000 ms
+     */
+    private long maxBackoffMs = 10000;
+}
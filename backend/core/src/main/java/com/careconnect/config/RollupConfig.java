@@ -0,0 +1,44 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the hourly/daily {@code summary_metrics} rollup engine.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.rollup")
+@Data
+public class RollupConfig {
+
+    /**
+     * Whether dashboards are served from rollup buckets (otherwise they aggregate live)
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * How often buckets touched by writes are recomputed
+     * Default: 5000 ms
+     */
+    private long flushIntervalMs = 5000;
+
+    /**
+     * How often the catch-up job re-rolls buckets whose source rows changed since its last run
+     * Default: 900000 ms (15 minutes)
+     */
+    private long catchUpIntervalMs = 900000;
+
+    /**
+     * How far back the first catch-up run after startup looks for changed rows
+     * Default: 24 hours
+     */
+    private int catchUpLookbackHours = 24;
+
+    /**
+     * History rolled up on startup when no rollup buckets exist yet
+     * Default: 365 days
+     */
+    private int initialBackfillDays = 365;
+}
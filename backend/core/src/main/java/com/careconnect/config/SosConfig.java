@@ -0,0 +1,50 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the SOS delivery lane.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.sos")
+@Data
+public class SosConfig {
+
+    /**
+     * Threads reserved for emergency delivery; never shared with routine notifications
+     * Default: 8
+     */
+    private int poolSize = 8;
+
+    /**
+     * How long the SOS request waits for socket/push/email fan-out before answering
+     * Default: 5000 ms
+     */
+    private long deliveryTimeoutMs = 5000;
+
+    /**
+     * Time without any acknowledgement before an SOS is re-sent over every channel
+     * Default: 30 seconds
+     */
+    private int escalateAfterSeconds = 30;
+
+    /**
+     * Number of escalation rounds before the SOS is reported as unacknowledged
+     * Default: 3
+     */
+    private int maxEscalations = 3;
+
+    /**
+     * How long finished incidents remain queryable
+     * Default: 60 minutes
+     */
+    private int incidentRetentionMinutes = 60;
+
+    /**
+     * Full rebuild interval of the caregiver routing table
+     * Default: 600000 ms
+     */
+    private long routingRefreshMs = 600000;
+}
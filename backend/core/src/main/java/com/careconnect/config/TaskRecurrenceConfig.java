@@ -0,0 +1,32 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for lazily expanded task series.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.tasks.recurrence")
+@Data
+public class TaskRecurrenceConfig {
+
+    /**
+     * Whether reminders of upcoming series occurrences are materialized from the parent's templates
+     * Default: true
+     */
+    private boolean remindersEnabled = true;
+
+    /**
+     * How many days ahead occurrence reminders are materialized; must cover the dispatch lease horizon
+     * Default: 2 days
+     */
+    private int reminderHorizonDays = 2;
+
+    /**
+     * Series parents handled per batch by the reminder job
+     * Default: 200
+     */
+    private int reminderBatchSize = 200;
+}
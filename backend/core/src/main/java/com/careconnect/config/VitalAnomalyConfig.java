@@ -0,0 +1,87 @@
+package com.careconnect.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for online anomaly detection on recorded vital samples.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.anomaly")
+@Data
+public class VitalAnomalyConfig {
+
+    /**
+     * Whether new and updated vital samples are checked and alerts raised
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Weight of the newest sample in the exponentially weighted mean and variance
+     * Default: 0.1
+     */
+    private double alpha = 0.1;
+
+    /**
+     * Standard deviations from the weighted mean at which a sample counts as a deviation
+     * Default: 3.0
+     */
+    private double deviationThreshold = 3.0;
+
+    /**
+     * Samples of a metric seen before deviations are reported
+     * Default: 10
+     */
+    private int warmupSamples = 10;
+
+    /**
+     * Minimum time between two alerts of the same kind for the same patient and metric;
+     * an alert of higher severity is always sent
+     * Default: 15 minutes
+     */
+    private int debounceMinutes = 15;
+
+    /**
+     * Samples older than this still update the baseline but raise no alerts
+     * Default: 60 minutes
+     */
+    private int maxAlertAgeMinutes = 60;
+
+    /**
+     * Number of patients whose baselines are kept; the least recently updated is evicted first
+     * Default: 10000
+     */
+    private int maxPatients = 10000;
+
+    private Limits heartRate = new Limits(40.0, 50.0, 100.0, 130.0, 30.0, 10, 10.0);
+    private Limits spo2 = new Limits(90.0, 95.0, null, null, 4.0, 10, 2.0);
+    private Limits systolic = new Limits(null, 90.0, 140.0, 180.0, 40.0, 30, 15.0);
+    private Limits diastolic = new Limits(null, 60.0, 90.0, 110.0, 25.0, 30, 10.0);
+    private Limits weight = new Limits(null, null, null, null, 2.0, 1440, 1.0);
+
+    /**
+     * Limits of one metric; a {@code null} limit is not checked
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+        /** Below this the alert is critical */
+        private Double criticalLow;
+        /** Below this the alert is high */
+        private Double low;
+        /** Above this the alert is high */
+        private Double high;
+        /** Above this the alert is critical */
+        private Double criticalHigh;
+        /** Largest change between consecutive samples within {@code changeWindowMinutes} */
+        private Double maxChange;
+        private int changeWindowMinutes;
+        /** Smallest distance from the weighted mean reported as a deviation */
+        private Double minDeviation;
+    }
+}
@@ -0,0 +1,38 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the background backfill of typed vital columns.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.vitals-backfill")
+@Data
+public class VitalBackfillConfig {
+
+    /**
+     * Whether rows written before the typed columns existed are parsed in the background
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Rows parsed and written per chunk (one transaction each)
+     * Default: 1000
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Chunks processed per scheduled run, so a large backlog is spread over several runs
+     * Default: 50
+     */
+    private int maxChunksPerRun = 50;
+
+    /**
+     * Pause between chunks, to leave room for regular traffic
+     * Default: 100 ms
+     */
+    private long pauseBetweenChunksMs = 100;
+}
@@ -0,0 +1,32 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-memory columnar vitals cache.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.analytics.vitals-cache")
+@Data
+public class VitalSeriesCacheConfig {
+
+    /**
+     * Whether vitals charts are served from the cache (otherwise loaded per request)
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of patients kept in memory; the least recently read patient is evicted first
+     * Default: 1000
+     */
+    private int maxPatients = 1000;
+
+    /**
+     * History loaded when a patient enters the cache; longer windows extend it on demand
+     * Default: 90 days
+     */
+    private int preloadDays = 90;
+}
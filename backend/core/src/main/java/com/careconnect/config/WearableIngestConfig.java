@@ -0,0 +1,38 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for bulk wearable metric ingestion.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.wearables.ingest")
+@Data
+public class WearableIngestConfig {
+
+    /**
+     * Samples written per INSERT statement (and per transaction)
+     * Default: 5000
+     */
+    private int batchSize = 5000;
+
+    /**
+     * Maximum samples accepted in one request
+     * Default: 500000
+     */
+    private int maxSamplesPerRequest = 500000;
+
+    /**
+     * How far in the future a sample's timestamp may be, to tolerate device clock skew
+     * Default: 300 seconds
+     */
+    private long maxFutureSkewSeconds = 300;
+
+    /**
+     * Number of validation errors echoed back in the response
+     * Default: 50
+     */
+    private int maxReportedErrors = 50;
+}
@@ -0,0 +1,88 @@
+package com.careconnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the incremental wearable provider sync.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "careconnect.wearables.sync")
+@Data
+public class WearableSyncConfig {
+
+    /**
+     * Whether linked devices are synced on a schedule
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Base URL of the Fitbit Web API
+     * Default: https://api.fitbit.com
+     */
+    private String apiBaseUrl = "https://api.fitbit.com";
+
+    /**
+     * Fitbit OAuth token endpoint, used to refresh access tokens
+     * Default: https://api.fitbit.com/oauth2/token
+     */
+    private String tokenUri = "https://api.fitbit.com/oauth2/token";
+
+    /**
+     * How often each linked device is synced; devices are spread evenly over this interval
+     * Default: 60 minutes
+     */
+    private int syncIntervalMinutes = 60;
+
+    /**
+     * Maximum provider API calls in flight on one node (one per sync worker)
+     * Default: 8
+     */
+    private int maxConcurrentCalls = 8;
+
+    /**
+     * Maximum connections leased per poll
+     * Default: 100
+     */
+    private int leaseBatchSize = 100;
+
+    /**
+     * How long a leased connection stays claimed before another node may take it over
+     * Default: 15 minutes
+     */
+    private int leaseMinutes = 15;
+
+    /**
+     * Days fetched for a connection that has never synced, or whose cursor is older
+     * Default: 7
+     */
+    private int maxBackfillDays = 7;
+
+    /**
+     * How far before the cursor each sync re-reads, for data the device uploaded late;
+     * samples already stored are skipped on insert
+     * Default: 120 minutes
+     */
+    private int cursorOverlapMinutes = 120;
+
+    /**
+     * Calls left in the provider's rate-limit window at which a sync stops early and
+     * resumes after the window resets
+     * Default: 5
+     */
+    private int rateLimitReserve = 5;
+
+    /**
+     * Upper bound of the exponential backoff after failed syncs
+     * Default: 360 minutes
+     */
+    private int maxBackoffMinutes = 360;
+
+    /**
+     * Identifier of this node in connection leases; a random one is generated when blank
+     * Default: empty
+     */
+    private String nodeId = "";
+}
@@ -287,47 +287,20 @@ public class AlexaController {
                         .body(Map.of("error", "Unable to resolve patient ID"));
             }
 
-            // 🆕 Use TaskServiceV2 to get tasks instead of RestTemplate
-            List<TaskDtoV2> allTasks = taskService.getTasksByPatient(patientId);
-            System.out.println("📋 Retrieved " + allTasks.size() + " tasks for patient " + patientId);
-
             // Filter by week if requested
             if ("week".equalsIgnoreCase(filter)) {
-                System.out.println("📅 Filtering tasks by week...");
-
-                java.time.LocalDate today = java.time.LocalDate.now();
-
-                // Rolling 7-day window starting today
-                java.time.LocalDate startOfWeek = today;
-                java.time.LocalDate endOfWeek = today.plusDays(6);
-
-                System.out.println("📅 Week range: " + startOfWeek + " to " + endOfWeek);
-
-                // Filter tasks within this week
-                List<TaskDtoV2> weekTasks = allTasks.stream()
-                        .filter(task -> {
-                            try {
-                                String dateStr = task.getDate();
-                                if (dateStr != null) {
-                                    java.time.LocalDate taskDate = java.time.LocalDate.parse(
-                                            dateStr.substring(0, 10));
-                                    boolean inWeek = !taskDate.isBefore(startOfWeek) && !taskDate.isAfter(endOfWeek);
-                                    return inWeek;
-                                }
-                                return false;
-                            } catch (Exception e) {
-                                System.err.println("⚠️ Error parsing task date: " + e.getMessage());
-                                return false;
-                            }
-                        })
-                        .collect(Collectors.toList());
-
-                System.out.println("📋 Filtered to " + weekTasks.size() + " tasks for this week (out of "
-                        + allTasks.size() + " total)");
+                // Rolling 7-day window starting today; only rows in the window are read
+                LocalDate startOfWeek = LocalDate.now();
+                LocalDate endOfWeek = startOfWeek.plusDays(7);
 
+                List<TaskDtoV2> weekTasks = taskService.getTasksByPatientInRange(patientId, startOfWeek, endOfWeek);
                 return ResponseEntity.ok(weekTasks);
             }
 
+            // 🆕 Use TaskServiceV2 to get tasks instead of RestTemplate
+            List<TaskDtoV2> allTasks = taskService.getTasksByPatient(patientId);
+            System.out.println("📋 Retrieved " + allTasks.size() + " tasks for patient " + patientId);
+
             return ResponseEntity.ok(allTasks);
 
         } catch (Exception e) {
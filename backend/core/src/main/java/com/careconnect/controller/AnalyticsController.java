@@ -3,13 +3,17 @@ package com.careconnect.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import lombok.RequiredArgsConstructor;
 import com.careconnect.security.Role;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import com.careconnect.config.ExportConfig;
 import com.careconnect.dto.DashboardDTO;
+import com.careconnect.dto.ExportJobDTO;
 import com.careconnect.model.User;
 import java.util.Optional;
 import java.util.Map;
@@ -17,8 +21,12 @@ import java.util.Collections;
 import org.springframework.security.core.Authentication;
 import com.careconnect.dto.ExportLinkDTO;
 import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.dto.VitalTrendDTO;
 import com.careconnect.service.AnalyticsService;
 import com.careconnect.service.VitalSampleService;
+import com.careconnect.service.analytics.ExportJobService;
+import com.careconnect.service.analytics.LiveMetricsHub;
+import com.careconnect.service.analytics.VitalDownsampler;
 import com.careconnect.exception.AppException;
 import com.careconnect.model.Patient;
 import com.careconnect.repository.PatientRepository;
@@ -40,9 +48,12 @@ import java.util.Collections;
 
 import com.careconnect.model.CaregiverPatientLink;
 
+import java.time.Duration;
 import java.time.Period;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
 @RestController
 @RequestMapping("/v1/api/analytics")
@@ -73,7 +84,12 @@ private final FamilyMemberLinkRepository familyMemberPatientLinkRepository;
     
     @Autowired
     private VitalSampleService vitalSampleService;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final LiveMetricsHub liveMetricsHub;
+
+    private final ExportConfig exportConfig;
+
+    private final ExportJobService exportJobService;
 
     @GetMapping("/dashboard")
     public DashboardDTO dashboard(
@@ -91,16 +107,39 @@ private final FamilyMemberLinkRepository familyMemberPatientLinkRepository;
     //     return analyticsService.createSignedExportLink(path);
     // }
 
+    /**
+     * Vitals CSV, streamed to the client while it is read from the database and gzip-compressed
+     * when the client accepts it
+     */
     @GetMapping("/export/vitals/csv")
-    public ResponseEntity<byte[]> exportVitalsCsv(
+    public ResponseEntity<StreamingResponseBody> exportVitalsCsv(
         @RequestParam Long patientId,
-        @RequestParam(defaultValue = "7") int days) {
+        @RequestParam(defaultValue = "7") int days,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     if (days < 1) days = 1;
-    byte[] csv = analyticsService.exportVitalsCsv(patientId, Period.ofDays(days));
-    return ResponseEntity.ok()
+    if (!patientRepository.existsById(patientId)) {
+        throw new AppException(HttpStatus.NOT_FOUND, "Patient profile not found");
+    }
+    Period period = Period.ofDays(days);
+    boolean gzip = exportConfig.isGzip() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+    StreamingResponseBody body = out -> {
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+            analyticsService.writeVitalsCsv(patientId, period, compressed);
+            compressed.finish();
+        } else {
+            analyticsService.writeVitalsCsv(patientId, period, out);
+        }
+    };
+    var response = ResponseEntity.ok()
             .header("Content-Disposition", "attachment; filename=\"vitals.csv\"")
-            .contentType(org.springframework.http.MediaType.parseMediaType("text/csv"))
-            .body(csv);
+            .contentType(org.springframework.http.MediaType.parseMediaType("text/csv"));
+    if (gzip) {
+        response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    return response.body(body);
     }
 
     // @GetMapping("/export/pdf")
@@ -111,37 +150,96 @@ private final FamilyMemberLinkRepository familyMemberPatientLinkRepository;
     //     return analyticsService.createSignedExportLink(path);
     // }
 
+    /**
+     * Vitals PDF, streamed while it is rendered; {@code summary=true} lists daily averages
+     * from the rollups instead of every sample
+     */
     @GetMapping("/export/vitals/pdf")
-    public ResponseEntity<byte[]> exportVitalsPdf(
+    public ResponseEntity<StreamingResponseBody> exportVitalsPdf(
         @RequestParam Long patientId,
-        @RequestParam(defaultValue = "7") int days) {
+        @RequestParam(defaultValue = "7") int days,
+        @RequestParam(defaultValue = "false") boolean summary) {
     if (days < 1) days = 1;
-    byte[] pdf = analyticsService.exportVitalsPdf(patientId, Period.ofDays(days));
+    if (!patientRepository.existsById(patientId)) {
+        throw new AppException(HttpStatus.NOT_FOUND, "Patient profile not found");
+    }
+    Period period = Period.ofDays(days);
+    StreamingResponseBody body = out -> analyticsService.writeVitalsPdf(patientId, period, summary, out);
     return ResponseEntity.ok()
             .header("Content-Disposition", "attachment; filename=\"vitals.pdf\"")
             .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
-            .body(pdf);
+            .body(body);
 }
 
+    /**
+     * Queue a vitals export ({@code format} csv or pdf) in the background; identical pending or
+     * recent exports are shared. Poll the job until it carries a signed download link.
+     */
+    @PostMapping("/export/jobs")
+    public ResponseEntity<ExportJobDTO> submitExportJob(
+            @RequestParam Long patientId,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        User currentUser = requirePatientAccess(patientId);
+        ExportJobDTO job = exportJobService.submit(currentUser.getId(), patientId, days,
+                ExportJobService.Format.parse(format), summary);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Status of an export job submitted by the current user
+     */
+    @GetMapping("/export/jobs/{jobId}")
+    public ExportJobDTO exportJobStatus(@PathVariable String jobId) {
+        return exportJobService.status(jobId, currentUser().getId());
+    }
+
+    /**
+     * Serves a finished export; authorized by the link signature rather than a session
+     */
+    @GetMapping("/export/download/{jobId}")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId,
+                                                   @RequestParam long expires,
+                                                   @RequestParam String sig) {
+        ExportJobService.Artifact artifact = exportJobService.download(jobId, expires, sig);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"" + artifact.fileName() + "\"")
+                .contentType(MediaType.parseMediaType(artifact.contentType()))
+                .contentLength(artifact.size())
+                .body(new FileSystemResource(artifact.file()));
+    }
+
+    /**
+     * Daily statistics and trend of one clinical vital type ({@code type} e.g. blood_pressure,
+     * heart_rate, temperature), aggregated in SQL over the typed vitals columns
+     */
+    @GetMapping("/vitals/trend")
+    public VitalTrendDTO vitalTrend(
+            @RequestParam Long patientId,
+            @RequestParam String type,
+            @RequestParam(defaultValue = "30") int days) {
+        requirePatientAccess(patientId);
+        if (days < 1) days = 1;
+        return analyticsService.getVitalTrend(patientId, type, Period.ofDays(days));
+    }
+
     @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter live(@RequestParam Long patientId) {
-        SseEmitter emitter = new SseEmitter(30 * 60 * 1000L); // 30 min
-        executor.submit(() -> {
-            try {
-                while (true) {
-                    DashboardDTO dto = analyticsService.getDashboard(patientId, Period.ofDays(1));
-                    emitter.send(dto);
-                    Thread.sleep(2000);
-                }
-            } catch (Exception e) {
-                emitter.completeWithError(e);
-            }
-        });
-        return emitter;
+        return liveMetricsHub.subscribe(patientId);
     }
 
+/**
+ * Vitals series for charts. Each metric is limited to {@code maxPoints} points (or one per
+ * {@code resolution}, e.g. {@code PT1H}); {@code mode=lttb} returns real samples for line
+ * charts, {@code mode=minmax} returns min/max/avg buckets for range bands.
+ */
 @GetMapping("/vitals")
-public ResponseEntity<?> vitals(@RequestParam Long patientId, @RequestParam int days) {
+public ResponseEntity<?> vitals(@RequestParam Long patientId, @RequestParam int days,
+                                @RequestParam(required = false) Integer maxPoints,
+                                @RequestParam(required = false) Duration resolution,
+                                @RequestParam(defaultValue = "lttb") String mode) {
+  VitalDownsampler.Mode downsampling = VitalDownsampler.Mode.parse(mode);
   try {
         // Get user details from JWT token
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -190,7 +288,9 @@ public ResponseEntity<?> vitals(@RequestParam Long patientId, @RequestParam int
 
         // Access granted, return data
         return ResponseEntity.ok(Map.of(
-            "data", analyticsService.getVitals(patientId, Period.ofDays(days)),
+            "data", downsampling == VitalDownsampler.Mode.MINMAX
+                ? analyticsService.getVitalBands(patientId, Period.ofDays(days), maxPoints, resolution)
+                : analyticsService.getVitals(patientId, Period.ofDays(days), maxPoints, resolution),
             "message", "Vitals data retrieved successfully"
         ));
     } catch (Exception e) {
@@ -343,4 +443,25 @@ public ResponseEntity<?> vitals(@RequestParam Long patientId, @RequestParam int
                 .body(Map.of("error", "Failed to update vital sample"));
         }
     }
-}
\ No newline at end of file
+
+    private User currentUser() {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new AppException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    /**
+     * The current user, provided they may see the patient's data: the patient themself, a
+     * linked caregiver or family member, or an admin, as for {@code GET /vitals}
+     */
+    private User requirePatientAccess(Long patientId) {
+        User currentUser = currentUser();
+        if (!patientRepository.existsById(patientId)) {
+            throw new AppException(HttpStatus.NOT_FOUND, "Patient profile not found");
+        }
+        if (!caregiverService.hasAccessToPatient(currentUser.getId(), patientId)) {
+            throw new AppException(HttpStatus.FORBIDDEN, "Not authorized to access this patient's data");
+        }
+        return currentUser;
+    }
+}
@@ -0,0 +1,91 @@
+package com.careconnect.controller;
+
+import com.careconnect.exception.AppException;
+import com.careconnect.model.Caregiver;
+import com.careconnect.model.User;
+import com.careconnect.repository.CaregiverRepository;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.UserRepository;
+import com.careconnect.service.CaregiverService;
+import com.careconnect.service.calendar.CalendarFeedService;
+import com.careconnect.service.calendar.CalendarFeedService.CalendarFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * iCalendar feeds of tasks and scheduled visits.
+ *
+ * <p>
+ * Responses carry a strong {@code ETag} and {@code Last-Modified}; Spring answers a matching
+ * {@code If-None-Match} or {@code If-Modified-Since} with 304 Not Modified and no body.
+ * {@code Cache-Control: no-cache} makes clients revalidate on every sync. Access is checked
+ * before any cached feed is served.
+ * </p>
+ */
+@RestController
+@RequestMapping("/v1/api/calendar")
+@RequiredArgsConstructor
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+    private final CaregiverService caregiverService;
+    private final UserRepository userRepository;
+    private final PatientRepository patientRepository;
+    private final CaregiverRepository caregiverRepository;
+
+    /**
+     * Feed of a patient's tasks and scheduled visits, for the patient, a linked caregiver or
+     * family member, or an admin
+     */
+    @GetMapping("/patients/{patientId}.ics")
+    public ResponseEntity<String> patientFeed(@PathVariable Long patientId) {
+        User currentUser = currentUser();
+        if (!patientRepository.existsById(patientId)) {
+            throw new AppException(HttpStatus.NOT_FOUND, "Patient profile not found");
+        }
+        if (!caregiverService.hasAccessToPatient(currentUser.getId(), patientId)) {
+            throw new AppException(HttpStatus.FORBIDDEN, "Not authorized to access this patient's calendar");
+        }
+        return respond(calendarFeedService.patientFeed(patientId));
+    }
+
+    /**
+     * Feed of a caregiver's scheduled visits and their linked patients' tasks, for that
+     * caregiver only
+     */
+    @GetMapping("/caregivers/{caregiverId}.ics")
+    public ResponseEntity<String> caregiverFeed(@PathVariable Long caregiverId) {
+        boolean self = caregiverRepository.findByUserId(currentUser().getId())
+                .map(Caregiver::getId)
+                .filter(caregiverId::equals)
+                .isPresent();
+        if (!self) {
+            throw new AppException(HttpStatus.FORBIDDEN, "Not authorized to access this caregiver's calendar");
+        }
+        return respond(calendarFeedService.caregiverFeed(caregiverId));
+    }
+
+    private User currentUser() {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new AppException(HttpStatus.UNAUTHORIZED, "User not found"));
+    }
+
+    private static ResponseEntity<String> respond(CalendarFeed feed) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(feed.etag())
+                .lastModified(feed.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(feed.body());
+    }
+}
@@ -0,0 +1,68 @@
+package com.careconnect.controller;
+
+import com.careconnect.dto.WearableIngestResultDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.model.Patient;
+import com.careconnect.model.User;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.UserRepository;
+import com.careconnect.security.Role;
+import com.careconnect.service.CaregiverService;
+import com.careconnect.service.analytics.WearableIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/v1/api/wearables")
+@RequiredArgsConstructor
+@Tag(name = "Wearables", description = "Wearable device metric ingestion")
+public class WearableMetricController {
+
+    private final WearableIngestionService wearableIngestionService;
+    private final UserRepository userRepository;
+    private final PatientRepository patientRepository;
+    private final CaregiverService caregiverService;
+
+    /**
+     * Bulk upload of wearable samples as a JSON array or newline-delimited JSON.
+     * The body is streamed, so uploads of hundreds of thousands of samples are fine.
+     */
+    @PostMapping(value = "/metrics/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk ingest wearable metrics",
+            description = "Stores samples of {metric, value, recordedAt}; already stored samples are skipped")
+    public ResponseEntity<WearableIngestResultDTO> ingestBulk(@RequestParam Long patientId,
+                                                              HttpServletRequest request) throws IOException {
+        checkAccess(patientId);
+        return ResponseEntity.ok(wearableIngestionService.ingest(patientId, request.getInputStream()));
+    }
+
+    private void checkAccess(Long patientId) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User currentUser = userRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(HttpStatus.UNAUTHORIZED, "User not authenticated"));
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Patient not found"));
+
+        boolean hasAccess = switch (currentUser.getRole()) {
+            case PATIENT -> patient.getUser() != null && currentUser.getId().equals(patient.getUser().getId());
+            case CAREGIVER, FAMILY_MEMBER -> caregiverService.hasAccessToPatient(currentUser.getId(), patientId);
+            case ADMIN -> true;
+        };
+        if (!hasAccess) {
+            throw new AppException(HttpStatus.FORBIDDEN, "Not authorized to access this patient's data");
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.careconnect.controller;
 
+import com.careconnect.exception.AppException;
+import com.careconnect.model.User;
+import com.careconnect.repository.UserRepository;
 import com.careconnect.service.WebSocketNotificationService;
+import com.careconnect.service.emergency.SosDispatchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,10 +13,13 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -75,6 +82,14 @@ public class WebSocketController {
     }
 
     private final WebSocketNotificationService webSocketNotificationService;
+    private final SosDispatchService sosDispatchService;
+    private final UserRepository userRepository;
+
+    private User getCurrentUser() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(HttpStatus.UNAUTHORIZED, "User not authenticated"));
+    }
 
     @PostMapping("/call-invitation")
     @Operation(
@@ -395,6 +410,32 @@ public class WebSocketController {
         }
     }
 
+    @PostMapping("/presence")
+    @Operation(
+        summary = "Check online status of many users",
+        description = "Return which of the given user IDs are currently online, in one call"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Presence retrieved successfully"),
+        @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasRole('CAREGIVER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPresence(@RequestBody List<Long> userIds) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "online", webSocketNotificationService.getOnlineUserIds(userIds),
+                "timestamp", System.currentTimeMillis()
+            ));
+        } catch (Exception e) {
+            log.error("Error checking presence", e);
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Failed to check presence: " + e.getMessage()
+            ));
+        }
+    }
+
     @GetMapping("/user-status/{userId}")
     @Operation(
         summary = "Check user online status",
@@ -492,4 +533,61 @@ public class WebSocketController {
             ));
         }
     }
+
+    @PostMapping("/sos-call/{callId}/ack")
+    @Operation(
+        summary = "Acknowledge an SOS call",
+        description = "Record that the current caregiver is responding; stops escalation and notifies the patient and other caregivers"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Acknowledgement recorded"),
+        @ApiResponse(responseCode = "403", description = "Access denied"),
+        @ApiResponse(responseCode = "404", description = "Unknown SOS call or not a recipient")
+    })
+    @PreAuthorize("hasRole('CAREGIVER')")
+    public ResponseEntity<Map<String, Object>> acknowledgeSOSCall(
+            @Parameter(description = "SOS call ID") @PathVariable String callId) {
+        User caregiver = getCurrentUser();
+        if (!sosDispatchService.acknowledge(callId, caregiver.getId())) {
+            return ResponseEntity.status(404).body(Map.of(
+                "success", false,
+                "message", "No active SOS call " + callId + " addressed to this caregiver",
+                "callId", callId
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "callId", callId,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    @GetMapping("/sos-call/{callId}")
+    @Operation(
+        summary = "Get SOS call status",
+        description = "Delivery channels and acknowledgements for each caregiver of an SOS call"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "SOS status retrieved successfully"),
+        @ApiResponse(responseCode = "403", description = "Caller is neither the patient nor a recipient of the SOS"),
+        @ApiResponse(responseCode = "404", description = "Unknown SOS call")
+    })
+    @PreAuthorize("hasRole('PATIENT') or hasRole('CAREGIVER')")
+    public ResponseEntity<Map<String, Object>> getSOSCallStatus(
+            @Parameter(description = "SOS call ID") @PathVariable String callId) {
+        Map<String, Object> status = sosDispatchService.getIncidentStatus(callId).orElse(null);
+        if (status == null) {
+            return ResponseEntity.status(404).body(Map.of(
+                "success", false,
+                "message", "Unknown SOS call: " + callId
+            ));
+        }
+        if (!sosDispatchService.isParticipant(callId, getCurrentUser().getId())) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied to SOS call: " + callId
+            ));
+        }
+        return ResponseEntity.ok(status);
+    }
 }
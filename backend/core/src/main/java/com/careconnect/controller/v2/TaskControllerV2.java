@@ -1,8 +1,10 @@
 package com.careconnect.controller.v2;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -38,6 +40,7 @@ import com.careconnect.service.v2.TaskServiceV2;
  * <li>Get all tasks</li>
  * <li>Get task by ID</li>
  * <li>Get tasks for a patient</li>
+ * <li>Get a patient's tasks in a date range (keyset-paginated)</li>
  * <li>Create a new task for a patient</li>
  * <li>Update an existing task</li>
  * <li>Delete a task (single or entire series)</li>
@@ -104,6 +107,41 @@ public class TaskControllerV2 {
         return ResponseEntity.ok(taskService.getTasksByPatient(patientId));
     }
 
+    /**
+     * Retrieves one page of a patient's tasks dated in {@code [from, to)},
+     * ordered by date and then ID.
+     *
+     * <p>
+     * Endpoint:
+     * {@code GET /v2/api/tasks/patient/{patientId}/range?from=2025-01-01&to=2025-01-08}
+     * </p>
+     *
+     * <p>
+     * For the next page, repeat the request with {@code afterDate} and
+     * {@code afterId} set to the date and ID of the last task received. A page
+     * shorter than {@code limit} is the last one.
+     * </p>
+     *
+     * @param patientId the patient’s ID
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @param afterDate date of the last task of the previous page (optional)
+     * @param afterId   ID of the last task of the previous page (optional)
+     * @param limit     page size (default 100, at most 500)
+     * @return list of {@link TaskDtoV2} objects in the window
+     */
+    @GetMapping("/patient/{patientId}/range")
+    public ResponseEntity<List<TaskDtoV2>> getTasksByPatientInRange(
+            @PathVariable Long patientId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(
+                taskService.getTasksByPatientInRange(patientId, from, to, afterDate, afterId, limit));
+    }
+
     /**
      * Creates a new task for a specific patient.
      *
@@ -169,18 +207,26 @@ public class TaskControllerV2 {
      *      -d '{"isComplete": true}'
      * </pre>
      *
-     * @param id   the unique ID of the task to update
-     * @param body a JSON map containing the {@code isComplete} boolean field
+     * <p>
+     * For an occurrence of a recurring series, pass its
+     * {@code occurrenceDate}; only that occurrence is updated.
+     * </p>
+     *
+     * @param id             the unique ID of the task to update
+     * @param body           a JSON map containing the {@code isComplete} boolean
+     *                       field
+     * @param occurrenceDate occurrence of a series to update (optional)
      * @return the updated {@link TaskDtoV2} with the new completion state
      * @throws TaskNotFoundException if no task exists with the specified ID
      */
     @PutMapping("/{id}/complete")
     public ResponseEntity<TaskDtoV2> updateTaskCompletion(
             @PathVariable Long id,
-            @RequestBody Map<String, Boolean> body) {
+            @RequestBody Map<String, Boolean> body,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate occurrenceDate) {
 
         boolean isComplete = body.getOrDefault("isComplete", false);
-        TaskDtoV2 updated = taskService.updateCompletionStatus(id, isComplete);
+        TaskDtoV2 updated = taskService.updateCompletionStatus(id, isComplete, occurrenceDate);
         return ResponseEntity.ok(updated);
     }
 
@@ -195,16 +241,19 @@ public class TaskControllerV2 {
      * Supports optional deletion of an entire recurring series.
      * </p>
      *
-     * @param id           task ID
-     * @param deleteSeries if {@code true}, deletes all tasks in the series;
-     *                     if {@code false}, deletes only the specified task
+     * @param id             task ID
+     * @param deleteSeries   if {@code true}, deletes all tasks in the series;
+     *                       if {@code false}, deletes only the specified task
+     * @param occurrenceDate occurrence of a series to delete when
+     *                       {@code deleteSeries} is {@code false} (optional)
      * @return {@code 204 No Content} on success
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(
             @PathVariable Long id,
-            @RequestParam(name = "deleteSeries", defaultValue = "false") boolean deleteSeries) {
-        taskService.deleteTask(id, deleteSeries);
+            @RequestParam(name = "deleteSeries", defaultValue = "false") boolean deleteSeries,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate occurrenceDate) {
+        taskService.deleteTask(id, deleteSeries, occurrenceDate);
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,23 @@
+package com.careconnect.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * State of an asynchronous vitals export job
+ */
+@Builder
+public record ExportJobDTO(
+        String jobId,
+        Long patientId,
+        String format,             // CSV or PDF
+        int days,
+        boolean summary,
+        String status,             // QUEUED, RUNNING, COMPLETED or FAILED
+        long bytesWritten,         // progress while running, file size once completed
+        Instant createdAt,
+        Instant completedAt,
+        String error,
+        ExportLinkDTO link         // signed download link, only when completed
+) {}
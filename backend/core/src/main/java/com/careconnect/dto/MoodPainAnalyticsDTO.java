@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -33,8 +34,11 @@ public class MoodPainAnalyticsDTO {
     private Integer minPain;
     private Integer maxPain;
     
-    // Time series data for charts
+    // Time series data for charts; every entry, newest first, unless the range is large
     private List<MoodPainTimeSeriesPoint> timeSeries;
+
+    // Daily means with rolling means, oldest first
+    private List<MoodPainDailyPoint> dailySeries;
     
     @Data
     @Builder
@@ -46,4 +50,17 @@ public class MoodPainAnalyticsDTO {
         private Integer painValue;
         private String note;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MoodPainDailyPoint {
+        private LocalDate date;
+        private Integer entries;
+        private Double avgMood;
+        private Double avgPain;
+        private Double rollingAvgMood;
+        private Double rollingAvgPain;
+    }
 }
@@ -0,0 +1,19 @@
+package com.careconnect.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * One time bucket of one vitals metric, for range-band charts
+ */
+@Builder
+public record VitalBucketDTO(
+        String metric,             // HEART_RATE, SPO2, SYSTOLIC, DIASTOLIC, WEIGHT, MOOD or PAIN
+        Instant bucketStart,
+        Instant bucketEnd,
+        double min,
+        double max,
+        double avg,
+        long count
+) {}
@@ -0,0 +1,32 @@
+package com.careconnect.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Statistics of one type of clinical vital over a period, aggregated in SQL from the typed
+ * columns of {@code vitals}. Blood pressure fills the systolic/diastolic fields, every other
+ * type the value fields, in {@code unit}.
+ */
+@Builder
+public record VitalTrendDTO(
+        String type,               // BLOOD_PRESSURE, HEART_RATE, TEMPERATURE, SPO2, WEIGHT, ...
+        String unit,               // canonical unit: mmHg, bpm, °C, %, kg, mg/dL
+        LocalDateTime periodStart,
+        LocalDateTime periodEnd,
+        long readings,
+        Double avg,
+        Double min,
+        Double max,
+        Double avgSystolic,
+        Double avgDiastolic,
+        Double trendPerDay,        // least-squares slope (of systolic for blood pressure)
+        List<Day> daily
+) {
+    @Builder
+    public record Day(LocalDate date, int readings, Double avg, Double min, Double max,
+                      Double avgSystolic, Double avgDiastolic) {}
+}
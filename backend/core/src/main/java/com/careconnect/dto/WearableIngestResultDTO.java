@@ -0,0 +1,17 @@
+package com.careconnect.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk wearable ingestion request
+ */
+@Builder
+public record WearableIngestResultDTO(
+        long received,             // samples read from the request body
+        long inserted,             // new rows written
+        long duplicates,           // repeated in the request or already stored
+        long rejected,             // failed validation
+        List<String> errors        // first few validation errors, with sample index
+) {}
@@ -0,0 +1,15 @@
+package com.careconnect.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * One wearable reading in a bulk ingestion request
+ */
+@Builder
+public record WearableSampleDTO(
+        String metric,             // WearableMetric.MetricType name, e.g. HEART_RATE
+        Double value,
+        Instant recordedAt
+) {}
@@ -36,7 +36,7 @@ import lombok.NoArgsConstructor;
  * </p>
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TaskDtoV2 {
@@ -129,6 +129,17 @@ public class TaskDtoV2 {
     @Nullable
     private Integer count;
 
+    /**
+     * Last possible date of a recurring series ({@code YYYY-MM-DD}),
+     * inclusive.
+     * <p>
+     * Optional. When both this and {@code count} are given, the series ends
+     * at whichever comes first.
+     * </p>
+     */
+    @Nullable
+    private String until;
+
     /**
      * Days of the week this task applies to.
      *
@@ -199,6 +210,22 @@ public class TaskDtoV2 {
      */
     private Boolean updateSeries;
 
+    /**
+     * Date ({@code YYYY-MM-DD}) of the series occurrence this task stands for.
+     *
+     * <p>
+     * Set on occurrences of a recurring series; an occurrence that has not
+     * been edited carries its series parent's {@code id}, so the pair
+     * {@code (id, occurrenceDate)} identifies it. Send it back on update to
+     * change only that occurrence.
+     * </p>
+     * <p>
+     * Optional.
+     * </p>
+     */
+    @Nullable
+    private String occurrenceDate;
+
     /**
      * Date of the task creation in miliseconds.
      * <p>
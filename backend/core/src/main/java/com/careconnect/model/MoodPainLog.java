@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class MoodPainLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mood_pain_log_id_seq")
+    @SequenceGenerator(name = "mood_pain_log_id_seq", sequenceName = "mood_pain_log_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
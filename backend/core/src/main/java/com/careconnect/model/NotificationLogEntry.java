@@ -0,0 +1,61 @@
+package com.careconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Append-only log entry for a notification pushed to a user over WebSocket.
+ *
+ * Every logged notification gets a per-user, monotonically increasing sequence
+ * number. Clients remember the last sequence they saw and send it back when they
+ * reconnect so that anything delivered while the socket was down can be replayed.
+ */
+@Entity
+@Table(name = "notification_log",
+    uniqueConstraints = @UniqueConstraint(name = "uk_notification_log_user_seq", columnNames = {"user_id", "seq"}),
+    indexes = {
+        @Index(name = "idx_notification_log_created_at", columnList = "created_at")
+    })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Recipient user ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Per-user sequence number (offset) of this notification
+     */
+    @Column(name = "seq", nullable = false)
+    private Long seq;
+
+    /**
+     * Notification type, e.g. "medication-reminder" or "vital-signs-alert"
+     */
+    @Column(name = "notification_type", nullable = false, length = 64)
+    private String notificationType;
+
+    /**
+     * Full notification payload as JSON
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
@@ -1,5 +1,6 @@
 package com.careconnect.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
@@ -13,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -58,7 +60,9 @@ public class ScheduledNotification {
      * Primary key (auto-generated).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_notification_id_seq")
+    @SequenceGenerator(name = "scheduled_notification_id_seq", sequenceName = "scheduled_notification_id_seq",
+            allocationSize = 50)
     private Long id;
 
     /**
@@ -126,6 +130,8 @@ public class ScheduledNotification {
      * Possible values:
      * <ul>
      * <li>{@code PENDING} – waiting to be sent</li>
+     * <li>{@code LEASED} – held by a dispatcher node until its scheduled time</li>
+     * <li>{@code SENDING} – claimed for delivery by the lease holder</li>
      * <li>{@code SENT} – successfully delivered</li>
      * <li>{@code FAILED} – delivery attempt failed</li>
      * <li>{@code CANCELLED} – cancelled before sending</li>
@@ -151,6 +157,28 @@ public class ScheduledNotification {
      */
     private String errorMessage;
 
+    /**
+     * Identifier of the dispatcher node currently holding this notification.
+     * <p>
+     * Set while the row is {@code LEASED}; null otherwise.
+     * </p>
+     */
+    private String leasedBy;
+
+    /**
+     * Time after which an unfinished lease may be taken over by another node.
+     */
+    private LocalDateTime leaseUntil;
+
+    /**
+     * Series occurrence this reminder was materialized for.
+     * <p>
+     * {@code null} for the task's own reminders, which on a series parent are
+     * also the templates copied to later occurrences.
+     * </p>
+     */
+    private LocalDate occurrenceDate;
+
     /**
      * Timestamp when the notification record was created.
      * <p>
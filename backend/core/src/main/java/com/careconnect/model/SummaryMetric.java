@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
 
+/**
+ * Pre-aggregated analytics for one patient over one window. {@code HOUR} and {@code DAY}
+ * buckets are maintained by the rollup engine and hold sums and counts, so buckets can be
+ * added together to answer any period.
+ */
 @Entity
 @Table(
     name = "summary_metrics",
@@ -25,7 +31,12 @@ public class SummaryMetric extends Auditable {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_user_id", nullable = false)
-    private Patient patient;
+    private User patient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    @Builder.Default
+    private Granularity granularity = Granularity.CUSTOM;
 
     @Column(name = "period_start", nullable = false)
     private Instant periodStart;
@@ -39,9 +50,63 @@ public class SummaryMetric extends Auditable {
     @Column(name = "avg_heart_rate")
     private Double avgHeartRate;
 
+    @Column(name = "symptom_total", nullable = false)
+    private long symptomTotal;
+
+    @Column(name = "symptom_completed", nullable = false)
+    private long symptomCompleted;
+
+    @Column(name = "heart_rate_sum", nullable = false)
+    private double heartRateSum;
+
+    @Column(name = "heart_rate_count", nullable = false)
+    private long heartRateCount;
+
+    @Column(name = "spo2_sum", nullable = false)
+    private double spo2Sum;
+
+    @Column(name = "spo2_count", nullable = false)
+    private long spo2Count;
+
+    @Column(name = "systolic_sum", nullable = false)
+    private double systolicSum;
+
+    @Column(name = "systolic_count", nullable = false)
+    private long systolicCount;
+
+    @Column(name = "diastolic_sum", nullable = false)
+    private double diastolicSum;
+
+    @Column(name = "diastolic_count", nullable = false)
+    private long diastolicCount;
+
+    @Column(name = "weight_sum", nullable = false)
+    private double weightSum;
+
+    @Column(name = "weight_count", nullable = false)
+    private long weightCount;
+
+    @Column(name = "mood_sum", nullable = false)
+    private double moodSum;
+
+    @Column(name = "mood_count", nullable = false)
+    private long moodCount;
+
+    @Column(name = "pain_sum", nullable = false)
+    private double painSum;
+
+    @Column(name = "pain_count", nullable = false)
+    private long painCount;
+
     // createdAt and updatedAt are inherited from Auditable
 
     public Instant getGeneratedAt() {
-        return getGeneratedAt();
+        return getUpdatedAt() != null ? getUpdatedAt().toInstant(ZoneOffset.UTC) : null;
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY,
+        CUSTOM
     }
-}
\ No newline at end of file
+}
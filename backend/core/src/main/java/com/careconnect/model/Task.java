@@ -1,9 +1,12 @@
 package com.careconnect.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+
 import io.micrometer.common.lang.Nullable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
@@ -14,6 +17,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -51,10 +55,12 @@ import lombok.Setter;
 public class Task {
 
     /**
-     * Primary key (auto-generated).
+     * Primary key, allocated from {@code tasks_id_seq} in blocks of 50 so
+     * inserts can be JDBC-batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -86,11 +92,14 @@ public class Task {
     /**
      * The date when the task is scheduled.
      * <p>
-     * Stored as a string; should follow a consistent format
-     * (e.g., ISO-8601) for proper parsing.
+     * Stored as a {@code DATE} column; the time of day is kept separately in
+     * {@link #timeOfDay}. Range queries use the {@code (patient_id, date, id)}
+     * index. The v1 API returns this entity, so its JSON keeps the
+     * {@code YYYY-MM-DDT00:00:00} form the string column used to hold.
      * </p>
      */
-    private String date;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T00:00:00'")
+    private LocalDate date;
 
     /**
      * Optional time of day when the task should be performed
@@ -214,4 +223,53 @@ public class Task {
     @Nullable
     private Long parentTaskId;
 
+    /**
+     * Series occurrence this row stands in for.
+     *
+     * <p>
+     * Occurrences of a series are expanded from the parent's rule on read;
+     * only exceptions are stored, as children whose {@code occurrenceDate} is
+     * the rule date they replace (their {@link #date} may differ if the
+     * occurrence was moved). {@code null} on parents and one-off tasks.
+     * </p>
+     */
+    @Nullable
+    private LocalDate occurrenceDate;
+
+    /**
+     * Whether this exception removes its occurrence from the series.
+     */
+    @Builder.Default
+    private boolean cancelled = false;
+
+    /**
+     * Optional last date of a series (inclusive); the series ends here or
+     * after {@link #doCount} occurrences, whichever comes first.
+     */
+    @Nullable
+    private LocalDate recurrenceUntil;
+
+    /**
+     * Date of the last occurrence of a series, derived from the rule when it
+     * is saved so series overlapping a window can be found without expanding
+     * them. {@code null} unless this is a parent with more than one
+     * occurrence.
+     */
+    @Nullable
+    private LocalDate recurrenceEnd;
+
+    /**
+     * Last occurrence date for which reminders have been materialized from
+     * this parent's notification templates.
+     */
+    @Nullable
+    private LocalDate remindersThrough;
+
+    /**
+     * @return whether this row is the parent of a repeating series
+     */
+    public boolean isSeriesParent() {
+        return parentTaskId == null && recurrenceEnd != null;
+    }
+
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.careconnect.model;
 
 import jakarta.persistence.*;
+import com.careconnect.util.VitalValueParser;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -49,4 +50,35 @@ public class Vital {
     @Column(name = "created_at")
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Typed copy of value/unit, written on every save so trends and thresholds run in SQL
+    @Column(name = "canonical_type")
+    private String canonicalType; // BLOOD_PRESSURE, HEART_RATE, TEMPERATURE, etc.
+
+    @Column(name = "numeric_value")
+    private Double numericValue; // In canonicalUnit; null for blood pressure
+
+    @Column(name = "systolic")
+    private Integer systolic;
+
+    @Column(name = "diastolic")
+    private Integer diastolic;
+
+    @Column(name = "canonical_unit")
+    private String canonicalUnit; // mmHg, bpm, °C, kg, %, mg/dL
+
+    @Column(name = "normalized_at")
+    private LocalDateTime normalizedAt; // Null until parsed (rows from before the typed columns)
+
+    @PrePersist
+    @PreUpdate
+    protected void normalize() {
+        VitalValueParser.Parsed parsed = VitalValueParser.parse(vitalType, value, unit);
+        this.canonicalType = parsed.type();
+        this.numericValue = parsed.numericValue();
+        this.systolic = parsed.systolic();
+        this.diastolic = parsed.diastolic();
+        this.canonicalUnit = parsed.unit();
+        this.normalizedAt = LocalDateTime.now();
+    }
 }
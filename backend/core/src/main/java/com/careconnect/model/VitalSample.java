@@ -13,7 +13,8 @@ import java.time.Instant;
 public class VitalSample {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vital_sample_id_seq")
+    @SequenceGenerator(name = "vital_sample_id_seq", sequenceName = "vital_sample_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
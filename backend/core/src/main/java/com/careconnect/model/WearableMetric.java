@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "wearable_metric")
+@Table(name = "wearable_metric",
+       uniqueConstraints = @UniqueConstraint(name = "uq_wearable_metric_patient_metric_time",
+                                             columnNames = {"patient_user_id", "metric", "recorded_at"}))
 @EqualsAndHashCode(callSuper = false)
 @Data
 @NoArgsConstructor
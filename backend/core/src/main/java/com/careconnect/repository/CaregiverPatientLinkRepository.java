@@ -40,6 +40,13 @@ public interface CaregiverPatientLinkRepository extends JpaRepository<CaregiverP
     @Query("SELECT cpl FROM CaregiverPatientLink cpl WHERE cpl.patientUser = :patientUser AND cpl.status = 'ACTIVE' AND (cpl.expiresAt IS NULL OR cpl.expiresAt > :now)")
     List<CaregiverPatientLink> findActiveCaregiversByPatient(@Param("patientUser") User patientUser, @Param("now") LocalDateTime now);
 
+    // Caregiver routes (patient -> caregiver contact) for every active link, without loading entities
+    @Query("SELECT cpl.patientUser.id AS patientUserId, c.id AS caregiverUserId, c.name AS caregiverName, c.email AS caregiverEmail FROM CaregiverPatientLink cpl JOIN cpl.caregiverUser c WHERE cpl.status = 'ACTIVE' AND (cpl.expiresAt IS NULL OR cpl.expiresAt > :now)")
+    List<CaregiverRoute> findAllActiveRoutes(@Param("now") LocalDateTime now);
+
+    @Query("SELECT cpl.patientUser.id AS patientUserId, c.id AS caregiverUserId, c.name AS caregiverName, c.email AS caregiverEmail FROM CaregiverPatientLink cpl JOIN cpl.caregiverUser c WHERE cpl.patientUser.id = :patientUserId AND cpl.status = 'ACTIVE' AND (cpl.expiresAt IS NULL OR cpl.expiresAt > :now)")
+    List<CaregiverRoute> findActiveRoutesByPatient(@Param("patientUserId") Long patientUserId, @Param("now") LocalDateTime now);
+
     // Find expired links that need status update
     @Query("SELECT cpl FROM CaregiverPatientLink cpl WHERE cpl.expiresAt IS NOT NULL AND cpl.expiresAt < :now AND cpl.status = 'ACTIVE'")
     List<CaregiverPatientLink> findExpiredActiveLinks(@Param("now") LocalDateTime now);
@@ -49,4 +56,11 @@ public interface CaregiverPatientLinkRepository extends JpaRepository<CaregiverP
 
     // Find links created by a specific user
     List<CaregiverPatientLink> findByCreatedBy(User createdBy);
+
+    interface CaregiverRoute {
+        Long getPatientUserId();
+        Long getCaregiverUserId();
+        String getCaregiverName();
+        String getCaregiverEmail();
+    }
 }
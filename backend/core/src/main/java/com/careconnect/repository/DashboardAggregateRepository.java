@@ -0,0 +1,99 @@
+package com.careconnect.repository;
+
+import com.careconnect.dto.DashboardDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Live dashboard aggregates computed straight from {@code symptom_entry},
+ * {@code wearable_metric} and {@code mood_pain_log}.
+ *
+ * <p>
+ * The patient lookup, adherence counts, every vital average and the mood/pain aggregates
+ * are produced by one statement using conditional aggregation, so a dashboard that cannot
+ * be served from rollups costs a single round trip instead of one query per figure.
+ * Rounding matches {@code DashboardDTO}'s conventions (0 when a vital has no readings,
+ * {@code null} mood/pain when there are no entries).
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class DashboardAggregateRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Dashboard for a patient over {@code [from, to]}
+     *
+     * @param patientId patient table ID
+     * @return empty if the patient does not exist
+     */
+    public Optional<DashboardDTO> aggregate(Long patientId, Instant from, Instant to) {
+        var params = new MapSqlParameterSource()
+                .addValue("patientId", patientId)
+                .addValue("from", Timestamp.valueOf(LocalDateTime.ofInstant(from, ZoneOffset.UTC)))
+                .addValue("to", Timestamp.valueOf(LocalDateTime.ofInstant(to, ZoneOffset.UTC)));
+
+        return jdbc.query("""
+                WITH pt AS (
+                    SELECT id, user_id FROM patient WHERE id = :patientId
+                ), sym AS (
+                    SELECT COUNT(*) AS total,
+                           COUNT(*) FILTER (WHERE s.completed) AS completed
+                    FROM symptom_entry s JOIN pt ON s.patient_id = pt.id
+                    WHERE s.taken_at BETWEEN :from AND :to
+                ), vit AS (
+                    SELECT AVG(w.metric_value) FILTER (WHERE w.metric = 'HEART_RATE') AS heart_rate,
+                           AVG(w.metric_value) FILTER (WHERE w.metric = 'SPO2') AS spo2,
+                           AVG(w.metric_value) FILTER (WHERE w.metric = 'BLOOD_PRESSURE_SYS') AS systolic,
+                           AVG(w.metric_value) FILTER (WHERE w.metric = 'BLOOD_PRESSURE_DIA') AS diastolic,
+                           AVG(w.metric_value) FILTER (WHERE w.metric = 'WEIGHT') AS weight
+                    FROM wearable_metric w JOIN pt ON w.patient_user_id = pt.user_id
+                    WHERE w.recorded_at BETWEEN :from AND :to
+                      AND w.metric IN ('HEART_RATE', 'SPO2', 'BLOOD_PRESSURE_SYS', 'BLOOD_PRESSURE_DIA', 'WEIGHT')
+                ), mp AS (
+                    SELECT AVG(m.mood_value) AS mood,
+                           AVG(m.pain_value) AS pain,
+                           COUNT(m.mood_value) AS mood_entries,
+                           COUNT(m.pain_value) AS pain_entries
+                    FROM mood_pain_log m JOIN pt ON m.patient_id = pt.id
+                    WHERE m.timestamp BETWEEN :from AND :to
+                )
+                SELECT CASE WHEN sym.total = 0 THEN 0
+                            ELSE ROUND(sym.completed * 100.0 / sym.total, 1) END AS adherence_rate,
+                       ROUND(COALESCE(vit.heart_rate, 0)::numeric, 0) AS avg_heart_rate,
+                       ROUND(COALESCE(vit.spo2, 0)::numeric, 1) AS avg_spo2,
+                       ROUND(COALESCE(vit.systolic, 0)::numeric, 0) AS avg_systolic,
+                       ROUND(COALESCE(vit.diastolic, 0)::numeric, 0) AS avg_diastolic,
+                       ROUND(COALESCE(vit.weight, 0)::numeric, 1) AS avg_weight,
+                       ROUND(mp.mood, 1) AS avg_mood,
+                       ROUND(mp.pain, 1) AS avg_pain,
+                       mp.mood_entries,
+                       mp.pain_entries
+                FROM pt, sym, vit, mp
+                """, params, (rs, i) -> DashboardDTO.builder()
+                        .periodStart(from)
+                        .periodEnd(to)
+                        .adherenceRate(rs.getDouble("adherence_rate"))
+                        .avgHeartRate(rs.getDouble("avg_heart_rate"))
+                        .avgSpo2(rs.getDouble("avg_spo2"))
+                        .avgSystolic(rs.getDouble("avg_systolic"))
+                        .avgDiastolic(rs.getDouble("avg_diastolic"))
+                        .avgWeight(rs.getDouble("avg_weight"))
+                        .avgMood(rs.getObject("avg_mood") != null ? rs.getDouble("avg_mood") : null)
+                        .avgPain(rs.getObject("avg_pain") != null ? rs.getDouble("avg_pain") : null)
+                        .moodEntries(rs.getInt("mood_entries"))
+                        .painEntries(rs.getInt("pain_entries"))
+                        .build())
+                .stream()
+                .findFirst();
+    }
+}
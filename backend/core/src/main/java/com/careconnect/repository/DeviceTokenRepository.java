@@ -7,7 +7,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +35,23 @@ public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long>
     
     @Query("SELECT dt FROM DeviceToken dt WHERE dt.user.id IN :userIds AND dt.isActive = true")
     List<DeviceToken> findActiveTokensByUserIds(@Param("userIds") List<Long> userIds);
+
+    /**
+     * Active tokens of several users, without loading the entities
+     */
+    @Query("SELECT dt.user.id AS userId, dt.fcmToken AS fcmToken FROM DeviceToken dt WHERE dt.user.id IN :userIds AND dt.isActive = true")
+    List<UserToken> findActiveUserTokens(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Deactivate tokens the push provider reported as invalid, in one statement
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE DeviceToken dt SET dt.isActive = false, dt.updatedAt = :now WHERE dt.fcmToken IN :fcmTokens AND dt.isActive = true")
+    int deactivateByFcmTokens(@Param("fcmTokens") Collection<String> fcmTokens, @Param("now") Instant now);
+
+    interface UserToken {
+        Long getUserId();
+        String getFcmToken();
+    }
 }
@@ -0,0 +1,144 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mood and pain statistics over {@code mood_pain_log}, aggregated in the database so that
+ * only a summary row and one row per day leave it, however long the range.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MoodPainAnalyticsRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Totals of a range; trends are least-squares slopes per entry, in timestamp order
+     */
+    public record Summary(long entries, long moodEntries, long painEntries,
+                          Double avgMood, Double avgPain,
+                          Integer minMood, Integer maxMood, Integer minPain, Integer maxPain,
+                          Double moodTrend, Double painTrend) {}
+
+    /**
+     * One day of a range; rolling means cover the preceding days of the window within the range
+     */
+    public record DailyPoint(LocalDate day, int entries, double avgMood, double avgPain,
+                             double rollingMood, double rollingPain) {}
+
+    /**
+     * One entry of a range
+     */
+    public record Entry(LocalDateTime timestamp, int moodValue, int painValue, String note) {}
+
+    public Summary summary(Long patientId, LocalDateTime from, LocalDateTime to) {
+        return jdbc.queryForObject("""
+                SELECT COUNT(*) AS entries,
+                       COUNT(l.mood_value) AS mood_entries,
+                       COUNT(l.pain_value) AS pain_entries,
+                       AVG(l.mood_value)::float8 AS avg_mood,
+                       AVG(l.pain_value)::float8 AS avg_pain,
+                       MIN(l.mood_value) AS min_mood,
+                       MAX(l.mood_value) AS max_mood,
+                       MIN(l.pain_value) AS min_pain,
+                       MAX(l.pain_value) AS max_pain,
+                       regr_slope(l.mood_value, l.x) AS mood_trend,
+                       regr_slope(l.pain_value, l.x) AS pain_trend
+                FROM (
+                    SELECT m.mood_value, m.pain_value,
+                           ROW_NUMBER() OVER (ORDER BY m.timestamp, m.id) - 1 AS x
+                    FROM mood_pain_log m
+                    WHERE m.patient_id = :patient
+                      AND m.timestamp BETWEEN :from AND :to
+                ) l
+                """, params(patientId, from, to), (rs, i) -> new Summary(
+                rs.getLong("entries"),
+                rs.getLong("mood_entries"),
+                rs.getLong("pain_entries"),
+                nullableDouble(rs, "avg_mood"),
+                nullableDouble(rs, "avg_pain"),
+                nullableInt(rs, "min_mood"),
+                nullableInt(rs, "max_mood"),
+                nullableInt(rs, "min_pain"),
+                nullableInt(rs, "max_pain"),
+                nullableDouble(rs, "mood_trend"),
+                nullableDouble(rs, "pain_trend")));
+    }
+
+    /**
+     * Daily means with rolling means over {@code rollingDays} days, oldest first. Rolling
+     * means weight every entry equally rather than every day.
+     */
+    public List<DailyPoint> daily(Long patientId, LocalDateTime from, LocalDateTime to, int rollingDays) {
+        return jdbc.query("""
+                SELECT d.day, d.entries,
+                       d.mood_sum / d.entries AS avg_mood,
+                       d.pain_sum / d.entries AS avg_pain,
+                       SUM(d.mood_sum) OVER w / SUM(d.entries) OVER w AS rolling_mood,
+                       SUM(d.pain_sum) OVER w / SUM(d.entries) OVER w AS rolling_pain
+                FROM (
+                    SELECT date_trunc('day', m.timestamp) AS day,
+                           COUNT(*) AS entries,
+                           SUM(m.mood_value)::float8 AS mood_sum,
+                           SUM(m.pain_value)::float8 AS pain_sum
+                    FROM mood_pain_log m
+                    WHERE m.patient_id = :patient
+                      AND m.timestamp BETWEEN :from AND :to
+                    GROUP BY 1
+                ) d
+                WINDOW w AS (ORDER BY d.day RANGE BETWEEN make_interval(days => :preceding) PRECEDING AND CURRENT ROW)
+                ORDER BY d.day
+                """, params(patientId, from, to).addValue("preceding", Math.max(0, rollingDays - 1)),
+                (rs, i) -> new DailyPoint(
+                        rs.getTimestamp("day").toLocalDateTime().toLocalDate(),
+                        rs.getInt("entries"),
+                        rs.getDouble("avg_mood"),
+                        rs.getDouble("avg_pain"),
+                        rs.getDouble("rolling_mood"),
+                        rs.getDouble("rolling_pain")));
+    }
+
+    /**
+     * Entries of a range, newest first
+     */
+    public List<Entry> entries(Long patientId, LocalDateTime from, LocalDateTime to) {
+        return jdbc.query("""
+                SELECT m.timestamp, m.mood_value, m.pain_value, m.note
+                FROM mood_pain_log m
+                WHERE m.patient_id = :patient
+                  AND m.timestamp BETWEEN :from AND :to
+                ORDER BY m.timestamp DESC
+                """, params(patientId, from, to), (rs, i) -> new Entry(
+                rs.getTimestamp("timestamp").toLocalDateTime(),
+                rs.getInt("mood_value"),
+                rs.getInt("pain_value"),
+                rs.getString("note")));
+    }
+
+    private static MapSqlParameterSource params(Long patientId, LocalDateTime from, LocalDateTime to) {
+        return new MapSqlParameterSource()
+                .addValue("patient", patientId)
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
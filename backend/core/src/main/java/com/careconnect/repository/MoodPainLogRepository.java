@@ -84,4 +84,19 @@ public interface MoodPainLogRepository extends JpaRepository<MoodPainLog, Long>
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
+
+    /**
+     * Mood and pain values of a patient's logs since a timestamp, oldest first
+     */
+    @Query("SELECT m.timestamp AS timestamp, m.moodValue AS moodValue, m.painValue AS painValue FROM MoodPainLog m WHERE m.patient.id = :patientId AND m.timestamp >= :from ORDER BY m.timestamp")
+    List<MoodPainPoint> findPointsSince(
+        @Param("patientId") Long patientId,
+        @Param("from") LocalDateTime from
+    );
+
+    interface MoodPainPoint {
+        LocalDateTime getTimestamp();
+        Integer getMoodValue();
+        Integer getPainValue();
+    }
 }
@@ -0,0 +1,65 @@
+package com.careconnect.repository;
+
+import com.careconnect.model.NotificationLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationLogRepository extends JpaRepository<NotificationLogEntry, Long> {
+
+    /**
+     * Entries for a user after the given offset, oldest first (replay on reconnect)
+     */
+    List<NotificationLogEntry> findByUserIdAndSeqGreaterThanOrderBySeqAsc(Long userId, Long seq, Pageable pageable);
+
+    /**
+     * Highest sequence number written for a user
+     */
+    @Query("SELECT MAX(n.seq) FROM NotificationLogEntry n WHERE n.userId = :userId")
+    Optional<Long> findMaxSeqByUserId(@Param("userId") Long userId);
+
+    /**
+     * Highest sequence number written for every user with a log (seeds the counters on startup)
+     */
+    @Query("SELECT n.userId AS userId, MAX(n.seq) AS maxSeq FROM NotificationLogEntry n GROUP BY n.userId")
+    List<UserSeq> findMaxSeqPerUser();
+
+    /**
+     * TTL: delete entries older than the cutoff, except each user's newest entry, which
+     * keeps the user's sequence from restarting once everything else has expired
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM NotificationLogEntry n WHERE n.createdAt < :cutoff
+            AND n.seq < (SELECT MAX(m.seq) FROM NotificationLogEntry m WHERE m.userId = n.userId)
+            """)
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Compaction: keep only the newest {@code keep} entries per user
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM notification_log n
+            USING (SELECT user_id, MAX(seq) AS max_seq FROM notification_log GROUP BY user_id) m
+            WHERE n.user_id = m.user_id AND n.seq <= m.max_seq - :keep
+            """, nativeQuery = true)
+    int compactToLatest(@Param("keep") long keep);
+
+    /**
+     * A user's highest logged sequence number
+     */
+    interface UserSeq {
+        Long getUserId();
+
+        Long getMaxSeq();
+    }
+}
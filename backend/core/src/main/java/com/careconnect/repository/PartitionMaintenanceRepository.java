@@ -0,0 +1,62 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Creates and drops the monthly range partitions of the vitals tables through the
+ * {@code create_monthly_partitions} and {@code drop_monthly_partitions_before} functions
+ * installed by migration V38. Partitions are named {@code <table>_pYYYY_MM}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionMaintenanceRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Whether {@code table} is a partitioned table, i.e. whether V38 has been applied
+     */
+    public boolean isPartitioned(String table) {
+        Boolean partitioned = jdbc.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p
+                               JOIN pg_class c ON c.oid = p.partrelid
+                               WHERE c.relname = :table AND pg_table_is_visible(c.oid))
+                """, new MapSqlParameterSource("table", table), Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /**
+     * Create the missing monthly partitions from the month of {@code from} to the month of {@code to}
+     *
+     * @return number of partitions created
+     */
+    public int createMonthlyPartitions(String table, LocalDate from, LocalDate to) {
+        Integer created = jdbc.queryForObject("SELECT create_monthly_partitions(:table, :from, :to)",
+                new MapSqlParameterSource()
+                        .addValue("table", table)
+                        .addValue("from", Date.valueOf(from))
+                        .addValue("to", Date.valueOf(to)),
+                Integer.class);
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Drop the monthly partitions that end on or before {@code cutoff}
+     *
+     * @return names of the dropped partitions
+     */
+    public List<String> dropPartitionsBefore(String table, LocalDate cutoff) {
+        return jdbc.queryForList("SELECT drop_monthly_partitions_before(:table, :cutoff)",
+                new MapSqlParameterSource()
+                        .addValue("table", table)
+                        .addValue("cutoff", Date.valueOf(cutoff)),
+                String.class);
+    }
+}
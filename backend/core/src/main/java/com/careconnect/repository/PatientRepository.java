@@ -3,6 +3,8 @@ package com.careconnect.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import com.careconnect.model.Patient;
 import com.careconnect.model.User;
@@ -12,6 +14,7 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     boolean existsByUser(User user);
     boolean existsByIdAndUserId(Long id, Long userId);
     Optional<Patient> findByUserId(Long userId);
+    List<Patient> findByUserIn(Collection<User> users);
 @Query("SELECT COUNT(p) > 0 FROM Patient p JOIN CaregiverPatientLink cpl " +
            "ON p.user.id = cpl.patientUser.id " +
            "WHERE p.id = :patientId AND cpl.caregiverUser.id = :caregiverId " +
@@ -0,0 +1,176 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based lease operations on {@code scheduled_notification} used by the dispatch engine.
+ *
+ * <p>
+ * Rows are leased in batches with {@code FOR UPDATE SKIP LOCKED}, so several nodes can
+ * poll the table concurrently without handing out the same notification twice. A lease
+ * that is not completed before {@code lease_until} (e.g. the node died) becomes
+ * available to other nodes again.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduledNotificationLeaseRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * A leased notification row, carrying only what delivery needs.
+     */
+    public record LeasedNotification(Long id, Long receiverId, String title, String body,
+                                     String notificationType, LocalDateTime scheduledTime, Long taskId) {}
+
+    /**
+     * Outcome of one delivery attempt, applied by {@link #completeFailed}.
+     */
+    public record DeliveryFailure(Long id, String errorMessage) {}
+
+    /**
+     * Lease up to {@code limit} pending (or abandoned) notifications due before {@code horizon}.
+     *
+     * @param node      identifier of the leasing node
+     * @param now       current time
+     * @param horizon   only rows scheduled before this time are leased
+     * @param leaseGraceMinutes how long after its scheduled time a row stays leased
+     * @param limit     maximum rows to lease
+     */
+    @Transactional
+    public List<LeasedNotification> leaseDue(String node, LocalDateTime now, LocalDateTime horizon,
+                                             int leaseGraceMinutes, int limit) {
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("horizon", Timestamp.valueOf(horizon))
+                .addValue("grace", leaseGraceMinutes)
+                .addValue("limit", limit);
+
+        return jdbc.query("""
+                UPDATE scheduled_notification sn
+                SET status = 'LEASED',
+                    leased_by = :node,
+                    lease_until = GREATEST(sn.scheduled_time, :now) + make_interval(mins => :grace),
+                    updated_at = :now
+                WHERE sn.id IN (
+                    SELECT id FROM scheduled_notification
+                    WHERE scheduled_time < :horizon
+                      AND (status = 'PENDING'
+                           OR (status IN ('LEASED', 'SENDING') AND lease_until < :now))
+                    ORDER BY scheduled_time
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING sn.id, sn.receiver_id, sn.title, sn.body, sn.notification_type,
+                          sn.scheduled_time, sn.task_id
+                """, params, (rs, i) -> new LeasedNotification(
+                        rs.getLong("id"),
+                        rs.getLong("receiver_id"),
+                        rs.getString("title"),
+                        rs.getString("body"),
+                        rs.getString("notification_type"),
+                        rs.getTimestamp("scheduled_time").toLocalDateTime(),
+                        rs.getObject("task_id", Long.class)));
+    }
+
+    /**
+     * Move still-leased rows to {@code SENDING} right before delivery. Rows that were
+     * cancelled, edited or deleted while waiting in memory are not returned.
+     */
+    @Transactional
+    public List<Long> claimForDelivery(String node, Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("ids", ids)
+                .addValue("now", Timestamp.valueOf(now));
+        return jdbc.queryForList("""
+                UPDATE scheduled_notification
+                SET status = 'SENDING', updated_at = :now
+                WHERE id IN (:ids) AND status = 'LEASED' AND leased_by = :node
+                RETURNING id
+                """, params, Long.class);
+    }
+
+    /**
+     * Mark delivered notifications as {@code SENT} in a single statement.
+     */
+    @Transactional
+    public int completeSent(String node, Collection<Long> ids, LocalDateTime sentTime) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("ids", ids)
+                .addValue("sentTime", Timestamp.valueOf(sentTime));
+        return jdbc.update("""
+                UPDATE scheduled_notification
+                SET status = 'SENT', sent_time = :sentTime, error_message = NULL,
+                    leased_by = NULL, lease_until = NULL, updated_at = :sentTime
+                WHERE id IN (:ids) AND leased_by = :node
+                """, params);
+    }
+
+    /**
+     * Mark failed notifications as {@code FAILED} with their error, as one JDBC batch.
+     */
+    @Transactional
+    public void completeFailed(String node, List<DeliveryFailure> failures, LocalDateTime now) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = failures.stream()
+                .map(f -> new MapSqlParameterSource()
+                        .addValue("node", node)
+                        .addValue("id", f.id())
+                        .addValue("error", truncate(f.errorMessage()))
+                        .addValue("now", Timestamp.valueOf(now)))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate("""
+                UPDATE scheduled_notification
+                SET status = 'FAILED', error_message = :error,
+                    leased_by = NULL, lease_until = NULL, updated_at = :now
+                WHERE id = :id AND leased_by = :node
+                """, batch);
+    }
+
+    /**
+     * Give leased rows back to the pool (used on shutdown).
+     */
+    @Transactional
+    public int release(String node, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("ids", ids);
+        return jdbc.update("""
+                UPDATE scheduled_notification
+                SET status = 'PENDING', leased_by = NULL, lease_until = NULL
+                WHERE id IN (:ids) AND status = 'LEASED' AND leased_by = :node
+                """, params);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
@@ -1,9 +1,14 @@
 package com.careconnect.repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.careconnect.model.ScheduledNotification;
@@ -30,6 +35,13 @@ import com.careconnect.model.ScheduledNotification;
 @Repository
 public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, Long> {
 
+    /** Columns of a {@link ReminderTemplate}. */
+    String TEMPLATE_SELECT = """
+            SELECT n.task.id AS taskId, n.receiverId AS receiverId, n.title AS title, n.body AS body,
+                   n.notificationType AS notificationType, n.scheduledTime AS scheduledTime
+            FROM ScheduledNotification n
+            """;
+
     /**
      * Finds all notifications that match the given {@code status} and
      * are scheduled before the specified {@code before} time.
@@ -60,4 +72,94 @@ public interface ScheduledNotificationRepository extends JpaRepository<Scheduled
      * @return a list of matching {@link ScheduledNotification} entities
      */
     List<ScheduledNotification> findByReceiverId(Long receiverId);
+
+    /**
+     * Deletes the not-yet-sent reminders materialized for one occurrence of a
+     * series, e.g. when that occurrence is replaced by an exception.
+     *
+     * @param taskId         the ID of the series parent
+     * @param occurrenceDate the occurrence's rule date
+     * @return number of reminders deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            DELETE FROM ScheduledNotification n
+            WHERE n.task.id = :taskId AND n.occurrenceDate = :occurrenceDate
+              AND n.status IN ('PENDING', 'LEASED')
+            """)
+    int deleteUnsentForOccurrence(@Param("taskId") Long taskId,
+            @Param("occurrenceDate") LocalDate occurrenceDate);
+
+    /**
+     * Deletes every not-yet-sent reminder materialized for a series, e.g. after
+     * its rule, time or templates changed.
+     *
+     * @param taskId the ID of the series parent
+     * @return number of reminders deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            DELETE FROM ScheduledNotification n
+            WHERE n.task.id = :taskId AND n.occurrenceDate IS NOT NULL
+              AND n.status IN ('PENDING', 'LEASED')
+            """)
+    int deleteUnsentMaterialized(@Param("taskId") Long taskId);
+
+    /**
+     * Deletes every notification of the given tasks, before the tasks are
+     * deleted in bulk.
+     *
+     * @param taskIds the task IDs
+     * @return number of notifications deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ScheduledNotification n WHERE n.task.id IN :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Deletes every notification of a series parent and its children, before
+     * the series is deleted in bulk.
+     *
+     * @param parentTaskId the ID of the series parent
+     * @return number of notifications deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            DELETE FROM ScheduledNotification n
+            WHERE n.task.id IN (SELECT t.id FROM Task t
+                                WHERE t.id = :parentTaskId OR t.parentTaskId = :parentTaskId)
+            """)
+    int deleteBySeries(@Param("parentTaskId") Long parentTaskId);
+
+    /**
+     * Lists the reminder templates of a patient's tasks (their own reminders,
+     * not those materialized for later occurrences of a series) in one query,
+     * so a task list does not load each task's notifications separately.
+     *
+     * @param patientId the ID of the patient
+     * @return the templates, oldest first
+     */
+    @Query(TEMPLATE_SELECT + "WHERE n.task.patient.id = :patientId AND n.occurrenceDate IS NULL ORDER BY n.id")
+    List<ReminderTemplate> findTemplatesByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Lists the reminder templates of every task in one query.
+     *
+     * @return the templates, oldest first
+     * @see #findTemplatesByPatientId(Long)
+     */
+    @Query(TEMPLATE_SELECT + "WHERE n.occurrenceDate IS NULL ORDER BY n.id")
+    List<ReminderTemplate> findAllTemplates();
+
+    /**
+     * Fields of a reminder template needed to list its task.
+     */
+    interface ReminderTemplate {
+        Long getTaskId();
+        Long getReceiverId();
+        String getTitle();
+        String getBody();
+        String getNotificationType();
+        LocalDateTime getScheduledTime();
+    }
 }
@@ -5,12 +5,9 @@ import org.springframework.stereotype.Repository;
 
 import com.careconnect.model.SummaryMetric;
 
-import java.time.Instant;
-import java.util.List;
-
+/**
+ * Rollup buckets are written and summed set-based by {@link SummaryMetricRollupRepository}.
+ */
 @Repository
 public interface SummaryMetricRepository extends JpaRepository<SummaryMetric, Long> {
-    SummaryMetric findTopByPatient_UserIdAndPeriodStartAndPeriodEndOrderByCreatedAtDesc(
-        Long patientId, Instant periodStart, Instant periodEnd
-    );
 }
@@ -0,0 +1,335 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based maintenance of the {@code HOUR} and {@code DAY} buckets in {@code summary_metrics}.
+ *
+ * <p>
+ * Hour buckets are recomputed from {@code symptom_entry}, {@code wearable_metric} and
+ * {@code mood_pain_log}; day buckets are recomputed from their hour buckets. Buckets hold
+ * sums and counts rather than averages, so a dashboard for any window is answered by adding
+ * up a handful of day buckets plus the hour buckets at its edges. All times are UTC.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class SummaryMetricRollupRepository {
+
+    private static final String AGGREGATE_COLUMNS = """
+            symptom_total, symptom_completed, heart_rate_sum, heart_rate_count, spo2_sum, spo2_count,
+            systolic_sum, systolic_count, diastolic_sum, diastolic_count, weight_sum, weight_count,
+            mood_sum, mood_count, pain_sum, pain_count""";
+
+    private static final String UPSERT = """
+            INSERT INTO summary_metrics (patient_user_id, granularity, period_start, period_end,
+                    %s, adherence_rate, avg_heart_rate, created_at, updated_at)
+            SELECT patient_user_id, granularity, period_start, period_end, %s,
+                   CASE WHEN symptom_total > 0 THEN symptom_completed * 100.0 / symptom_total END,
+                   CASE WHEN heart_rate_count > 0 THEN heart_rate_sum / heart_rate_count END,
+                   now(), now()
+            FROM agg
+            ON CONFLICT (patient_user_id, period_start, period_end) DO UPDATE SET
+                granularity = EXCLUDED.granularity,
+                symptom_total = EXCLUDED.symptom_total, symptom_completed = EXCLUDED.symptom_completed,
+                heart_rate_sum = EXCLUDED.heart_rate_sum, heart_rate_count = EXCLUDED.heart_rate_count,
+                spo2_sum = EXCLUDED.spo2_sum, spo2_count = EXCLUDED.spo2_count,
+                systolic_sum = EXCLUDED.systolic_sum, systolic_count = EXCLUDED.systolic_count,
+                diastolic_sum = EXCLUDED.diastolic_sum, diastolic_count = EXCLUDED.diastolic_count,
+                weight_sum = EXCLUDED.weight_sum, weight_count = EXCLUDED.weight_count,
+                mood_sum = EXCLUDED.mood_sum, mood_count = EXCLUDED.mood_count,
+                pain_sum = EXCLUDED.pain_sum, pain_count = EXCLUDED.pain_count,
+                adherence_rate = EXCLUDED.adherence_rate, avg_heart_rate = EXCLUDED.avg_heart_rate,
+                updated_at = EXCLUDED.updated_at
+            """.formatted(AGGREGATE_COLUMNS, AGGREGATE_COLUMNS);
+
+    private static final String SUM_COLUMNS = """
+            COALESCE(SUM(symptom_total), 0) AS symptom_total,
+            COALESCE(SUM(symptom_completed), 0) AS symptom_completed,
+            COALESCE(SUM(heart_rate_sum), 0) AS heart_rate_sum,
+            COALESCE(SUM(heart_rate_count), 0) AS heart_rate_count,
+            COALESCE(SUM(spo2_sum), 0) AS spo2_sum,
+            COALESCE(SUM(spo2_count), 0) AS spo2_count,
+            COALESCE(SUM(systolic_sum), 0) AS systolic_sum,
+            COALESCE(SUM(systolic_count), 0) AS systolic_count,
+            COALESCE(SUM(diastolic_sum), 0) AS diastolic_sum,
+            COALESCE(SUM(diastolic_count), 0) AS diastolic_count,
+            COALESCE(SUM(weight_sum), 0) AS weight_sum,
+            COALESCE(SUM(weight_count), 0) AS weight_count,
+            COALESCE(SUM(mood_sum), 0) AS mood_sum,
+            COALESCE(SUM(mood_count), 0) AS mood_count,
+            COALESCE(SUM(pain_sum), 0) AS pain_sum,
+            COALESCE(SUM(pain_count), 0) AS pain_count""";
+
+    /** Day buckets in the middle of the window and hour buckets at its edges */
+    private static final String IN_WINDOW = """
+            ((granularity = 'DAY' AND period_start >= :dayFrom AND period_start < :dayTo)
+                 OR (granularity = 'HOUR' AND period_start >= :from AND period_start < :dayFrom)
+                 OR (granularity = 'HOUR' AND period_start >= :dayTo AND period_start < :to))""";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Summed buckets for one patient and window.
+     */
+    public record RollupTotals(long symptomTotal, long symptomCompleted,
+                               double heartRateSum, long heartRateCount,
+                               double spo2Sum, long spo2Count,
+                               double systolicSum, long systolicCount,
+                               double diastolicSum, long diastolicCount,
+                               double weightSum, long weightCount,
+                               double moodSum, long moodCount,
+                               double painSum, long painCount) {
+
+        public static Double average(double sum, long count) {
+            return count == 0 ? null : sum / count;
+        }
+    }
+
+    /**
+     * Summed buckets of a patient looked up by patient table ID.
+     *
+     * @param patientUserId the patient's user ID, {@code null} if it has no account
+     */
+    public record PatientTotals(Long patientUserId, RollupTotals totals) {}
+
+    /**
+     * One day bucket (UTC day).
+     */
+    public record DayTotals(LocalDate day, RollupTotals totals) {}
+
+    /**
+     * An hour bucket whose source rows changed.
+     */
+    public record ChangedBucket(Long patientUserId, LocalDateTime hourStart) {}
+
+    /**
+     * Recompute the hour buckets in {@code [from, to)} and every day bucket they fall in.
+     *
+     * @param patientUserIds patients to roll up, or {@code null} for all patients
+     * @param from           start of the first hour, inclusive
+     * @param to             end of the last hour, exclusive
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void rollup(Collection<Long> patientUserIds, LocalDateTime from, LocalDateTime to) {
+        if (patientUserIds != null && patientUserIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime dayFrom = from.toLocalDate().atStartOfDay();
+        LocalDateTime dayTo = to.toLocalDate().atStartOfDay();
+        if (dayTo.isBefore(to)) {
+            dayTo = dayTo.plusDays(1);
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("patients", patientUserIds != null ? patientUserIds : List.of(-1L))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("dayFrom", Timestamp.valueOf(dayFrom))
+                .addValue("dayTo", Timestamp.valueOf(dayTo));
+        String onlyPatients = patientUserIds != null ? "AND patient_user_id IN (:patients)" : "";
+
+        // Buckets whose last source row was deleted must disappear, so rebuild rather than merge
+        jdbc.update("""
+                DELETE FROM summary_metrics
+                WHERE granularity = 'HOUR' AND period_start >= :from AND period_start < :to %s
+                """.formatted(onlyPatients), params);
+        jdbc.update("""
+                WITH src AS (
+                    SELECT p.user_id AS patient_user_id, s.taken_at AS ts, 'SYMPTOM' AS kind,
+                           NULL::double precision AS val, s.completed AS completed
+                    FROM symptom_entry s JOIN patient p ON p.id = s.patient_id
+                    WHERE s.taken_at >= :from AND s.taken_at < :to %1$s
+                    UNION ALL
+                    SELECT w.patient_user_id, w.recorded_at, w.metric, w.metric_value, NULL
+                    FROM wearable_metric w
+                    WHERE w.recorded_at >= :from AND w.recorded_at < :to %2$s
+                    UNION ALL
+                    SELECT p.user_id, m.timestamp, 'MOOD', m.mood_value::double precision, NULL
+                    FROM mood_pain_log m JOIN patient p ON p.id = m.patient_id
+                    WHERE m.timestamp >= :from AND m.timestamp < :to %1$s
+                    UNION ALL
+                    SELECT p.user_id, m.timestamp, 'PAIN', m.pain_value::double precision, NULL
+                    FROM mood_pain_log m JOIN patient p ON p.id = m.patient_id
+                    WHERE m.timestamp >= :from AND m.timestamp < :to %1$s
+                ), agg AS (
+                    SELECT patient_user_id, 'HOUR' AS granularity,
+                           date_trunc('hour', ts) AS period_start,
+                           date_trunc('hour', ts) + INTERVAL '1 hour' AS period_end,
+                           COUNT(*) FILTER (WHERE kind = 'SYMPTOM') AS symptom_total,
+                           COUNT(*) FILTER (WHERE kind = 'SYMPTOM' AND completed) AS symptom_completed,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'HEART_RATE'), 0) AS heart_rate_sum,
+                           COUNT(*) FILTER (WHERE kind = 'HEART_RATE') AS heart_rate_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'SPO2'), 0) AS spo2_sum,
+                           COUNT(*) FILTER (WHERE kind = 'SPO2') AS spo2_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'BLOOD_PRESSURE_SYS'), 0) AS systolic_sum,
+                           COUNT(*) FILTER (WHERE kind = 'BLOOD_PRESSURE_SYS') AS systolic_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'BLOOD_PRESSURE_DIA'), 0) AS diastolic_sum,
+                           COUNT(*) FILTER (WHERE kind = 'BLOOD_PRESSURE_DIA') AS diastolic_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'WEIGHT'), 0) AS weight_sum,
+                           COUNT(*) FILTER (WHERE kind = 'WEIGHT') AS weight_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'MOOD'), 0) AS mood_sum,
+                           COUNT(*) FILTER (WHERE kind = 'MOOD') AS mood_count,
+                           COALESCE(SUM(val) FILTER (WHERE kind = 'PAIN'), 0) AS pain_sum,
+                           COUNT(*) FILTER (WHERE kind = 'PAIN') AS pain_count
+                    FROM src
+                    GROUP BY patient_user_id, date_trunc('hour', ts)
+                )
+                """.formatted(
+                        patientUserIds != null ? "AND p.user_id IN (:patients)" : "",
+                        patientUserIds != null ? "AND w.patient_user_id IN (:patients)" : "")
+                + UPSERT, params);
+
+        jdbc.update("""
+                DELETE FROM summary_metrics
+                WHERE granularity = 'DAY' AND period_start >= :dayFrom AND period_start < :dayTo %s
+                """.formatted(onlyPatients), params);
+        jdbc.update("""
+                WITH agg AS (
+                    SELECT patient_user_id, 'DAY' AS granularity,
+                           date_trunc('day', period_start) AS period_start,
+                           date_trunc('day', period_start) + INTERVAL '1 day' AS period_end,
+                           SUM(symptom_total) AS symptom_total, SUM(symptom_completed) AS symptom_completed,
+                           SUM(heart_rate_sum) AS heart_rate_sum, SUM(heart_rate_count) AS heart_rate_count,
+                           SUM(spo2_sum) AS spo2_sum, SUM(spo2_count) AS spo2_count,
+                           SUM(systolic_sum) AS systolic_sum, SUM(systolic_count) AS systolic_count,
+                           SUM(diastolic_sum) AS diastolic_sum, SUM(diastolic_count) AS diastolic_count,
+                           SUM(weight_sum) AS weight_sum, SUM(weight_count) AS weight_count,
+                           SUM(mood_sum) AS mood_sum, SUM(mood_count) AS mood_count,
+                           SUM(pain_sum) AS pain_sum, SUM(pain_count) AS pain_count
+                    FROM summary_metrics
+                    WHERE granularity = 'HOUR' AND period_start >= :dayFrom AND period_start < :dayTo %s
+                    GROUP BY patient_user_id, date_trunc('day', period_start)
+                )
+                """.formatted(onlyPatients) + UPSERT, params);
+    }
+
+    /**
+     * Add up the buckets covering {@code [from, to)}: hour buckets for the partial days at
+     * either edge and day buckets for the whole days in between. All bounds must be
+     * hour-aligned, with {@code from <= dayFrom <= dayTo <= to} and the day bounds at midnight.
+     */
+    @Transactional(readOnly = true)
+    public RollupTotals sum(Long patientUserId, LocalDateTime from, LocalDateTime dayFrom,
+                            LocalDateTime dayTo, LocalDateTime to) {
+        var params = windowParams(from, dayFrom, dayTo, to).addValue("patient", patientUserId);
+        return jdbc.queryForObject("""
+                SELECT %s
+                FROM summary_metrics
+                WHERE patient_user_id = :patient AND %s
+                """.formatted(SUM_COLUMNS, IN_WINDOW), params, (rs, i) -> totals(rs));
+    }
+
+    /**
+     * {@link #sum} for a patient table ID, resolving the patient's user ID in the same
+     * statement so the dashboard needs no separate patient lookup.
+     *
+     * @return empty if the patient does not exist; a {@code null} user ID if it has no account
+     */
+    @Transactional(readOnly = true)
+    public Optional<PatientTotals> sumForPatient(Long patientId, LocalDateTime from, LocalDateTime dayFrom,
+                                                 LocalDateTime dayTo, LocalDateTime to) {
+        var params = windowParams(from, dayFrom, dayTo, to).addValue("patientId", patientId);
+        return jdbc.query("""
+                SELECT p.user_id, %s
+                FROM patient p
+                LEFT JOIN summary_metrics ON patient_user_id = p.user_id AND %s
+                WHERE p.id = :patientId
+                GROUP BY p.user_id
+                """.formatted(SUM_COLUMNS, IN_WINDOW), params, (rs, i) -> new PatientTotals(
+                        rs.getObject("user_id") != null ? rs.getLong("user_id") : null, totals(rs)))
+                .stream()
+                .findFirst();
+    }
+
+    private static MapSqlParameterSource windowParams(LocalDateTime from, LocalDateTime dayFrom,
+                                                      LocalDateTime dayTo, LocalDateTime to) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("dayFrom", Timestamp.valueOf(dayFrom))
+                .addValue("dayTo", Timestamp.valueOf(dayTo))
+                .addValue("to", Timestamp.valueOf(to));
+    }
+
+    /**
+     * Day buckets with {@code period_start} in {@code [dayFrom, dayTo)}, oldest first. Days
+     * without any source rows have no bucket and are absent.
+     */
+    @Transactional(readOnly = true)
+    public List<DayTotals> findDays(Long patientUserId, LocalDateTime dayFrom, LocalDateTime dayTo) {
+        var params = new MapSqlParameterSource()
+                .addValue("patient", patientUserId)
+                .addValue("dayFrom", Timestamp.valueOf(dayFrom))
+                .addValue("dayTo", Timestamp.valueOf(dayTo));
+        return jdbc.query("""
+                SELECT period_start, %s
+                FROM summary_metrics
+                WHERE patient_user_id = :patient AND granularity = 'DAY'
+                  AND period_start >= :dayFrom AND period_start < :dayTo
+                ORDER BY period_start
+                """.formatted(AGGREGATE_COLUMNS), params, (rs, i) -> new DayTotals(
+                        rs.getTimestamp("period_start").toLocalDateTime().toLocalDate(), totals(rs)));
+    }
+
+    private static RollupTotals totals(ResultSet rs) throws SQLException {
+        return new RollupTotals(
+                rs.getLong("symptom_total"), rs.getLong("symptom_completed"),
+                rs.getDouble("heart_rate_sum"), rs.getLong("heart_rate_count"),
+                rs.getDouble("spo2_sum"), rs.getLong("spo2_count"),
+                rs.getDouble("systolic_sum"), rs.getLong("systolic_count"),
+                rs.getDouble("diastolic_sum"), rs.getLong("diastolic_count"),
+                rs.getDouble("weight_sum"), rs.getLong("weight_count"),
+                rs.getDouble("mood_sum"), rs.getLong("mood_count"),
+                rs.getDouble("pain_sum"), rs.getLong("pain_count"));
+    }
+
+    /**
+     * Hour buckets containing source rows created or updated since {@code since}. Hard
+     * deletes are not visible here; the write path marks those buckets itself.
+     */
+    @Transactional(readOnly = true)
+    public List<ChangedBucket> findChangedBuckets(LocalDateTime since) {
+        var params = new MapSqlParameterSource("since", Timestamp.valueOf(since));
+        return jdbc.query("""
+                SELECT DISTINCT patient_user_id, date_trunc('hour', ts) AS hour_start
+                FROM (
+                    SELECT p.user_id AS patient_user_id, s.taken_at AS ts
+                    FROM symptom_entry s JOIN patient p ON p.id = s.patient_id
+                    WHERE s.updated_at >= :since
+                    UNION ALL
+                    SELECT w.patient_user_id, w.recorded_at
+                    FROM wearable_metric w
+                    WHERE w.updated_at >= :since
+                    UNION ALL
+                    SELECT p.user_id, m.timestamp
+                    FROM mood_pain_log m JOIN patient p ON p.id = m.patient_id
+                    WHERE m.updated_at >= :since
+                ) changed
+                """, params, (rs, i) -> new ChangedBucket(
+                        rs.getLong("patient_user_id"),
+                        rs.getTimestamp("hour_start").toLocalDateTime()));
+    }
+
+    /**
+     * Whether any rollup bucket has been written yet
+     */
+    @Transactional(readOnly = true)
+    public boolean hasRollups() {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM summary_metrics WHERE granularity IN ('HOUR', 'DAY'))",
+                new MapSqlParameterSource(), Boolean.class));
+    }
+}
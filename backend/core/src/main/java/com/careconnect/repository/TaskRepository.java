@@ -1,9 +1,15 @@
 package com.careconnect.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.careconnect.model.Task;
 import com.careconnect.model.User;
@@ -24,6 +30,18 @@ import com.careconnect.model.User;
  */
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    /** Columns of a {@link TaskRow}. */
+    String ROW_SELECT = """
+            SELECT t.id AS id, t.name AS name, t.description AS description, t.date AS date,
+                   t.timeOfDay AS timeOfDay, t.isCompleted AS completed, t.frequency AS frequency,
+                   t.taskInterval AS taskInterval, t.doCount AS doCount, t.daysOfWeek AS daysOfWeek,
+                   t.taskType AS taskType, t.createdAt AS createdAt, t.patient.id AS patientId,
+                   t.parentTaskId AS parentTaskId, t.occurrenceDate AS occurrenceDate,
+                   t.cancelled AS cancelled, t.recurrenceUntil AS recurrenceUntil,
+                   t.recurrenceEnd AS recurrenceEnd
+            FROM Task t
+            """;
+
     /**
      * Finds all tasks assigned to a given patient.
      *
@@ -52,6 +70,38 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     Optional<List<Task>> findByPatientId(Long patientId);
 
+    /**
+     * Finds all tasks of several patients, e.g. for a caregiver's calendar.
+     *
+     * @param patientIds the IDs of the patients
+     * @return tasks of those patients
+     */
+    List<Task> findByPatientIdIn(Collection<Long> patientIds);
+
+    /**
+     * Lists a patient's tasks as rows holding just the fields of a task DTO.
+     *
+     * <p>
+     * Unlike {@link #findByPatientId(Long)} no entities are hydrated, so the
+     * eagerly fetched {@link Task#getPatient() patient} is neither joined nor
+     * loaded; the patient ID is read from the foreign key.
+     * </p>
+     *
+     * @param patientId the ID of the patient
+     * @return the patient's tasks, including series parents and exceptions
+     */
+    @Query(ROW_SELECT + "WHERE t.patient.id = :patientId")
+    List<TaskRow> findRowsByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Lists every task as a row holding just the fields of a task DTO.
+     *
+     * @return all tasks, including series parents and exceptions
+     * @see #findRowsByPatientId(Long)
+     */
+    @Query(ROW_SELECT)
+    List<TaskRow> findAllRows();
+
     /**
      * Finds all tasks that belong to a recurring series,
      * identified by the parent task’s ID.
@@ -66,4 +116,293 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     List<Task> findByParentTaskId(Long parentTaskId);
 
+    /**
+     * Finds the first page of a patient's stored tasks dated in
+     * {@code [from, to)}, ordered by date and then ID.
+     *
+     * <p>
+     * Returns one-off tasks and series exceptions; cancelled occurrences and
+     * series parents (see {@link #findSeriesInRange}) are left out.
+     * Served by the {@code (patient_id, date, id)} index, so only the rows in
+     * the window are read. Fetch later pages with
+     * {@link #findInRangeAfter(Long, LocalDate, LocalDate, LocalDate, Long, Pageable)}.
+     * </p>
+     *
+     * @param patientId the ID of the patient
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @param page      page size; the page number should stay 0
+     * @return tasks in the window, at most {@code page.getPageSize()}
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.patient.id = :patientId
+              AND t.date >= :from AND t.date < :to
+              AND t.cancelled = false AND t.recurrenceEnd IS NULL
+            ORDER BY t.date, t.id
+            """)
+    List<Task> findInRange(@Param("patientId") Long patientId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Pageable page);
+
+    /**
+     * Finds the next page of a patient's tasks dated in {@code [from, to)},
+     * continuing after the last task of the previous page (keyset pagination).
+     *
+     * <p>
+     * Unlike an offset, the {@code (afterDate, afterId)} cursor seeks straight
+     * into the index and stays stable when tasks are added or deleted between
+     * pages.
+     * </p>
+     *
+     * @param patientId the ID of the patient
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @param afterDate date of the last task already returned
+     * @param afterId   ID of the last task already returned
+     * @param page      page size; the page number should stay 0
+     * @return the following tasks in the window, at most {@code page.getPageSize()}
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.patient.id = :patientId
+              AND t.date >= :from AND t.date < :to
+              AND t.cancelled = false AND t.recurrenceEnd IS NULL
+              AND (t.date > :afterDate OR (t.date = :afterDate AND t.id > :afterId))
+            ORDER BY t.date, t.id
+            """)
+    List<Task> findInRangeAfter(@Param("patientId") Long patientId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable page);
+
+    /**
+     * Finds the parents of a patient's series that have occurrences in
+     * {@code [from, to)}.
+     *
+     * @param patientId the ID of the patient
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @return series parents overlapping the window
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.patient.id = :patientId
+              AND t.parentTaskId IS NULL AND t.recurrenceEnd IS NOT NULL
+              AND t.date < :to AND t.recurrenceEnd >= :from
+            """)
+    List<Task> findSeriesInRange(@Param("patientId") Long patientId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Finds the stored exceptions (completed, edited or cancelled occurrences)
+     * of the given series whose occurrence dates fall in {@code [from, to)}.
+     *
+     * @param parentIds IDs of the series parents
+     * @param from      first occurrence date (inclusive)
+     * @param to        end of the occurrence dates (exclusive)
+     * @return exceptions of the series in the window
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.parentTaskId IN :parentIds
+              AND t.occurrenceDate >= :from AND t.occurrenceDate < :to
+            """)
+    List<Task> findExceptions(@Param("parentIds") Collection<Long> parentIds,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Finds the stored exception for one occurrence of a series.
+     *
+     * @param parentTaskId   the ID of the series parent
+     * @param occurrenceDate the rule date of the occurrence
+     * @return the exception, or empty if the occurrence is still virtual
+     */
+    Optional<Task> findFirstByParentTaskIdAndOccurrenceDate(Long parentTaskId, LocalDate occurrenceDate);
+
+    /**
+     * Finds series parents with reminder templates whose reminders have not
+     * been materialized through {@code horizon}, in ID order after
+     * {@code afterId}.
+     *
+     * @param today   series that ended before today are skipped
+     * @param horizon last occurrence date reminders should exist for
+     * @param afterId ID of the last parent of the previous batch
+     * @param page    batch size; the page number should stay 0
+     * @return series parents needing reminders
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.id > :afterId
+              AND t.parentTaskId IS NULL AND t.recurrenceEnd IS NOT NULL
+              AND t.recurrenceEnd >= :today
+              AND (t.remindersThrough IS NULL OR t.remindersThrough < :horizon)
+              AND EXISTS (SELECT 1 FROM ScheduledNotification n
+                          WHERE n.task = t AND n.occurrenceDate IS NULL)
+            ORDER BY t.id
+            """)
+    List<Task> findSeriesNeedingReminders(@Param("today") LocalDate today,
+            @Param("horizon") LocalDate horizon,
+            @Param("afterId") Long afterId,
+            Pageable page);
+
+    /**
+     * Moves a series' reminder watermark from {@code expected} to
+     * {@code through}, only if no other node moved it first.
+     *
+     * @param id       the ID of the series parent
+     * @param expected the watermark read before materializing (may be {@code null})
+     * @param through  the new watermark
+     * @return 1 if this caller claimed the range, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE tasks SET reminders_through = :through
+            WHERE id = :id AND reminders_through IS NOT DISTINCT FROM CAST(:expected AS DATE)
+            """, nativeQuery = true)
+    int advanceRemindersThrough(@Param("id") Long id,
+            @Param("expected") LocalDate expected,
+            @Param("through") LocalDate through);
+
+    /**
+     * Lists the stored children of a series without loading the entities,
+     * so a rule change can be diffed against them.
+     *
+     * @param parentTaskId the ID of the series parent
+     * @return ID and dates of each child
+     */
+    @Query("""
+            SELECT t.id AS id, t.date AS date, t.occurrenceDate AS occurrenceDate
+            FROM Task t WHERE t.parentTaskId = :parentTaskId
+            ORDER BY t.date, t.id
+            """)
+    List<SeriesChild> findSeriesChildren(@Param("parentTaskId") Long parentTaskId);
+
+    /**
+     * Copies series-wide fields onto every child of a series in one statement.
+     * A {@code null} argument leaves that field unchanged. Name, description and
+     * task type are only copied onto children that still carry the parent's
+     * previous value, so occurrences edited on their own keep their edits.
+     *
+     * @param parentTaskId        the ID of the series parent
+     * @param previousName        the parent's name before the update
+     * @param previousDescription the parent's description before the update
+     * @param previousTaskType    the parent's task type before the update
+     * @param name                new name, or {@code null}
+     * @param description         new description, or {@code null}
+     * @param taskType            new task type, or {@code null}
+     * @param frequency           new frequency, or {@code null}
+     * @param interval            new interval, or {@code null}
+     * @param count               new occurrence count, or {@code null}
+     * @param daysOfWeek          new serialized days-of-week mask, or {@code null}
+     * @return number of children updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Task t SET
+                t.name = CASE WHEN COALESCE(t.name, '') = COALESCE(:previousName, '')
+                    THEN COALESCE(:name, t.name) ELSE t.name END,
+                t.description = CASE WHEN COALESCE(t.description, '') = COALESCE(:previousDescription, '')
+                    THEN COALESCE(:description, t.description) ELSE t.description END,
+                t.taskType = CASE WHEN COALESCE(t.taskType, '') = COALESCE(:previousTaskType, '')
+                    THEN COALESCE(:taskType, t.taskType) ELSE t.taskType END,
+                t.frequency = COALESCE(:frequency, t.frequency),
+                t.taskInterval = COALESCE(:interval, t.taskInterval),
+                t.doCount = COALESCE(:count, t.doCount),
+                t.daysOfWeek = COALESCE(:daysOfWeek, t.daysOfWeek)
+            WHERE t.parentTaskId = :parentTaskId
+            """)
+    int updateSeriesFields(@Param("parentTaskId") Long parentTaskId,
+            @Param("previousName") String previousName,
+            @Param("previousDescription") String previousDescription,
+            @Param("previousTaskType") String previousTaskType,
+            @Param("name") String name,
+            @Param("description") String description,
+            @Param("taskType") String taskType,
+            @Param("frequency") String frequency,
+            @Param("interval") Integer interval,
+            @Param("count") Integer count,
+            @Param("daysOfWeek") String daysOfWeek);
+
+    /**
+     * Moves every child of a series, except {@code newParentId} itself, under
+     * a new parent.
+     *
+     * @param oldParentId the ID of the current parent
+     * @param newParentId the ID of the promoted child
+     * @return number of children moved
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Task t SET t.parentTaskId = :newParentId
+            WHERE t.parentTaskId = :oldParentId AND t.id <> :newParentId
+            """)
+    int reparentSeries(@Param("oldParentId") Long oldParentId, @Param("newParentId") Long newParentId);
+
+    /**
+     * Deletes tasks by ID in one statement. Their notifications must be
+     * deleted first.
+     *
+     * @param ids the task IDs
+     * @return number of tasks deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes a series parent and all of its children in one statement. Their
+     * notifications must be deleted first.
+     *
+     * @param parentTaskId the ID of the series parent
+     * @return number of tasks deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.id = :parentTaskId OR t.parentTaskId = :parentTaskId")
+    int deleteSeries(@Param("parentTaskId") Long parentTaskId);
+
+    /**
+     * ID and dates of a stored series child.
+     */
+    interface SeriesChild {
+        Long getId();
+        LocalDate getDate();
+        LocalDate getOccurrenceDate();
+    }
+
+    /**
+     * Fields of a task needed to list it, read without loading the entity.
+     */
+    interface TaskRow {
+        Long getId();
+        String getName();
+        String getDescription();
+        LocalDate getDate();
+        String getTimeOfDay();
+        boolean isCompleted();
+        String getFrequency();
+        Integer getTaskInterval();
+        Integer getDoCount();
+        String getDaysOfWeek();
+        String getTaskType();
+        Long getCreatedAt();
+        Long getPatientId();
+        Long getParentTaskId();
+        LocalDate getOccurrenceDate();
+        boolean isCancelled();
+        LocalDate getRecurrenceUntil();
+        LocalDate getRecurrenceEnd();
+
+        /**
+         * @return whether this row is a series parent, as {@link Task#isSeriesParent()}
+         */
+        default boolean isSeriesParent() {
+            return getParentTaskId() == null && getRecurrenceEnd() != null;
+        }
+    }
 }
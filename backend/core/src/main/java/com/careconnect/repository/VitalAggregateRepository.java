@@ -0,0 +1,178 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregates over the typed columns of {@code vitals} (see V40), and the chunked backfill of
+ * those columns for rows written before they existed.
+ *
+ * <p>
+ * Blood pressure is aggregated over {@code systolic}/{@code diastolic}; every other type over
+ * {@code numeric_value}, which is already in the type's canonical unit. All range queries
+ * filter on (patient, type, time) and are served by {@code idx_vitals_patient_type_recorded}.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class VitalAggregateRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Totals of one type over a range; {@code trend} is the least-squares slope per day
+     * (of systolic for blood pressure)
+     */
+    public record Summary(long readings, Double avg, Double min, Double max,
+                          Double avgSystolic, Double avgDiastolic, Double trend, String unit) {}
+
+    /**
+     * One day of one type
+     */
+    public record DailyPoint(LocalDate day, int readings, Double avg, Double min, Double max,
+                             Double avgSystolic, Double avgDiastolic) {}
+
+    /**
+     * A row still waiting for its typed columns
+     */
+    public record RawVital(long id, String vitalType, String value, String unit) {}
+
+    /**
+     * Typed columns parsed from a {@link RawVital}
+     */
+    public record Normalized(long id, String canonicalType, Double numericValue, Integer systolic,
+                             Integer diastolic, String canonicalUnit) {}
+
+    public Summary summary(Long patientId, String canonicalType, LocalDateTime from, LocalDateTime to) {
+        return jdbc.queryForObject("""
+                SELECT COUNT(*) AS readings,
+                       AVG(v.numeric_value) AS avg_value,
+                       MIN(v.numeric_value) AS min_value,
+                       MAX(v.numeric_value) AS max_value,
+                       AVG(v.systolic)::float8 AS avg_systolic,
+                       AVG(v.diastolic)::float8 AS avg_diastolic,
+                       regr_slope(COALESCE(v.numeric_value, v.systolic),
+                                  EXTRACT(EPOCH FROM v.recorded_at) / 86400.0) AS trend,
+                       MIN(v.canonical_unit) AS unit
+                FROM vitals v
+                WHERE v.patient_id = :patient
+                  AND v.canonical_type = :type
+                  AND v.recorded_at BETWEEN :from AND :to
+                  AND (v.numeric_value IS NOT NULL OR v.systolic IS NOT NULL)
+                """, params(patientId, canonicalType, from, to), (rs, i) -> new Summary(
+                rs.getLong("readings"),
+                nullableDouble(rs, "avg_value"),
+                nullableDouble(rs, "min_value"),
+                nullableDouble(rs, "max_value"),
+                nullableDouble(rs, "avg_systolic"),
+                nullableDouble(rs, "avg_diastolic"),
+                nullableDouble(rs, "trend"),
+                rs.getString("unit")));
+    }
+
+    /**
+     * Daily statistics of one type, oldest first
+     */
+    public List<DailyPoint> daily(Long patientId, String canonicalType, LocalDateTime from, LocalDateTime to) {
+        return jdbc.query("""
+                SELECT date_trunc('day', v.recorded_at) AS day,
+                       COUNT(*) AS readings,
+                       AVG(v.numeric_value) AS avg_value,
+                       MIN(v.numeric_value) AS min_value,
+                       MAX(v.numeric_value) AS max_value,
+                       AVG(v.systolic)::float8 AS avg_systolic,
+                       AVG(v.diastolic)::float8 AS avg_diastolic
+                FROM vitals v
+                WHERE v.patient_id = :patient
+                  AND v.canonical_type = :type
+                  AND v.recorded_at BETWEEN :from AND :to
+                  AND (v.numeric_value IS NOT NULL OR v.systolic IS NOT NULL)
+                GROUP BY 1
+                ORDER BY 1
+                """, params(patientId, canonicalType, from, to), (rs, i) -> new DailyPoint(
+                rs.getTimestamp("day").toLocalDateTime().toLocalDate(),
+                rs.getInt("readings"),
+                nullableDouble(rs, "avg_value"),
+                nullableDouble(rs, "min_value"),
+                nullableDouble(rs, "max_value"),
+                nullableDouble(rs, "avg_systolic"),
+                nullableDouble(rs, "avg_diastolic")));
+    }
+
+    /**
+     * The next chunk of rows without typed columns, in id order after {@code afterId}
+     */
+    public List<RawVital> findUnnormalized(long afterId, int limit) {
+        return jdbc.query("""
+                SELECT v.id, v.vital_type, v.value, v.unit
+                FROM vitals v
+                WHERE v.normalized_at IS NULL
+                  AND v.id > :afterId
+                ORDER BY v.id
+                LIMIT :limit
+                """, new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit), (rs, i) -> new RawVital(
+                rs.getLong("id"),
+                rs.getString("vital_type"),
+                rs.getString("value"),
+                rs.getString("unit")));
+    }
+
+    /**
+     * Write typed columns for one chunk as a JDBC batch; rows normalized meanwhile by a save
+     * are left alone
+     *
+     * @return rows updated
+     */
+    @Transactional
+    public int writeNormalized(List<Normalized> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        SqlParameterSource[] batch = rows.stream()
+                .map(r -> new MapSqlParameterSource()
+                        .addValue("id", r.id())
+                        .addValue("type", r.canonicalType())
+                        .addValue("value", r.numericValue())
+                        .addValue("systolic", r.systolic())
+                        .addValue("diastolic", r.diastolic())
+                        .addValue("unit", r.canonicalUnit())
+                        .addValue("now", Timestamp.valueOf(now)))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbc.batchUpdate("""
+                UPDATE vitals
+                SET canonical_type = :type, numeric_value = CAST(:value AS float8),
+                    systolic = CAST(:systolic AS integer), diastolic = CAST(:diastolic AS integer),
+                    canonical_unit = :unit, normalized_at = :now
+                WHERE id = :id AND normalized_at IS NULL
+                """, batch);
+        return Arrays.stream(updated).map(n -> Math.max(n, 0)).sum();
+    }
+
+    private static MapSqlParameterSource params(Long patientId, String canonicalType,
+                                                LocalDateTime from, LocalDateTime to) {
+        return new MapSqlParameterSource()
+                .addValue("patient", patientId)
+                .addValue("type", canonicalType)
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
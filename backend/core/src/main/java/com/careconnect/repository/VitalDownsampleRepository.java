@@ -0,0 +1,116 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Fixed-width time buckets over the vitals tables, computed in the database.
+ *
+ * <p>
+ * Used for long chart windows, where shipping every raw row to the application would cost
+ * more than the chart can show. Each bucket carries min/max/avg/count plus the timestamps of
+ * its min and max sample, so callers can draw range bands directly or rebuild a spike-preserving
+ * line from real samples. Metric names follow {@code VitalSampleDTO}: {@code HEART_RATE},
+ * {@code SPO2}, {@code SYSTOLIC}, {@code DIASTOLIC}, {@code WEIGHT}, {@code MOOD}, {@code PAIN}.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class VitalDownsampleRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * One bucket of one metric; timestamps are epoch milliseconds
+     */
+    public record MetricBucket(String metric, long start, double min, long minAt,
+                               double max, long maxAt, double avg, long count) {}
+
+    private static final RowMapper<MetricBucket> BUCKET = (rs, i) -> new MetricBucket(
+            rs.getString("metric"),
+            rs.getLong("bucket_start"),
+            rs.getDouble("min_value"),
+            rs.getLong("min_at"),
+            rs.getDouble("max_value"),
+            rs.getLong("max_at"),
+            rs.getDouble("avg_value"),
+            rs.getLong("samples"));
+
+    /**
+     * Wearable metric buckets over {@code [from, to]}, ordered by metric then time
+     *
+     * @param patientUserId user ID of the patient
+     * @param width         bucket width in milliseconds
+     */
+    public List<MetricBucket> wearableBuckets(Long patientUserId, Instant from, Instant to, long width) {
+        return jdbc.query(bucketed("""
+                SELECT CASE w.metric WHEN 'BLOOD_PRESSURE_SYS' THEN 'SYSTOLIC'
+                                     WHEN 'BLOOD_PRESSURE_DIA' THEN 'DIASTOLIC'
+                                     ELSE w.metric END AS metric,
+                       w.metric_value AS value,
+                       (EXTRACT(EPOCH FROM w.recorded_at AT TIME ZONE 'UTC') * 1000)::bigint AS at_ms
+                FROM wearable_metric w
+                WHERE w.patient_user_id = :patient
+                  AND w.recorded_at BETWEEN :from AND :to
+                  AND w.metric IN ('HEART_RATE', 'SPO2', 'BLOOD_PRESSURE_SYS', 'BLOOD_PRESSURE_DIA', 'WEIGHT')
+                """), utcParams(patientUserId, from, to, width), BUCKET);
+    }
+
+    /**
+     * Mood and pain buckets over {@code [from, to]}, ordered by metric then time
+     *
+     * @param patientId patient table ID
+     * @param width     bucket width in milliseconds
+     */
+    public List<MetricBucket> moodPainBuckets(Long patientId, Instant from, Instant to, long width) {
+        return jdbc.query(bucketed("""
+                SELECT v.metric, v.value,
+                       (EXTRACT(EPOCH FROM m.timestamp AT TIME ZONE 'UTC') * 1000)::bigint AS at_ms
+                FROM mood_pain_log m
+                CROSS JOIN LATERAL (VALUES ('MOOD', m.mood_value::float8),
+                                           ('PAIN', m.pain_value::float8)) AS v(metric, value)
+                WHERE m.patient_id = :patient
+                  AND m.timestamp BETWEEN :from AND :to
+                """), utcParams(patientId, from, to, width), BUCKET);
+    }
+
+    /**
+     * Wrap a {@code (metric, value, at_ms)} source in the shared bucketing aggregate
+     */
+    private static String bucketed(String source) {
+        return """
+                SELECT s.metric,
+                       :fromMs + ((s.at_ms - :fromMs) / :width) * :width AS bucket_start,
+                       MIN(s.value) AS min_value,
+                       MAX(s.value) AS max_value,
+                       AVG(s.value) AS avg_value,
+                       COUNT(*) AS samples,
+                       (ARRAY_AGG(s.at_ms ORDER BY s.value, s.at_ms))[1] AS min_at,
+                       (ARRAY_AGG(s.at_ms ORDER BY s.value DESC, s.at_ms))[1] AS max_at
+                FROM (
+                """ + source + """
+                ) s
+                WHERE s.value IS NOT NULL
+                GROUP BY s.metric, bucket_start
+                ORDER BY s.metric, bucket_start
+                """;
+    }
+
+    private static MapSqlParameterSource utcParams(Long patient, Instant from, Instant to, long width) {
+        return new MapSqlParameterSource()
+                .addValue("patient", patient)
+                .addValue("from", Timestamp.valueOf(LocalDateTime.ofInstant(from, ZoneOffset.UTC)))
+                .addValue("to", Timestamp.valueOf(LocalDateTime.ofInstant(to, ZoneOffset.UTC)))
+                .addValue("fromMs", from.toEpochMilli())
+                .addValue("width", width);
+    }
+}
@@ -0,0 +1,95 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only reads of a patient's vitals for exports.
+ *
+ * <p>
+ * Wearable metrics and mood/pain logs are read as one stream of {@code (timestamp, metric,
+ * value)} rows ordered by timestamp, through a server-side cursor with a fixed fetch size.
+ * Only one fetch is held in memory at a time, so an export of any length runs in constant
+ * memory; callers merge rows sharing a timestamp as they arrive.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class VitalExportRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * One reading; {@code metric} is {@code HEART_RATE}, {@code SPO2}, {@code SYSTOLIC},
+     * {@code DIASTOLIC}, {@code WEIGHT}, {@code MOOD} or {@code PAIN}
+     */
+    public record ExportRow(long recordedAtMillis, String metric, double value) {}
+
+    /**
+     * Stream a patient's readings in {@code [from, to]} to {@code sink}, oldest first. Within
+     * a timestamp rows come in write order, so the last row of a metric is the latest value.
+     * Must run in a transaction for the cursor to be used.
+     *
+     * @param patientId     patient table ID (mood/pain logs)
+     * @param patientUserId user ID of the patient (wearable metrics); may be {@code null}
+     * @return number of rows streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamVitals(Long patientId, Long patientUserId, Instant from, Instant to,
+                             int fetchSize, Consumer<ExportRow> sink) {
+        Timestamp fromTs = Timestamp.valueOf(LocalDateTime.ofInstant(from, ZoneOffset.UTC));
+        Timestamp toTs = Timestamp.valueOf(LocalDateTime.ofInstant(to, ZoneOffset.UTC));
+        long[] rows = {0};
+        jdbc.getJdbcOperations().query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT s.at_ms, s.metric, s.value
+                    FROM (
+                        SELECT (EXTRACT(EPOCH FROM w.recorded_at AT TIME ZONE 'UTC') * 1000)::bigint AS at_ms,
+                               CASE w.metric WHEN 'BLOOD_PRESSURE_SYS' THEN 'SYSTOLIC'
+                                             WHEN 'BLOOD_PRESSURE_DIA' THEN 'DIASTOLIC'
+                                             ELSE w.metric END AS metric,
+                               w.metric_value AS value,
+                               0 AS source,
+                               w.id AS seq
+                        FROM wearable_metric w
+                        WHERE w.patient_user_id = ?
+                          AND w.recorded_at BETWEEN ? AND ?
+                          AND w.metric IN ('HEART_RATE', 'SPO2', 'BLOOD_PRESSURE_SYS', 'BLOOD_PRESSURE_DIA', 'WEIGHT')
+                        UNION ALL
+                        SELECT (EXTRACT(EPOCH FROM m.timestamp AT TIME ZONE 'UTC') * 1000)::bigint,
+                               v.metric, v.value, 1, m.id
+                        FROM mood_pain_log m
+                        CROSS JOIN LATERAL (VALUES ('MOOD', m.mood_value::float8),
+                                                   ('PAIN', m.pain_value::float8)) AS v(metric, value)
+                        WHERE m.patient_id = ?
+                          AND m.timestamp BETWEEN ? AND ?
+                          AND v.value IS NOT NULL
+                    ) s
+                    ORDER BY s.at_ms, s.source, s.seq
+                    """, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setObject(1, patientUserId, Types.BIGINT);
+            ps.setTimestamp(2, fromTs);
+            ps.setTimestamp(3, toTs);
+            ps.setLong(4, patientId);
+            ps.setTimestamp(5, fromTs);
+            ps.setTimestamp(6, toTs);
+            return ps;
+        }, rs -> {
+            sink.accept(new ExportRow(rs.getLong(1), rs.getString(2), rs.getDouble(3)));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+}
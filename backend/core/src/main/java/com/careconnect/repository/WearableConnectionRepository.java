@@ -0,0 +1,228 @@
+package com.careconnect.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Linked wearable provider accounts and their sync state in {@code wearable_connection}.
+ *
+ * <p>
+ * Due connections are leased in batches with {@code FOR UPDATE SKIP LOCKED}, so several
+ * nodes can poll concurrently without syncing the same account twice. A lease that is not
+ * completed before {@code lease_until} (e.g. the node died) becomes available again.
+ * All timestamps are stored as UTC.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class WearableConnectionRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * A leased connection, carrying what one sync needs
+     */
+    public record Connection(Long id, Long patientUserId, String provider, String accessTokenEnc,
+                             String refreshTokenEnc, Instant tokenExpiresAt, String timeZone,
+                             Instant syncCursor, int slotOffsetSeconds, int consecutiveFailures) {}
+
+    /**
+     * Link (or re-link) a provider account; the sync cursor of an existing link is kept
+     */
+    @Transactional
+    public void link(Long patientUserId, String provider, String externalUserId, String accessTokenEnc,
+                     String refreshTokenEnc, Instant tokenExpiresAt, int slotOffsetSeconds,
+                     Instant nextSyncAt, Instant now) {
+        var params = new MapSqlParameterSource()
+                .addValue("userId", patientUserId)
+                .addValue("provider", provider)
+                .addValue("externalUserId", externalUserId)
+                .addValue("access", accessTokenEnc)
+                .addValue("refresh", refreshTokenEnc)
+                .addValue("expiresAt", utc(tokenExpiresAt))
+                .addValue("slot", slotOffsetSeconds)
+                .addValue("nextSyncAt", utc(nextSyncAt))
+                .addValue("now", utc(now));
+        jdbc.update("""
+                INSERT INTO wearable_connection (patient_user_id, provider, external_user_id, access_token_enc,
+                                                 refresh_token_enc, token_expires_at, slot_offset_seconds,
+                                                 next_sync_at, created_at, updated_at)
+                VALUES (:userId, :provider, :externalUserId, :access, :refresh, :expiresAt, :slot,
+                        :nextSyncAt, :now, :now)
+                ON CONFLICT (patient_user_id, provider) DO UPDATE
+                SET external_user_id = EXCLUDED.external_user_id,
+                    access_token_enc = EXCLUDED.access_token_enc,
+                    refresh_token_enc = EXCLUDED.refresh_token_enc,
+                    token_expires_at = EXCLUDED.token_expires_at,
+                    next_sync_at = EXCLUDED.next_sync_at,
+                    consecutive_failures = 0,
+                    last_error = NULL,
+                    active = TRUE,
+                    updated_at = EXCLUDED.updated_at
+                """, params);
+    }
+
+    /**
+     * Lease up to {@code limit} active connections whose next sync is due
+     *
+     * @param node       identifier of the leasing node
+     * @param now        current time
+     * @param leaseUntil when the lease lapses if the sync never completes
+     * @param limit      maximum rows to lease
+     */
+    @Transactional
+    public List<Connection> leaseDue(String node, Instant now, Instant leaseUntil, int limit) {
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("now", utc(now))
+                .addValue("leaseUntil", utc(leaseUntil))
+                .addValue("limit", limit);
+        return jdbc.query("""
+                UPDATE wearable_connection wc
+                SET leased_by = :node, lease_until = :leaseUntil, updated_at = :now
+                WHERE wc.id IN (
+                    SELECT id FROM wearable_connection
+                    WHERE active
+                      AND next_sync_at <= :now
+                      AND (lease_until IS NULL OR lease_until < :now)
+                    ORDER BY next_sync_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING wc.id, wc.patient_user_id, wc.provider, wc.access_token_enc, wc.refresh_token_enc,
+                          wc.token_expires_at, wc.time_zone, wc.sync_cursor, wc.slot_offset_seconds,
+                          wc.consecutive_failures
+                """, params, (rs, i) -> new Connection(
+                        rs.getLong("id"),
+                        rs.getLong("patient_user_id"),
+                        rs.getString("provider"),
+                        rs.getString("access_token_enc"),
+                        rs.getString("refresh_token_enc"),
+                        instant(rs, "token_expires_at"),
+                        rs.getString("time_zone"),
+                        instant(rs, "sync_cursor"),
+                        rs.getInt("slot_offset_seconds"),
+                        rs.getInt("consecutive_failures")));
+    }
+
+    /**
+     * Store refreshed tokens right away, since the provider may have rotated the refresh token
+     */
+    @Transactional
+    public void updateTokens(Long id, String accessTokenEnc, String refreshTokenEnc, Instant tokenExpiresAt,
+                             Instant now) {
+        var params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("access", accessTokenEnc)
+                .addValue("refresh", refreshTokenEnc)
+                .addValue("expiresAt", utc(tokenExpiresAt))
+                .addValue("now", utc(now));
+        jdbc.update("""
+                UPDATE wearable_connection
+                SET access_token_enc = :access, refresh_token_enc = :refresh,
+                    token_expires_at = :expiresAt, updated_at = :now
+                WHERE id = :id
+                """, params);
+    }
+
+    /**
+     * Finish a sync: advance the cursor (never backwards), schedule the next one and release
+     * the lease
+     */
+    @Transactional
+    public void complete(Long id, String node, Instant syncCursor, String timeZone, Instant nextSyncAt,
+                         Instant now) {
+        var params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("node", node)
+                .addValue("cursor", utc(syncCursor))
+                .addValue("timeZone", timeZone)
+                .addValue("nextSyncAt", utc(nextSyncAt))
+                .addValue("now", utc(now));
+        jdbc.update("""
+                UPDATE wearable_connection
+                SET sync_cursor = GREATEST(sync_cursor, CAST(:cursor AS TIMESTAMP)),
+                    time_zone = COALESCE(:timeZone, time_zone),
+                    next_sync_at = :nextSyncAt,
+                    last_synced_at = :now,
+                    consecutive_failures = 0,
+                    last_error = NULL,
+                    leased_by = NULL,
+                    lease_until = NULL,
+                    updated_at = :now
+                WHERE id = :id AND leased_by = :node
+                """, params);
+    }
+
+    /**
+     * Record a failed sync and schedule the retry; a connection whose authorization was
+     * revoked is deactivated until the user links it again
+     */
+    @Transactional
+    public void fail(Long id, String node, String error, Instant nextSyncAt, boolean deactivate, Instant now) {
+        var params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("node", node)
+                .addValue("error", truncate(error))
+                .addValue("nextSyncAt", utc(nextSyncAt))
+                .addValue("active", !deactivate)
+                .addValue("now", utc(now));
+        jdbc.update("""
+                UPDATE wearable_connection
+                SET consecutive_failures = consecutive_failures + 1,
+                    last_error = :error,
+                    next_sync_at = :nextSyncAt,
+                    active = active AND :active,
+                    leased_by = NULL,
+                    lease_until = NULL,
+                    updated_at = :now
+                WHERE id = :id AND leased_by = :node
+                """, params);
+    }
+
+    /**
+     * Give leased rows back to the pool (used on shutdown)
+     */
+    @Transactional
+    public int release(String node, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("node", node)
+                .addValue("ids", ids);
+        return jdbc.update("""
+                UPDATE wearable_connection
+                SET leased_by = NULL, lease_until = NULL
+                WHERE id IN (:ids) AND leased_by = :node
+                """, params);
+    }
+
+    private static Timestamp utc(Instant instant) {
+        return instant == null ? null : Timestamp.valueOf(LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
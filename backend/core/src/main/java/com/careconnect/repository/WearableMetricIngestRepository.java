@@ -0,0 +1,83 @@
+package com.careconnect.repository;
+
+import com.careconnect.model.WearableMetric;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk writes to {@code wearable_metric}.
+ *
+ * <p>
+ * A whole batch is sent as three parallel arrays and expanded with {@code unnest}, so
+ * thousands of samples cost one statement and one round trip. Rows that already exist for
+ * the same patient, metric and timestamp are skipped by the unique index, and only the rows
+ * actually inserted are returned.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class WearableMetricIngestRepository {
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * A row that was written
+     */
+    public record InsertedSample(WearableMetric.MetricType metric, double value, long recordedAtMillis) {}
+
+    /**
+     * Insert a batch for one patient, skipping samples that are already stored
+     *
+     * @param patientUserId     user ID of the patient
+     * @param metrics           metric type names
+     * @param values            metric values
+     * @param recordedAtMillis  sample timestamps in epoch milliseconds (UTC)
+     */
+    @Transactional
+    public List<InsertedSample> insertIgnoringDuplicates(Long patientUserId, String[] metrics,
+                                                         Double[] values, Long[] recordedAtMillis) {
+        if (metrics.length == 0) {
+            return List.of();
+        }
+        return jdbc.execute("""
+                INSERT INTO wearable_metric (patient_user_id, metric, metric_value, recorded_at, created_at, updated_at)
+                SELECT ?, s.metric, s.metric_value,
+                       to_timestamp(s.recorded_at_ms / 1000.0) AT TIME ZONE 'UTC', now(), now()
+                FROM unnest(?::varchar[], ?::float8[], ?::int8[]) AS s(metric, metric_value, recorded_at_ms)
+                ON CONFLICT (patient_user_id, metric, recorded_at) DO NOTHING
+                RETURNING metric, metric_value,
+                          (EXTRACT(EPOCH FROM recorded_at AT TIME ZONE 'UTC') * 1000)::bigint AS recorded_at_ms
+                """, (PreparedStatement ps) -> {
+            Array metricArray = ps.getConnection().createArrayOf("varchar", metrics);
+            Array valueArray = ps.getConnection().createArrayOf("float8", values);
+            Array timeArray = ps.getConnection().createArrayOf("int8", recordedAtMillis);
+            try {
+                ps.setLong(1, patientUserId);
+                ps.setArray(2, metricArray);
+                ps.setArray(3, valueArray);
+                ps.setArray(4, timeArray);
+                List<InsertedSample> inserted = new ArrayList<>();
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        inserted.add(new InsertedSample(
+                                WearableMetric.MetricType.valueOf(rs.getString("metric")),
+                                rs.getDouble("metric_value"),
+                                rs.getLong("recorded_at_ms")));
+                    }
+                }
+                return inserted;
+            } finally {
+                metricArray.free();
+                valueArray.free();
+                timeArray.free();
+            }
+        });
+    }
+}
@@ -29,4 +29,21 @@ public interface WearableMetricRepository
                         @Param("to")     Instant                 to);
 	
 List<WearableMetric> findByPatient_IdAndRecordedAtBetween(Long patientId, Instant from, Instant to);
+
+    /** Column values of a patient's samples recorded since {@code from}, oldest first */
+    @Query("""
+           SELECT w.metric AS metric, w.metricValue AS metricValue, w.recordedAt AS recordedAt
+           FROM   WearableMetric w
+           WHERE  w.patient.id = :userId
+             AND  w.recordedAt >= :from
+           ORDER BY w.recordedAt
+           """)
+    List<MetricPoint> findPointsSince(@Param("userId") Long patientUserId,
+                                      @Param("from")   Instant from);
+
+    interface MetricPoint {
+        WearableMetric.MetricType getMetric();
+        Double getMetricValue();
+        Instant getRecordedAt();
+    }
 }
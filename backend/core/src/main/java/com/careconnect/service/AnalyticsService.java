@@ -1,11 +1,17 @@
 package com.careconnect.service;
 
+import com.careconnect.config.ExportConfig;
 import com.careconnect.dto.*;
-import com.careconnect.model.SummaryMetric;
 import com.careconnect.model.WearableMetric;
 import com.careconnect.model.Patient;
 import com.careconnect.model.User;
 import com.careconnect.repository.*;
+import com.careconnect.repository.SummaryMetricRollupRepository.RollupTotals;
+import com.careconnect.service.analytics.SummaryRollupService;
+import com.careconnect.service.analytics.VitalDownsampler;
+import com.careconnect.service.analytics.VitalRowMerger;
+import com.careconnect.service.analytics.VitalSeriesCache;
+import com.careconnect.util.VitalValueParser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,9 +19,18 @@ import com.lowagie.text.*;
 import com.careconnect.exception.AppException;
 import com.lowagie.text.pdf.*;
 import java.util.Comparator;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Collections;
@@ -30,71 +45,173 @@ import org.springframework.http.HttpStatus;
 @Transactional(readOnly = true)
 public class AnalyticsService {
 
-    private final SymptomEntryRepository symptomRepo;
+    private static final int CSV_BUFFER_CHARS = 16 * 1024;
+
     private final WearableMetricRepository wearableRepo;
-    private final SummaryMetricRepository summaryRepo;
+    private final SummaryRollupService summaryRollupService;
+    private final DashboardAggregateRepository dashboardAggregateRepo;
+    private final VitalSeriesCache vitalSeriesCache;
+    private final VitalDownsampler vitalDownsampler;
+    private final VitalDownsampleRepository vitalDownsampleRepo;
+    private final VitalExportRepository vitalExportRepo;
+    private final ExportConfig exportConfig;
     private final MoodPainLogRepository moodPainLogRepo;
     private final PatientRepository patientRepo;
     private final UserRepository userRepo;
     private final ExportSigner exportSigner;
+    private final VitalAggregateRepository vitalAggregateRepo;
 
 
     /* ---------------- Dashboard ---------------- */
 
-    // MOCK: Replace real DB logic with static mock data for all patients
+    /**
+     * Dashboard for the last {@code period}, summed from the hourly/daily rollup buckets.
+     * When rollups are disabled it is aggregated from the source tables in one statement.
+     */
     public DashboardDTO getDashboard(Long patientId, Period period) {
-        // Original DB-based implementation restored
         Instant to = Instant.now();
         Instant from = to.minus(period);
-        SummaryMetric agg = summaryRepo.findTopByPatient_UserIdAndPeriodStartAndPeriodEndOrderByCreatedAtDesc(patientId, from, to);
-        double adherence;
-        double avgHr;
-        if (agg != null && agg.getGeneratedAt().isAfter(Instant.now().minus(Period.ofDays(1)))) {
-            adherence = agg.getAdherenceRate();
-            avgHr = agg.getAvgHeartRate();
-        } else {
-            long completed = symptomRepo.countCompleted(patientId, from, to);
-            long total = symptomRepo.countTotal(patientId, from, to);
-            adherence = total == 0 ? 0 : (completed * 100.0) / total;
-            Double hr = wearableRepo.avgForPeriod(patientId, WearableMetric.MetricType.HEART_RATE, from, to);
-            avgHr = hr == null ? 0 : hr;
+        if (summaryRollupService.isEnabled()) {
+            Optional<RollupTotals> totals = summaryRollupService.totalsForPatient(patientId, from, to);
+            if (totals.isPresent()) {
+                return toDashboard(from, to, totals.get());
+            }
         }
-        double avgSpo2 = avgOrZero(patientId, WearableMetric.MetricType.SPO2, from, to);
-        double avgSys = avgOrZero(patientId, WearableMetric.MetricType.BLOOD_PRESSURE_SYS, from, to);
-        double avgDia = avgOrZero(patientId, WearableMetric.MetricType.BLOOD_PRESSURE_DIA, from, to);
-        double avgWeight = avgOrZero(patientId, WearableMetric.MetricType.WEIGHT, from, to);
-        Patient patient = getPatientById(patientId);
-        LocalDateTime fromLdt = LocalDateTime.ofInstant(from, ZoneOffset.UTC);
-        LocalDateTime toLdt = LocalDateTime.ofInstant(to, ZoneOffset.UTC);
-        Double avgMood = moodPainLogRepo.avgMoodByPatientAndTimestampBetween(patient, fromLdt, toLdt);
-        Double avgPain = moodPainLogRepo.avgPainByPatientAndTimestampBetween(patient, fromLdt, toLdt);
-        Integer moodEntries = moodPainLogRepo.countMoodEntriesByPatientAndTimestampBetween(patient, fromLdt, toLdt);
-        Integer painEntries = moodPainLogRepo.countPainEntriesByPatientAndTimestampBetween(patient, fromLdt, toLdt);
+        return dashboardAggregateRepo.aggregate(patientId, from, to)
+                .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Patient profile not found"));
+    }
+
+    private DashboardDTO toDashboard(Instant from, Instant to, RollupTotals t) {
+        double adherence = t.symptomTotal() == 0 ? 0 : (t.symptomCompleted() * 100.0) / t.symptomTotal();
+        Double avgMood = RollupTotals.average(t.moodSum(), t.moodCount());
+        Double avgPain = RollupTotals.average(t.painSum(), t.painCount());
         return DashboardDTO.builder()
                 .periodStart(from)
                 .periodEnd(to)
                 .adherenceRate(round1(adherence))
-                .avgHeartRate(round0(avgHr))
-                .avgSpo2(round1(avgSpo2))
-                .avgSystolic(round0(avgSys))
-                .avgDiastolic(round0(avgDia))
-                .avgWeight(round1(avgWeight))
+                .avgHeartRate(round0(zeroIfNull(RollupTotals.average(t.heartRateSum(), t.heartRateCount()))))
+                .avgSpo2(round1(zeroIfNull(RollupTotals.average(t.spo2Sum(), t.spo2Count()))))
+                .avgSystolic(round0(zeroIfNull(RollupTotals.average(t.systolicSum(), t.systolicCount()))))
+                .avgDiastolic(round0(zeroIfNull(RollupTotals.average(t.diastolicSum(), t.diastolicCount()))))
+                .avgWeight(round1(zeroIfNull(RollupTotals.average(t.weightSum(), t.weightCount()))))
                 .avgMood(avgMood != null ? round1(avgMood) : null)
                 .avgPain(avgPain != null ? round1(avgPain) : null)
-                .moodEntries(moodEntries != null ? moodEntries : 0)
-                .painEntries(painEntries != null ? painEntries : 0)
+                .moodEntries((int) t.moodCount())
+                .painEntries((int) t.painCount())
+                .build();
+    }
+
+    /* ---------------- Clinical vitals ---------------- */
+
+    /**
+     * Statistics of one clinical vital type (any alias, e.g. "bp") over the last {@code period},
+     * aggregated in SQL
+     */
+    public VitalTrendDTO getVitalTrend(Long patientId, String vitalType, Period period) {
+        String type = VitalValueParser.canonicalType(vitalType);
+        if (type == null) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "Vital type is required");
+        }
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minus(period);
+        VitalAggregateRepository.Summary summary = vitalAggregateRepo.summary(patientId, type, from, to);
+        List<VitalTrendDTO.Day> daily = vitalAggregateRepo.daily(patientId, type, from, to).stream()
+                .map(d -> VitalTrendDTO.Day.builder()
+                        .date(d.day())
+                        .readings(d.readings())
+                        .avg(d.avg())
+                        .min(d.min())
+                        .max(d.max())
+                        .avgSystolic(d.avgSystolic())
+                        .avgDiastolic(d.avgDiastolic())
+                        .build())
+                .toList();
+        return VitalTrendDTO.builder()
+                .type(type)
+                .unit(summary.unit())
+                .periodStart(from)
+                .periodEnd(to)
+                .readings(summary.readings())
+                .avg(summary.avg())
+                .min(summary.min())
+                .max(summary.max())
+                .avgSystolic(summary.avgSystolic())
+                .avgDiastolic(summary.avgDiastolic())
+                .trendPerDay(summary.trend())
+                .daily(daily)
                 .build();
     }
 
     /* ---------------- Vitals series ---------------- */
 
-    // MOCK: Replace real DB logic with static mock data for all patients
+    /**
+     * Vitals for the last {@code period}, one sample per timestamp, served from the columnar
+     * cache when enabled
+     */
     public List<VitalSampleDTO> getVitals(Long patientId, Period period) {
-        // Original DB-based implementation restored
+        Instant to = Instant.now();
+        return getVitals(getPatientById(patientId), to.minus(period), to);
+    }
+
+    /**
+     * Vitals for the last {@code period} downsampled with LTTB to at most {@code maxPoints}
+     * (or one point per {@code resolution}) samples per metric
+     */
+    public List<VitalSampleDTO> getVitals(Long patientId, Period period, Integer maxPoints, Duration resolution) {
+        Instant to = Instant.now();
+        Instant from = to.minus(period);
+        Patient patient = getPatientById(patientId);
+        int points = vitalDownsampler.resolvePoints(maxPoints, resolution, from, to);
+        if (fromRawSamples(from, to)) {
+            return vitalDownsampler.lttb(getVitals(patient, from, to), points);
+        }
+        long width = vitalDownsampler.bucketWidth(from, to, points);
+        return vitalDownsampler.lttb(patientId, vitalBuckets(patient, from, to, width), points);
+    }
+
+    /**
+     * Min/max/avg bands for the last {@code period}, at most {@code maxPoints} (or one per
+     * {@code resolution}) buckets per metric
+     */
+    public List<VitalBucketDTO> getVitalBands(Long patientId, Period period, Integer maxPoints, Duration resolution) {
         Instant to = Instant.now();
         Instant from = to.minus(period);
-        List<WearableMetric> wearableMetrics = wearableRepo.findByPatient_IdAndRecordedAtBetween(patientId, from, to);
         Patient patient = getPatientById(patientId);
+        int buckets = vitalDownsampler.resolvePoints(maxPoints, resolution, from, to);
+        if (fromRawSamples(from, to)) {
+            return vitalDownsampler.minMax(getVitals(patient, from, to), from, to, buckets);
+        }
+        long width = vitalDownsampler.bucketWidth(from, to, buckets);
+        return vitalDownsampler.minMax(vitalBuckets(patient, from, to, width), width);
+    }
+
+    /**
+     * Downsample from raw samples when the window is short or already held by the series
+     * cache; otherwise pre-bucket in SQL
+     */
+    private boolean fromRawSamples(Instant from, Instant to) {
+        return vitalDownsampler.inMemory(from, to) || vitalSeriesCache.covers(from, to);
+    }
+
+    private List<VitalDownsampleRepository.MetricBucket> vitalBuckets(Patient patient, Instant from, Instant to, long width) {
+        List<VitalDownsampleRepository.MetricBucket> buckets = new ArrayList<>();
+        if (patient.getUser() != null) {
+            buckets.addAll(vitalDownsampleRepo.wearableBuckets(patient.getUser().getId(), from, to, width));
+        }
+        buckets.addAll(vitalDownsampleRepo.moodPainBuckets(patient.getId(), from, to, width));
+        return buckets;
+    }
+
+    private List<VitalSampleDTO> getVitals(Patient patient, Instant from, Instant to) {
+        Long patientId = patient.getId();
+        Long patientUserId = patient.getUser() != null ? patient.getUser().getId() : null;
+        if (vitalSeriesCache.isEnabled()) {
+            return vitalSeriesCache.range(patientId, patientUserId, from, to);
+        }
+
+        List<WearableMetric> wearableMetrics = patientUserId != null
+                ? wearableRepo.findByPatient_IdAndRecordedAtBetween(patientUserId, from, to)
+                : List.of();
         LocalDateTime fromLdt = LocalDateTime.ofInstant(from, ZoneOffset.UTC);
         LocalDateTime toLdt = LocalDateTime.ofInstant(to, ZoneOffset.UTC);
         List<com.careconnect.model.MoodPainLog> moodPainLogs = moodPainLogRepo.findByPatientAndTimestampBetween(patient, fromLdt, toLdt);
@@ -150,6 +267,8 @@ public class AnalyticsService {
                 .build();
     }
 
+    private double zeroIfNull(Double v) { return v == null ? 0 : v; }
+
     private double round1(double v) { return Math.round(v * 10) / 10.0; }
     private double round0(double v) { return Math.round(v); }
 
@@ -175,29 +294,81 @@ public class AnalyticsService {
     }
 
     public byte[] exportVitalsCsv(Long patientId, Period period) {
-        List<VitalSampleDTO> vitals = getVitals(patientId, period);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("timestamp,heartRate,spo2,systolic,diastolic,weight,moodValue,painValue\n");
-        for (VitalSampleDTO v : vitals) {
-            sb.append(v.timestamp()).append(",")
-                    .append(v.heartRate()).append(",")
-                    .append(v.spo2()).append(",")
-                    .append(v.systolic()).append(",")
-                    .append(v.diastolic()).append(",")
-                    .append(v.weight()).append(",")
-                    .append(v.moodValue()).append(",")
-                    .append(v.painValue()).append("\n");
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try {
+            writeVitalsCsv(patientId, period, csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return csv.toByteArray();
+    }
+
+    /**
+     * Write the vitals CSV for the last {@code period} to {@code out} while the rows are read
+     * from a database cursor, so memory use does not depend on the number of rows.
+     * {@code out} is flushed but not closed.
+     *
+     * @return number of CSV rows written, excluding the header
+     */
+    public long writeVitalsCsv(Long patientId, Period period, OutputStream out) throws IOException {
+        Instant to = Instant.now();
+        Instant from = to.minus(period);
+        Patient patient = getPatientById(patientId);
+        Long patientUserId = patient.getUser() != null ? patient.getUser().getId() : null;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_CHARS);
+        writer.write("timestamp,heartRate,spo2,systolic,diastolic,weight,moodValue,painValue\n");
+        VitalRowMerger merger = new VitalRowMerger(patientId, v -> writeCsvRow(writer, v));
+        try {
+            vitalExportRepo.streamVitals(patientId, patientUserId, from, to, exportConfig.getFetchSize(), merger);
+            merger.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return merger.getSamples();
+    }
+
+    private static void writeCsvRow(Writer writer, VitalSampleDTO v) {
+        try {
+            writer.append(String.valueOf(v.timestamp())).append(',')
+                    .append(String.valueOf(v.heartRate())).append(',')
+                    .append(String.valueOf(v.spo2())).append(',')
+                    .append(String.valueOf(v.systolic())).append(',')
+                    .append(String.valueOf(v.diastolic())).append(',')
+                    .append(String.valueOf(v.weight())).append(',')
+                    .append(String.valueOf(v.moodValue())).append(',')
+                    .append(String.valueOf(v.painValue())).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
     }
 
     public byte[] exportVitalsPdf(Long patientId, Period period) {
-        List<VitalSampleDTO> vitals = getVitals(patientId, period);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        writeVitalsPdf(patientId, period, false, pdf);
+        return pdf.toByteArray();
+    }
+
+    /**
+     * Render the vitals PDF for the last {@code period} to {@code out} while it is generated.
+     * Samples are read from a database cursor and the table is flushed every few hundred
+     * rows, with its header repeated on each page, so memory use does not depend on the
+     * length of the report. {@code out} is not closed.
+     *
+     * @param summary one row per day from the rollups instead of one row per sample; falls
+     *                back to samples when rollups are not available
+     */
+    public void writeVitalsPdf(Long patientId, Period period, boolean summary, OutputStream out) {
+        Instant to = Instant.now();
+        Instant from = to.minus(period);
+        Patient patient = getPatientById(patientId);
+        Long patientUserId = patient.getUser() != null ? patient.getUser().getId() : null;
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Document document = new Document();
-            PdfWriter.getInstance(document, baos);
+        Document document = new Document();
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
             document.add(new Paragraph("Vitals & Wellness Report"));
@@ -205,33 +376,86 @@ public class AnalyticsService {
             document.add(new Paragraph("Period: Last " + period.getDays() + " days"));
             document.add(new Paragraph(" "));
 
-            PdfPTable table = new PdfPTable(8);
-            table.addCell("Timestamp");
-            table.addCell("Heart Rate");
-            table.addCell("SpO2");
-            table.addCell("Systolic");
-            table.addCell("Diastolic");
-            table.addCell("Weight");
-            table.addCell("Mood (1-10)");
-            table.addCell("Pain (1-10)");
-
-            for (VitalSampleDTO v : vitals) {
-                table.addCell(String.valueOf(v.timestamp()));
-                table.addCell(String.valueOf(v.heartRate()));
-                table.addCell(String.valueOf(v.spo2()));
-                table.addCell(String.valueOf(v.systolic()));
-                table.addCell(String.valueOf(v.diastolic()));
-                table.addCell(String.valueOf(v.weight()));
-                table.addCell(String.valueOf(v.moodValue()));
-                table.addCell(String.valueOf(v.painValue()));
+            if (summary && summaryRollupService.isEnabled() && patientUserId != null) {
+                writeDailySummaryTable(document, patientUserId, from, to);
+            } else {
+                writeSampleTable(document, patientId, patientUserId, from, to);
             }
-
-            document.add(table);
             document.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF", e);
+        } catch (DocumentException e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
+    private void writeSampleTable(Document document, Long patientId, Long patientUserId,
+                                  Instant from, Instant to) throws DocumentException {
+        PdfPTable table = newPdfTable("Timestamp", "Heart Rate", "SpO2", "Systolic", "Diastolic",
+                "Weight", "Mood (1-10)", "Pain (1-10)");
+        int chunkRows = exportConfig.getPdfChunkRows();
+        int[] pending = {0};
+        VitalRowMerger merger = new VitalRowMerger(patientId, v -> {
+            table.addCell(String.valueOf(v.timestamp()));
+            table.addCell(String.valueOf(v.heartRate()));
+            table.addCell(String.valueOf(v.spo2()));
+            table.addCell(String.valueOf(v.systolic()));
+            table.addCell(String.valueOf(v.diastolic()));
+            table.addCell(String.valueOf(v.weight()));
+            table.addCell(String.valueOf(v.moodValue()));
+            table.addCell(String.valueOf(v.painValue()));
+            if (++pending[0] == chunkRows) {
+                pending[0] = 0;
+                try {
+                    // Lays out the rows added so far and drops them from the incomplete table
+                    document.add(table);
+                } catch (DocumentException e) {
+                    throw new ExceptionConverter(e);
+                }
+            }
+        });
+        vitalExportRepo.streamVitals(patientId, patientUserId, from, to, exportConfig.getFetchSize(), merger);
+        merger.finish();
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    private void writeDailySummaryTable(Document document, Long patientUserId, Instant from, Instant to)
+            throws DocumentException {
+        document.add(new Paragraph("Daily averages (UTC days)"));
+        document.add(new Paragraph(" "));
+        PdfPTable table = newPdfTable("Day", "Heart Rate", "SpO2", "Systolic", "Diastolic",
+                "Weight", "Mood (1-10)", "Pain (1-10)");
+        for (SummaryMetricRollupRepository.DayTotals day : summaryRollupService.dailyTotals(patientUserId, from, to)) {
+            RollupTotals t = day.totals();
+            table.addCell(day.day().toString());
+            table.addCell(formatAverage(t.heartRateSum(), t.heartRateCount()));
+            table.addCell(formatAverage(t.spo2Sum(), t.spo2Count()));
+            table.addCell(formatAverage(t.systolicSum(), t.systolicCount()));
+            table.addCell(formatAverage(t.diastolicSum(), t.diastolicCount()));
+            table.addCell(formatAverage(t.weightSum(), t.weightCount()));
+            table.addCell(formatAverage(t.moodSum(), t.moodCount()));
+            table.addCell(formatAverage(t.painSum(), t.painCount()));
         }
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    /**
+     * An incomplete table with one repeated header row, for adding to the document in chunks
+     */
+    private static PdfPTable newPdfTable(String... headers) {
+        PdfPTable table = new PdfPTable(headers.length);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        for (String header : headers) {
+            table.addCell(header);
+        }
+        return table;
+    }
+
+    private static String formatAverage(double sum, long count) {
+        Double average = RollupTotals.average(sum, count);
+        return average != null ? String.valueOf(Math.round(average * 10) / 10.0) : "-";
     }
 
     private VitalSampleDTO createEmptyVitalSample(Long patientId, Instant timestamp) {
@@ -249,14 +473,4 @@ public class AnalyticsService {
                 .build();
     }
 
-    private double avgOrZero(Long pid, WearableMetric.MetricType type,
-                             Instant from, Instant to) {
-        try {
-            Double v = wearableRepo.avgForPeriod(pid, type, from, to);
-            return v == null ? 0 : v;
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }
-
 }
\ No newline at end of file
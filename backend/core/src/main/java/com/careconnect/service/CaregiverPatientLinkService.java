@@ -7,6 +7,8 @@ import com.careconnect.exception.AppException;
 import com.careconnect.model.*;
 import com.careconnect.repository.*;
 import com.careconnect.security.Role;
+import com.careconnect.service.calendar.CalendarFeedService;
+import com.careconnect.service.emergency.CaregiverRoutingTable;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,6 +28,8 @@ public class CaregiverPatientLinkService {
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
     private final CaregiverRepository caregiverRepository;
+    private final CaregiverRoutingTable caregiverRoutingTable;
+    private final CalendarFeedService calendarFeedService;
 
     /**
      * Create a new caregiver-patient link
@@ -55,6 +59,8 @@ public class CaregiverPatientLinkService {
         link.setNotes(request.notes());
 
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
+
         return toCaregiverPatientLinkResponse(link);
     }
 
@@ -79,6 +85,8 @@ public class CaregiverPatientLinkService {
         }
 
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
+
         return toCaregiverPatientLinkResponse(link);
     }
 
@@ -114,6 +122,7 @@ public class CaregiverPatientLinkService {
         // Optionally check role here if needed
         link.setStatus(CaregiverPatientLink.LinkStatus.SUSPENDED);
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
 
         return toCaregiverPatientLinkResponse(link);
     }
@@ -130,6 +139,7 @@ public class CaregiverPatientLinkService {
 
         link.setStatus(CaregiverPatientLink.LinkStatus.ACTIVE);
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
 
         return toCaregiverPatientLinkResponse(link);
     }
@@ -143,6 +153,7 @@ public class CaregiverPatientLinkService {
 
         link.setStatus(CaregiverPatientLink.LinkStatus.REVOKED);
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
     }
 
     /**
@@ -206,6 +217,7 @@ public class CaregiverPatientLinkService {
         expiredLinks.forEach(link -> {
             link.setStatus(CaregiverPatientLink.LinkStatus.EXPIRED);
             caregiverPatientLinkRepository.save(link);
+            linkChanged(link);
         });
     }
 
@@ -232,9 +244,20 @@ public class CaregiverPatientLinkService {
         link.setNotes(notes);
 
         caregiverPatientLinkRepository.save(link);
+        linkChanged(link);
     }
 
     // Helper methods
+
+    /**
+     * Drop what was derived from the caregiver's links: the patient's SOS routes and the
+     * caregiver's calendar feed
+     */
+    private void linkChanged(CaregiverPatientLink link) {
+        caregiverRoutingTable.invalidate(link.getPatientUser().getId());
+        calendarFeedService.invalidateCaregiverUser(link.getCaregiverUser().getId());
+    }
+
     private CaregiverPatientLinkResponse toCaregiverPatientLinkResponse(CaregiverPatientLink link) {
         String caregiverName = getCaregiverName(link.getCaregiverUser());
         String patientName = getPatientName(link.getPatientUser());
@@ -7,6 +7,7 @@ import com.careconnect.repository.ConnectionRequestRepository;
 import com.careconnect.repository.UserRepository;
 import com.careconnect.repository.CaregiverPatientLinkRepository;
 import com.careconnect.service.EmailService;
+import com.careconnect.service.calendar.CalendarFeedService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,6 +27,7 @@ public class ConnectionRequestService {
     private final UserRepository userRepo;
     private final CaregiverPatientLinkRepository linkRepo;
     private final EmailService emailService;
+    private final CalendarFeedService calendarFeedService;
     
     @Autowired(required = false)
     private NotificationService notificationService;
@@ -155,6 +157,7 @@ public class ConnectionRequestService {
         link.setNotes(request.getRelationshipType());
         
         linkRepo.save(link);
+        calendarFeedService.invalidateCaregiverUser(request.getCaregiver().getId());
     }
     
     /**
@@ -1,16 +1,51 @@
 package com.careconnect.service;
 
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.careconnect.config.ExportConfig;
 import com.careconnect.dto.ExportLinkDTO;
-import lombok.Builder;
 
-@Builder
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Signs and verifies expiring download links. A link carries its expiry and an
+ * HMAC-SHA256 over path and expiry, so it can be checked without any stored state.
+ */
+@Slf4j
 @Service
 public class ExportSigner {
-    private static final Duration TTL = Duration.ofHours(1);
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final String baseUrl;
+    private final Duration ttl;
+
+    public ExportSigner(ExportConfig config,
+                        @Value("${careconnect.baseurl:http://localhost:8080}") String baseUrl) {
+        byte[] secret;
+        if (config.getSigningSecret() == null || config.getSigningSecret().isBlank()) {
+            log.warn("No export signing secret configured; download links are only valid on this instance until restart");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = config.getSigningSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.ttl = Duration.ofMinutes(config.getLinkTtlMinutes());
+    }
 
     /**
      * Generates a signed URL for file exports
@@ -19,25 +54,52 @@ public class ExportSigner {
      * @return signed URL string
      */
     public String generateSignedUrl(String fileName, Long patientId) {
-        // Simple implementation - in production, this would generate actual signed URLs
-        String baseUrl = "https://api.careconnect.com/exports";
-        long timestamp = System.currentTimeMillis();
-        String signature = generateSignature(fileName, patientId, timestamp);
-        
-        return String.format("%s/%s?patientId=%d&timestamp=%d&signature=%s", 
-                baseUrl, fileName, patientId, timestamp, signature);
-    }
-    
-    private String generateSignature(String fileName, Long patientId, long timestamp) {
-        // Simple signature generation - in production, use proper cryptographic signing
-        return Integer.toHexString((fileName + patientId + timestamp).hashCode());
+        return sign("/exports/" + patientId + "/" + fileName).getUrl();
     }
 
+    /**
+     * Signed link to {@code relativePath} valid for the configured TTL
+     */
     public ExportLinkDTO sign(String relativePath) {
-        String url = "https://files.careconnect.ai" + relativePath + "?sig=mock123"; // TODO real signer
+        return sign(relativePath, ttl);
+    }
+
+    /**
+     * Signed link to {@code relativePath} valid for {@code validFor}
+     */
+    public ExportLinkDTO sign(String relativePath, Duration validFor) {
+        Instant expiresAt = Instant.now().plus(validFor);
+        long expires = expiresAt.getEpochSecond();
+        String url = baseUrl + relativePath + "?expires=" + expires + "&sig=" + signature(relativePath, expires);
         return ExportLinkDTO.builder()
                 .url(url)
-                .instantExpiresAt(Instant.now().plus(TTL))
+                .downloadUrl(url)
+                .expiresAt(Instant.ofEpochSecond(expires).toString())
+                .instantExpiresAt(Instant.ofEpochSecond(expires))
                 .build();
     }
+
+    /**
+     * Whether {@code sig} was issued by {@link #sign} for {@code relativePath} and has not expired
+     *
+     * @param expires expiry in epoch seconds, as carried by the link
+     */
+    public boolean verify(String relativePath, long expires, String sig) {
+        if (sig == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        byte[] expected = signature(relativePath, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, sig.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(String relativePath, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((relativePath + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
 }
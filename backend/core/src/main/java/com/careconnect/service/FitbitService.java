@@ -1,33 +1,230 @@
 package com.careconnect.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
 
-import com.careconnect.dto.Metrics;
+import com.careconnect.config.WearableSyncConfig;
+import com.careconnect.dto.WearableSampleDTO;
+import com.careconnect.model.WearableMetric;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
 
+/**
+ * Client for the Fitbit Web API, used by the wearable sync.
+ *
+ * <p>
+ * Every call reports the rate-limit window from the {@code Fitbit-Rate-Limit-*} headers, so
+ * the caller can stop before the per-user quota runs out. A 429 is raised as
+ * {@link RateLimitedException} and a rejected token as {@link UnauthorizedException}.
+ * Fitbit returns times in the user's own time zone; they are converted to instants here.
+ * </p>
+ */
 @Service
 public class FitbitService {
 
-    /*private final WebClient fitbitWebClient;
-    
-    public FitbitService(WebClient fitbitWebClient) {
-        this.fitbitWebClient = fitbitWebClient;
+    public static final String PROVIDER = "FITBIT";
+
+    private static final String RATE_LIMIT_REMAINING = "Fitbit-Rate-Limit-Remaining";
+    private static final String RATE_LIMIT_RESET = "Fitbit-Rate-Limit-Reset";
+
+    /**
+     * Rate-limit window after a call; {@code remaining} is -1 when the provider did not say
+     */
+    public record RateLimit(int remaining, long resetSeconds) {}
+
+    /**
+     * Result of one call with the rate-limit window it left behind
+     */
+    public record Page<T>(T data, RateLimit rateLimit) {}
+
+    public record Tokens(String accessToken, String refreshToken, Instant expiresAt) {}
+
+    /**
+     * The rate limit is exhausted; retry after {@code retryAfterSeconds}
+     */
+    public static class RateLimitedException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public RateLimitedException(long retryAfterSeconds) {
+            super("Fitbit rate limit exceeded, retry in " + retryAfterSeconds + "s");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * The access or refresh token was rejected
+     */
+    public static class UnauthorizedException extends RuntimeException {
+        public UnauthorizedException(String message) {
+            super(message);
+        }
     }
 
-    public Metrics getTodayMetrics() {
-        // TODO: Replace with synchronous HTTP client logic for all Fitbit API calls
-        throw new UnsupportedOperationException("Synchronous Fitbit call not yet implemented");
+    private final RestTemplate restTemplate;
+    private final WearableSyncConfig config;
+    private final String clientId;
+    private final String clientSecret;
+
+    public FitbitService(RestTemplate restTemplate, WearableSyncConfig config,
+                         @Value("${spring.security.oauth2.client.registration.fitbit.client-id:}") String clientId,
+                         @Value("${spring.security.oauth2.client.registration.fitbit.client-secret:}") String clientSecret) {
+        this.restTemplate = restTemplate;
+        this.config = config;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
     }
 
-    private Metrics createMetricsFromJson(JsonNode steps, JsonNode calories, JsonNode heart, JsonNode sleep, JsonNode weight) {
-        Metrics metrics = new Metrics();
-        metrics.setMetricType("daily_summary");
-        metrics.setSource("fitbit");
-        metrics.setTimestamp(java.time.LocalDateTime.now());
-        return metrics;
+    /**
+     * The user's time zone from their profile
+     */
+    public Page<ZoneId> timeZone(String accessToken) {
+        Page<JsonNode> page = get(accessToken, "/1/user/-/profile.json");
+        String zone = page.data().path("user").path("timezone").asText("");
+        return new Page<>(zone.isBlank() ? ZoneId.of("UTC") : ZoneId.of(zone), page.rateLimit());
     }
 
-    private Mono<JsonNode> call(String path) {
-        return fitbitWebClient.get().uri(path).retrieve().bodyToMono(JsonNode.class);
-    }*/
+    /**
+     * Per-minute heart rate of one day
+     */
+    public Page<List<WearableSampleDTO>> heartRate(String accessToken, LocalDate day, ZoneId zone) {
+        Page<JsonNode> page = get(accessToken, "/1/user/-/activities/heart/date/" + day + "/1d/1min.json");
+        List<WearableSampleDTO> samples = new ArrayList<>();
+        for (JsonNode point : page.data().path("activities-heart-intraday").path("dataset")) {
+            samples.add(sample(WearableMetric.MetricType.HEART_RATE, point.path("value").asDouble(),
+                    day.atTime(LocalTime.parse(point.path("time").asText())), zone));
+        }
+        return new Page<>(samples, page.rateLimit());
+    }
+
+    /**
+     * Nightly average SpO2 for a range of days, stamped at the start of each day
+     */
+    public Page<List<WearableSampleDTO>> spo2(String accessToken, LocalDate from, LocalDate to, ZoneId zone) {
+        Page<JsonNode> page = get(accessToken, "/1/user/-/spo2/date/" + from + "/" + to + ".json");
+        List<WearableSampleDTO> samples = new ArrayList<>();
+        for (JsonNode day : page.data()) {
+            JsonNode avg = day.path("value").path("avg");
+            if (avg.isNumber()) {
+                samples.add(sample(WearableMetric.MetricType.SPO2, avg.asDouble(),
+                        LocalDate.parse(day.path("dateTime").asText()).atStartOfDay(), zone));
+            }
+        }
+        return new Page<>(samples, page.rateLimit());
+    }
+
+    /**
+     * Weight log entries for a range of days (at most 31), in kilograms
+     */
+    public Page<List<WearableSampleDTO>> weight(String accessToken, LocalDate from, LocalDate to, ZoneId zone) {
+        Page<JsonNode> page = get(accessToken, "/1/user/-/body/log/weight/date/" + from + "/" + to + ".json");
+        List<WearableSampleDTO> samples = new ArrayList<>();
+        for (JsonNode entry : page.data().path("weight")) {
+            LocalTime time = entry.hasNonNull("time") ? LocalTime.parse(entry.path("time").asText()) : LocalTime.MIDNIGHT;
+            samples.add(sample(WearableMetric.MetricType.WEIGHT, entry.path("weight").asDouble(),
+                    LocalDate.parse(entry.path("date").asText()).atTime(time), zone));
+        }
+        return new Page<>(samples, page.rateLimit());
+    }
+
+    /**
+     * Exchange a refresh token for new tokens; Fitbit rotates the refresh token on every use
+     */
+    public Tokens refresh(String refreshToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.set(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8)));
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "refresh_token");
+        form.add("refresh_token", refreshToken);
+
+        try {
+            JsonNode body = restTemplate.postForObject(config.getTokenUri(), new HttpEntity<>(form, headers), JsonNode.class);
+            if (body == null || !body.hasNonNull("access_token")) {
+                throw new IllegalStateException("Fitbit token response has no access token");
+            }
+            return new Tokens(body.path("access_token").asText(),
+                    body.path("refresh_token").asText(refreshToken),
+                    Instant.now().plusSeconds(body.path("expires_in").asLong(3600)));
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode().value() == HttpStatus.BAD_REQUEST.value()
+                    || e.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value()) {
+                throw new UnauthorizedException("Fitbit refused to refresh the token: " + e.getStatusCode());
+            }
+            throw e;
+        }
+    }
+
+    private Page<JsonNode> get(String accessToken, String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        try {
+            ResponseEntity<JsonNode> response = restTemplate.exchange(config.getApiBaseUrl() + path,
+                    HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+            JsonNode body = response.getBody();
+            return new Page<>(body != null ? body : MissingNode.getInstance(),
+                    rateLimit(response.getHeaders()));
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                HttpHeaders responseHeaders = e.getResponseHeaders();
+                long retryAfter = header(responseHeaders, HttpHeaders.RETRY_AFTER,
+                        header(responseHeaders, RATE_LIMIT_RESET, 3600));
+                throw new RateLimitedException(retryAfter);
+            }
+            if (e.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value()) {
+                throw new UnauthorizedException("Fitbit rejected the access token");
+            }
+            throw e;
+        }
+    }
+
+    private static RateLimit rateLimit(HttpHeaders headers) {
+        return new RateLimit((int) header(headers, RATE_LIMIT_REMAINING, -1), header(headers, RATE_LIMIT_RESET, 0));
+    }
+
+    private static long header(HttpHeaders headers, String name, long fallback) {
+        String value = headers != null ? headers.getFirst(name) : null;
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static WearableSampleDTO sample(WearableMetric.MetricType metric, double value, LocalDateTime local,
+                                            ZoneId zone) {
+        return WearableSampleDTO.builder()
+                .metric(metric.name())
+                .value(value)
+                .recordedAt(local.atZone(zone).toInstant())
+                .build();
+    }
 }
@@ -6,6 +6,7 @@ import com.careconnect.model.*;
 import com.careconnect.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.Base64;
@@ -125,14 +126,11 @@ public class MedicalContextService {
     private void addVitalsContext(StringBuilder context, Long patientId) {
         try {
             // Get recent vitals (last 10 entries)
-            List<Vital> recentVitals = vitalsRepository.findByPatientIdOrderByRecordedAtDesc(patientId);
+            List<Vital> recentVitals = vitalsRepository.findRecentByPatientId(patientId, PageRequest.of(0, 10));
             
             if (!recentVitals.isEmpty()) {
                 context.append("RECENT VITALS:\n");
-                // Limit to 10 most recent
-                List<Vital> limitedVitals = recentVitals.stream().limit(10).collect(Collectors.toList());
-                
-                for (Vital vital : limitedVitals) {
+                for (Vital vital : recentVitals) {
                     context.append("Date: ").append(vital.getRecordedAt()).append("\n");
                     context.append("  Type: ").append(vital.getVitalType()).append("\n");
                     context.append("  Value: ").append(vital.getValue()).append("\n");
@@ -9,6 +9,10 @@ import com.careconnect.model.Patient;
 import com.careconnect.model.User;
 import com.careconnect.repository.MoodPainLogRepository;
 import com.careconnect.repository.PatientRepository;
+import com.careconnect.service.analytics.LiveMetricsHub;
+import com.careconnect.service.analytics.MoodPainAnalyticsService;
+import com.careconnect.service.analytics.SummaryRollupService;
+import com.careconnect.service.analytics.VitalSeriesCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -17,13 +21,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.Comparator;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +31,10 @@ public class MoodPainLogService {
     
     private final MoodPainLogRepository moodPainLogRepository;
     private final PatientRepository patientRepository;
+    private final LiveMetricsHub liveMetricsHub;
+    private final SummaryRollupService summaryRollupService;
+    private final VitalSeriesCache vitalSeriesCache;
+    private final MoodPainAnalyticsService moodPainAnalyticsService;
     
     /**
      * Create a new mood pain log entry for a patient
@@ -54,6 +57,10 @@ public class MoodPainLogService {
                 .build();
         
         MoodPainLog savedLog = moodPainLogRepository.save(moodPainLog);
+        liveMetricsHub.markDirty(patient.getId());
+        markRollupDirty(patient, savedLog.getTimestamp());
+        vitalSeriesCache.appendMoodPain(patient.getId(), savedLog.getTimestamp(), savedLog.getMoodValue(), savedLog.getPainValue());
+        moodPainAnalyticsService.invalidate(patient.getId());
         return convertToResponse(savedLog);
     }
     
@@ -136,6 +143,9 @@ public class MoodPainLogService {
         // Validate the request
         validateMoodPainLogRequest(request);
         
+        // The old hour bucket loses this entry if the timestamp moves
+        markRollupDirty(patient, existingLog.getTimestamp());
+
         // Update the log
         existingLog.setMoodValue(request.getMoodValue());
         existingLog.setPainValue(request.getPainValue());
@@ -143,6 +153,10 @@ public class MoodPainLogService {
         existingLog.setTimestamp(request.getTimestamp());
         
         MoodPainLog updatedLog = moodPainLogRepository.save(existingLog);
+        liveMetricsHub.markDirty(patient.getId());
+        markRollupDirty(patient, updatedLog.getTimestamp());
+        vitalSeriesCache.invalidate(patient.getId());
+        moodPainAnalyticsService.invalidate(patient.getId());
         return convertToResponse(updatedLog);
     }
     
@@ -162,6 +176,10 @@ public class MoodPainLogService {
         }
         
         moodPainLogRepository.delete(existingLog);
+        liveMetricsHub.markDirty(patient.getId());
+        markRollupDirty(patient, existingLog.getTimestamp());
+        vitalSeriesCache.invalidate(patient.getId());
+        moodPainAnalyticsService.invalidate(patient.getId());
     }
     
     /**
@@ -184,103 +202,15 @@ public class MoodPainLogService {
         Patient patient = patientRepository.findByUser(currentUser)
                 .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Patient profile not found"));
         
-        List<MoodPainLog> logs = moodPainLogRepository.findByPatientAndTimestampBetween(patient, startDate, endDate);
-        
-        if (logs.isEmpty()) {
-            return MoodPainAnalyticsDTO.builder()
-                    .periodStart(startDate)
-                    .periodEnd(endDate)
-                    .totalEntries(0)
-                    .moodEntries(0)
-                    .painEntries(0)
-                    .timeSeries(Collections.emptyList())
-                    .build();
-        }
-        
-        // Calculate statistics
-        List<Integer> moodValues = logs.stream()
-                .map(MoodPainLog::getMoodValue)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        
-        List<Integer> painValues = logs.stream()
-                .map(MoodPainLog::getPainValue)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        
-        Double avgMood = moodValues.isEmpty() ? null : 
-                moodValues.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        Double avgPain = painValues.isEmpty() ? null : 
-                painValues.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        
-        Integer minMood = moodValues.isEmpty() ? null : Collections.min(moodValues);
-        Integer maxMood = moodValues.isEmpty() ? null : Collections.max(moodValues);
-        Integer minPain = painValues.isEmpty() ? null : Collections.min(painValues);
-        Integer maxPain = painValues.isEmpty() ? null : Collections.max(painValues);
-        
-        // Calculate trends (simple linear regression slope)
-        Double moodTrend = calculateTrend(logs, true);  // true for mood
-        Double painTrend = calculateTrend(logs, false); // false for pain
-        
-        // Create time series data
-        List<MoodPainAnalyticsDTO.MoodPainTimeSeriesPoint> timeSeries = logs.stream()
-                .map(log -> MoodPainAnalyticsDTO.MoodPainTimeSeriesPoint.builder()
-                        .timestamp(log.getTimestamp())
-                        .moodValue(log.getMoodValue())
-                        .painValue(log.getPainValue())
-                        .note(log.getNote())
-                        .build())
-                .collect(Collectors.toList());
-        
-        return MoodPainAnalyticsDTO.builder()
-                .periodStart(startDate)
-                .periodEnd(endDate)
-                .avgMood(avgMood)
-                .avgPain(avgPain)
-                .totalEntries(logs.size())
-                .moodEntries(moodValues.size())
-                .painEntries(painValues.size())
-                .moodTrend(moodTrend)
-                .painTrend(painTrend)
-                .minMood(minMood)
-                .maxMood(maxMood)
-                .minPain(minPain)
-                .maxPain(maxPain)
-                .timeSeries(timeSeries)
-                .build();
+        return moodPainAnalyticsService.analytics(patient.getId(), startDate, endDate);
     }
     
-    /**
-     * Calculate trend using simple linear regression
-     */
-    private Double calculateTrend(List<MoodPainLog> logs, boolean isMood) {
-        List<MoodPainLog> validLogs = logs.stream()
-                .filter(log -> isMood ? log.getMoodValue() != null : log.getPainValue() != null)
-                .sorted(Comparator.comparing(MoodPainLog::getTimestamp))
-                .collect(Collectors.toList());
-        
-        if (validLogs.size() < 2) {
-            return null;
+    private void markRollupDirty(Patient patient, LocalDateTime timestamp) {
+        if (patient.getUser() != null && timestamp != null) {
+            summaryRollupService.markDirty(patient.getUser().getId(), timestamp.toInstant(ZoneOffset.UTC));
         }
-        
-        int n = validLogs.size();
-        double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
-        
-        for (int i = 0; i < n; i++) {
-            double x = i; // time index
-            double y = isMood ? validLogs.get(i).getMoodValue() : validLogs.get(i).getPainValue();
-            
-            sumX += x;
-            sumY += y;
-            sumXY += x * y;
-            sumX2 += x * x;
-        }
-        
-        // Calculate slope (trend)
-        double slope = (n * sumXY - sumX * sumY) / (n * sumX2 - sumX * sumX);
-        return slope;
     }
-    
+
     /**
      * Validate mood pain log request
      */
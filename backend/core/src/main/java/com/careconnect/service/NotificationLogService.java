@@ -0,0 +1,256 @@
+package com.careconnect.service;
+
+import com.careconnect.config.NotificationLogConfig;
+import com.careconnect.model.NotificationLogEntry;
+import com.careconnect.repository.NotificationLogRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable per-user notification log.
+ *
+ * Notifications are assigned a per-user sequence number, kept in a small in-memory
+ * tail for fast replay and buffered for batched inserts into {@code notification_log}.
+ * A reconnecting client sends the last sequence it saw and receives everything after it
+ * before live delivery continues. Old entries are removed by TTL and per-user compaction.
+ *
+ * Sequences are allocated in memory, like the WebSocket session maps, so a user's
+ * sockets are expected to be served by a single node. On startup each user's counter
+ * is seeded from the highest sequence in the table, so it never runs backwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationLogService {
+
+    /** Number of recent entries kept in memory per user */
+    private static final int TAIL_SIZE = 64;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO notification_log (user_id, seq, notification_type, payload, created_at)
+            VALUES (:userId, :seq, :type, :payload, :createdAt)
+            ON CONFLICT (user_id, seq) DO NOTHING
+            """;
+
+    private final NotificationLogRepository notificationLogRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final NotificationLogConfig config;
+
+    private final Map<Long, UserLog> userLogs = new ConcurrentHashMap<>();
+    private final Queue<LoggedNotification> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private record LoggedNotification(long userId, long seq, String type, String payload, Instant createdAt) {}
+
+    private static final class UserLog {
+        private final AtomicLong seq;
+        private final ArrayDeque<LoggedNotification> tail = new ArrayDeque<>(TAIL_SIZE);
+
+        private UserLog(long lastSeq) {
+            this.seq = new AtomicLong(lastSeq);
+        }
+    }
+
+    /**
+     * Seed every user's sequence counter from the highest sequence already logged
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSequences() {
+        List<NotificationLogRepository.UserSeq> seeds = notificationLogRepository.findMaxSeqPerUser();
+        for (NotificationLogRepository.UserSeq seed : seeds) {
+            userLogs.putIfAbsent(seed.getUserId(), new UserLog(seed.getMaxSeq()));
+        }
+        log.info("Seeded notification log sequences for {} users", seeds.size());
+    }
+
+    /**
+     * Append a notification to the recipient's log.
+     *
+     * @return a copy of the notification with its {@code seq} added, or the original
+     *         notification if it cannot be logged (logging disabled or non-numeric user ID)
+     */
+    public Map<String, Object> append(String userId, Map<String, Object> notification) {
+        Long id = parseUserId(userId);
+        if (!config.isEnabled() || id == null) {
+            return notification;
+        }
+
+        UserLog userLog = userLogFor(id);
+        Map<String, Object> sequenced = new HashMap<>(notification);
+        String payload;
+        LoggedNotification entry;
+
+        synchronized (userLog) {
+            long seq = userLog.seq.incrementAndGet();
+            sequenced.put("seq", seq);
+            try {
+                payload = objectMapper.writeValueAsString(sequenced);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize notification for user {}: {}", userId, e.getMessage());
+                userLog.seq.decrementAndGet();
+                return notification;
+            }
+            String type = String.valueOf(notification.getOrDefault("type", "unknown"));
+            entry = new LoggedNotification(id, seq, type, payload, Instant.now());
+            if (userLog.tail.size() == TAIL_SIZE) {
+                userLog.tail.pollFirst();
+            }
+            userLog.tail.addLast(entry);
+        }
+
+        pendingWrites.add(entry);
+        return sequenced;
+    }
+
+    /**
+     * Latest sequence number assigned for a user (0 if nothing was logged)
+     */
+    public long currentSeq(String userId) {
+        Long id = parseUserId(userId);
+        return id == null ? 0 : userLogFor(id).seq.get();
+    }
+
+    /**
+     * Notifications logged for a user after {@code afterSeq}, oldest first, as JSON.
+     * Served from memory when the offset is recent, otherwise from the database
+     * topped up with any entries that are not flushed yet.
+     */
+    public List<String> replay(String userId, long afterSeq) {
+        Long id = parseUserId(userId);
+        if (!config.isEnabled() || id == null) {
+            return List.of();
+        }
+
+        UserLog userLog = userLogFor(id);
+        List<LoggedNotification> recent = new ArrayList<>();
+        long oldestInTail;
+        synchronized (userLog) {
+            oldestInTail = userLog.tail.isEmpty() ? Long.MAX_VALUE : userLog.tail.peekFirst().seq();
+            for (LoggedNotification entry : userLog.tail) {
+                if (entry.seq() > afterSeq) {
+                    recent.add(entry);
+                }
+            }
+        }
+
+        List<String> replay = new ArrayList<>();
+        long lastSeq = afterSeq;
+        if (afterSeq + 1 < oldestInTail) {
+            List<NotificationLogEntry> stored = notificationLogRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(
+                    id, afterSeq, PageRequest.of(0, config.getMaxReplay()));
+            for (NotificationLogEntry entry : stored) {
+                replay.add(entry.getPayload());
+                lastSeq = entry.getSeq();
+            }
+        }
+        for (LoggedNotification entry : recent) {
+            if (replay.size() >= config.getMaxReplay()) {
+                break;
+            }
+            if (entry.seq() > lastSeq) {
+                replay.add(entry.payload());
+                lastSeq = entry.seq();
+            }
+        }
+
+        log.debug("Replaying {} notifications to user {} after seq {}", replay.size(), userId, afterSeq);
+        return replay;
+    }
+
+    /**
+     * Write buffered entries in JDBC batches. Not transactional on purpose: each batch
+     * commits on its own, so a failing batch cannot roll back the ones written before it.
+     */
+    @Scheduled(fixedDelayString = "${careconnect.notifications.log.flush-interval-ms:250}")
+    public void flush() {
+        List<LoggedNotification> batch = new ArrayList<>(config.getBatchSize());
+        LoggedNotification entry;
+        while ((entry = pendingWrites.poll()) != null) {
+            batch.add(entry);
+            if (batch.size() >= config.getBatchSize()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<LoggedNotification> batch) {
+        SqlParameterSource[] params = batch.stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("userId", e.userId())
+                        .addValue("seq", e.seq())
+                        .addValue("type", e.type())
+                        .addValue("payload", e.payload())
+                        .addValue("createdAt", Timestamp.from(e.createdAt())))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            jdbc.batchUpdate(INSERT_SQL, params);
+        } catch (DataAccessException e) {
+            // keep entries for the next flush; the tail still serves recent replays
+            pendingWrites.addAll(batch);
+            log.error("Failed to write {} notification log entries: {}", batch.size(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Expire entries past the retention period and trim each user's log
+     * Runs every hour
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    @Transactional
+    public void compact() {
+        try {
+            Instant cutoff = Instant.now().minus(config.getRetentionDays(), ChronoUnit.DAYS);
+            int expired = notificationLogRepository.deleteOlderThan(cutoff);
+            int trimmed = notificationLogRepository.compactToLatest(config.getMaxEntriesPerUser());
+            log.info("Notification log compaction: {} expired, {} trimmed", expired, trimmed);
+        } catch (Exception e) {
+            log.error("Error during notification log compaction", e);
+        }
+    }
+
+    private UserLog userLogFor(Long userId) {
+        return userLogs.computeIfAbsent(userId,
+                id -> new UserLog(notificationLogRepository.findMaxSeqByUserId(id).orElse(0L)));
+    }
+
+    private static Long parseUserId(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
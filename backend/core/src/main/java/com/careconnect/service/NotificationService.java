@@ -1,42 +1,166 @@
 package com.careconnect.service;
 
+import com.careconnect.dto.CaregiverPatientLinkResponse;
 import com.careconnect.dto.FirebaseNotificationRequest;
 import com.careconnect.dto.NotificationResponse;
+import com.careconnect.model.DeviceToken;
+import com.careconnect.model.FamilyMemberLink;
+import com.careconnect.repository.DeviceTokenRepository;
+import com.careconnect.repository.FamilyMemberLinkRepository;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.UserRepository;
+import com.careconnect.service.notification.PushNotificationSender;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Push notifications to user devices. Delivery is batched by {@link PushNotificationSender}.
+ */
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class NotificationService {
+
+    private final PushNotificationSender pushNotificationSender;
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final UserRepository userRepository;
+    private final PatientRepository patientRepository;
+    private final CaregiverPatientLinkService caregiverPatientLinkService;
+    private final FamilyMemberLinkRepository familyMemberLinkRepository;
+
     public NotificationResponse sendNotification(FirebaseNotificationRequest request) {
-        // Dummy implementation
-        return NotificationResponse.success("dummy-message-id");
+        return pushNotificationSender.sendAsync(List.of(request)).join().get(0);
     }
+
+    /**
+     * Send many notifications as batched transport calls; one response per request, in order
+     */
     public List<NotificationResponse> sendBulkNotifications(List<FirebaseNotificationRequest> requests) {
-        // Dummy implementation
-        return List.of(NotificationResponse.success("dummy-message-id"));
+        return pushNotificationSender.sendAsync(requests).join();
     }
+
     public List<NotificationResponse> sendNotificationToUser(Long userId, String title, String body, String notificationType, Map<String, String> data) {
-        // Dummy implementation
-        return List.of(NotificationResponse.success("dummy-message-id"));
+        return sendBulkNotifications(List.of(FirebaseNotificationRequest.builder()
+                .targetUserId(userId)
+                .title(title)
+                .body(body)
+                .notificationType(notificationType)
+                .data(data)
+                .build()));
     }
+
     public CompletableFuture<List<NotificationResponse>> sendVitalAlert(Long patientId, String vitalType, String vitalValue, String alertLevel) {
-        // Dummy implementation
-        return CompletableFuture.completedFuture(List.of(NotificationResponse.success("dummy-message-id")));
+        Long patientUserId = findPatientUserId(patientId);
+        if (patientUserId == null) {
+            return CompletableFuture.completedFuture(List.of(NotificationResponse.failure("Patient not found: " + patientId)));
+        }
+        String title = "⚠️ Vital Alert: " + vitalType;
+        String body = vitalType + " reading of " + vitalValue + " (" + alertLevel + ")";
+        Map<String, String> data = Map.of(
+                "patientId", patientId.toString(),
+                "vitalType", vitalType,
+                "vitalValue", vitalValue,
+                "alertLevel", alertLevel);
+        return pushNotificationSender.sendAsync(toRequests(findCareTeamUserIds(patientId, patientUserId),
+                title, body, "VITAL_ALERT", data));
     }
+
     public CompletableFuture<List<NotificationResponse>> sendMedicationReminder(Long patientId, String medicationName, String dosage, String scheduledTime) {
-        // Dummy implementation
-        return CompletableFuture.completedFuture(List.of(NotificationResponse.success("dummy-message-id")));
+        Long patientUserId = findPatientUserId(patientId);
+        if (patientUserId == null) {
+            return CompletableFuture.completedFuture(List.of(NotificationResponse.failure("Patient not found: " + patientId)));
+        }
+        Map<String, String> data = Map.of(
+                "patientId", patientId.toString(),
+                "medicationName", medicationName,
+                "dosage", dosage,
+                "scheduledTime", scheduledTime);
+        return pushNotificationSender.sendAsync(toRequests(Set.of(patientUserId),
+                "💊 Medication Reminder",
+                "Time to take your " + medicationName + " (" + dosage + ")",
+                "MEDICATION_REMINDER", data));
     }
+
     public CompletableFuture<List<NotificationResponse>> sendEmergencyAlert(Long patientId, String emergencyType, String location) {
-        // Dummy implementation
-        return CompletableFuture.completedFuture(List.of(NotificationResponse.success("dummy-message-id")));
+        Long patientUserId = findPatientUserId(patientId);
+        if (patientUserId == null) {
+            return CompletableFuture.completedFuture(List.of(NotificationResponse.failure("Patient not found: " + patientId)));
+        }
+        Map<String, String> data = Map.of(
+                "patientId", patientId.toString(),
+                "emergencyType", emergencyType,
+                "location", location != null ? location : "Unknown");
+        return pushNotificationSender.sendAsync(toRequests(findCareTeamUserIds(patientId, patientUserId),
+                "🚨 Emergency: " + emergencyType,
+                "Emergency reported at " + (location != null ? location : "unknown location"),
+                "EMERGENCY", data));
     }
-    public void registerDeviceToken(Long userId, String fcmToken, String deviceId, com.careconnect.model.DeviceToken.DeviceType deviceType) {
-        // Dummy implementation
+
+    @Transactional
+    public void registerDeviceToken(Long userId, String fcmToken, String deviceId, DeviceToken.DeviceType deviceType) {
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+
+        DeviceToken token = deviceTokenRepository.findByFcmTokenAndIsActiveTrue(fcmToken)
+                .orElseGet(() -> {
+                    // A device re-registering with a new token replaces its old one
+                    deviceTokenRepository.deactivateByUserAndDeviceId(user, deviceId);
+                    return DeviceToken.builder().fcmToken(fcmToken).build();
+                });
+        token.setUser(user);
+        token.setDeviceId(deviceId);
+        token.setDeviceType(deviceType);
+        token.setIsActive(true);
+        token.setLastUsedAt(Instant.now());
+        deviceTokenRepository.save(token);
+        log.info("Registered {} device token for user {}", deviceType, userId);
     }
+
+    @Transactional
     public void unregisterDeviceToken(String fcmToken) {
-        // Dummy implementation
+        deviceTokenRepository.deactivateByFcmToken(fcmToken);
+    }
+
+    private Long findPatientUserId(Long patientId) {
+        return patientRepository.findById(patientId)
+                .map(patient -> patient.getUser() != null ? patient.getUser().getId() : null)
+                .orElse(null);
+    }
+
+    /**
+     * Active caregivers and family members of a patient
+     */
+    private Set<Long> findCareTeamUserIds(Long patientId, Long patientUserId) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (CaregiverPatientLinkResponse link : caregiverPatientLinkService.getCaregiversByPatient(patientUserId)) {
+            userIds.add(link.caregiverUserId());
+        }
+        for (FamilyMemberLink link : familyMemberLinkRepository.findActiveFamilyMembersByPatientId(patientId, LocalDateTime.now())) {
+            userIds.add(link.getFamilyUser().getId());
+        }
+        return userIds;
+    }
+
+    private static List<FirebaseNotificationRequest> toRequests(Set<Long> userIds, String title, String body,
+                                                               String notificationType, Map<String, String> data) {
+        return userIds.stream()
+                .map(userId -> FirebaseNotificationRequest.builder()
+                        .targetUserId(userId)
+                        .title(title)
+                        .body(body)
+                        .notificationType(notificationType)
+                        .data(data)
+                        .build())
+                .toList();
     }
 }
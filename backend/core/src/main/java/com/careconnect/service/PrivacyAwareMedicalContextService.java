@@ -126,7 +126,7 @@ public class PrivacyAwareMedicalContextService {
         // Get recent values (anonymized)
         String recentValues = vitals.stream()
             .limit(3)
-            .map(v -> anonymizeVitalValue(v.getValue(), level))
+            .map(v -> anonymizeVitalValue(v, level))
             .collect(Collectors.joining(", "));
         
         // Calculate trend
@@ -136,26 +136,18 @@ public class PrivacyAwareMedicalContextService {
             vitalType, recentValues, trend);
     }
     
-    private String anonymizeVitalValue(String value, MedicalDataAnonymizer.AnonymizationLevel level) {
+    private String anonymizeVitalValue(Vital vital, MedicalDataAnonymizer.AnonymizationLevel level) {
         if (level == MedicalDataAnonymizer.AnonymizationLevel.AGGRESSIVE) {
             // Return ranges instead of specific values
-            try {
-                if (value.contains("/")) {
-                    // Blood pressure
-                    String[] parts = value.split("/");
-                    int systolic = Integer.parseInt(parts[0]);
-                    int diastolic = Integer.parseInt(parts[1]);
-                    return categorizeBloodPressure(systolic, diastolic);
-                } else {
-                    // Other vitals
-                    double numValue = Double.parseDouble(value);
-                    return categorizeVital(numValue);
-                }
-            } catch (NumberFormatException e) {
-                return "normal range";
+            if (vital.getSystolic() != null && vital.getDiastolic() != null) {
+                return categorizeBloodPressure(vital.getSystolic(), vital.getDiastolic());
             }
+            if (vital.getNumericValue() != null) {
+                return categorizeVital(vital.getNumericValue());
+            }
+            return "normal range";
         }
-        return value; // For minimal/moderate, keep actual values
+        return vital.getValue(); // For minimal/moderate, keep actual values
     }
     
     private String categorizeBloodPressure(int systolic, int diastolic) {
@@ -172,24 +164,18 @@ public class PrivacyAwareMedicalContextService {
     private String analyzeTrend(List<Vital> vitals) {
         if (vitals.size() < 2) return "insufficient data";
         
-        // Simple trend analysis
-        try {
-            String firstValue = vitals.get(vitals.size() - 1).getValue();
-            String lastValue = vitals.get(0).getValue();
-            
-            if (firstValue.contains("/") && lastValue.contains("/")) {
-                // Blood pressure trend
-                return "stable";
-            } else {
-                double first = Double.parseDouble(firstValue);
-                double last = Double.parseDouble(lastValue);
-                
-                if (Math.abs(last - first) < first * 0.1) return "stable";
-                return last > first ? "increasing" : "decreasing";
-            }
-        } catch (Exception e) {
-            return "stable";
-        }
+        // Simple trend analysis over the typed columns (systolic for blood pressure)
+        Double first = trendValue(vitals.get(vitals.size() - 1));
+        Double last = trendValue(vitals.get(0));
+        if (first == null || last == null) return "stable";
+        
+        if (Math.abs(last - first) < Math.abs(first) * 0.1) return "stable";
+        return last > first ? "increasing" : "decreasing";
+    }
+    
+    private static Double trendValue(Vital vital) {
+        if (vital.getSystolic() != null) return vital.getSystolic().doubleValue();
+        return vital.getNumericValue();
     }
     
     private String buildGeneralizedMedications(Long patientId) {
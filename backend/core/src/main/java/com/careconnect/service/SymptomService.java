@@ -5,6 +5,7 @@ import com.careconnect.model.Patient;
 import com.careconnect.model.SymptomEntry;
 import com.careconnect.repository.PatientRepository;
 import com.careconnect.repository.SymptomEntryRepository;
+import com.careconnect.service.analytics.SummaryRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,7 @@ public class SymptomService {
 
     private final SymptomEntryRepository symptomRepo;
     private final PatientRepository patientRepo;
+    private final SummaryRollupService summaryRollupService;
 
     @Transactional
     public SymptomDTO create(SymptomDTO dto) {
@@ -35,13 +37,16 @@ public class SymptomService {
                 .takenAt(dto.takenAt() != null ? dto.takenAt() : Instant.now())
                 .build();
 
-        return toDto(symptomRepo.save(entry));
+        SymptomEntry saved = symptomRepo.save(entry);
+        markRollupDirty(saved);
+        return toDto(saved);
     }
 
     @Transactional
     public SymptomDTO update(Long id, SymptomDTO dto) {
         SymptomEntry e = symptomRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Symptom not found: " + id));
+        markRollupDirty(e);
 
         if (dto.symptomKey()   != null) e.setSymptomKey(dto.symptomKey());
         if (dto.symptomValue() != null) e.setSymptomValue(dto.symptomValue());
@@ -50,7 +55,9 @@ public class SymptomService {
         if (dto.completed()    != null) e.setCompleted(dto.completed());
         if (dto.takenAt()      != null) e.setTakenAt(dto.takenAt());
 
-        return toDto(symptomRepo.save(e));
+        SymptomEntry saved = symptomRepo.save(e);
+        markRollupDirty(saved);
+        return toDto(saved);
     }
 
     public Optional<SymptomDTO> get(Long id) {
@@ -64,10 +71,16 @@ public class SymptomService {
 
     @Transactional
     public void delete(Long id) {
-        if (!symptomRepo.existsById(id)) {
-            throw new IllegalArgumentException("Symptom not found: " + id);
+        SymptomEntry e = symptomRepo.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Symptom not found: " + id));
+        symptomRepo.delete(e);
+        markRollupDirty(e);
+    }
+
+    private void markRollupDirty(SymptomEntry e) {
+        if (e.getPatient() != null && e.getPatient().getUser() != null) {
+            summaryRollupService.markDirty(e.getPatient().getUser().getId(), e.getTakenAt());
         }
-        symptomRepo.deleteById(id);
     }
 
     private SymptomDTO toDto(SymptomEntry e) {
@@ -9,9 +9,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.careconnect.repository.*;
+import com.careconnect.service.calendar.CalendarFeedService;
 
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +31,9 @@ public class TaskService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
     public Task getTaskById(Long taskId) {
         return taskRepository.findById(taskId)
                 .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Task not found"));
@@ -49,7 +54,7 @@ public class TaskService {
         Task newTask = Task.builder()
                 .name(task.getName())
                 .description(task.getDescription())
-                .date(task.getDate())
+                .date(parseDate(task.getDate()))
                 .timeOfDay(task.getTimeOfDay())
                 .isCompleted(task.isCompleted())
                 .frequency(task.getFrequency())
@@ -61,11 +66,14 @@ public class TaskService {
                 .build();
         System.out.println("New task created: " + newTask);
         ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
         try {
             String jsonString = mapper.writeValueAsString(newTask);
             System.out.println("Serialized task: " + jsonString);
-            return taskRepository.save(newTask);
+            Task saved = taskRepository.save(newTask);
+            calendarFeedService.invalidatePatient(patient.getId());
+            return saved;
         } catch (Exception e) {
             throw new AppException(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Failed to create task: " + e.getMessage());
@@ -77,7 +85,7 @@ public class TaskService {
         // Update fields as necessary
         existingTask.setName(task.getName());
         existingTask.setDescription(task.getDescription());
-        existingTask.setDate(task.getDate());
+        existingTask.setDate(parseDate(task.getDate()));
         existingTask.setTimeOfDay(task.getTimeOfDay());
         existingTask.setCompleted(task.isCompleted());
         existingTask.setTaskType(task.getTaskType());
@@ -87,12 +95,19 @@ public class TaskService {
         existingTask.setDaysOfWeek(task.getDaysOfWeek());
 
         // Save the updated task
-        return taskRepository.save(existingTask);   
+        Task saved = taskRepository.save(existingTask);
+        if (existingTask.getPatient() != null) {
+            calendarFeedService.invalidatePatient(existingTask.getPatient().getId());
+        }
+        return saved;
     }
 
     public boolean deleteTask(Long taskId) {
         Task task = getTaskById(taskId);
         taskRepository.delete(task);
+        if (task.getPatient() != null) {
+            calendarFeedService.invalidatePatient(task.getPatient().getId());
+        }
         return true;
     }
 
@@ -108,5 +123,17 @@ public class TaskService {
         return tasks;
     }
 
+    // Accepts "YYYY-MM-DD" or "YYYY-MM-DDTHH:mm..."
+    private static LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.substring(0, Math.min(10, date.length())));
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "Invalid task date: " + date);
+        }
+    }
+
     // Additional methods for TaskService can be added here
 }
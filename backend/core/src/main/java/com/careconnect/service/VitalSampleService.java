@@ -5,22 +5,36 @@ import com.careconnect.model.Patient;
 import com.careconnect.model.VitalSample;
 import com.careconnect.repository.PatientRepository;
 import com.careconnect.repository.VitalSampleRepository;
+import com.careconnect.service.analytics.LiveMetricsHub;
+import com.careconnect.service.analytics.VitalAnomalyDetector;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Anomaly;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Metric;
+import com.careconnect.service.emergency.CaregiverRoutingTable;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class VitalSampleService {
     
     private final VitalSampleRepository vitalSampleRepository;
     private final PatientRepository patientRepository;
+    private final LiveMetricsHub liveMetricsHub;
+    private final VitalAnomalyDetector vitalAnomalyDetector;
+    private final WebSocketNotificationService webSocketNotificationService;
+    private final CaregiverRoutingTable caregiverRoutingTable;
     
     /**
      * Create a new vital sample
@@ -44,10 +58,11 @@ public class VitalSampleService {
         
         VitalSample saved = vitalSampleRepository.save(vitalSample);
         
-        // Check for vital alerts and send notifications asynchronously
-        checkAndSendVitalAlerts(saved);
+        VitalSampleDTO created = mapToDTO(saved);
+        detectAnomalies(patient, created);
+        liveMetricsHub.markDirty(patient.getId());
         
-        return mapToDTO(saved);
+        return created;
     }
     
     /**
@@ -85,7 +100,10 @@ public class VitalSampleService {
         }
         
         VitalSample updated = vitalSampleRepository.save(existing);
-        return mapToDTO(updated);
+        VitalSampleDTO result = mapToDTO(updated);
+        detectAnomalies(updated.getPatient(), result);
+        liveMetricsHub.markDirty(updated.getPatient().getId());
+        return result;
     }
     
     /**
@@ -118,10 +136,10 @@ public class VitalSampleService {
      */
     @Transactional
     public void deleteVitalSample(Long id) {
-        if (!vitalSampleRepository.existsById(id)) {
-            throw new IllegalArgumentException("VitalSample not found with id: " + id);
-        }
-        vitalSampleRepository.deleteById(id);
+        VitalSample existing = vitalSampleRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("VitalSample not found with id: " + id));
+        vitalSampleRepository.delete(existing);
+        liveMetricsHub.markDirty(existing.getPatient().getId());
     }
     
     /**
@@ -154,108 +172,60 @@ public class VitalSampleService {
     }
     
     /**
-     * Check vital signs and send alerts if necessary
+     * Run the sample through the anomaly detector once the transaction commits and alert the
+     * patient's caregivers about anything it reports
      */
-    private void checkAndSendVitalAlerts(VitalSample vitalSample) {
-        try {
-            Long patientId = vitalSample.getPatient().getId();
-            
-            // Check heart rate alerts
-            if (vitalSample.getHeartRate() != null) {
-                String alertLevel = determineHeartRateAlert(vitalSample.getHeartRate());
-                if (!"NORMAL".equals(alertLevel)) {
-                    sendVitalAlertIfEnabled(
-                        patientId, 
-                        "Heart Rate", 
-                        vitalSample.getHeartRate() + " bpm", 
-                        alertLevel
-                    );
+    private void detectAnomalies(Patient patient, VitalSampleDTO sample) {
+        if (!vitalAnomalyDetector.isEnabled() || sample.timestamp() == null) {
+            return;
+        }
+        Long patientId = patient.getId();
+        Long patientUserId = patient.getUser() != null ? patient.getUser().getId() : null;
+        String patientName = ((patient.getFirstName() != null ? patient.getFirstName() : "") + " "
+            + (patient.getLastName() != null ? patient.getLastName() : "")).trim();
+
+        Runnable check = () -> {
+            try {
+                List<Anomaly> anomalies = new ArrayList<>();
+                observe(anomalies, patientId, sample.timestamp(), Metric.HEART_RATE, sample.heartRate());
+                observe(anomalies, patientId, sample.timestamp(), Metric.SPO2, sample.spo2());
+                observe(anomalies, patientId, sample.timestamp(), Metric.SYSTOLIC, sample.systolic());
+                observe(anomalies, patientId, sample.timestamp(), Metric.DIASTOLIC, sample.diastolic());
+                observe(anomalies, patientId, sample.timestamp(), Metric.WEIGHT, sample.weight());
+                if (anomalies.isEmpty() || patientUserId == null) {
+                    return;
                 }
-            }
-            
-            // Check SpO2 alerts
-            if (vitalSample.getSpo2() != null) {
-                String alertLevel = determineSpO2Alert(vitalSample.getSpo2());
-                if (!"NORMAL".equals(alertLevel)) {
-                    sendVitalAlertIfEnabled(
-                        patientId, 
-                        "Blood Oxygen (SpO2)", 
-                        vitalSample.getSpo2() + "%", 
-                        alertLevel
-                    );
+                String[] recipients = caregiverRoutingTable.routesFor(patientUserId).stream()
+                    .map(route -> String.valueOf(route.caregiverUserId()))
+                    .toArray(String[]::new);
+                if (recipients.length == 0) {
+                    log.debug("No caregivers to alert for patient {}", patientId);
+                    return;
                 }
-            }
-            
-            // Check blood pressure alerts
-            if (vitalSample.getSystolic() != null || vitalSample.getDiastolic() != null) {
-                String alertLevel = determineBPAlert(vitalSample.getSystolic(), vitalSample.getDiastolic());
-                if (!"NORMAL".equals(alertLevel)) {
-                    String bpValue = (vitalSample.getSystolic() != null ? vitalSample.getSystolic() : "?") + 
-                                   "/" + (vitalSample.getDiastolic() != null ? vitalSample.getDiastolic() : "?");
-                    sendVitalAlertIfEnabled(
-                        patientId, 
-                        "Blood Pressure", 
-                        bpValue + " mmHg", 
-                        alertLevel
-                    );
+                for (Anomaly anomaly : anomalies) {
+                    webSocketNotificationService.sendVitalSignsAlert(String.valueOf(patientId), patientName,
+                        anomaly.metric().label, anomaly.message(), anomaly.severity().name(), recipients);
                 }
+            } catch (Exception e) {
+                // Alerting must never affect the recorded sample
+                log.error("Vital anomaly check failed for patient {}", patientId, e);
             }
-            
-            // Check mood alerts (severe depression or anxiety)
-            if (vitalSample.getMoodValue() != null && vitalSample.getMoodValue() <= 2) {
-                sendVitalAlertIfEnabled(
-                    patientId, 
-                    "Mood", 
-                    "Low mood score: " + vitalSample.getMoodValue(), 
-                    "HIGH"
-                );
-            }
-            
-            // Check pain alerts (severe pain)
-            if (vitalSample.getPainValue() != null && vitalSample.getPainValue() >= 8) {
-                sendVitalAlertIfEnabled(
-                    patientId, 
-                    "Pain Level", 
-                    "High pain score: " + vitalSample.getPainValue(), 
-                    "HIGH"
-                );
-            }
-            
-        } catch (Exception e) {
-            // Log error but don't fail the vital recording
-            System.err.println("Error sending vital alerts: " + e.getMessage());
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    check.run();
+                }
+            });
+        } else {
+            check.run();
         }
     }
-    
-    private String determineHeartRateAlert(Double heartRate) {
-        if (heartRate == null) return "NORMAL";
-        if (heartRate < 60) return "LOW";
-        if (heartRate > 100) return "HIGH"; 
-        if (heartRate > 120) return "CRITICAL";
-        return "NORMAL";
-    }
-    
-    private String determineSpO2Alert(Double spo2) {
-        if (spo2 == null) return "NORMAL";
-        if (spo2 < 90) return "CRITICAL";
-        if (spo2 < 95) return "HIGH";
-        return "NORMAL";
-    }
-    
-    private String determineBPAlert(Integer systolic, Integer diastolic) {
-        if (systolic != null && systolic > 180) return "CRITICAL";
-        if (diastolic != null && diastolic > 110) return "CRITICAL";
-        if (systolic != null && systolic > 140) return "HIGH";
-        if (diastolic != null && diastolic > 90) return "HIGH";
-        if (systolic != null && systolic < 90) return "LOW";
-        if (diastolic != null && diastolic < 60) return "LOW";
-        return "NORMAL";
-    }
-    
-    /**
-     * Helper method to send vital alerts only if Firebase is enabled
-     */
-    private void sendVitalAlertIfEnabled(Long patientId, String type, String value, String alertLevel) {
-        // Firebase notification logic removed
+
+    private void observe(List<Anomaly> anomalies, Long patientId, Instant at, Metric metric, Number value) {
+        if (value != null) {
+            anomalies.addAll(vitalAnomalyDetector.observe(patientId, at, metric, value.doubleValue()));
+        }
     }
 }
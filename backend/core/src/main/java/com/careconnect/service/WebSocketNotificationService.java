@@ -2,14 +2,18 @@ package com.careconnect.service;
 
 import com.careconnect.websocket.CallNotificationHandler;
 import com.careconnect.websocket.CareConnectWebSocketHandler;
-import com.careconnect.dto.CaregiverPatientLinkResponse;
+import com.careconnect.model.User;
+import com.careconnect.repository.UserRepository;
+import com.careconnect.service.emergency.SosDispatchService;
+import com.careconnect.service.presence.PresenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -25,7 +29,10 @@ public class WebSocketNotificationService {
 
     private final CallNotificationHandler callNotificationHandler;
     private final CareConnectWebSocketHandler careConnectWebSocketHandler;
-    private final CaregiverPatientLinkService caregiverPatientLinkService;
+    private final SosDispatchService sosDispatchService;
+    private final NotificationLogService notificationLogService;
+    private final PresenceService presenceService;
+    private final UserRepository userRepository;
 
     /**
      * Send a call invitation to a specific user
@@ -42,7 +49,8 @@ public class WebSocketNotificationService {
             "timestamp", System.currentTimeMillis()
         );
         
-        callNotificationHandler.sendNotificationToUser(recipientId, notification);
+        callNotificationHandler.sendNotificationToUser(recipientId,
+            notificationLogService.append(recipientId, notification));
         log.info("Call invitation sent to user {} from {}", recipientId, senderId);
     }
 
@@ -113,10 +121,36 @@ public class WebSocketNotificationService {
             "timestamp", System.currentTimeMillis()
         );
         
-        careConnectWebSocketHandler.sendRealTimeUpdate(patientId, notification);
+        careConnectWebSocketHandler.sendRealTimeUpdate(patientId,
+            notificationLogService.append(patientId, notification));
         log.info("Medication reminder sent to patient {} for {}", patientId, medicationName);
     }
 
+    /**
+     * Send a due scheduled notification (task reminder) to its receiver
+     *
+     * @return whether an open session of the receiver received it; it is logged for
+     *         replay either way
+     */
+    public boolean sendScheduledNotification(String receiverId, Long notificationId, String title,
+                                          String body, String notificationType, String scheduledTime) {
+        Map<String, Object> notification = Map.of(
+            "type", "scheduled-notification",
+            "notificationId", notificationId,
+            "notificationType", notificationType != null ? notificationType : "REMINDER",
+            "title", title != null ? title : "",
+            "message", body != null ? body : "",
+            "scheduledTime", scheduledTime,
+            "timestamp", System.currentTimeMillis()
+        );
+
+        boolean delivered = careConnectWebSocketHandler.sendRealTimeUpdate(receiverId,
+            notificationLogService.append(receiverId, notification));
+        log.debug("Scheduled notification {} {} user {}", notificationId,
+            delivered ? "sent to" : "logged for offline", receiverId);
+        return delivered;
+    }
+
     /**
      * Send vital signs alert to healthcare providers
      */
@@ -132,9 +166,10 @@ public class WebSocketNotificationService {
             "timestamp", System.currentTimeMillis()
         );
         
-        // Send to multiple healthcare providers
+        // Send to multiple healthcare providers, logging each copy for replay on reconnect
         for (String recipientId : recipientIds) {
-            careConnectWebSocketHandler.sendRealTimeUpdate(recipientId, notification);
+            careConnectWebSocketHandler.sendRealTimeUpdate(recipientId,
+                notificationLogService.append(recipientId, notification));
         }
         
         log.info("Vital signs alert sent for patient {} to {} recipients", patientId, recipientIds.length);
@@ -217,85 +252,57 @@ public class WebSocketNotificationService {
     }
 
     /**
-     * Check if a user is currently online
+     * Check if a user is currently online; an ID that is not a number is never online
      */
     public boolean isUserOnline(String userId) {
-        return careConnectWebSocketHandler.isUserOnline(userId);
+        if (userId == null) {
+            return false;
+        }
+        try {
+            return presenceService.isOnline(Long.valueOf(userId.trim()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Which of the given users are online, in one call
+     */
+    public Set<Long> getOnlineUserIds(Collection<Long> userIds) {
+        return presenceService.onlineAmong(userIds);
     }
 
     /**
      * Get count of online users
      */
     public int getOnlineUsersCount() {
-        return careConnectWebSocketHandler.getOnlineUsersCount();
+        return presenceService.onlineCount();
     }
 
     /**
      * Get list of online users (for admin purposes)
      */
     public Map<String, String> getOnlineUsers() {
-        return callNotificationHandler.getOnlineUsers();
+        Map<String, String> onlineUsers = new LinkedHashMap<>();
+        for (User user : userRepository.findAllById(presenceService.onlineUserIds())) {
+            onlineUsers.put(user.getId().toString(), user.getEmail());
+        }
+        return onlineUsers;
     }
     
     // Additional REST API support methods
     
     /**
-     * Send SOS call to all caregivers associated with a patient
+     * Send SOS call to all caregivers associated with a patient over the priority SOS lane
+     *
+     * @return number of caregivers actually reached on at least one channel
      */
     public int sendSOSCallToAllCaregivers(String patientUserId, String patientName, 
                                         String callId, String emergencyType, String location, 
                                         String additionalInfo, boolean isVideoCall) {
         try {
-            // Get all caregivers associated with this patient
-            List<CaregiverPatientLinkResponse> caregiverLinks = 
-                caregiverPatientLinkService.getCaregiversByPatient(Long.parseLong(patientUserId));
-            
-            if (caregiverLinks.isEmpty()) {
-                log.warn("No caregivers found for patient user ID: {}", patientUserId);
-                return 0;
-            }
-            
-            // Prepare SOS call notification
-            Map<String, Object> sosNotification = Map.of(
-                "type", "sos-call",
-                "timestamp", Instant.now().toString(),
-                "data", Map.of(
-                    "patientUserId", patientUserId,
-                    "patientName", patientName,
-                    "callId", callId,
-                    "emergencyType", emergencyType,
-                    "location", location != null ? location : "Unknown",
-                    "additionalInfo", additionalInfo != null ? additionalInfo : "",
-                    "isVideoCall", isVideoCall,
-                    "priority", "CRITICAL",
-                    "message", "🚨 EMERGENCY: " + patientName + " needs immediate assistance!",
-                    "urgency", "HIGH"
-                )
-            );
-            
-            int notifiedCount = 0;
-            
-            // Send SOS call to each caregiver
-            for (CaregiverPatientLinkResponse link : caregiverLinks) {
-                try {
-                    callNotificationHandler.sendCallInvitation(
-                        link.caregiverUserId().toString(), 
-                        sosNotification
-                    );
-                    notifiedCount++;
-                    log.info("SOS call sent to caregiver {} for patient {}", 
-                            link.caregiverName(), patientName);
-                } catch (Exception e) {
-                    log.error("Failed to send SOS call to caregiver {}: {}", 
-                            link.caregiverUserId(), e.getMessage());
-                }
-            }
-            
-            log.info("SOS call from patient {} sent to {} caregivers", 
-                    patientName, notifiedCount);
-            
-            return notifiedCount;
-            
+            return sosDispatchService.dispatch(Long.parseLong(patientUserId), patientName, callId,
+                    emergencyType, location, additionalInfo, isVideoCall).reached();
         } catch (Exception e) {
             log.error("Error sending SOS call for patient {}: {}", patientUserId, e.getMessage());
             throw new RuntimeException("Failed to send SOS call to caregivers", e);
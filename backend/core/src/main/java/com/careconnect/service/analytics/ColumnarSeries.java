@@ -0,0 +1,175 @@
+package com.careconnect.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Append-only time series for one metric, stored as primitive columns: timestamps
+ * delta-encoded as the gap in milliseconds to the previous sample, and the matching values.
+ *
+ * <p>
+ * Gaps are {@code int}s, 4 bytes per sample instead of 8 for epoch millis; a series whose
+ * gap ever exceeds {@code int} range (about 24 days) widens its gaps to {@code long}. Every
+ * {@value #BLOCK}th timestamp is also kept whole as a checkpoint, so a timestamp is rebuilt
+ * from its checkpoint and at most {@value #BLOCK} gaps, and ranges are found by binary search
+ * over the checkpoints without allocating. Readers walking the series in order add
+ * {@link #gapAt} to the previous timestamp instead. Not thread-safe; callers synchronize.
+ * </p>
+ */
+final class ColumnarSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+    static final int BLOCK = 64;
+    private static final int SHIFT = Integer.numberOfTrailingZeros(BLOCK);
+
+    /** {@code gaps[i]} is the gap between samples {@code i - 1} and {@code i}; {@code gaps[0]} is 0 */
+    private int[] gaps = new int[INITIAL_CAPACITY];
+    /** Replaces {@link #gaps} once a gap does not fit in an {@code int} */
+    private long[] wideGaps;
+    /** Timestamp of every sample whose index is a multiple of {@link #BLOCK} */
+    private long[] checkpoints = new long[1];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long last;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long timestampAt(int index) {
+        int start = index & -BLOCK;
+        long timestamp = checkpoints[index >>> SHIFT];
+        for (int i = start + 1; i <= index; i++) {
+            timestamp += gapAt(i);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Milliseconds between sample {@code index - 1} and sample {@code index}
+     */
+    long gapAt(int index) {
+        return wideGaps != null ? wideGaps[index] : gaps[index];
+    }
+
+    double valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Add a sample. In-order samples are appended; a late sample is inserted after any
+     * existing samples with the same timestamp, and the gaps after it are re-encoded.
+     */
+    void append(long epochMillis, double value) {
+        if (size == values.length) {
+            grow();
+        }
+        if (size == 0 || epochMillis >= last) {
+            values[size] = value;
+            encode(size, epochMillis, last);
+            last = epochMillis;
+            size++;
+            return;
+        }
+
+        int index = upperBound(epochMillis);
+        long[] shifted = new long[size - index];
+        long timestamp = timestampAt(index);
+        for (int i = 0; i < shifted.length; i++) {
+            if (i > 0) {
+                timestamp += gapAt(index + i);
+            }
+            shifted[i] = timestamp;
+        }
+        long previous = index == 0 ? epochMillis : timestampAt(index - 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+
+        encode(index, epochMillis, previous);
+        previous = epochMillis;
+        for (int i = 0; i < shifted.length; i++) {
+            encode(index + 1 + i, shifted[i], previous);
+            previous = shifted[i];
+        }
+        last = previous;
+    }
+
+    /**
+     * Index of the first sample at or after {@code epochMillis}
+     */
+    int lowerBound(long epochMillis) {
+        return search(epochMillis, false);
+    }
+
+    /**
+     * Index of the first sample after {@code epochMillis}
+     */
+    int upperBound(long epochMillis) {
+        return search(epochMillis, true);
+    }
+
+    /**
+     * Binary search over the checkpoints for the block the answer falls in, then a scan of
+     * at most one block
+     */
+    private int search(long epochMillis, boolean inclusive) {
+        int lo = 0;
+        int hi = (size + BLOCK - 1) >>> SHIFT;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (before(checkpoints[mid], epochMillis, inclusive)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0) {
+            return 0;
+        }
+        int index = (lo - 1) << SHIFT;
+        long timestamp = checkpoints[lo - 1];
+        while (before(timestamp, epochMillis, inclusive)) {
+            if (++index == size) {
+                return size;
+            }
+            timestamp += gapAt(index);
+        }
+        return index;
+    }
+
+    private static boolean before(long timestamp, long epochMillis, boolean inclusive) {
+        return inclusive ? timestamp <= epochMillis : timestamp < epochMillis;
+    }
+
+    private void encode(int index, long epochMillis, long previous) {
+        long gap = index == 0 ? 0 : epochMillis - previous;
+        if (wideGaps == null && gap > Integer.MAX_VALUE) {
+            wideGaps = new long[gaps.length];
+            for (int i = 0; i < gaps.length; i++) {
+                wideGaps[i] = gaps[i];
+            }
+            gaps = null;
+        }
+        if (wideGaps != null) {
+            wideGaps[index] = gap;
+        } else {
+            gaps[index] = (int) gap;
+        }
+        if ((index & (BLOCK - 1)) == 0) {
+            int block = index >>> SHIFT;
+            if (block == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, block * 2);
+            }
+            checkpoints[block] = epochMillis;
+        }
+    }
+
+    private void grow() {
+        values = Arrays.copyOf(values, size * 2);
+        if (wideGaps != null) {
+            wideGaps = Arrays.copyOf(wideGaps, size * 2);
+        } else {
+            gaps = Arrays.copyOf(gaps, size * 2);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.repository.VitalDownsampleRepository.MetricBucket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downsampling algorithms for time series held as parallel timestamp/value arrays sorted by
+ * timestamp.
+ *
+ * <ul>
+ *   <li>{@link #lttb} (Largest-Triangle-Three-Buckets) picks the real samples that best keep
+ *       the visual shape of a line, including isolated spikes.</li>
+ *   <li>{@link #minMax} reduces a series to fixed-width buckets of min/max/avg for range bands.</li>
+ * </ul>
+ */
+public final class Downsampling {
+
+    private Downsampling() {
+    }
+
+    /**
+     * Indices of the samples kept by Largest-Triangle-Three-Buckets, ascending. The first and
+     * last samples are always kept; all samples are kept when {@code n <= threshold}.
+     *
+     * @param t         timestamps, ascending
+     * @param v         values
+     * @param n         number of samples used from the arrays
+     * @param threshold maximum number of samples to keep
+     */
+    public static int[] lttb(long[] t, double[] v, int n, int threshold) {
+        if (n <= threshold || n <= 2) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        if (threshold < 3) {
+            return threshold < 2 ? new int[] {0} : new int[] {0, n - 1};
+        }
+
+        // Timestamps are taken relative to the first sample to keep double precision
+        long t0 = t[0];
+        int[] kept = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        int k = 0;
+        kept[k++] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += t[j] - t0;
+                avgY += v[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double ax = t[a] - t0;
+            double ay = v[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (v[j] - ay) - (ax - (t[j] - t0)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            kept[k++] = next;
+            a = next;
+        }
+        kept[k] = n - 1;
+        return kept;
+    }
+
+    /**
+     * Fixed-width buckets of {@code [from, from + buckets * width)}; empty buckets are omitted
+     * and samples outside the range are ignored
+     *
+     * @param metric  metric name copied into each bucket
+     * @param t       timestamps in epoch milliseconds, ascending
+     * @param v       values
+     * @param n       number of samples used from the arrays
+     * @param from    start of the first bucket in epoch milliseconds
+     * @param width   bucket width in milliseconds
+     * @param buckets number of buckets
+     */
+    public static List<MetricBucket> minMax(String metric, long[] t, double[] v, int n,
+                                            long from, long width, int buckets) {
+        List<MetricBucket> result = new ArrayList<>();
+        int i = 0;
+        while (i < n && t[i] < from) {
+            i++;
+        }
+        while (i < n) {
+            long bucket = (t[i] - from) / width;
+            if (bucket >= buckets) {
+                break;
+            }
+            long end = from + (bucket + 1) * width;
+            double min = v[i];
+            double max = v[i];
+            long minAt = t[i];
+            long maxAt = t[i];
+            double sum = 0;
+            int count = 0;
+            for (; i < n && t[i] < end; i++) {
+                if (v[i] < min) {
+                    min = v[i];
+                    minAt = t[i];
+                }
+                if (v[i] > max) {
+                    max = v[i];
+                    maxAt = t[i];
+                }
+                sum += v[i];
+                count++;
+            }
+            result.add(new MetricBucket(metric, from + bucket * width, min, minAt, max, maxAt, sum / count, count));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,355 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.ExportConfig;
+import com.careconnect.dto.ExportJobDTO;
+import com.careconnect.dto.ExportLinkDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.service.AnalyticsService;
+import com.careconnect.service.ExportSigner;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Period;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates vitals exports in the background and hands out signed download links.
+ *
+ * <p>
+ * Submitting returns a job at once; a bounded worker pool writes the artifact to local
+ * storage while the job reports its progress in bytes. Once completed, every status poll
+ * carries a fresh link from {@link ExportSigner}, and the download endpoint serves the file
+ * to anyone holding a valid link. Identical requests (same patient, days, format and summary
+ * flag) share one job: while it is queued or running, and for the retention window after it
+ * completed. A job's status is only shown to the users who requested it. Callers check that
+ * the user may see the patient before submitting. Finished files are deleted after
+ * {@code jobRetentionMinutes}.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportJobService {
+
+    public static final String DOWNLOAD_PATH = "/v1/api/analytics/export/download/";
+
+    private static final String FILE_PREFIX = "vitals-export-";
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        PDF("pdf", "application/pdf");
+
+        public final String extension;
+        public final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new AppException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+            }
+        }
+    }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /** What makes two export requests identical */
+    private record Key(Long patientId, int days, Format format, boolean summary) {}
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final Key key;
+        final Instant createdAt = Instant.now();
+        final AtomicLong bytesWritten = new AtomicLong();
+        /** Users who submitted this job, the only ones who may poll it */
+        final Set<Long> requesters = ConcurrentHashMap.newKeySet();
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+        volatile Status status = Status.QUEUED;
+        volatile Instant completedAt;
+        volatile String error;
+        volatile Path file;
+
+        Job(Key key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A completed export ready to be served
+     */
+    public record Artifact(Path file, String fileName, String contentType, long size) {}
+
+    private final AnalyticsService analyticsService;
+    private final PatientRepository patientRepository;
+    private final ExportSigner exportSigner;
+    private final ExportConfig config;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Key, Job> byKey = new ConcurrentHashMap<>();
+
+    private Path storageDir;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    void start() throws IOException {
+        storageDir = config.getJobStorageDir() == null || config.getJobStorageDir().isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "careconnect-exports")
+                : Path.of(config.getJobStorageDir());
+        Files.createDirectories(storageDir);
+        // Job state lives in memory, so files left by a previous process can no longer be served
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(storageDir, FILE_PREFIX + "*")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(config.getJobWorkers(), config.getJobWorkers(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getJobQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "export-worker-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queue an export, or join the identical one that is pending or recently completed
+     *
+     * @param userId the requesting user, who may then poll the job
+     */
+    public ExportJobDTO submit(Long userId, Long patientId, int days, Format format, boolean summary) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new AppException(HttpStatus.NOT_FOUND, "Patient profile not found");
+        }
+        Key key = new Key(patientId, Math.max(1, days), format, format == Format.PDF && summary);
+        Job[] created = new Job[1];
+        Job job = byKey.compute(key, (k, existing) -> {
+            if (existing != null && reusable(existing)) {
+                return existing;
+            }
+            created[0] = new Job(k);
+            return created[0];
+        });
+        job.requesters.add(userId);
+
+        if (job == created[0]) {
+            jobs.put(job.id, job);
+            try {
+                workers.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                byKey.remove(key, job);
+                throw new AppException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports in progress, try again later");
+            }
+        }
+        return toDto(job);
+    }
+
+    /**
+     * Current state of a job, with a freshly signed link once it has completed. Jobs the user
+     * did not request are reported as not found.
+     */
+    public ExportJobDTO status(String jobId, Long userId) {
+        Job job = find(jobId);
+        if (!job.requesters.contains(userId)) {
+            throw new AppException(HttpStatus.NOT_FOUND, "Export job not found");
+        }
+        return toDto(job);
+    }
+
+    /**
+     * Completes once the job has completed or failed
+     */
+    CompletableFuture<Void> finished(String jobId) {
+        return find(jobId).finished;
+    }
+
+    /**
+     * The file behind a signed download link
+     *
+     * @param expires expiry in epoch seconds, as carried by the link
+     */
+    public Artifact download(String jobId, long expires, String sig) {
+        if (!exportSigner.verify(DOWNLOAD_PATH + jobId, expires, sig)) {
+            throw new AppException(HttpStatus.FORBIDDEN, "Download link is invalid or has expired");
+        }
+        Job job = find(jobId);
+        Path file = job.file;
+        if (job.status != Status.COMPLETED || file == null || !Files.exists(file)) {
+            throw new AppException(HttpStatus.GONE, "Export is no longer available");
+        }
+        return new Artifact(file, "vitals." + job.key.format().extension,
+                job.key.format().contentType, job.bytesWritten.get());
+    }
+
+    /**
+     * Forget finished jobs past retention and delete their files
+     */
+    @Scheduled(fixedDelayString = "${careconnect.analytics.export.job-sweep-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        for (Job job : jobs.values()) {
+            if (job.completedAt != null && now.isAfter(deleteAt(job))) {
+                jobs.remove(job.id);
+                byKey.remove(job.key, job);
+                deleteQuietly(job.file);
+            }
+        }
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        Key key = job.key;
+        Path file = storageDir.resolve(FILE_PREFIX + job.id + "." + key.format().extension);
+        Path part = storageDir.resolve(file.getFileName() + ".part");
+        try {
+            try (OutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024), job.bytesWritten)) {
+                Period period = Period.ofDays(key.days());
+                if (key.format() == Format.CSV) {
+                    analyticsService.writeVitalsCsv(key.patientId(), period, out);
+                } else {
+                    analyticsService.writeVitalsPdf(key.patientId(), period, key.summary(), out);
+                }
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.completedAt = Instant.now();
+            job.status = Status.COMPLETED;
+        } catch (Exception e) {
+            log.error("Export job {} for patient {} failed", job.id, key.patientId(), e);
+            deleteQuietly(part);
+            job.error = e instanceof AppException ? e.getMessage() : "Export failed";
+            job.completedAt = Instant.now();
+            job.status = Status.FAILED;
+            byKey.remove(key, job);
+        } finally {
+            job.finished.complete(null);
+        }
+    }
+
+    /**
+     * Pending jobs are always shared; completed ones only while a new link would stay valid
+     * for its full TTL before the file is deleted
+     */
+    private boolean reusable(Job job) {
+        return switch (job.status) {
+            case QUEUED, RUNNING -> true;
+            case COMPLETED -> Instant.now().plus(linkTtl()).isBefore(deleteAt(job));
+            case FAILED -> false;
+        };
+    }
+
+    private Job find(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new AppException(HttpStatus.NOT_FOUND, "Export job not found");
+        }
+        return job;
+    }
+
+    private ExportJobDTO toDto(Job job) {
+        ExportLinkDTO link = null;
+        if (job.status == Status.COMPLETED) {
+            Duration validFor = Duration.between(Instant.now(), deleteAt(job));
+            link = exportSigner.sign(DOWNLOAD_PATH + job.id,
+                    validFor.compareTo(linkTtl()) < 0 ? validFor : linkTtl());
+            link.setFileName("vitals." + job.key.format().extension);
+            link.setFileType(job.key.format().contentType);
+            link.setFileSizeBytes(job.bytesWritten.get());
+            link.setStatus(job.status.name());
+        }
+        return ExportJobDTO.builder()
+                .jobId(job.id)
+                .patientId(job.key.patientId())
+                .format(job.key.format().name())
+                .days(job.key.days())
+                .summary(job.key.summary())
+                .status(job.status.name())
+                .bytesWritten(job.bytesWritten.get())
+                .createdAt(job.createdAt)
+                .completedAt(job.completedAt)
+                .error(job.error)
+                .link(link)
+                .build();
+    }
+
+    private Instant deleteAt(Job job) {
+        return job.completedAt.plus(Duration.ofMinutes(config.getJobRetentionMinutes()));
+    }
+
+    private Duration linkTtl() {
+        return Duration.ofMinutes(config.getLinkTtlMinutes());
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    /** Publishes the bytes written so far as job progress */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong count;
+
+        CountingOutputStream(OutputStream out, AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.LiveMetricsConfig;
+import com.careconnect.dto.DashboardDTO;
+import com.careconnect.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Period;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-patient live dashboard topics for the analytics SSE stream.
+ *
+ * <p>
+ * All subscribers on a patient share one topic. A topic is recomputed only when it was
+ * marked dirty by a vitals or mood/pain write, or when its last snapshot is older than
+ * the refresh interval; the single resulting {@link DashboardDTO} is sent to every
+ * subscriber. Database load therefore follows the write rate of watched patients
+ * rather than the number of open dashboards. Writes for unwatched patients are ignored.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveMetricsHub {
+
+    private static class Topic {
+        final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+        final AtomicBoolean dirty = new AtomicBoolean(true);
+        volatile DashboardDTO snapshot;
+        volatile long computedAt;
+    }
+
+    private final AnalyticsService analyticsService;
+    private final LiveMetricsConfig config;
+
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+    private volatile long lastHeartbeatAt = System.currentTimeMillis();
+
+    /**
+     * Open a live stream for a patient. The latest snapshot, if any, is sent right away;
+     * otherwise the first one follows on the next tick.
+     */
+    public SseEmitter subscribe(Long patientId) {
+        SseEmitter emitter = new SseEmitter(config.getEmitterTimeoutMs());
+        Topic topic = topics.computeIfAbsent(patientId, id -> new Topic());
+        topic.emitters.add(emitter);
+
+        emitter.onCompletion(() -> unsubscribe(patientId, emitter));
+        emitter.onTimeout(() -> unsubscribe(patientId, emitter));
+        emitter.onError(e -> unsubscribe(patientId, emitter));
+
+        DashboardDTO snapshot = topic.snapshot;
+        if (snapshot != null) {
+            send(patientId, emitter, snapshot);
+        }
+        log.debug("Live analytics subscriber added for patient {} ({} total)", patientId, topic.emitters.size());
+        return emitter;
+    }
+
+    /**
+     * Signal that a patient's metrics changed; the dashboard is recomputed on the next tick.
+     * Inside a transaction the topic is only marked once it commits, so a tick never
+     * recomputes from data the write has not made visible yet.
+     */
+    public void markDirty(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    setDirty(patientId);
+                }
+            });
+        } else {
+            setDirty(patientId);
+        }
+    }
+
+    private void setDirty(Long patientId) {
+        Topic topic = topics.get(patientId);
+        if (topic != null) {
+            topic.dirty.set(true);
+        }
+    }
+
+    /**
+     * Recompute dirty or stale topics once and multicast the result
+     */
+    @Scheduled(fixedDelayString = "${careconnect.analytics.live.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        topics.forEach((patientId, topic) -> {
+            boolean stale = now - topic.computedAt >= config.getRefreshIntervalMs();
+            if (!topic.dirty.getAndSet(false) && !stale) {
+                return;
+            }
+            try {
+                DashboardDTO dashboard = analyticsService.getDashboard(patientId, Period.ofDays(config.getWindowDays()));
+                topic.snapshot = dashboard;
+                topic.computedAt = now;
+                topic.emitters.forEach(emitter -> send(patientId, emitter, dashboard));
+            } catch (Exception e) {
+                topic.computedAt = now;
+                log.warn("Failed to compute live dashboard for patient {}: {}", patientId, e.getMessage());
+            }
+        });
+
+        if (now - lastHeartbeatAt >= config.getHeartbeatIntervalMs()) {
+            lastHeartbeatAt = now;
+            topics.forEach((patientId, topic) -> topic.emitters.forEach(emitter -> {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(patientId, emitter);
+                }
+            }));
+        }
+    }
+
+    private void send(Long patientId, SseEmitter emitter, DashboardDTO dashboard) {
+        try {
+            emitter.send(dashboard);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container may not report it until the next write
+            unsubscribe(patientId, emitter);
+        }
+    }
+
+    private void unsubscribe(Long patientId, SseEmitter emitter) {
+        topics.computeIfPresent(patientId, (id, topic) -> {
+            topic.emitters.remove(emitter);
+            return topic.emitters.isEmpty() ? null : topic;
+        });
+    }
+
+    /**
+     * Number of open live streams (for monitoring)
+     */
+    public int getSubscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.emitters.size()).sum();
+    }
+}
@@ -0,0 +1,145 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.MoodPainAnalyticsConfig;
+import com.careconnect.dto.MoodPainAnalyticsDTO;
+import com.careconnect.repository.MoodPainAnalyticsRepository;
+import com.careconnect.repository.MoodPainAnalyticsRepository.Summary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mood and pain analytics per (patient, range), computed in SQL by
+ * {@link MoodPainAnalyticsRepository} and cached.
+ *
+ * <p>
+ * Each patient has a version that every write bumps after commit; a cached result is only
+ * served while its version is current and its TTL has not run out, so a result computed
+ * concurrently with a write is never served. Results are evicted least recently read first.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class MoodPainAnalyticsService {
+
+    private record Key(Long patientId, LocalDateTime from, LocalDateTime to) {}
+
+    private record Cached(MoodPainAnalyticsDTO analytics, long version, Instant expiresAt) {}
+
+    private final MoodPainAnalyticsRepository analyticsRepository;
+    private final MoodPainAnalyticsConfig config;
+
+    private final Map<Key, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Analytics of a patient's logs in {@code [from, to]}
+     */
+    public MoodPainAnalyticsDTO analytics(Long patientId, LocalDateTime from, LocalDateTime to) {
+        Key key = new Key(patientId, from, to);
+        long version = versions.computeIfAbsent(patientId, id -> new AtomicLong()).get();
+        synchronized (cache) {
+            Cached cached = cache.get(key);
+            if (cached != null && cached.version() == version && Instant.now().isBefore(cached.expiresAt())) {
+                return cached.analytics();
+            }
+        }
+
+        MoodPainAnalyticsDTO analytics = compute(patientId, from, to);
+        synchronized (cache) {
+            cache.put(key, new Cached(analytics, version,
+                    Instant.now().plus(Duration.ofSeconds(config.getCacheTtlSeconds()))));
+            if (cache.size() > config.getCacheMaxEntries()) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+        return analytics;
+    }
+
+    /**
+     * Stop serving cached results for a patient once the current transaction commits
+     */
+    public void invalidate(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        Runnable bump = () -> versions.computeIfAbsent(patientId, id -> new AtomicLong()).incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    private MoodPainAnalyticsDTO compute(Long patientId, LocalDateTime from, LocalDateTime to) {
+        Summary summary = analyticsRepository.summary(patientId, from, to);
+        if (summary.entries() == 0) {
+            return MoodPainAnalyticsDTO.builder()
+                    .periodStart(from)
+                    .periodEnd(to)
+                    .totalEntries(0)
+                    .moodEntries(0)
+                    .painEntries(0)
+                    .timeSeries(Collections.emptyList())
+                    .dailySeries(Collections.emptyList())
+                    .build();
+        }
+
+        List<MoodPainAnalyticsDTO.MoodPainDailyPoint> daily = analyticsRepository
+                .daily(patientId, from, to, config.getRollingDays()).stream()
+                .map(day -> MoodPainAnalyticsDTO.MoodPainDailyPoint.builder()
+                        .date(day.day())
+                        .entries(day.entries())
+                        .avgMood(day.avgMood())
+                        .avgPain(day.avgPain())
+                        .rollingAvgMood(day.rollingMood())
+                        .rollingAvgPain(day.rollingPain())
+                        .build())
+                .toList();
+
+        List<MoodPainAnalyticsDTO.MoodPainTimeSeriesPoint> timeSeries = summary.entries() > config.getRawSeriesLimit()
+                ? Collections.emptyList()
+                : analyticsRepository.entries(patientId, from, to).stream()
+                        .map(entry -> MoodPainAnalyticsDTO.MoodPainTimeSeriesPoint.builder()
+                                .timestamp(entry.timestamp())
+                                .moodValue(entry.moodValue())
+                                .painValue(entry.painValue())
+                                .note(entry.note())
+                                .build())
+                        .toList();
+
+        return MoodPainAnalyticsDTO.builder()
+                .periodStart(from)
+                .periodEnd(to)
+                .avgMood(summary.avgMood())
+                .avgPain(summary.avgPain())
+                .totalEntries((int) summary.entries())
+                .moodEntries((int) summary.moodEntries())
+                .painEntries((int) summary.painEntries())
+                .moodTrend(summary.moodTrend())
+                .painTrend(summary.painTrend())
+                .minMood(summary.minMood())
+                .maxMood(summary.maxMood())
+                .minPain(summary.minPain())
+                .maxPain(summary.maxPain())
+                .timeSeries(timeSeries)
+                .dailySeries(daily)
+                .build();
+    }
+}
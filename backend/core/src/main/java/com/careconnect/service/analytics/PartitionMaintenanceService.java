@@ -0,0 +1,67 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.PartitionConfig;
+import com.careconnect.repository.PartitionMaintenanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the vitals tables in shape: partitions for the coming
+ * months exist before rows arrive for them, and months past retention are dropped as whole
+ * partitions rather than deleted row by row. Tables that are not partitioned yet are skipped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    /** Tables range-partitioned by month in V38 */
+    static final List<String> TABLES = List.of("vital_sample", "wearable_metric", "mood_pain_log");
+
+    private final PartitionMaintenanceRepository partitionRepository;
+    private final PartitionConfig config;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${careconnect.analytics.partitions.maintenance-interval-ms:21600000}",
+               fixedDelayString = "${careconnect.analytics.partitions.maintenance-interval-ms:21600000}")
+    public void maintain() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        maintain(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    void maintain(LocalDate today) {
+        LocalDate month = today.withDayOfMonth(1);
+        for (String table : TABLES) {
+            try {
+                if (!partitionRepository.isPartitioned(table)) {
+                    log.debug("Skipping partition maintenance of {}: not partitioned", table);
+                    continue;
+                }
+                int created = partitionRepository.createMonthlyPartitions(table, month,
+                        month.plusMonths(config.getMonthsAhead()));
+                if (created > 0) {
+                    log.info("Created {} monthly partitions of {}", created, table);
+                }
+                if (config.getRetentionMonths() > 0) {
+                    List<String> dropped = partitionRepository.dropPartitionsBefore(table,
+                            month.minusMonths(config.getRetentionMonths()));
+                    if (!dropped.isEmpty()) {
+                        log.info("Dropped expired partitions of {}: {}", table, dropped);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Partition maintenance of {} failed", table, e);
+            }
+        }
+    }
+}
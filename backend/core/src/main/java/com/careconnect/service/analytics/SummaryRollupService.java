@@ -0,0 +1,242 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.RollupConfig;
+import com.careconnect.repository.SummaryMetricRollupRepository;
+import com.careconnect.repository.SummaryMetricRollupRepository.ChangedBucket;
+import com.careconnect.repository.SummaryMetricRollupRepository.DayTotals;
+import com.careconnect.repository.SummaryMetricRollupRepository.PatientTotals;
+import com.careconnect.repository.SummaryMetricRollupRepository.RollupTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental rollup engine for the hourly and daily {@code summary_metrics} buckets.
+ *
+ * <p>
+ * Writes to symptoms, wearable metrics and mood/pain logs mark the affected patient and
+ * hour dirty (after their transaction commits). Dirty hours are re-rolled on the next flush,
+ * or right before a dashboard for that patient is read, so dashboards never lag their own
+ * writes. A catch-up job re-rolls hours whose source rows changed through other paths, and
+ * the full history is backfilled once when no buckets exist yet.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SummaryRollupService {
+
+    private static final Duration BACKFILL_CHUNK = Duration.ofDays(7);
+
+    /** Dirty hours of one patient, as an inclusive range of hour starts in epoch millis */
+    private record DirtyRange(long fromHour, long toHour) {
+        DirtyRange merge(DirtyRange other) {
+            return new DirtyRange(Math.min(fromHour, other.fromHour), Math.max(toHour, other.toHour));
+        }
+    }
+
+    /** Day and hour bucket bounds covering a window, widened to whole hours */
+    private record BucketWindow(LocalDateTime hourFrom, LocalDateTime dayFrom,
+                                LocalDateTime dayTo, LocalDateTime hourTo) {
+        static BucketWindow of(Instant from, Instant to) {
+            LocalDateTime hourFrom = utc(from.truncatedTo(ChronoUnit.HOURS));
+            LocalDateTime hourTo = utc(to.truncatedTo(ChronoUnit.HOURS)).plusHours(1);
+            LocalDateTime dayFrom = hourFrom.truncatedTo(ChronoUnit.DAYS);
+            if (dayFrom.isBefore(hourFrom)) {
+                dayFrom = dayFrom.plusDays(1);
+            }
+            LocalDateTime dayTo = hourTo.truncatedTo(ChronoUnit.DAYS);
+            if (!dayFrom.isBefore(dayTo)) {
+                // Window inside a single day: hour buckets only
+                dayFrom = hourTo;
+                dayTo = hourTo;
+            }
+            return new BucketWindow(hourFrom, dayFrom, dayTo, hourTo);
+        }
+    }
+
+    private final SummaryMetricRollupRepository rollupRepository;
+    private final RollupConfig config;
+
+    private final Map<Long, DirtyRange> dirty = new ConcurrentHashMap<>();
+    private volatile LocalDateTime catchUpWatermark;
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Record that a patient's source data at {@code at} changed
+     *
+     * @param patientUserId user ID of the patient
+     */
+    public void markDirty(Long patientUserId, Instant at) {
+        markDirty(patientUserId, at, at);
+    }
+
+    /**
+     * Record that a patient's source data anywhere in {@code [from, to]} changed
+     *
+     * @param patientUserId user ID of the patient
+     */
+    public void markDirty(Long patientUserId, Instant from, Instant to) {
+        if (!config.isEnabled() || patientUserId == null || from == null || to == null) {
+            return;
+        }
+        DirtyRange range = new DirtyRange(from.truncatedTo(ChronoUnit.HOURS).toEpochMilli(),
+                to.truncatedTo(ChronoUnit.HOURS).toEpochMilli());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.merge(patientUserId, range, DirtyRange::merge);
+                }
+            });
+        } else {
+            dirty.merge(patientUserId, range, DirtyRange::merge);
+        }
+    }
+
+    /**
+     * Sum of the rollup buckets covering {@code [from, to)}, widened to whole hours
+     */
+    public RollupTotals totals(Long patientUserId, Instant from, Instant to) {
+        flush(patientUserId);
+        BucketWindow w = BucketWindow.of(from, to);
+        return rollupRepository.sum(patientUserId, w.hourFrom(), w.dayFrom(), w.dayTo(), w.hourTo());
+    }
+
+    /**
+     * {@link #totals} for a patient table ID, resolving its user ID in the same query. Only
+     * a patient with writes still waiting to be rolled up costs a second query.
+     *
+     * @return empty if the patient does not exist or has no user account
+     */
+    public Optional<RollupTotals> totalsForPatient(Long patientId, Instant from, Instant to) {
+        BucketWindow w = BucketWindow.of(from, to);
+        PatientTotals found = rollupRepository
+                .sumForPatient(patientId, w.hourFrom(), w.dayFrom(), w.dayTo(), w.hourTo())
+                .orElse(null);
+        if (found == null || found.patientUserId() == null) {
+            return Optional.empty();
+        }
+        if (dirty.containsKey(found.patientUserId())) {
+            return Optional.of(totals(found.patientUserId(), from, to));
+        }
+        return Optional.of(found.totals());
+    }
+
+    /**
+     * Day buckets of every UTC day overlapping {@code [from, to)}, oldest first, after
+     * flushing the patient's pending writes
+     */
+    public List<DayTotals> dailyTotals(Long patientUserId, Instant from, Instant to) {
+        flush(patientUserId);
+        LocalDateTime dayFrom = utc(from).truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime dayTo = utc(to.minusNanos(1)).truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        return rollupRepository.findDays(patientUserId, dayFrom, dayTo);
+    }
+
+    /**
+     * Re-roll every patient's dirty hours
+     */
+    @Scheduled(fixedDelayString = "${careconnect.analytics.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        for (Long patientUserId : Set.copyOf(dirty.keySet())) {
+            flush(patientUserId);
+        }
+    }
+
+    /**
+     * Re-roll one patient's dirty hours, if any
+     */
+    public void flush(Long patientUserId) {
+        DirtyRange range = dirty.remove(patientUserId);
+        if (range == null) {
+            return;
+        }
+        try {
+            rollupRepository.rollup(Set.of(patientUserId),
+                    utc(Instant.ofEpochMilli(range.fromHour())),
+                    utc(Instant.ofEpochMilli(range.toHour())).plusHours(1));
+        } catch (Exception e) {
+            dirty.merge(patientUserId, range, DirtyRange::merge);
+            log.error("Failed to roll up metrics for patient user {}", patientUserId, e);
+        }
+    }
+
+    /**
+     * Re-roll hours whose source rows were created or updated since the last run. The first
+     * run backfills the whole history when no buckets exist yet. The watermark is in the
+     * JVM's zone because that is how the sources stamp {@code updated_at}: the entities
+     * through {@code LocalDateTime.now()}, bulk inserts through the session's {@code now()}.
+     */
+    @Scheduled(initialDelay = 10000, fixedDelayString = "${careconnect.analytics.rollup.catch-up-interval-ms:900000}")
+    public void catchUp() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            if (catchUpWatermark == null) {
+                if (!rollupRepository.hasRollups()) {
+                    Instant now = Instant.now();
+                    backfill(now.minus(Duration.ofDays(config.getInitialBackfillDays())), now);
+                    catchUpWatermark = startedAt;
+                    return;
+                }
+                catchUpWatermark = startedAt.minusHours(config.getCatchUpLookbackHours());
+            }
+            var changed = rollupRepository.findChangedBuckets(catchUpWatermark);
+            for (ChangedBucket bucket : changed) {
+                markDirty(bucket.patientUserId(), bucket.hourStart().toInstant(ZoneOffset.UTC));
+            }
+            flush();
+            catchUpWatermark = startedAt;
+            if (!changed.isEmpty()) {
+                log.info("Rollup catch-up re-rolled {} hour buckets", changed.size());
+            }
+        } catch (Exception e) {
+            log.error("Rollup catch-up failed", e);
+        }
+    }
+
+    /**
+     * Rebuild all patients' buckets over {@code [from, to)}, a week at a time
+     */
+    public void backfill(Instant from, Instant to) {
+        LocalDateTime end = utc(to.truncatedTo(ChronoUnit.HOURS)).plusHours(1);
+        LocalDateTime chunkStart = utc(from).truncatedTo(ChronoUnit.DAYS);
+        while (chunkStart.isBefore(end)) {
+            LocalDateTime chunkEnd = chunkStart.plus(BACKFILL_CHUNK);
+            rollupRepository.rollup(null, chunkStart, chunkEnd.isBefore(end) ? chunkEnd : end);
+            chunkStart = chunkEnd;
+        }
+        log.info("Rollup backfill complete for {} to {}", from, to);
+    }
+
+    /**
+     * Number of patients with hours waiting to be re-rolled (for monitoring)
+     */
+    public int getDirtyPatientCount() {
+        return dirty.size();
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
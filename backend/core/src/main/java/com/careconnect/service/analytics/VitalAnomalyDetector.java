@@ -0,0 +1,216 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.VitalAnomalyConfig;
+import com.careconnect.config.VitalAnomalyConfig.Limits;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Online anomaly detection for vital samples, updated in O(1) per sample.
+ *
+ * <p>
+ * Every patient keeps a fixed amount of state per metric: an exponentially weighted mean and
+ * variance, the number of samples seen and the last sample. Each new value is checked against
+ * three rules before it updates that state:
+ * </p>
+ * <ul>
+ *   <li>{@link Kind#LIMIT}: outside the configured low/high or critical limits</li>
+ *   <li>{@link Kind#DEVIATION}: more than {@code deviationThreshold} standard deviations from
+ *       the patient's own weighted mean, once warmed up</li>
+ *   <li>{@link Kind#RATE_OF_CHANGE}: moved more than {@code maxChange} since the previous
+ *       sample within the change window</li>
+ * </ul>
+ * <p>
+ * Alerts are debounced per patient, metric and kind; a higher severity always gets through.
+ * Samples older than {@code maxAlertAgeMinutes} only update the baseline.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class VitalAnomalyDetector {
+
+    public enum Metric {
+        HEART_RATE("Heart Rate", "bpm", VitalAnomalyConfig::getHeartRate),
+        SPO2("Blood Oxygen (SpO2)", "%", VitalAnomalyConfig::getSpo2),
+        SYSTOLIC("Systolic Blood Pressure", "mmHg", VitalAnomalyConfig::getSystolic),
+        DIASTOLIC("Diastolic Blood Pressure", "mmHg", VitalAnomalyConfig::getDiastolic),
+        WEIGHT("Weight", "kg", VitalAnomalyConfig::getWeight);
+
+        public final String label;
+        public final String unit;
+        final Function<VitalAnomalyConfig, Limits> limits;
+
+        Metric(String label, String unit, Function<VitalAnomalyConfig, Limits> limits) {
+            this.label = label;
+            this.unit = unit;
+            this.limits = limits;
+        }
+    }
+
+    public enum Kind { LIMIT, DEVIATION, RATE_OF_CHANGE }
+
+    /** Alert severities, least severe first */
+    public enum Severity { MEDIUM, HIGH, CRITICAL }
+
+    public record Anomaly(Metric metric, Kind kind, Severity severity, double value, String message) {}
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final int KINDS = Kind.values().length;
+
+    /** Constant-size state of one patient, indexed by metric ordinal */
+    private static final class PatientState {
+        final double[] mean = new double[METRICS.length];
+        final double[] variance = new double[METRICS.length];
+        final int[] samples = new int[METRICS.length];
+        final long[] lastAt = new long[METRICS.length];
+        final double[] lastValue = new double[METRICS.length];
+        final long[] alertAt = new long[METRICS.length * KINDS];
+        final int[] alertSeverity = new int[METRICS.length * KINDS];
+    }
+
+    private final VitalAnomalyConfig config;
+
+    private final Map<Long, PatientState> patients = new LinkedHashMap<>(16, 0.75f, true);
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Check one value against the patient's state, then fold it into that state
+     *
+     * @return anomalies to alert on, after debouncing
+     */
+    public List<Anomaly> observe(Long patientId, Instant at, Metric metric, double value) {
+        PatientState state = stateOf(patientId);
+        Limits limits = metric.limits.apply(config);
+        int m = metric.ordinal();
+        long atMillis = at.toEpochMilli();
+        boolean alerting = !at.isBefore(Instant.now().minus(Duration.ofMinutes(config.getMaxAlertAgeMinutes())));
+        List<Anomaly> anomalies = new ArrayList<>(1);
+
+        synchronized (state) {
+            Anomaly limit = checkLimits(metric, limits, value);
+            if (limit != null) {
+                anomalies.add(limit);
+            }
+
+            if (state.samples[m] >= config.getWarmupSamples() && state.variance[m] > 0) {
+                double distance = Math.abs(value - state.mean[m]);
+                double deviations = distance / Math.sqrt(state.variance[m]);
+                if (deviations > config.getDeviationThreshold()
+                        && (limits.getMinDeviation() == null || distance >= limits.getMinDeviation())) {
+                    anomalies.add(new Anomaly(metric, Kind.DEVIATION, Severity.MEDIUM, value, String.format(Locale.ROOT,
+                            "%s %s %s is %.1f standard deviations from the patient's usual %s %s",
+                            metric.label, format(value), metric.unit, deviations, format(state.mean[m]), metric.unit)));
+                }
+            }
+
+            if (state.samples[m] > 0 && limits.getMaxChange() != null && atMillis > state.lastAt[m]
+                    && atMillis - state.lastAt[m] <= Duration.ofMinutes(limits.getChangeWindowMinutes()).toMillis()) {
+                double change = value - state.lastValue[m];
+                if (Math.abs(change) > limits.getMaxChange()) {
+                    long minutes = Math.max(1, (atMillis - state.lastAt[m]) / 60_000);
+                    anomalies.add(new Anomaly(metric, Kind.RATE_OF_CHANGE, Severity.HIGH, value, String.format(Locale.ROOT,
+                            "%s %s by %s %s within %d minutes (now %s %s)", metric.label,
+                            change > 0 ? "rose" : "fell", format(Math.abs(change)), metric.unit, minutes,
+                            format(value), metric.unit)));
+                }
+            }
+
+            update(state, m, atMillis, value);
+            if (!alerting) {
+                return List.of();
+            }
+            anomalies.removeIf(anomaly -> debounced(state, anomaly, atMillis));
+        }
+        return anomalies;
+    }
+
+    private PatientState stateOf(Long patientId) {
+        synchronized (patients) {
+            PatientState state = patients.get(patientId);
+            if (state == null) {
+                state = new PatientState();
+                patients.put(patientId, state);
+                if (patients.size() > config.getMaxPatients()) {
+                    patients.remove(patients.keySet().iterator().next());
+                }
+            }
+            return state;
+        }
+    }
+
+    private static Anomaly checkLimits(Metric metric, Limits limits, double value) {
+        Severity severity = null;
+        String direction = null;
+        if (limits.getCriticalLow() != null && value < limits.getCriticalLow()) {
+            severity = Severity.CRITICAL;
+            direction = "critically low";
+        } else if (limits.getCriticalHigh() != null && value > limits.getCriticalHigh()) {
+            severity = Severity.CRITICAL;
+            direction = "critically high";
+        } else if (limits.getLow() != null && value < limits.getLow()) {
+            severity = Severity.HIGH;
+            direction = "low";
+        } else if (limits.getHigh() != null && value > limits.getHigh()) {
+            severity = Severity.HIGH;
+            direction = "high";
+        }
+        if (severity == null) {
+            return null;
+        }
+        return new Anomaly(metric, Kind.LIMIT, severity, value,
+                metric.label + " " + direction + ": " + format(value) + " " + metric.unit);
+    }
+
+    /**
+     * Exponentially weighted mean and variance (West's incremental form); the first sample
+     * seeds the mean
+     */
+    private void update(PatientState state, int m, long atMillis, double value) {
+        if (state.samples[m] == 0) {
+            state.mean[m] = value;
+            state.variance[m] = 0;
+        } else {
+            double alpha = config.getAlpha();
+            double diff = value - state.mean[m];
+            double increment = alpha * diff;
+            state.mean[m] += increment;
+            state.variance[m] = (1 - alpha) * (state.variance[m] + diff * increment);
+        }
+        if (state.samples[m] < Integer.MAX_VALUE) {
+            state.samples[m]++;
+        }
+        if (atMillis >= state.lastAt[m]) {
+            state.lastAt[m] = atMillis;
+            state.lastValue[m] = value;
+        }
+    }
+
+    private boolean debounced(PatientState state, Anomaly anomaly, long atMillis) {
+        int slot = anomaly.metric().ordinal() * KINDS + anomaly.kind().ordinal();
+        int severity = anomaly.severity().ordinal() + 1;
+        boolean recent = state.alertAt[slot] != 0
+                && atMillis - state.alertAt[slot] < Duration.ofMinutes(config.getDebounceMinutes()).toMillis();
+        if (recent && severity <= state.alertSeverity[slot]) {
+            return true;
+        }
+        state.alertAt[slot] = Math.max(state.alertAt[slot], atMillis);
+        state.alertSeverity[slot] = severity;
+        return false;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+}
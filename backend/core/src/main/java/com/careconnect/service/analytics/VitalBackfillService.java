@@ -0,0 +1,118 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.VitalBackfillConfig;
+import com.careconnect.repository.VitalAggregateRepository;
+import com.careconnect.repository.VitalAggregateRepository.Normalized;
+import com.careconnect.repository.VitalAggregateRepository.RawVital;
+import com.careconnect.util.VitalValueParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the typed columns of {@code vitals} rows written before they existed, in chunks.
+ *
+ * <p>
+ * Each run walks the rows with {@code normalized_at IS NULL} in id order, parses a chunk with
+ * {@link VitalValueParser} (the same parser {@link com.careconnect.model.Vital} uses on save)
+ * and writes it back as one batch. Rows that cannot be parsed, or whose typed values the
+ * database rejects, are still marked, so they are not read again. Once a run finds nothing
+ * left, the backfill stops for the life of the process; new rows are typed on save.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VitalBackfillService {
+
+    private final VitalAggregateRepository vitalRepository;
+    private final VitalBackfillConfig config;
+
+    private long afterId;
+    private volatile boolean done;
+
+    @Scheduled(initialDelayString = "${careconnect.analytics.vitals-backfill.interval-ms:60000}",
+               fixedDelayString = "${careconnect.analytics.vitals-backfill.interval-ms:60000}")
+    public void backfill() {
+        if (!config.isEnabled() || done) {
+            return;
+        }
+        try {
+            runChunks();
+        } catch (Exception e) {
+            log.error("Vital backfill failed after id {}", afterId, e);
+        }
+    }
+
+    /**
+     * Process up to {@code maxChunksPerRun} chunks
+     *
+     * @return rows written
+     */
+    synchronized int runChunks() throws InterruptedException {
+        int written = 0;
+        for (int chunk = 0; chunk < config.getMaxChunksPerRun(); chunk++) {
+            List<RawVital> rows = vitalRepository.findUnnormalized(afterId, config.getChunkSize());
+            if (rows.isEmpty()) {
+                done = true;
+                log.info("Vital backfill complete");
+                break;
+            }
+
+            List<Normalized> parsed = new ArrayList<>(rows.size());
+            for (RawVital row : rows) {
+                VitalValueParser.Parsed p = VitalValueParser.parse(row.vitalType(), row.value(), row.unit());
+                parsed.add(new Normalized(row.id(), p.type(), p.numericValue(), p.systolic(), p.diastolic(), p.unit()));
+            }
+            written += write(parsed);
+            afterId = rows.get(rows.size() - 1).id();
+
+            if (rows.size() < config.getChunkSize()) {
+                done = true;
+                log.info("Vital backfill complete");
+                break;
+            }
+            if (config.getPauseBetweenChunksMs() > 0) {
+                Thread.sleep(config.getPauseBetweenChunksMs());
+            }
+        }
+        if (written > 0) {
+            log.info("Vital backfill typed {} rows (up to id {})", written, afterId);
+        }
+        return written;
+    }
+
+    /**
+     * Write a chunk as one batch. If the batch fails, write its rows one at a time and mark
+     * those that still fail as unparsed, so one bad legacy row cannot stall the backfill.
+     */
+    private int write(List<Normalized> parsed) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return vitalRepository.writeNormalized(parsed, now);
+        } catch (DataAccessException e) {
+            log.warn("Vital backfill chunk after id {} failed, writing its rows one at a time", afterId, e);
+        }
+        int written = 0;
+        for (Normalized row : parsed) {
+            try {
+                written += vitalRepository.writeNormalized(List.of(row), now);
+            } catch (DataAccessException e) {
+                log.warn("Vital {} could not be typed, marking it unparsed: {}", row.id(), e.getMessage());
+                written += vitalRepository.writeNormalized(
+                        List.of(new Normalized(row.id(), null, null, null, null, null)), now);
+            }
+        }
+        return written;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,263 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.DownsampleConfig;
+import com.careconnect.dto.VitalBucketDTO;
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.repository.VitalDownsampleRepository.MetricBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Reduces vitals series to a bounded number of points per metric for charting.
+ *
+ * <p>
+ * Line charts use {@link Mode#LTTB}: each metric is downsampled with
+ * Largest-Triangle-Three-Buckets, so only real samples are returned and spikes survive.
+ * Range bands use {@link Mode#MINMAX}: each metric is cut into fixed-width buckets of
+ * min/max/avg. Short windows are reduced in memory from the raw samples; long windows are
+ * first bucketed in SQL (see {@code VitalDownsampleRepository}) and LTTB then runs over the
+ * min and max sample of every bucket. Either way the response size depends on the requested
+ * points, not on the length of the window.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class VitalDownsampler {
+
+    public enum Mode {
+        LTTB, MINMAX;
+
+        public static Mode parse(String mode) {
+            if (mode == null || mode.isBlank()) {
+                return LTTB;
+            }
+            try {
+                return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new AppException(HttpStatus.BAD_REQUEST, "Unknown downsampling mode: " + mode);
+            }
+        }
+    }
+
+    /** Chart metrics, named as in {@link VitalSampleDTO} and {@code VitalDownsampleRepository} */
+    private enum Metric {
+        HEART_RATE(VitalSampleDTO::heartRate),
+        SPO2(VitalSampleDTO::spo2),
+        SYSTOLIC(VitalSampleDTO::systolic),
+        DIASTOLIC(VitalSampleDTO::diastolic),
+        WEIGHT(VitalSampleDTO::weight),
+        MOOD(VitalSampleDTO::moodValue),
+        PAIN(VitalSampleDTO::painValue);
+
+        final Function<VitalSampleDTO, Number> value;
+
+        Metric(Function<VitalSampleDTO, Number> value) {
+            this.value = value;
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final int MIN_POINTS = 3;
+
+    private final DownsampleConfig config;
+
+    /**
+     * Points per metric for a request: {@code maxPoints} if given, else one point per
+     * {@code resolution}, else the configured default; capped by the configured limit
+     */
+    public int resolvePoints(Integer maxPoints, Duration resolution, Instant from, Instant to) {
+        long points;
+        if (maxPoints != null) {
+            points = maxPoints;
+        } else if (resolution != null && !resolution.isZero() && !resolution.isNegative()) {
+            long span = Duration.between(from, to).toMillis();
+            points = (span + resolution.toMillis() - 1) / resolution.toMillis();
+        } else {
+            points = config.getDefaultMaxPoints();
+        }
+        return (int) Math.max(MIN_POINTS, Math.min(points, config.getMaxPointsLimit()));
+    }
+
+    /**
+     * Whether a window is short enough to downsample in memory rather than in SQL
+     */
+    public boolean inMemory(Instant from, Instant to) {
+        return Duration.between(from, to).compareTo(Duration.ofDays(config.getInMemoryMaxDays())) <= 0;
+    }
+
+    /**
+     * Width in milliseconds of {@code buckets} equal buckets covering {@code [from, to]}
+     */
+    public long bucketWidth(Instant from, Instant to, int buckets) {
+        long span = Math.max(1, Duration.between(from, to).toMillis());
+        return Math.max(1, (span + buckets - 1) / buckets);
+    }
+
+    /**
+     * LTTB over raw samples sorted oldest first. Each metric keeps at most {@code points}
+     * samples; rows keep only the metrics selected at their timestamp.
+     */
+    public List<VitalSampleDTO> lttb(List<VitalSampleDTO> samples, int points) {
+        int n = samples.size();
+        if (n <= points) {
+            return samples;
+        }
+        BitSet[] keep = new BitSet[METRICS.length];
+        long[] t = new long[n];
+        double[] v = new double[n];
+        int[] rowOf = new int[n];
+        for (Metric metric : METRICS) {
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                Number value = metric.value.apply(samples.get(i));
+                if (value != null) {
+                    t[count] = samples.get(i).timestamp().toEpochMilli();
+                    v[count] = value.doubleValue();
+                    rowOf[count++] = i;
+                }
+            }
+            keep[metric.ordinal()] = new BitSet(n);
+            for (int index : Downsampling.lttb(t, v, count, points)) {
+                keep[metric.ordinal()].set(rowOf[index]);
+            }
+        }
+
+        List<VitalSampleDTO> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            VitalSampleDTO sample = samples.get(i);
+            Double[] row = new Double[METRICS.length];
+            boolean any = false;
+            for (Metric metric : METRICS) {
+                if (keep[metric.ordinal()].get(i)) {
+                    row[metric.ordinal()] = metric.value.apply(sample).doubleValue();
+                    any = true;
+                }
+            }
+            if (any) {
+                result.add(toSample(sample.id(), sample.patientId(), sample.timestamp(), row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * LTTB over SQL buckets: the min and max sample of every bucket are the candidates, so
+     * the result still consists of real samples, oldest first
+     */
+    public List<VitalSampleDTO> lttb(Long patientId, List<MetricBucket> buckets, int points) {
+        TreeMap<Long, Double[]> rows = new TreeMap<>();
+        long[] t = new long[buckets.size() * 2];
+        double[] v = new double[buckets.size() * 2];
+        int start = 0;
+        while (start < buckets.size()) {
+            String name = buckets.get(start).metric();
+            int count = 0;
+            int end = start;
+            for (; end < buckets.size() && buckets.get(end).metric().equals(name); end++) {
+                MetricBucket b = buckets.get(end);
+                if (b.minAt() == b.maxAt()) {
+                    t[count] = b.minAt();
+                    v[count++] = b.min();
+                } else if (b.minAt() < b.maxAt()) {
+                    t[count] = b.minAt();
+                    v[count++] = b.min();
+                    t[count] = b.maxAt();
+                    v[count++] = b.max();
+                } else {
+                    t[count] = b.maxAt();
+                    v[count++] = b.max();
+                    t[count] = b.minAt();
+                    v[count++] = b.min();
+                }
+            }
+            int column = Metric.valueOf(name).ordinal();
+            for (int index : Downsampling.lttb(t, v, count, points)) {
+                rows.computeIfAbsent(t[index], at -> new Double[METRICS.length])[column] = v[index];
+            }
+            start = end;
+        }
+
+        List<VitalSampleDTO> result = new ArrayList<>(rows.size());
+        for (Map.Entry<Long, Double[]> row : rows.entrySet()) {
+            result.add(toSample(null, patientId, Instant.ofEpochMilli(row.getKey()), row.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Min/max/avg buckets over raw samples sorted oldest first, ordered by metric then time
+     */
+    public List<VitalBucketDTO> minMax(List<VitalSampleDTO> samples, Instant from, Instant to, int buckets) {
+        long width = bucketWidth(from, to, buckets);
+        int bucketCount = (int) (Duration.between(from, to).toMillis() / width) + 1;
+        int n = samples.size();
+        long[] t = new long[n];
+        double[] v = new double[n];
+        List<VitalBucketDTO> result = new ArrayList<>();
+        for (Metric metric : METRICS) {
+            int count = 0;
+            for (VitalSampleDTO sample : samples) {
+                Number value = metric.value.apply(sample);
+                if (value != null) {
+                    t[count] = sample.timestamp().toEpochMilli();
+                    v[count++] = value.doubleValue();
+                }
+            }
+            for (MetricBucket bucket : Downsampling.minMax(metric.name(), t, v, count,
+                    from.toEpochMilli(), width, bucketCount)) {
+                result.add(toBucket(bucket, width));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Min/max/avg buckets from SQL, in the order the repository returned them
+     */
+    public List<VitalBucketDTO> minMax(List<MetricBucket> buckets, long width) {
+        return buckets.stream().map(bucket -> toBucket(bucket, width)).toList();
+    }
+
+    private static VitalBucketDTO toBucket(MetricBucket bucket, long width) {
+        return VitalBucketDTO.builder()
+                .metric(bucket.metric())
+                .bucketStart(Instant.ofEpochMilli(bucket.start()))
+                .bucketEnd(Instant.ofEpochMilli(bucket.start() + width))
+                .min(bucket.min())
+                .max(bucket.max())
+                .avg(bucket.avg())
+                .count(bucket.count())
+                .build();
+    }
+
+    private static VitalSampleDTO toSample(Long id, Long patientId, Instant timestamp, Double[] row) {
+        return VitalSampleDTO.builder()
+                .id(id)
+                .patientId(patientId)
+                .timestamp(timestamp)
+                .heartRate(row[Metric.HEART_RATE.ordinal()])
+                .spo2(row[Metric.SPO2.ordinal()])
+                .systolic(toInt(row[Metric.SYSTOLIC.ordinal()]))
+                .diastolic(toInt(row[Metric.DIASTOLIC.ordinal()]))
+                .weight(row[Metric.WEIGHT.ordinal()])
+                .moodValue(toInt(row[Metric.MOOD.ordinal()]))
+                .painValue(toInt(row[Metric.PAIN.ordinal()]))
+                .build();
+    }
+
+    private static Integer toInt(Double value) {
+        return value != null ? (int) Math.round(value) : null;
+    }
+}
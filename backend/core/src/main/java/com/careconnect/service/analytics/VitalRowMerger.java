@@ -0,0 +1,88 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.repository.VitalExportRepository.ExportRow;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Merges a timestamp-ordered stream of single-metric rows into one {@link VitalSampleDTO} per
+ * timestamp, handing each sample downstream as soon as its timestamp is complete. Only the
+ * sample being assembled is held, so streams of any length merge in constant memory. For a
+ * metric repeated within a timestamp the last row wins.
+ */
+public final class VitalRowMerger implements Consumer<ExportRow> {
+
+    private final Long patientId;
+    private final Consumer<VitalSampleDTO> downstream;
+
+    private boolean open;
+    private long current;
+    private Double heartRate;
+    private Double spo2;
+    private Double systolic;
+    private Double diastolic;
+    private Double weight;
+    private Double mood;
+    private Double pain;
+    private long samples;
+
+    public VitalRowMerger(Long patientId, Consumer<VitalSampleDTO> downstream) {
+        this.patientId = patientId;
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(ExportRow row) {
+        if (open && row.recordedAtMillis() != current) {
+            emit();
+        }
+        open = true;
+        current = row.recordedAtMillis();
+        switch (row.metric()) {
+            case "HEART_RATE" -> heartRate = row.value();
+            case "SPO2" -> spo2 = row.value();
+            case "SYSTOLIC" -> systolic = row.value();
+            case "DIASTOLIC" -> diastolic = row.value();
+            case "WEIGHT" -> weight = row.value();
+            case "MOOD" -> mood = row.value();
+            case "PAIN" -> pain = row.value();
+            default -> { }
+        }
+    }
+
+    /**
+     * Emit the last sample; call once the stream is exhausted
+     */
+    public void finish() {
+        if (open) {
+            emit();
+        }
+    }
+
+    /**
+     * Number of samples emitted so far
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    private void emit() {
+        VitalSampleDTO sample = VitalSampleDTO.builder()
+                .patientId(patientId)
+                .timestamp(Instant.ofEpochMilli(current))
+                .heartRate(heartRate)
+                .spo2(spo2)
+                .systolic(systolic != null ? systolic.intValue() : null)
+                .diastolic(diastolic != null ? diastolic.intValue() : null)
+                .weight(weight)
+                .moodValue(mood != null ? mood.intValue() : null)
+                .painValue(pain != null ? pain.intValue() : null)
+                .build();
+        heartRate = spo2 = systolic = diastolic = weight = mood = pain = null;
+        open = false;
+        samples++;
+        downstream.accept(sample);
+    }
+}
@@ -0,0 +1,307 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.VitalSeriesCacheConfig;
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.model.WearableMetric;
+import com.careconnect.repository.MoodPainLogRepository;
+import com.careconnect.repository.MoodPainLogRepository.MoodPainPoint;
+import com.careconnect.repository.WearableMetricIngestRepository.InsertedSample;
+import com.careconnect.repository.WearableMetricRepository;
+import com.careconnect.repository.WearableMetricRepository.MetricPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Per-patient columnar cache behind the vitals charts.
+ *
+ * <p>
+ * Each cached patient holds one {@link ColumnarSeries} per chart metric (heart rate, SpO2,
+ * blood pressure, weight, mood, pain). A patient is loaded once with column-only queries;
+ * afterwards new samples are appended as they are written and edits or deletes drop the
+ * patient so it reloads. Range queries binary-search each column and merge them by
+ * timestamp straight into the response DTOs. Patients are evicted least recently read first.
+ * </p>
+ *
+ * <p>
+ * A cached patient holds at most the configured preload window (plus what is appended while
+ * cached). A window starting before the cached history is answered from a one-off load that
+ * is not kept, so a single long-range read cannot grow a patient's footprint.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VitalSeriesCache {
+
+    enum Channel { HEART_RATE, SPO2, SYSTOLIC, DIASTOLIC, WEIGHT, MOOD, PAIN }
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    /** One patient's columns; {@code coveredFrom} is the start of the complete history held */
+    static final class PatientVitals {
+        final ColumnarSeries[] series = new ColumnarSeries[CHANNELS.length];
+        final long coveredFrom;
+
+        PatientVitals(long coveredFrom) {
+            this.coveredFrom = coveredFrom;
+            for (int i = 0; i < series.length; i++) {
+                series[i] = new ColumnarSeries();
+            }
+        }
+
+        synchronized void append(Channel channel, long epochMillis, double value) {
+            series[channel.ordinal()].append(epochMillis, value);
+        }
+
+        /**
+         * Samples in {@code [from, to]} merged per timestamp; for repeated timestamps within a
+         * metric the last written value wins
+         */
+        synchronized List<VitalSampleDTO> range(Long patientId, long from, long to) {
+            int[] cursor = new int[CHANNELS.length];
+            int[] end = new int[CHANNELS.length];
+            long[] at = new long[CHANNELS.length];
+            for (int c = 0; c < CHANNELS.length; c++) {
+                cursor[c] = series[c].lowerBound(from);
+                end[c] = series[c].upperBound(to);
+                if (cursor[c] < end[c]) {
+                    at[c] = series[c].timestampAt(cursor[c]);
+                }
+            }
+
+            List<VitalSampleDTO> samples = new ArrayList<>();
+            double[] row = new double[CHANNELS.length];
+            boolean[] present = new boolean[CHANNELS.length];
+            while (true) {
+                long next = Long.MAX_VALUE;
+                for (int c = 0; c < CHANNELS.length; c++) {
+                    if (cursor[c] < end[c]) {
+                        next = Math.min(next, at[c]);
+                    }
+                }
+                if (next == Long.MAX_VALUE) {
+                    return samples;
+                }
+                for (int c = 0; c < CHANNELS.length; c++) {
+                    present[c] = false;
+                    while (cursor[c] < end[c] && at[c] == next) {
+                        row[c] = series[c].valueAt(cursor[c]++);
+                        present[c] = true;
+                        if (cursor[c] < end[c]) {
+                            at[c] += series[c].gapAt(cursor[c]);
+                        }
+                    }
+                }
+                samples.add(VitalSampleDTO.builder()
+                        .patientId(patientId)
+                        .timestamp(Instant.ofEpochMilli(next))
+                        .heartRate(present[Channel.HEART_RATE.ordinal()] ? row[Channel.HEART_RATE.ordinal()] : null)
+                        .spo2(present[Channel.SPO2.ordinal()] ? row[Channel.SPO2.ordinal()] : null)
+                        .systolic(present[Channel.SYSTOLIC.ordinal()] ? (int) row[Channel.SYSTOLIC.ordinal()] : null)
+                        .diastolic(present[Channel.DIASTOLIC.ordinal()] ? (int) row[Channel.DIASTOLIC.ordinal()] : null)
+                        .weight(present[Channel.WEIGHT.ordinal()] ? row[Channel.WEIGHT.ordinal()] : null)
+                        .moodValue(present[Channel.MOOD.ordinal()] ? (int) row[Channel.MOOD.ordinal()] : null)
+                        .painValue(present[Channel.PAIN.ordinal()] ? (int) row[Channel.PAIN.ordinal()] : null)
+                        .build());
+            }
+        }
+    }
+
+    private final WearableMetricRepository wearableMetricRepository;
+    private final MoodPainLogRepository moodPainLogRepository;
+    private final VitalSeriesCacheConfig config;
+
+    private final Map<Long, PatientVitals> patients = new LinkedHashMap<>(16, 0.75f, true);
+    /** Write counters of patients being loaded, so a load that raced a write is not installed */
+    private final Map<Long, AtomicLong> writeStamps = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Whether a window fits in the history every cached patient is loaded with, so reading
+     * it from the cache does not extend what is held
+     */
+    public boolean covers(Instant from, Instant to) {
+        return isEnabled() && Duration.between(from, to).compareTo(Duration.ofDays(config.getPreloadDays())) <= 0;
+    }
+
+    /**
+     * A patient's merged vitals in {@code [from, to]}, oldest first
+     *
+     * @param patientId     patient table ID
+     * @param patientUserId user ID of the patient, which wearable metrics are keyed by
+     */
+    public List<VitalSampleDTO> range(Long patientId, Long patientUserId, Instant from, Instant to) {
+        PatientVitals vitals;
+        synchronized (patients) {
+            vitals = patients.get(patientId);
+        }
+        if (vitals == null || vitals.coveredFrom > from.toEpochMilli()) {
+            Instant preloadFrom = Instant.now().minus(Duration.ofDays(config.getPreloadDays()));
+            vitals = from.isBefore(preloadFrom)
+                    ? read(patientId, patientUserId, from)
+                    : load(patientId, patientUserId, preloadFrom);
+        }
+        return vitals.range(patientId, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Append a batch of freshly inserted wearable samples once the current transaction commits
+     */
+    public void appendWearables(Long patientId, List<InsertedSample> samples) {
+        if (patientId == null || samples.isEmpty()) {
+            return;
+        }
+        afterCommit(patientId, vitals -> {
+            for (InsertedSample sample : samples) {
+                Channel channel = channelOf(sample.metric());
+                if (channel != null) {
+                    vitals.append(channel, sample.recordedAtMillis(), sample.value());
+                }
+            }
+        });
+    }
+
+    /**
+     * Append a mood/pain log once the current transaction commits
+     */
+    public void appendMoodPain(Long patientId, LocalDateTime timestamp, Integer mood, Integer pain) {
+        if (patientId == null || timestamp == null) {
+            return;
+        }
+        long at = timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+        afterCommit(patientId, vitals -> {
+            if (mood != null) {
+                vitals.append(Channel.MOOD, at, mood);
+            }
+            if (pain != null) {
+                vitals.append(Channel.PAIN, at, pain);
+            }
+        });
+    }
+
+    /**
+     * Drop a patient after an edit or delete; the next read reloads it
+     */
+    public void invalidate(Long patientId) {
+        if (patientId != null) {
+            afterCommit(patientId, null);
+        }
+    }
+
+    /**
+     * Number of patients currently cached (for monitoring)
+     */
+    public int size() {
+        synchronized (patients) {
+            return patients.size();
+        }
+    }
+
+    /**
+     * Read a patient's history since {@code from} and cache it, unless a write raced the read
+     */
+    private PatientVitals load(Long patientId, Long patientUserId, Instant from) {
+        AtomicLong writes = writeStamps.computeIfAbsent(patientId, id -> new AtomicLong());
+        long stamp = writes.get();
+        PatientVitals vitals = read(patientId, patientUserId, from);
+
+        synchronized (patients) {
+            if (writeStamps.get(patientId) == writes && writes.get() == stamp) {
+                patients.put(patientId, vitals);
+                if (patients.size() > config.getMaxPatients()) {
+                    patients.remove(patients.keySet().iterator().next());
+                }
+            }
+            writeStamps.remove(patientId, writes);
+        }
+        return vitals;
+    }
+
+    /**
+     * A patient's history since {@code from}, read from the database without caching it
+     */
+    private PatientVitals read(Long patientId, Long patientUserId, Instant from) {
+        PatientVitals vitals = new PatientVitals(from.toEpochMilli());
+
+        if (patientUserId != null) {
+            for (MetricPoint point : wearableMetricRepository.findPointsSince(patientUserId, from)) {
+                Channel channel = channelOf(point.getMetric());
+                if (channel != null && point.getMetricValue() != null) {
+                    vitals.append(channel, point.getRecordedAt().toEpochMilli(), point.getMetricValue());
+                }
+            }
+        }
+        for (MoodPainPoint point : moodPainLogRepository.findPointsSince(patientId, LocalDateTime.ofInstant(from, ZoneOffset.UTC))) {
+            long at = point.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+            if (point.getMoodValue() != null) {
+                vitals.append(Channel.MOOD, at, point.getMoodValue());
+            }
+            if (point.getPainValue() != null) {
+                vitals.append(Channel.PAIN, at, point.getPainValue());
+            }
+        }
+        return vitals;
+    }
+
+    /**
+     * Apply {@code update} to the cached patient after commit, or drop the patient when
+     * {@code update} is {@code null}
+     */
+    private void afterCommit(Long patientId, Consumer<PatientVitals> update) {
+        Runnable apply = () -> {
+            AtomicLong writes = writeStamps.get(patientId);
+            if (writes != null) {
+                writes.incrementAndGet();
+            }
+            PatientVitals vitals;
+            synchronized (patients) {
+                vitals = update == null ? patients.remove(patientId) : patients.get(patientId);
+            }
+            if (vitals != null && update != null) {
+                update.accept(vitals);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static Channel channelOf(WearableMetric.MetricType metric) {
+        if (metric == null) {
+            return null;
+        }
+        return switch (metric) {
+            case HEART_RATE -> Channel.HEART_RATE;
+            case SPO2 -> Channel.SPO2;
+            case BLOOD_PRESSURE_SYS -> Channel.SYSTOLIC;
+            case BLOOD_PRESSURE_DIA -> Channel.DIASTOLIC;
+            case WEIGHT -> Channel.WEIGHT;
+            default -> null;
+        };
+    }
+}
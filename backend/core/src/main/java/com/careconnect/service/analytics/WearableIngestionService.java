@@ -0,0 +1,265 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.WearableIngestConfig;
+import com.careconnect.dto.WearableIngestResultDTO;
+import com.careconnect.dto.WearableSampleDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.model.Patient;
+import com.careconnect.model.WearableMetric;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.WearableMetricIngestRepository;
+import com.careconnect.repository.WearableMetricIngestRepository.InsertedSample;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Bulk ingestion of wearable samples.
+ *
+ * <p>
+ * The request body (a JSON array or newline-delimited JSON) is parsed as a stream, so a
+ * large upload is never held in memory as a whole. Valid samples are collected into
+ * column arrays and written in batches through
+ * {@link WearableMetricIngestRepository}; each batch is one statement and its own
+ * transaction. Samples repeated within the request or already stored are counted as
+ * duplicates, so devices can safely retry an upload. After every batch the vitals cache,
+ * the summary rollups and the live dashboard are updated once for the whole batch.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WearableIngestionService {
+
+    private static final WearableMetric.MetricType[] METRICS = WearableMetric.MetricType.values();
+
+    private final PatientRepository patientRepository;
+    private final WearableMetricIngestRepository ingestRepository;
+    private final ObjectMapper objectMapper;
+    private final VitalSeriesCache vitalSeriesCache;
+    private final SummaryRollupService summaryRollupService;
+    private final LiveMetricsHub liveMetricsHub;
+    private final WearableIngestConfig config;
+
+    /** Column buffers for one batch */
+    private static final class Batch {
+        final String[] metrics;
+        final Double[] values;
+        final Long[] recordedAt;
+        int size;
+
+        Batch(int capacity) {
+            metrics = new String[capacity];
+            values = new Double[capacity];
+            recordedAt = new Long[capacity];
+        }
+
+        void add(WearableMetric.MetricType metric, double value, long epochMillis) {
+            metrics[size] = metric.name();
+            values[size] = value;
+            recordedAt[size] = epochMillis;
+            size++;
+        }
+
+        boolean isFull() {
+            return size == metrics.length;
+        }
+    }
+
+    /** Running totals for one request */
+    private static final class Tally {
+        long received;
+        long inserted;
+        long duplicates;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+    }
+
+    /** State of one ingestion: the current batch, the totals and the samples seen so far */
+    private final class Run {
+        final Long patientId;
+        final Long patientUserId;
+        final Tally tally = new Tally();
+        final Batch batch = new Batch(config.getBatchSize());
+        final Set<Long> seen = new HashSet<>();
+        final long maxFutureMillis = Instant.now().plusSeconds(config.getMaxFutureSkewSeconds()).toEpochMilli();
+
+        Run(Long patientId, Long patientUserId) {
+            this.patientId = patientId;
+            this.patientUserId = patientUserId;
+        }
+
+        void accept(WearableSampleDTO sample, long index) {
+            String problem = validate(sample, maxFutureMillis);
+            if (problem != null) {
+                reject(tally, index, problem);
+                return;
+            }
+            WearableMetric.MetricType metric = parseMetric(sample.metric());
+            long epochMillis = sample.recordedAt().toEpochMilli();
+            if (!seen.add(epochMillis * METRICS.length + metric.ordinal())) {
+                tally.duplicates++;
+                return;
+            }
+
+            batch.add(metric, sample.value(), epochMillis);
+            if (batch.isFull()) {
+                flush(patientId, patientUserId, batch, tally);
+            }
+        }
+
+        WearableIngestResultDTO finish() {
+            flush(patientId, patientUserId, batch, tally);
+            log.info("Ingested {} of {} wearable samples for patient {} ({} duplicates, {} rejected)",
+                    tally.inserted, tally.received, patientId, tally.duplicates, tally.rejected);
+            return WearableIngestResultDTO.builder()
+                    .received(tally.received)
+                    .inserted(tally.inserted)
+                    .duplicates(tally.duplicates)
+                    .rejected(tally.rejected)
+                    .errors(tally.errors)
+                    .build();
+        }
+    }
+
+    /**
+     * Ingest a stream of samples for a patient
+     *
+     * @param patientId patient table ID
+     * @param body      JSON array or newline-delimited JSON of {@link WearableSampleDTO}
+     */
+    public WearableIngestResultDTO ingest(Long patientId, InputStream body) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Patient not found"));
+        if (patient.getUser() == null) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "Patient has no user account");
+        }
+
+        Run run = new Run(patientId, patient.getUser().getId());
+        Tally tally = run.tally;
+        try (MappingIterator<WearableSampleDTO> samples = objectMapper.readerFor(WearableSampleDTO.class).readValues(body)) {
+            while (samples.hasNextValue()) {
+                if (tally.received >= config.getMaxSamplesPerRequest()) {
+                    reportError(tally, "Request exceeds " + config.getMaxSamplesPerRequest()
+                            + " samples; the remainder was not read");
+                    break;
+                }
+                long index = tally.received++;
+                WearableSampleDTO sample;
+                try {
+                    sample = samples.nextValue();
+                } catch (JsonMappingException e) {
+                    reject(tally, index, e.getOriginalMessage());
+                    continue;
+                }
+                run.accept(sample, index);
+            }
+        } catch (JsonProcessingException e) {
+            reportError(tally, "Malformed JSON after sample " + tally.received + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            reportError(tally, "Failed to read request body: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Ingest samples that were already read, e.g. pulled from a wearable provider, through
+     * the same validation, batching and cache updates as an upload
+     *
+     * @param patientId     patient table ID
+     * @param patientUserId user ID of the same patient
+     */
+    public WearableIngestResultDTO ingest(Long patientId, Long patientUserId, Iterable<WearableSampleDTO> samples) {
+        Run run = new Run(patientId, patientUserId);
+        for (WearableSampleDTO sample : samples) {
+            run.accept(sample, run.tally.received++);
+        }
+        return run.finish();
+    }
+
+    private void flush(Long patientId, Long patientUserId, Batch batch, Tally tally) {
+        if (batch.size == 0) {
+            return;
+        }
+        int size = batch.size;
+        batch.size = 0;
+        List<InsertedSample> inserted = ingestRepository.insertIgnoringDuplicates(patientUserId,
+                Arrays.copyOf(batch.metrics, size),
+                Arrays.copyOf(batch.values, size),
+                Arrays.copyOf(batch.recordedAt, size));
+        tally.inserted += inserted.size();
+        tally.duplicates += size - inserted.size();
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (InsertedSample sample : inserted) {
+            from = Math.min(from, sample.recordedAtMillis());
+            to = Math.max(to, sample.recordedAtMillis());
+        }
+        vitalSeriesCache.appendWearables(patientId, inserted);
+        summaryRollupService.markDirty(patientUserId, Instant.ofEpochMilli(from), Instant.ofEpochMilli(to));
+        liveMetricsHub.markDirty(patientId);
+    }
+
+    /**
+     * Why a sample cannot be stored, or {@code null} when it is valid
+     */
+    private static String validate(WearableSampleDTO sample, long maxFutureMillis) {
+        if (sample == null) {
+            return "Sample is empty";
+        }
+        if (parseMetric(sample.metric()) == null) {
+            return "Unknown metric: " + sample.metric();
+        }
+        if (sample.value() == null || !Double.isFinite(sample.value()) || sample.value() < 0) {
+            return "Value must be a non-negative number";
+        }
+        if (sample.recordedAt() == null) {
+            return "recordedAt is required";
+        }
+        if (sample.recordedAt().toEpochMilli() > maxFutureMillis) {
+            return "recordedAt is in the future";
+        }
+        return null;
+    }
+
+    private static WearableMetric.MetricType parseMetric(String metric) {
+        if (metric == null) {
+            return null;
+        }
+        try {
+            return WearableMetric.MetricType.valueOf(metric.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void reject(Tally tally, long index, String reason) {
+        tally.rejected++;
+        reportError(tally, "Sample " + index + ": " + reason);
+    }
+
+    private void reportError(Tally tally, String error) {
+        if (tally.errors.size() < config.getMaxReportedErrors()) {
+            tally.errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.careconnect.service.analytics;
+
+import com.careconnect.config.WearableSyncConfig;
+import com.careconnect.dto.WearableSampleDTO;
+import com.careconnect.model.Patient;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.WearableConnectionRepository;
+import com.careconnect.repository.WearableConnectionRepository.Connection;
+import com.careconnect.security.TokenCryptor;
+import com.careconnect.service.FitbitService;
+import com.careconnect.service.FitbitService.Page;
+import com.careconnect.service.FitbitService.RateLimit;
+import com.careconnect.service.FitbitService.RateLimitedException;
+import com.careconnect.service.FitbitService.Tokens;
+import com.careconnect.service.FitbitService.UnauthorizedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incremental sync of linked wearable provider accounts into {@code wearable_metric}.
+ *
+ * <p>
+ * Each connection keeps a cursor (the newest sample already stored) and a fixed slot within
+ * the sync interval, so tens of thousands of devices are synced evenly over the interval
+ * instead of all at once. Every poll leases the connections that are due, up to what the
+ * workers can take, and each worker syncs one connection at a time, which caps the API calls
+ * in flight at {@code maxConcurrentCalls}. A sync only asks for the days since the cursor
+ * (less a small overlap for late uploads) and writes through
+ * {@link WearableIngestionService}, which batches the inserts and skips samples already stored.
+ * </p>
+ * <p>
+ * When the provider's rate-limit window is nearly used up, or it answers 429, the sync stops,
+ * keeps what it fetched and resumes once the window resets. Other failures back off
+ * exponentially; a revoked authorization deactivates the connection until it is linked again.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WearableSyncService {
+
+    /** Slot offsets are drawn from one day and folded into the configured interval */
+    private static final int SLOT_RANGE_SECONDS = 86_400;
+
+    private final WearableConnectionRepository connectionRepository;
+    private final FitbitService fitbitService;
+    private final WearableIngestionService ingestionService;
+    private final PatientRepository patientRepository;
+    private final TokenCryptor tokenCryptor;
+    private final WearableSyncConfig config;
+
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private ExecutorService workers;
+    private String nodeId;
+
+    /** The provider's rate limit stopped this sync early; resume after {@code retryAfterSeconds} */
+    private static final class SyncPaused extends RuntimeException {
+        final long retryAfterSeconds;
+
+        SyncPaused(long retryAfterSeconds) {
+            super(null, null, false, false);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    /** Samples fetched by one sync, and up to when every metric is known to be complete */
+    private final class Pull {
+        final Connection connection;
+        final Instant now;
+        final List<WearableSampleDTO> samples = new ArrayList<>();
+        ZoneId zone;
+        Instant from;
+        Instant completeUntil;
+
+        Pull(Connection connection, Instant now) {
+            this.connection = connection;
+            this.now = now;
+            this.zone = connection.timeZone() != null ? ZoneId.of(connection.timeZone()) : null;
+        }
+
+        void run(String accessToken) {
+            samples.clear();
+            completeUntil = null;
+            try {
+                if (zone == null) {
+                    Page<ZoneId> profile = fitbitService.timeZone(accessToken);
+                    zone = profile.data();
+                    checkRateLimit(profile.rateLimit());
+                }
+                Instant backfillStart = now.minus(Duration.ofDays(config.getMaxBackfillDays()));
+                from = connection.syncCursor() == null
+                        ? backfillStart
+                        : connection.syncCursor().minus(Duration.ofMinutes(config.getCursorOverlapMinutes()));
+                if (from.isBefore(backfillStart)) {
+                    from = backfillStart;
+                }
+                LocalDate first = from.atZone(zone).toLocalDate();
+                LocalDate today = now.atZone(zone).toLocalDate();
+
+                collect(fitbitService.spo2(accessToken, first, today, zone));
+                collect(fitbitService.weight(accessToken, first, today, zone));
+                for (LocalDate day = first; !day.isAfter(today); day = day.plusDays(1)) {
+                    collect(fitbitService.heartRate(accessToken, day, zone));
+                    Instant endOfDay = day.plusDays(1).atStartOfDay(zone).toInstant();
+                    completeUntil = endOfDay.isBefore(now) ? endOfDay : now;
+                }
+            } catch (RateLimitedException e) {
+                throw new SyncPaused(e.getRetryAfterSeconds());
+            }
+        }
+
+        private void collect(Page<List<WearableSampleDTO>> page) {
+            for (WearableSampleDTO sample : page.data()) {
+                if (!sample.recordedAt().isBefore(from)) {
+                    samples.add(sample);
+                }
+            }
+            checkRateLimit(page.rateLimit());
+        }
+
+        /**
+         * New cursor: the newest sample, but no later than what was fetched completely when
+         * the sync stopped early
+         */
+        Instant cursor(boolean paused) {
+            Instant newest = null;
+            for (WearableSampleDTO sample : samples) {
+                if (newest == null || sample.recordedAt().isAfter(newest)) {
+                    newest = sample.recordedAt();
+                }
+            }
+            if (!paused || newest == null) {
+                return newest;
+            }
+            return completeUntil == null || completeUntil.isBefore(newest) ? completeUntil : newest;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        nodeId = config.getNodeId() != null && !config.getNodeId().isBlank()
+                ? config.getNodeId()
+                : "node-" + UUID.randomUUID();
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, config.getMaxConcurrentCalls()), task -> {
+            Thread thread = new Thread(task, "wearable-sync-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Link (or re-link) a patient's Fitbit account; the first sync runs on the next poll
+     */
+    public void linkFitbit(Long patientUserId, String externalUserId, String accessToken, String refreshToken,
+                           Instant tokenExpiresAt) {
+        Instant now = Instant.now();
+        connectionRepository.link(patientUserId, FitbitService.PROVIDER, externalUserId,
+                tokenCryptor.encrypt(accessToken), tokenCryptor.encrypt(refreshToken), tokenExpiresAt,
+                slotOffset(patientUserId), now, now);
+    }
+
+    /**
+     * Lease the connections that are due and hand them to the workers
+     */
+    @Scheduled(initialDelayString = "${careconnect.wearables.sync.poll-interval-ms:15000}",
+            fixedDelayString = "${careconnect.wearables.sync.poll-interval-ms:15000}")
+    public void poll() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // Keep at most one waiting connection per worker so leases do not lapse in the queue
+        int capacity = Math.min(config.getLeaseBatchSize(), 2 * config.getMaxConcurrentCalls() - inFlight.get());
+        if (capacity <= 0) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            List<Connection> due = connectionRepository.leaseDue(nodeId, now,
+                    now.plus(Duration.ofMinutes(config.getLeaseMinutes())), capacity);
+            for (Connection connection : due) {
+                held.add(connection.id());
+                inFlight.incrementAndGet();
+                workers.execute(() -> {
+                    try {
+                        sync(connection);
+                    } finally {
+                        held.remove(connection.id());
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            if (!due.isEmpty()) {
+                log.debug("Leased {} wearable connections for sync", due.size());
+            }
+        } catch (Exception e) {
+            log.error("Error leasing wearable connections", e);
+        }
+    }
+
+    /**
+     * Sync one leased connection and record the outcome
+     */
+    void sync(Connection connection) {
+        Instant now = Instant.now();
+        Pull pull = new Pull(connection, now);
+        try {
+            Patient patient = patientRepository.findByUserId(connection.patientUserId()).orElse(null);
+            if (patient == null) {
+                connectionRepository.fail(connection.id(), nodeId,
+                        "No patient for user " + connection.patientUserId(), now, true, now);
+                return;
+            }
+
+            Instant next = nextSlot(now, connection.slotOffsetSeconds());
+            boolean paused = false;
+            try {
+                boolean refreshed = false;
+                String accessToken = tokenCryptor.decrypt(connection.accessTokenEnc());
+                if (connection.tokenExpiresAt() != null && connection.tokenExpiresAt().isBefore(now.plusSeconds(60))) {
+                    accessToken = refresh(connection, now);
+                    refreshed = true;
+                }
+                try {
+                    pull.run(accessToken);
+                } catch (UnauthorizedException e) {
+                    if (refreshed) {
+                        throw e;
+                    }
+                    pull.run(refresh(connection, now));
+                }
+            } catch (SyncPaused e) {
+                paused = true;
+                Instant resume = now.plusSeconds(e.retryAfterSeconds);
+                if (resume.isAfter(next)) {
+                    next = resume;
+                }
+                log.info("Wearable sync for user {} paused by the provider's rate limit until {}",
+                        connection.patientUserId(), next);
+            }
+
+            if (!pull.samples.isEmpty()) {
+                ingestionService.ingest(patient.getId(), connection.patientUserId(), pull.samples);
+            }
+            connectionRepository.complete(connection.id(), nodeId, pull.cursor(paused),
+                    pull.zone != null ? pull.zone.getId() : null, next, Instant.now());
+        } catch (UnauthorizedException e) {
+            log.warn("Wearable authorization for user {} was revoked: {}", connection.patientUserId(), e.getMessage());
+            connectionRepository.fail(connection.id(), nodeId, e.getMessage(), now, true, now);
+        } catch (Exception e) {
+            long backoffMinutes = Math.min(config.getMaxBackoffMinutes(),
+                    (long) config.getSyncIntervalMinutes() << Math.min(connection.consecutiveFailures(), 10));
+            log.warn("Wearable sync for user {} failed, retrying in {} minutes: {}",
+                    connection.patientUserId(), backoffMinutes, e.getMessage());
+            connectionRepository.fail(connection.id(), nodeId, e.getMessage(),
+                    now.plus(Duration.ofMinutes(backoffMinutes)), false, now);
+        }
+    }
+
+    private String refresh(Connection connection, Instant now) {
+        Tokens tokens = fitbitService.refresh(tokenCryptor.decrypt(connection.refreshTokenEnc()));
+        connectionRepository.updateTokens(connection.id(), tokenCryptor.encrypt(tokens.accessToken()),
+                tokenCryptor.encrypt(tokens.refreshToken()), tokens.expiresAt(), now);
+        return tokens.accessToken();
+    }
+
+    private void checkRateLimit(RateLimit rateLimit) {
+        if (rateLimit.remaining() >= 0 && rateLimit.remaining() <= config.getRateLimitReserve()) {
+            throw new SyncPaused(rateLimit.resetSeconds());
+        }
+    }
+
+    /**
+     * Fixed offset of a user within the sync interval, spread evenly over user IDs
+     */
+    static int slotOffset(Long patientUserId) {
+        long mixed = patientUserId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(mixed ^ (mixed >>> 32), (long) SLOT_RANGE_SECONDS);
+    }
+
+    /**
+     * The first start of the connection's slot strictly after {@code now}
+     */
+    Instant nextSlot(Instant now, int slotOffsetSeconds) {
+        long interval = Math.max(60L, config.getSyncIntervalMinutes() * 60L);
+        long epochSecond = now.getEpochSecond();
+        long next = epochSecond - Math.floorMod(epochSecond, interval) + Math.floorMod(slotOffsetSeconds, interval);
+        return Instant.ofEpochSecond(next <= epochSecond ? next + interval : next);
+    }
+
+    /**
+     * Return connections still waiting on this node to the pool so other nodes pick them up
+     */
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+        try {
+            int released = connectionRepository.release(nodeId, List.copyOf(held));
+            if (released > 0) {
+                log.info("Released {} leased wearable connections on shutdown", released);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to release {} leased wearable connections; they return after lease expiry: {}",
+                    held.size(), e.getMessage());
+        }
+    }
+}
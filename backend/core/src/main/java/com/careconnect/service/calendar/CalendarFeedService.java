@@ -0,0 +1,466 @@
+package com.careconnect.service.calendar;
+
+import com.careconnect.config.CalendarFeedConfig;
+import com.careconnect.exception.AppException;
+import com.careconnect.exception.PatientNotFoundException;
+import com.careconnect.model.Caregiver;
+import com.careconnect.model.CaregiverPatientLink;
+import com.careconnect.model.Patient;
+import com.careconnect.model.Task;
+import com.careconnect.model.User;
+import com.careconnect.model.schedule.ScheduledVisit;
+import com.careconnect.repository.CaregiverPatientLinkRepository;
+import com.careconnect.repository.CaregiverRepository;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.TaskRepository;
+import com.careconnect.repository.schedule.ScheduledVisitRepository;
+import com.careconnect.util.ICalendarWriter;
+import com.careconnect.util.RecurrenceRule;
+import com.careconnect.util.TaskMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * iCalendar (RFC 5545) feeds of a patient's or a caregiver's tasks and scheduled visits.
+ *
+ * <p>
+ * A task series is written once, as an event with an {@code RRULE}; its stored exceptions
+ * become {@code EXDATE}s (cancelled occurrences) or overriding events with a
+ * {@code RECURRENCE-ID} (edited or completed ones). Task times are floating wall-clock times,
+ * and tasks without a time are all-day events. Visits are timed events with their duration.
+ * </p>
+ *
+ * <p>
+ * Generated feeds are cached with a strong ETag (a hash of the body) and the time the body last
+ * changed, so calendar clients revalidate with {@code If-None-Match}/{@code If-Modified-Since}
+ * and mostly get a 304. Each patient and caregiver has a version that task and visit writes (and,
+ * for caregivers, link changes) bump after commit; a cached feed is only served while every version it was built from is current
+ * and its TTL has not run out. Feeds are evicted least recently read first.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarFeedService {
+
+    /**
+     * A generated feed, its strong ETag and the time its content last changed
+     */
+    public record CalendarFeed(String body, String etag, Instant lastModified) {}
+
+    private enum Owner { PATIENT, CAREGIVER }
+
+    private record Key(Owner owner, Long id) {}
+
+    private record Cached(CalendarFeed feed, long version, Map<Long, Long> patientVersions, Instant expiresAt) {}
+
+    private static final String UID_DOMAIN = "@careconnect";
+    private static final String[] BYDAY = {"SU", "MO", "TU", "WE", "TH", "FR", "SA"}; // TaskMapper order, Sun=0
+    private static final DateTimeFormatter TWELVE_HOUR = DateTimeFormatter.ofPattern("h:mm a", Locale.US);
+
+    private final TaskRepository taskRepository;
+    private final ScheduledVisitRepository visitRepository;
+    private final PatientRepository patientRepository;
+    private final CaregiverRepository caregiverRepository;
+    private final CaregiverPatientLinkRepository linkRepository;
+    private final CalendarFeedConfig config;
+
+    private final Map<Key, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Feed of a patient's tasks and scheduled visits
+     */
+    @Transactional(readOnly = true)
+    public CalendarFeed patientFeed(Long patientId) {
+        Key key = new Key(Owner.PATIENT, patientId);
+        Cached cached = current(key);
+        if (cached != null) {
+            return cached.feed();
+        }
+
+        long version = version(key);
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new PatientNotFoundException(patientId));
+        ICalendarWriter ics = open("Care calendar: " + name(patient.getFirstName(), patient.getLastName()));
+        writeTasks(ics, taskRepository.findByPatientId(patientId).orElseGet(List::of), null);
+        visitRepository.findByPatientId(patientId).stream()
+                .sorted(Comparator.comparing(ScheduledVisit::getId))
+                .forEach(visit -> writeVisit(ics, visit, null));
+        return store(key, version, Map.of(), ics.end("VCALENDAR").build());
+    }
+
+    /**
+     * Feed of a caregiver's scheduled visits and the tasks of their actively linked patients
+     */
+    @Transactional(readOnly = true)
+    public CalendarFeed caregiverFeed(Long caregiverId) {
+        Key key = new Key(Owner.CAREGIVER, caregiverId);
+        Cached cached = current(key);
+        if (cached != null) {
+            return cached.feed();
+        }
+
+        long version = version(key);
+        Caregiver caregiver = caregiverRepository.findById(caregiverId)
+                .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Caregiver not found"));
+        List<User> patientUsers = linkRepository.findActivePatientsByCaregiver(caregiver.getUser(), LocalDateTime.now())
+                .stream()
+                .map(CaregiverPatientLink::getPatientUser)
+                .toList();
+        List<Patient> patients = patientUsers.isEmpty() ? List.of() : patientRepository.findByUserIn(patientUsers);
+
+        // Read the patients' versions before their tasks, so a concurrent write invalidates this feed
+        Map<Long, Long> patientVersions = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (Patient patient : patients) {
+            patientVersions.put(patient.getId(), version(new Key(Owner.PATIENT, patient.getId())));
+            names.put(patient.getId(), name(patient.getFirstName(), patient.getLastName()));
+        }
+        List<ScheduledVisit> visits = visitRepository.findByCaregiverId(caregiverId);
+        List<Long> unnamed = visits.stream()
+                .map(ScheduledVisit::getPatientId)
+                .filter(id -> !names.containsKey(id))
+                .distinct()
+                .toList();
+        patientRepository.findAllById(unnamed)
+                .forEach(patient -> names.put(patient.getId(), name(patient.getFirstName(), patient.getLastName())));
+
+        ICalendarWriter ics = open("Care calendar: " + name(caregiver.getFirstName(), caregiver.getLastName()));
+        if (!patientVersions.isEmpty()) {
+            writeTasks(ics, taskRepository.findByPatientIdIn(patientVersions.keySet()), names);
+        }
+        visits.stream()
+                .sorted(Comparator.comparing(ScheduledVisit::getId))
+                .forEach(visit -> writeVisit(ics, visit, names.get(visit.getPatientId())));
+        return store(key, version, patientVersions, ics.end("VCALENDAR").build());
+    }
+
+    /**
+     * Stop serving cached feeds that include a patient's tasks or visits once the current
+     * transaction commits
+     */
+    public void invalidatePatient(Long patientId) {
+        invalidate(new Key(Owner.PATIENT, patientId));
+    }
+
+    /**
+     * Stop serving a caregiver's cached feed once the current transaction commits
+     */
+    public void invalidateCaregiver(Long caregiverId) {
+        invalidate(new Key(Owner.CAREGIVER, caregiverId));
+    }
+
+    /**
+     * Stop serving the cached feed of the caregiver with this user ID once the current
+     * transaction commits, after one of their patient links changed
+     */
+    public void invalidateCaregiverUser(Long caregiverUserId) {
+        if (caregiverUserId == null) {
+            return;
+        }
+        caregiverRepository.findByUserId(caregiverUserId)
+                .ifPresent(caregiver -> invalidateCaregiver(caregiver.getId()));
+    }
+
+    private void invalidate(Key key) {
+        if (key.id() == null) {
+            return;
+        }
+        Runnable bump = () -> versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    private long version(Key key) {
+        return versions.computeIfAbsent(key, k -> new AtomicLong()).get();
+    }
+
+    private Cached current(Key key) {
+        synchronized (cache) {
+            Cached cached = cache.get(key);
+            if (cached == null || !Instant.now().isBefore(cached.expiresAt()) || cached.version() != version(key)) {
+                return null;
+            }
+            for (Map.Entry<Long, Long> patient : cached.patientVersions().entrySet()) {
+                if (version(new Key(Owner.PATIENT, patient.getKey())) != patient.getValue()) {
+                    return null;
+                }
+            }
+            return cached;
+        }
+    }
+
+    private CalendarFeed store(Key key, long version, Map<Long, Long> patientVersions, String body) {
+        String etag = etag(body);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        synchronized (cache) {
+            // An unchanged body keeps its Last-Modified, so If-Modified-Since still matches after a rebuild
+            Cached previous = cache.get(key);
+            Instant lastModified = previous != null && previous.feed().etag().equals(etag)
+                    ? previous.feed().lastModified()
+                    : now;
+            CalendarFeed feed = new CalendarFeed(body, etag, lastModified);
+            cache.put(key, new Cached(feed, version, Map.copyOf(patientVersions),
+                    now.plusSeconds(config.getCacheTtlSeconds())));
+            if (cache.size() > config.getCacheMaxEntries()) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+            return feed;
+        }
+    }
+
+    private ICalendarWriter open(String calendarName) {
+        return new ICalendarWriter()
+                .begin("VCALENDAR")
+                .property("VERSION", "2.0")
+                .property("PRODID", config.getProductId())
+                .property("CALSCALE", "GREGORIAN")
+                .property("METHOD", "PUBLISH")
+                .text("X-WR-CALNAME", calendarName);
+    }
+
+    private static void writeTasks(ICalendarWriter ics, List<Task> tasks, Map<Long, String> patientNames) {
+        List<Task> sorted = tasks.stream().sorted(Comparator.comparing(Task::getId)).toList();
+        Map<Long, Task> series = sorted.stream()
+                .filter(Task::isSeriesParent)
+                .collect(Collectors.toMap(Task::getId, t -> t));
+        Map<Long, List<Task>> exceptions = new HashMap<>();
+        for (Task task : sorted) {
+            if (task.getParentTaskId() != null && task.getOccurrenceDate() != null
+                    && series.containsKey(task.getParentTaskId())) {
+                exceptions.computeIfAbsent(task.getParentTaskId(), id -> new ArrayList<>()).add(task);
+            }
+        }
+
+        for (Task task : sorted) {
+            String patientName = patientNames != null && task.getPatient() != null
+                    ? patientNames.get(task.getPatient().getId())
+                    : null;
+            if (series.containsKey(task.getId())) {
+                writeSeries(ics, task, exceptions.getOrDefault(task.getId(), List.of()), patientName);
+            } else if (task.getParentTaskId() != null && series.containsKey(task.getParentTaskId())) {
+                continue; // written with its series
+            } else if (!task.isCancelled() && task.getDate() != null) {
+                writeTask(ics, task, patientName);
+            }
+        }
+    }
+
+    private static void writeSeries(ICalendarWriter ics, Task parent, List<Task> exceptions, String patientName) {
+        RecurrenceRule rule = RecurrenceRule.of(parent);
+        int interval = parent.getTaskInterval() != null ? Math.max(1, parent.getTaskInterval()) : 1;
+        // DTSTART must be an occurrence; with a weekly day mask the start date may not be one
+        LocalDate first = rule.occursOn(rule.start())
+                ? rule.start()
+                : rule.between(rule.start(), rule.start().plusWeeks(interval + 1L)).stream().findFirst().orElse(null);
+        if (first == null) {
+            return;
+        }
+        LocalTime time = timeOf(parent);
+
+        List<String> cancelled = new ArrayList<>();
+        List<Task> overrides = new ArrayList<>();
+        exceptions.stream()
+                .sorted(Comparator.comparing(Task::getOccurrenceDate))
+                .forEach(e -> {
+                    if (e.isCancelled()) {
+                        cancelled.add(value(e.getOccurrenceDate(), time));
+                    } else {
+                        overrides.add(e);
+                    }
+                });
+
+        ics.begin("VEVENT").property("UID", uid(parent));
+        writeTaskFields(ics, parent, first, time, patientName);
+        ics.property("RRULE", rrule(parent, rule, interval, time));
+        if (!cancelled.isEmpty()) {
+            ics.property(time == null ? "EXDATE;VALUE=DATE" : "EXDATE", String.join(",", cancelled));
+        }
+        ics.end("VEVENT");
+
+        for (Task exception : overrides) {
+            ics.begin("VEVENT").property("UID", uid(parent));
+            ics.property(time == null ? "RECURRENCE-ID;VALUE=DATE" : "RECURRENCE-ID",
+                    value(exception.getOccurrenceDate(), time));
+            writeTaskFields(ics, exception, exception.getDate(), timeOf(exception), patientName);
+            ics.end("VEVENT");
+        }
+    }
+
+    private static void writeTask(ICalendarWriter ics, Task task, String patientName) {
+        ics.begin("VEVENT").property("UID", uid(task));
+        writeTaskFields(ics, task, task.getDate(), timeOf(task), patientName);
+        ics.end("VEVENT");
+    }
+
+    private static void writeTaskFields(ICalendarWriter ics, Task task, LocalDate date, LocalTime time,
+            String patientName) {
+        Instant stamp = task.getCreatedAt() != null
+                ? Instant.ofEpochMilli(task.getCreatedAt())
+                : date.atStartOfDay().toInstant(ZoneOffset.UTC);
+        ics.property("DTSTAMP", ICalendarWriter.utc(stamp))
+                .property(time == null ? "DTSTART;VALUE=DATE" : "DTSTART", value(date, time))
+                .text("SUMMARY", patientName != null ? task.getName() + " (" + patientName + ")" : task.getName())
+                .text("DESCRIPTION", task.getDescription())
+                .text("CATEGORIES", task.getTaskType());
+        if (task.isCompleted()) {
+            ics.property("X-CARECONNECT-COMPLETED", "TRUE");
+        }
+    }
+
+    /**
+     * RRULE equivalent to {@link RecurrenceRule}: weeks start on Monday, and monthly/yearly
+     * dates past the end of a shorter month fall on its last day rather than being skipped.
+     */
+    private static String rrule(Task parent, RecurrenceRule rule, int interval, LocalTime time) {
+        String frequency = parent.getFrequency().toLowerCase(Locale.ROOT);
+        StringBuilder rrule = new StringBuilder("FREQ=").append(frequency.toUpperCase(Locale.ROOT));
+        if (interval > 1) {
+            rrule.append(";INTERVAL=").append(interval);
+        }
+        LocalDate start = rule.start();
+        switch (frequency) {
+            case "weekly" -> {
+                List<Boolean> days = TaskMapper.parseDays(parent.getDaysOfWeek());
+                if (days != null && days.size() == 7 && days.contains(Boolean.TRUE)) {
+                    List<String> byDay = new ArrayList<>();
+                    for (int i = 0; i < 7; i++) {
+                        if (Boolean.TRUE.equals(days.get(i))) {
+                            byDay.add(BYDAY[i]);
+                        }
+                    }
+                    rrule.append(";BYDAY=").append(String.join(",", byDay));
+                }
+                rrule.append(";WKST=MO");
+            }
+            case "monthly" -> {
+                if (start.getDayOfMonth() > 28) {
+                    rrule.append(";BYMONTHDAY=").append(monthDaysFrom28(start.getDayOfMonth())).append(";BYSETPOS=-1");
+                }
+            }
+            case "yearly" -> {
+                if (start.getMonth() == Month.FEBRUARY && start.getDayOfMonth() == 29) {
+                    rrule.append(";BYMONTH=2;BYMONTHDAY=28,29;BYSETPOS=-1");
+                }
+            }
+            default -> {
+            }
+        }
+        return rrule.append(";UNTIL=").append(value(rule.end(), time)).toString();
+    }
+
+    private static String monthDaysFrom28(int lastDay) {
+        List<String> days = new ArrayList<>();
+        for (int day = 28; day <= lastDay; day++) {
+            days.add(Integer.toString(day));
+        }
+        return String.join(",", days);
+    }
+
+    private static void writeVisit(ICalendarWriter ics, ScheduledVisit visit, String patientName) {
+        LocalDateTime modified = visit.getUpdatedAt() != null ? visit.getUpdatedAt() : visit.getCreatedAt();
+        Instant stamp = modified != null
+                ? modified.atZone(ZoneId.systemDefault()).toInstant()
+                : visit.getScheduledDate().atStartOfDay().toInstant(ZoneOffset.UTC);
+        int minutes = visit.getDurationMinutes() != null ? visit.getDurationMinutes() : 60;
+        ics.begin("VEVENT")
+                .property("UID", "visit-" + visit.getId() + UID_DOMAIN)
+                .property("DTSTAMP", ICalendarWriter.utc(stamp))
+                .property("DTSTART", ICalendarWriter.dateTime(visit.getScheduledDate().atTime(visit.getScheduledTime())))
+                .property("DURATION", "PT" + minutes + "M")
+                .text("SUMMARY", patientName != null
+                        ? visit.getServiceType() + " (" + patientName + ")"
+                        : visit.getServiceType())
+                .text("DESCRIPTION", visit.getNotes())
+                .property("PRIORITY", priority(visit.getPriority()))
+                .property("STATUS", visit.isCancelled() ? "CANCELLED" : "CONFIRMED")
+                .property("LAST-MODIFIED", modified != null ? ICalendarWriter.utc(stamp) : null)
+                .end("VEVENT");
+    }
+
+    private static String priority(String priority) {
+        if (priority == null) {
+            return null;
+        }
+        return switch (priority.toLowerCase(Locale.ROOT)) {
+            case "high", "urgent" -> "1";
+            case "low" -> "9";
+            default -> "5";
+        };
+    }
+
+    private static String uid(Task task) {
+        return "task-" + task.getId() + UID_DOMAIN;
+    }
+
+    private static String value(LocalDate date, LocalTime time) {
+        return time == null ? ICalendarWriter.date(date) : ICalendarWriter.dateTime(date.atTime(time));
+    }
+
+    /** Task times are "HH:mm", or "h:mm AM" from older clients; anything else is all-day */
+    private static LocalTime timeOf(Task task) {
+        String timeOfDay = task.getTimeOfDay();
+        if (timeOfDay == null || timeOfDay.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(timeOfDay.trim());
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalTime.parse(timeOfDay.trim().toUpperCase(Locale.ROOT), TWELVE_HOUR);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static String name(String first, String last) {
+        return ((first != null ? first : "") + " " + (last != null ? last : "")).trim();
+    }
+
+    private static String etag(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
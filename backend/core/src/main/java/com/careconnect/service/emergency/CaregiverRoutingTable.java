@@ -0,0 +1,89 @@
+package com.careconnect.service.emergency;
+
+import com.careconnect.repository.CaregiverPatientLinkRepository;
+import com.careconnect.repository.CaregiverPatientLinkRepository.CaregiverRoute;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed patient → caregiver contacts used by the SOS lane, so an emergency never
+ * waits on link and user lookups. The table is rebuilt with one query on startup and
+ * periodically; link changes invalidate the affected patient, which is reloaded with a
+ * single projection query on next use.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CaregiverRoutingTable {
+
+    public record Route(Long caregiverUserId, String name, String email) {}
+
+    private final CaregiverPatientLinkRepository caregiverPatientLinkRepository;
+
+    private final Map<Long, List<Route>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Caregivers to alert for a patient (by patient user ID)
+     */
+    public List<Route> routesFor(Long patientUserId) {
+        return routes.computeIfAbsent(patientUserId, id ->
+                toRoutes(caregiverPatientLinkRepository.findActiveRoutesByPatient(id, LocalDateTime.now())));
+    }
+
+    /**
+     * Drop a patient's routes after one of their links changed. Inside a transaction the
+     * entry is dropped again after commit, so a lookup racing the write cannot keep
+     * stale routes.
+     */
+    public void invalidate(Long patientUserId) {
+        if (patientUserId == null) {
+            return;
+        }
+        routes.remove(patientUserId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    routes.remove(patientUserId);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${careconnect.sos.routing-refresh-ms:600000}",
+               fixedDelayString = "${careconnect.sos.routing-refresh-ms:600000}")
+    public void rebuild() {
+        try {
+            Map<Long, List<CaregiverRoute>> byPatient = new HashMap<>();
+            for (CaregiverRoute route : caregiverPatientLinkRepository.findAllActiveRoutes(LocalDateTime.now())) {
+                byPatient.computeIfAbsent(route.getPatientUserId(), id -> new ArrayList<>()).add(route);
+            }
+            routes.keySet().retainAll(byPatient.keySet());
+            byPatient.forEach((patientUserId, patientRoutes) -> routes.put(patientUserId, toRoutes(patientRoutes)));
+            log.info("Caregiver routing table rebuilt for {} patients", byPatient.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild caregiver routing table", e);
+        }
+    }
+
+    private static List<Route> toRoutes(List<CaregiverRoute> rows) {
+        return rows.stream()
+                .map(row -> new Route(row.getCaregiverUserId(), row.getCaregiverName(), row.getCaregiverEmail()))
+                .distinct()
+                .toList();
+    }
+}
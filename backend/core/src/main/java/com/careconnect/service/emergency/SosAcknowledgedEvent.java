@@ -0,0 +1,7 @@
+package com.careconnect.service.emergency;
+
+/**
+ * Published when a caregiver acknowledges an SOS over a channel that cannot call the
+ * SOS service directly (e.g. a WebSocket handler).
+ */
+public record SosAcknowledgedEvent(String callId, Long caregiverUserId) {}
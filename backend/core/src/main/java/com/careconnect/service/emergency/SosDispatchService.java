@@ -0,0 +1,426 @@
+package com.careconnect.service.emergency;
+
+import com.careconnect.config.SosConfig;
+import com.careconnect.dto.FirebaseNotificationRequest;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.service.EmailService;
+import com.careconnect.service.NotificationLogService;
+import com.careconnect.service.emergency.CaregiverRoutingTable.Route;
+import com.careconnect.service.notification.PushNotificationSender;
+import com.careconnect.websocket.CallNotificationHandler;
+import com.careconnect.websocket.CareConnectWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated delivery lane for SOS calls.
+ *
+ * <p>
+ * Caregivers come from the precomputed {@link CaregiverRoutingTable}. Every caregiver is
+ * reached in parallel over WebSocket and push on a thread pool reserved for emergencies,
+ * and by email when neither of those got through. Each recipient's delivery channels and
+ * acknowledgement are tracked per incident; while nobody has acknowledged, an escalation
+ * timer re-sends over every channel. Time from the SOS request to fan-out completion and
+ * to the first acknowledgement is recorded as metrics.
+ * </p>
+ *
+ * <p>
+ * Incidents live in memory on the node that dispatched them, like the WebSocket sessions
+ * they are delivered over. A restart loses open incidents (escalation stops and later
+ * acknowledgements are rejected), and an acknowledgement that reaches another node is not
+ * recorded; deployments are expected to route a user's sockets and API calls to one node.
+ * </p>
+ */
+@Service
+@Slf4j
+public class SosDispatchService {
+
+    public enum Channel { SOCKET, PUSH, EMAIL }
+
+    public enum Status { ACTIVE, ACKNOWLEDGED, UNACKNOWLEDGED }
+
+    /**
+     * Outcome of the initial fan-out
+     *
+     * @param recipients caregivers the SOS was addressed to
+     * @param reached    caregivers at least one channel actually delivered to
+     */
+    public record SosDispatchResult(String callId, int recipients, int reached) {}
+
+    private static final class Recipient {
+        final Route route;
+        final Set<Channel> delivered = ConcurrentHashMap.newKeySet();
+        volatile Instant ackedAt;
+
+        Recipient(Route route) {
+            this.route = route;
+        }
+    }
+
+    private static final class Incident {
+        final String callId;
+        final Long patientUserId;
+        final String patientName;
+        final Map<String, Object> notification;
+        final Instant pressedAt = Instant.now();
+        final Map<Long, Recipient> recipients = new LinkedHashMap<>();
+        volatile Status status = Status.ACTIVE;
+        volatile Instant firstAckAt;
+        volatile Long firstAckBy;
+        volatile int escalations;
+        volatile ScheduledFuture<?> escalation;
+
+        Incident(String callId, Long patientUserId, String patientName, Map<String, Object> notification) {
+            this.callId = callId;
+            this.patientUserId = patientUserId;
+            this.patientName = patientName;
+            this.notification = notification;
+        }
+    }
+
+    private final CaregiverRoutingTable routingTable;
+    private final CallNotificationHandler callNotificationHandler;
+    private final CareConnectWebSocketHandler careConnectWebSocketHandler;
+    private final PushNotificationSender pushNotificationSender;
+    private final EmailService emailService;
+    private final NotificationLogService notificationLogService;
+    private final SosConfig config;
+
+    private final ExecutorService sosExecutor;
+    private final ScheduledExecutorService escalationScheduler;
+    private final Map<String, Incident> incidents = new ConcurrentHashMap<>();
+
+    private final Timer fanOutLatency;
+    private final Timer firstAckLatency;
+    private final Counter escalationCounter;
+    private final Counter unacknowledgedCounter;
+
+    public SosDispatchService(CaregiverRoutingTable routingTable,
+                              CallNotificationHandler callNotificationHandler,
+                              CareConnectWebSocketHandler careConnectWebSocketHandler,
+                              PushNotificationSender pushNotificationSender,
+                              EmailService emailService,
+                              NotificationLogService notificationLogService,
+                              MeterRegistry meterRegistry,
+                              SosConfig config) {
+        this.routingTable = routingTable;
+        this.callNotificationHandler = callNotificationHandler;
+        this.careConnectWebSocketHandler = careConnectWebSocketHandler;
+        this.pushNotificationSender = pushNotificationSender;
+        this.emailService = emailService;
+        this.notificationLogService = notificationLogService;
+        this.config = config;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sosExecutor = Executors.newFixedThreadPool(config.getPoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "sos-lane-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        });
+        this.escalationScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sos-escalation");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.fanOutLatency = Timer.builder("careconnect.sos.fanout.latency")
+                .description("Time from SOS request to completed fan-out")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.firstAckLatency = Timer.builder("careconnect.sos.first.ack.latency")
+                .description("Time from SOS request to the first caregiver acknowledgement")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.escalationCounter = Counter.builder("careconnect.sos.escalations").register(meterRegistry);
+        this.unacknowledgedCounter = Counter.builder("careconnect.sos.unacknowledged").register(meterRegistry);
+    }
+
+    /**
+     * Send an SOS to every caregiver of the patient and start tracking acknowledgements.
+     * Waits at most {@code careconnect.sos.delivery-timeout-ms} for the fan-out.
+     */
+    public SosDispatchResult dispatch(Long patientUserId, String patientName, String callId, String emergencyType,
+                                      String location, String additionalInfo, boolean isVideoCall) {
+        List<Route> routes = routingTable.routesFor(patientUserId);
+        if (routes.isEmpty()) {
+            log.warn("No caregivers found for patient user ID: {}", patientUserId);
+            return new SosDispatchResult(callId, 0, 0);
+        }
+
+        Map<String, Object> notification = Map.of(
+            "type", "sos-call",
+            "timestamp", Instant.now().toString(),
+            "data", Map.ofEntries(
+                Map.entry("patientUserId", patientUserId.toString()),
+                Map.entry("patientName", patientName),
+                Map.entry("callId", callId),
+                Map.entry("emergencyType", emergencyType),
+                Map.entry("location", location != null ? location : "Unknown"),
+                Map.entry("additionalInfo", additionalInfo != null ? additionalInfo : ""),
+                Map.entry("isVideoCall", isVideoCall),
+                Map.entry("priority", "CRITICAL"),
+                Map.entry("message", "🚨 EMERGENCY: " + patientName + " needs immediate assistance!"),
+                Map.entry("urgency", "HIGH"),
+                Map.entry("requiresAck", true)
+            )
+        );
+
+        Incident incident = new Incident(callId, patientUserId, patientName, notification);
+        routes.forEach(route -> incident.recipients.put(route.caregiverUserId(), new Recipient(route)));
+        incidents.put(callId, incident);
+
+        try {
+            fanOut(incident, false).get(config.getDeliveryTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("SOS {} fan-out still running after {} ms", callId, config.getDeliveryTimeoutMs());
+        } catch (Exception e) {
+            log.error("SOS {} fan-out failed: {}", callId, e.getMessage());
+        }
+        fanOutLatency.record(Duration.between(incident.pressedAt, Instant.now()));
+        scheduleEscalation(incident);
+
+        int reached = (int) incident.recipients.values().stream().filter(r -> !r.delivered.isEmpty()).count();
+        log.info("SOS {} from patient {} reached {}/{} caregivers", callId, patientUserId, reached, routes.size());
+        return new SosDispatchResult(callId, routes.size(), reached);
+    }
+
+    /**
+     * Deliver to every recipient that has not acknowledged yet. Email is used for recipients
+     * no other channel reached, and for everyone during escalation.
+     */
+    private CompletableFuture<Void> fanOut(Incident incident, boolean escalation) {
+        List<Recipient> targets = incident.recipients.values().stream().filter(r -> r.ackedAt == null).toList();
+
+        List<CompletableFuture<?>> deliveries = new ArrayList<>();
+        for (Recipient recipient : targets) {
+            deliveries.add(CompletableFuture.runAsync(() -> deliverSocket(incident, recipient), sosExecutor));
+        }
+
+        List<FirebaseNotificationRequest> pushRequests = targets.stream()
+                .map(recipient -> FirebaseNotificationRequest.builder()
+                        .targetUserId(recipient.route.caregiverUserId())
+                        .title("🚨 SOS: " + incident.patientName)
+                        .body(incident.patientName + " needs immediate assistance")
+                        .notificationType("EMERGENCY")
+                        .data(Map.of("callId", incident.callId, "type", "sos-call"))
+                        .build())
+                .toList();
+        deliveries.add(pushNotificationSender.sendAsync(pushRequests, sosExecutor)
+                .thenAccept(responses -> markPushDelivered(targets, responses))
+                .exceptionally(e -> {
+                    log.warn("SOS {} push delivery failed: {}", incident.callId, e.getMessage());
+                    return null;
+                }));
+
+        return CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> null)
+                .thenCompose(ignored -> CompletableFuture.allOf(targets.stream()
+                        .filter(r -> escalation || r.delivered.isEmpty())
+                        .filter(r -> r.route.email() != null && !r.route.email().isBlank())
+                        .map(r -> CompletableFuture.runAsync(() -> deliverEmail(incident, r), sosExecutor))
+                        .toArray(CompletableFuture[]::new)));
+    }
+
+    private void deliverSocket(Incident incident, Recipient recipient) {
+        String userId = recipient.route.caregiverUserId().toString();
+        Map<String, Object> logged = notificationLogService.append(userId, incident.notification);
+        boolean viaCall = callNotificationHandler.sendNotificationToUser(userId, logged);
+        boolean viaApp = careConnectWebSocketHandler.sendRealTimeUpdate(userId, logged);
+        if (viaCall || viaApp) {
+            recipient.delivered.add(Channel.SOCKET);
+        }
+    }
+
+    private static void markPushDelivered(List<Recipient> targets, List<NotificationResponse> responses) {
+        for (int i = 0; i < Math.min(targets.size(), responses.size()); i++) {
+            if (responses.get(i).isSuccess()) {
+                targets.get(i).delivered.add(Channel.PUSH);
+            }
+        }
+    }
+
+    private void deliverEmail(Incident incident, Recipient recipient) {
+        try {
+            Map<?, ?> data = (Map<?, ?>) incident.notification.get("data");
+            emailService.sendHtmlEmail(recipient.route.email(),
+                    "🚨 SOS from " + incident.patientName,
+                    "<h2>Emergency alert</h2>"
+                            + "<p><strong>" + html(incident.patientName) + "</strong> pressed the SOS button and needs immediate assistance.</p>"
+                            + "<p>Emergency type: " + html(data.get("emergencyType")) + "<br>Location: " + html(data.get("location")) + "</p>"
+                            + "<p>Please open CareConnect to respond.</p>");
+            recipient.delivered.add(Channel.EMAIL);
+        } catch (Exception e) {
+            log.error("SOS {} email to caregiver {} failed: {}", incident.callId, recipient.route.caregiverUserId(), e.getMessage());
+        }
+    }
+
+    /** Caller-supplied text is escaped before it goes into email HTML */
+    private static String html(Object value) {
+        return value != null ? HtmlUtils.htmlEscape(value.toString()) : "";
+    }
+
+    private void scheduleEscalation(Incident incident) {
+        if (incident.status == Status.ACTIVE) {
+            incident.escalation = escalationScheduler.schedule(
+                    () -> escalate(incident), config.getEscalateAfterSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    private void escalate(Incident incident) {
+        if (incident.status != Status.ACTIVE) {
+            return;
+        }
+        if (incident.escalations >= config.getMaxEscalations()) {
+            incident.status = Status.UNACKNOWLEDGED;
+            unacknowledgedCounter.increment();
+            log.error("SOS {} from patient {} was not acknowledged after {} escalations",
+                    incident.callId, incident.patientUserId, incident.escalations);
+            return;
+        }
+        incident.escalations++;
+        escalationCounter.increment();
+        log.warn("SOS {} not acknowledged, escalation round {}", incident.callId, incident.escalations);
+        fanOut(incident, true).whenComplete((ignored, e) -> scheduleEscalation(incident));
+    }
+
+    /**
+     * Record a caregiver's acknowledgement. The first one stops escalation and tells the
+     * patient and the other caregivers that someone is responding.
+     *
+     * @return {@code false} if the incident is unknown or the user is not one of its recipients
+     */
+    public boolean acknowledge(String callId, Long caregiverUserId) {
+        Incident incident = callId != null ? incidents.get(callId) : null;
+        Recipient recipient = incident != null ? incident.recipients.get(caregiverUserId) : null;
+        if (recipient == null) {
+            return false;
+        }
+        Instant now = Instant.now();
+        if (recipient.ackedAt == null) {
+            recipient.ackedAt = now;
+        }
+
+        boolean first;
+        synchronized (incident) {
+            first = incident.firstAckAt == null;
+            if (first) {
+                incident.firstAckAt = now;
+                incident.firstAckBy = caregiverUserId;
+                incident.status = Status.ACKNOWLEDGED;
+            }
+        }
+        if (first) {
+            ScheduledFuture<?> escalation = incident.escalation;
+            if (escalation != null) {
+                escalation.cancel(false);
+            }
+            firstAckLatency.record(Duration.between(incident.pressedAt, now));
+            log.info("SOS {} acknowledged by caregiver {} after {} ms", callId, caregiverUserId,
+                    Duration.between(incident.pressedAt, now).toMillis());
+            notifyAcknowledged(incident, recipient);
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onSosAcknowledged(SosAcknowledgedEvent event) {
+        if (!acknowledge(event.callId(), event.caregiverUserId())) {
+            log.warn("Ignoring SOS acknowledgement for unknown call {} from user {}", event.callId(), event.caregiverUserId());
+        }
+    }
+
+    private void notifyAcknowledged(Incident incident, Recipient by) {
+        Map<String, Object> update = Map.of(
+            "type", "sos-acknowledged",
+            "callId", incident.callId,
+            "acknowledgedBy", by.route.caregiverUserId(),
+            "acknowledgedByName", by.route.name() != null ? by.route.name() : "",
+            "timestamp", System.currentTimeMillis()
+        );
+        List<Long> userIds = new ArrayList<>(incident.recipients.keySet());
+        userIds.add(incident.patientUserId);
+        for (Long userId : userIds) {
+            sosExecutor.execute(() -> {
+                callNotificationHandler.sendNotificationToUser(userId.toString(), update);
+                careConnectWebSocketHandler.sendRealTimeUpdate(userId.toString(), update);
+            });
+        }
+    }
+
+    /**
+     * Whether a user may see an SOS's status: its patient or one of its recipients
+     */
+    public boolean isParticipant(String callId, Long userId) {
+        Incident incident = callId != null ? incidents.get(callId) : null;
+        return incident != null && userId != null
+                && (userId.equals(incident.patientUserId) || incident.recipients.containsKey(userId));
+    }
+
+    /**
+     * Delivery and acknowledgement state of an SOS. Callers check {@link #isParticipant} first.
+     */
+    public Optional<Map<String, Object>> getIncidentStatus(String callId) {
+        Incident incident = incidents.get(callId);
+        if (incident == null) {
+            return Optional.empty();
+        }
+        List<Map<String, Object>> recipients = new ArrayList<>();
+        incident.recipients.values().forEach(r -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("caregiverUserId", r.route.caregiverUserId());
+            state.put("caregiverName", r.route.name());
+            state.put("channels", r.delivered.isEmpty() ? Set.of() : EnumSet.copyOf(r.delivered));
+            state.put("acknowledgedAt", r.ackedAt);
+            recipients.add(state);
+        });
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("callId", incident.callId);
+        status.put("patientUserId", incident.patientUserId);
+        status.put("status", incident.status);
+        status.put("pressedAt", incident.pressedAt);
+        status.put("firstAcknowledgedAt", incident.firstAckAt);
+        status.put("firstAcknowledgedBy", incident.firstAckBy);
+        status.put("escalations", incident.escalations);
+        status.put("recipients", recipients);
+        return Optional.of(status);
+    }
+
+    @Scheduled(fixedDelay = 300000)
+    public void purgeFinishedIncidents() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(config.getIncidentRetentionMinutes()));
+        incidents.values().removeIf(incident -> incident.status != Status.ACTIVE && incident.pressedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        escalationScheduler.shutdownNow();
+        sosExecutor.shutdown();
+    }
+}
@@ -0,0 +1,155 @@
+package com.careconnect.service.notification;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Push transport backed by Firebase Cloud Messaging. Each batch is sent with a single
+ * {@code sendEach} call. The Firebase app is initialised on first use so a missing
+ * service account only affects push delivery, not application startup.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "careconnect.push.transport", havingValue = "firebase")
+public class FirebasePushTransport implements PushTransport {
+
+    private static final String APP_NAME = "careconnect-push";
+
+    @Value("${firebase.service-account-key:}")
+    private String serviceAccountKey;
+
+    @Value("${firebase.project-id:}")
+    private String projectId;
+
+    private volatile FirebaseMessaging messaging;
+
+    @Override
+    public List<PushResult> sendBatch(List<PushMessage> messages) {
+        List<Message> fcmMessages = messages.stream().map(this::toFcmMessage).toList();
+        BatchResponse response;
+        try {
+            response = messaging().sendEach(fcmMessages);
+        } catch (FirebaseMessagingException e) {
+            throw new IllegalStateException("FCM batch send failed: " + e.getMessage(), e);
+        }
+
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (SendResponse sendResponse : response.getResponses()) {
+            if (sendResponse.isSuccessful()) {
+                results.add(PushResult.sent(sendResponse.getMessageId()));
+            } else {
+                results.add(toResult(sendResponse.getException()));
+            }
+        }
+        return results;
+    }
+
+    private Message toFcmMessage(PushMessage message) {
+        Message.Builder builder = Message.builder()
+                .setToken(message.token())
+                .setNotification(Notification.builder()
+                        .setTitle(message.title())
+                        .setBody(message.body())
+                        .setImage(message.imageUrl())
+                        .build());
+        if (message.data() != null) {
+            message.data().forEach((key, value) -> {
+                if (key != null && value != null) {
+                    builder.putData(key, value);
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Only {@code UNREGISTERED} and {@code SENDER_ID_MISMATCH} say the token itself is bad.
+     * {@code INVALID_ARGUMENT} is mostly a bad payload (oversized data, malformed fields),
+     * so it fails the message without deactivating the token.
+     */
+    static PushResult toResult(FirebaseMessagingException e) {
+        MessagingErrorCode code = e != null ? e.getMessagingErrorCode() : null;
+        String error = e != null ? e.getMessage() : "Unknown FCM error";
+        if (code == null) {
+            return PushResult.failed(error);
+        }
+        return switch (code) {
+            case UNREGISTERED, SENDER_ID_MISMATCH -> PushResult.invalidToken(error);
+            case UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED -> PushResult.retryable(error);
+            default -> PushResult.failed(error);
+        };
+    }
+
+    private FirebaseMessaging messaging() {
+        FirebaseMessaging current = messaging;
+        if (current == null) {
+            synchronized (this) {
+                if (messaging == null) {
+                    messaging = FirebaseMessaging.getInstance(initApp());
+                }
+                current = messaging;
+            }
+        }
+        return current;
+    }
+
+    private FirebaseApp initApp() {
+        for (FirebaseApp app : FirebaseApp.getApps()) {
+            if (APP_NAME.equals(app.getName())) {
+                return app;
+            }
+        }
+        try (InputStream credentials = openServiceAccountKey()) {
+            FirebaseOptions.Builder options = FirebaseOptions.builder()
+                    .setCredentials(GoogleCredentials.fromStream(credentials));
+            if (projectId != null && !projectId.isBlank()) {
+                options.setProjectId(projectId);
+            }
+            log.info("Initialising Firebase app for push delivery");
+            return FirebaseApp.initializeApp(options.build(), APP_NAME);
+        } catch (IOException e) {
+            throw new IllegalStateException("Firebase service account key could not be loaded", e);
+        }
+    }
+
+    /**
+     * The key may be given inline as JSON (e.g. from Parameter Store), as a file path,
+     * or as a classpath resource name.
+     */
+    private InputStream openServiceAccountKey() throws IOException {
+        if (serviceAccountKey == null || serviceAccountKey.isBlank()) {
+            throw new IOException("firebase.service-account-key is not set");
+        }
+        String key = serviceAccountKey.trim();
+        if (key.startsWith("{")) {
+            return new ByteArrayInputStream(key.getBytes(StandardCharsets.UTF_8));
+        }
+        if (Files.exists(Path.of(key))) {
+            return new FileInputStream(key);
+        }
+        return new ClassPathResource(key).getInputStream();
+    }
+}
@@ -0,0 +1,148 @@
+package com.careconnect.service.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding items until their expiration time.
+ *
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs}; each further level has
+ * the same number of buckets, each as wide as the whole level below it. Items far
+ * in the future sit in a coarse bucket and cascade down as the clock advances, so
+ * adding and expiring are O(1) per item regardless of how many are scheduled.
+ *
+ * Not thread-safe; callers synchronize externally.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private record Entry<T>(long expirationMs, T item) {}
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final int remainingLevels;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTimeMs;
+    private int size;
+    private HierarchicalTimingWheel<T> overflowWheel;
+
+    /**
+     * @param tickMs    width of one level-0 bucket
+     * @param wheelSize number of buckets per level
+     * @param levels    number of levels; the horizon is {@code tickMs * wheelSize^levels}
+     * @param startMs   current time
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0 || levels <= 0) {
+            throw new IllegalArgumentException("tickMs, wheelSize and levels must be positive");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.remainingLevels = levels - 1;
+        this.currentTimeMs = startMs - (startMs % tickMs);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Add an item expiring at {@code expirationMs}.
+     *
+     * @return {@code false} if the item is already due or lies beyond the wheel's
+     *         horizon; the caller must handle it directly in that case
+     */
+    public boolean add(long expirationMs, T item) {
+        return add(new Entry<>(expirationMs, item));
+    }
+
+    private boolean add(Entry<T> entry) {
+        long expiration = entry.expirationMs();
+        if (expiration < currentTimeMs + tickMs) {
+            return false;
+        }
+        if (expiration < currentTimeMs + intervalMs) {
+            buckets.get((int) ((expiration / tickMs) % wheelSize)).add(entry);
+            size++;
+            return true;
+        }
+        if (remainingLevels == 0) {
+            return false;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new HierarchicalTimingWheel<>(intervalMs, wheelSize, remainingLevels, currentTimeMs);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    /**
+     * Advance the clock to {@code nowMs}, handing every expired item to {@code expired}.
+     */
+    public void advanceClock(long nowMs, Consumer<T> expired) {
+        advanceEntries(nowMs, entry -> expired.accept(entry.item()));
+    }
+
+    private void advanceEntries(long nowMs, Consumer<Entry<T>> expired) {
+        if (nowMs < currentTimeMs + tickMs) {
+            return;
+        }
+        long target = nowMs - (nowMs % tickMs);
+        long steps = Math.min((target - currentTimeMs) / tickMs, wheelSize);
+        long firstTick = currentTimeMs / tickMs + 1;
+        List<Entry<T>> due = new ArrayList<>();
+        for (long i = 0; i < steps; i++) {
+            List<Entry<T>> bucket = buckets.get((int) ((firstTick + i) % wheelSize));
+            if (!bucket.isEmpty()) {
+                due.addAll(bucket);
+                size -= bucket.size();
+                bucket.clear();
+            }
+        }
+        currentTimeMs = target;
+        if (overflowWheel != null) {
+            // Cascade coarse buckets that reached this level's range
+            overflowWheel.advanceEntries(target, entry -> {
+                if (!add(entry)) {
+                    expired.accept(entry);
+                }
+            });
+        }
+        due.forEach(expired);
+    }
+
+    /**
+     * Remove every item still in the wheel
+     */
+    public List<T> drainAll() {
+        List<T> items = new ArrayList<>(size());
+        for (List<Entry<T>> bucket : buckets) {
+            bucket.forEach(entry -> items.add(entry.item()));
+            bucket.clear();
+        }
+        size = 0;
+        if (overflowWheel != null) {
+            items.addAll(overflowWheel.drainAll());
+        }
+        return items;
+    }
+
+    /**
+     * Number of items held across all levels
+     */
+    public int size() {
+        return size + (overflowWheel != null ? overflowWheel.size() : 0);
+    }
+
+    /**
+     * Time up to which items can be held without falling off the wheel
+     */
+    public long horizonMs() {
+        long horizon = intervalMs;
+        for (int i = 0; i < remainingLevels; i++) {
+            horizon *= wheelSize;
+        }
+        return currentTimeMs + horizon;
+    }
+}
@@ -0,0 +1,50 @@
+package com.careconnect.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Push transport for local development and tests. Nothing leaves the process: messages
+ * are logged and recorded, tokens starting with {@code invalid-} are reported as
+ * unregistered, and tokens starting with {@code flaky-} fail once with a retryable error.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "careconnect.push.transport", havingValue = "local", matchIfMissing = true)
+public class LocalPushTransport implements PushTransport {
+
+    private final List<List<PushMessage>> batches = new CopyOnWriteArrayList<>();
+    private final List<String> failedOnce = new CopyOnWriteArrayList<>();
+
+    @Override
+    public List<PushResult> sendBatch(List<PushMessage> messages) {
+        batches.add(List.copyOf(messages));
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            String token = message.token();
+            if (token.startsWith("invalid-")) {
+                results.add(PushResult.invalidToken("Requested entity was not found"));
+            } else if (token.startsWith("flaky-") && !failedOnce.contains(token)) {
+                failedOnce.add(token);
+                results.add(PushResult.retryable("Service unavailable"));
+            } else {
+                results.add(PushResult.sent("local-" + UUID.randomUUID()));
+            }
+        }
+        log.debug("Local push transport accepted batch of {} messages", messages.size());
+        return results;
+    }
+
+    /**
+     * Batches received so far, in call order
+     */
+    public List<List<PushMessage>> getBatches() {
+        return List.copyOf(batches);
+    }
+}
@@ -0,0 +1,239 @@
+package com.careconnect.service.notification;
+
+import com.careconnect.config.PushNotificationConfig;
+import com.careconnect.dto.FirebaseNotificationRequest;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.repository.DeviceTokenRepository;
+import com.careconnect.service.notification.PushTransport.PushMessage;
+import com.careconnect.service.notification.PushTransport.PushResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batched push delivery.
+ *
+ * <p>
+ * Requests are resolved to device tokens with one query, expanded to one message per
+ * device, and sent in batches of up to {@code careconnect.push.batch-size} messages per
+ * transport call on a bounded pool. Messages failing with a retryable error are resent
+ * with exponential backoff; tokens reported as invalid are deactivated together once
+ * the whole send completes.
+ * </p>
+ */
+@Service
+@Slf4j
+public class PushNotificationSender {
+
+    private record Delivery(int requestIndex, PushMessage message) {}
+
+    private final PushTransport transport;
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final PushNotificationConfig config;
+    private final ThreadPoolExecutor executor;
+
+    public PushNotificationSender(PushTransport transport,
+                                  DeviceTokenRepository deviceTokenRepository,
+                                  PushNotificationConfig config) {
+        this.transport = transport;
+        this.deviceTokenRepository = deviceTokenRepository;
+        this.config = config;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.getPoolSize(), config.getPoolSize(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "push-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Back-pressure: when the queue is full the caller sends the batch itself
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Send all requests, returning one response per request in the same order. A request
+     * succeeds when at least one of its devices accepted the message.
+     */
+    public CompletableFuture<List<NotificationResponse>> sendAsync(List<FirebaseNotificationRequest> requests) {
+        return sendAsync(requests, executor);
+    }
+
+    /**
+     * Same as {@link #sendAsync(List)}, but batches (and retries) run on {@code sendExecutor}
+     * instead of the shared pool, so urgent sends never wait behind routine ones.
+     */
+    public CompletableFuture<List<NotificationResponse>> sendAsync(List<FirebaseNotificationRequest> requests,
+                                                                   Executor sendExecutor) {
+        if (requests == null || requests.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        Map<Long, List<String>> tokensByUser = resolveTokens(requests);
+        List<Delivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            FirebaseNotificationRequest request = requests.get(i);
+            List<String> tokens = request.getTargetToken() != null && !request.getTargetToken().isBlank()
+                    ? List.of(request.getTargetToken())
+                    : tokensByUser.getOrDefault(request.getTargetUserId(), List.of());
+            for (String token : tokens) {
+                deliveries.add(new Delivery(i, toMessage(token, request)));
+            }
+        }
+
+        PushResult[] results = new PushResult[deliveries.size()];
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        int batchSize = Math.max(1, config.getBatchSize());
+        for (int from = 0; from < deliveries.size(); from += batchSize) {
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = from; i < Math.min(from + batchSize, deliveries.size()); i++) {
+                indexes.add(i);
+            }
+            batches.add(sendWithRetry(deliveries, indexes, results, 1, sendExecutor, sendExecutor));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    pruneInvalidTokens(deliveries, results);
+                    log.info("Push send complete: {} requests, {} devices, {} batches",
+                            requests.size(), deliveries.size(), batches.size());
+                    return toResponses(requests, deliveries, results);
+                });
+    }
+
+    private Map<Long, List<String>> resolveTokens(List<FirebaseNotificationRequest> requests) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (FirebaseNotificationRequest request : requests) {
+            if ((request.getTargetToken() == null || request.getTargetToken().isBlank())
+                    && request.getTargetUserId() != null) {
+                userIds.add(request.getTargetUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> tokensByUser = new HashMap<>();
+        for (DeviceTokenRepository.UserToken userToken : deviceTokenRepository.findActiveUserTokens(userIds)) {
+            tokensByUser.computeIfAbsent(userToken.getUserId(), id -> new ArrayList<>()).add(userToken.getFcmToken());
+        }
+        return tokensByUser;
+    }
+
+    private static PushMessage toMessage(String token, FirebaseNotificationRequest request) {
+        Map<String, String> data = new HashMap<>();
+        if (request.getData() != null) {
+            data.putAll(request.getData());
+        }
+        if (request.getNotificationType() != null) {
+            data.putIfAbsent("notificationType", request.getNotificationType());
+        }
+        if (request.getDeepLink() != null) {
+            data.putIfAbsent("deepLink", request.getDeepLink());
+        }
+        return new PushMessage(token, request.getTitle(), request.getBody(), request.getImageUrl(), data);
+    }
+
+    private CompletableFuture<Void> sendWithRetry(List<Delivery> deliveries, List<Integer> indexes,
+                                                  PushResult[] results, int attempt,
+                                                  Executor sendExecutor, Executor runOn) {
+        return CompletableFuture.supplyAsync(() -> sendBatch(deliveries, indexes), runOn)
+                .thenCompose(batchResults -> {
+                    List<Integer> retry = new ArrayList<>();
+                    for (int k = 0; k < indexes.size(); k++) {
+                        PushResult result = batchResults.get(k);
+                        if (result.status() == PushResult.Status.RETRYABLE && attempt < config.getMaxAttempts()) {
+                            retry.add(indexes.get(k));
+                        } else {
+                            results[indexes.get(k)] = result;
+                        }
+                    }
+                    if (retry.isEmpty()) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    long backoffMs = Math.min(config.getInitialBackoffMs() << (attempt - 1), config.getMaxBackoffMs());
+                    log.warn("Retrying {} push messages in {} ms (attempt {})", retry.size(), backoffMs, attempt + 1);
+                    return sendWithRetry(deliveries, retry, results, attempt + 1, sendExecutor,
+                            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, sendExecutor));
+                });
+    }
+
+    private List<PushResult> sendBatch(List<Delivery> deliveries, List<Integer> indexes) {
+        List<PushMessage> messages = indexes.stream().map(i -> deliveries.get(i).message()).toList();
+        try {
+            List<PushResult> results = transport.sendBatch(messages);
+            if (results.size() == messages.size()) {
+                return results;
+            }
+            log.error("Push transport returned {} results for {} messages", results.size(), messages.size());
+            return messages.stream().map(m -> PushResult.failed("Missing result from push transport")).toList();
+        } catch (Exception e) {
+            log.warn("Push batch of {} messages failed: {}", messages.size(), e.getMessage());
+            return messages.stream().map(m -> PushResult.retryable(e.getMessage())).toList();
+        }
+    }
+
+    private void pruneInvalidTokens(List<Delivery> deliveries, PushResult[] results) {
+        Set<String> invalid = new LinkedHashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].status() == PushResult.Status.INVALID_TOKEN) {
+                invalid.add(deliveries.get(i).message().token());
+            }
+        }
+        if (invalid.isEmpty()) {
+            return;
+        }
+        try {
+            int deactivated = deviceTokenRepository.deactivateByFcmTokens(invalid, Instant.now());
+            log.info("Deactivated {} invalid device tokens", deactivated);
+        } catch (Exception e) {
+            log.warn("Failed to deactivate {} invalid device tokens: {}", invalid.size(), e.getMessage());
+        }
+    }
+
+    private static List<NotificationResponse> toResponses(List<FirebaseNotificationRequest> requests,
+                                                          List<Delivery> deliveries, PushResult[] results) {
+        String[] messageIds = new String[requests.size()];
+        String[] errors = new String[requests.size()];
+        for (int i = 0; i < results.length; i++) {
+            int requestIndex = deliveries.get(i).requestIndex();
+            if (results[i].status() == PushResult.Status.SENT) {
+                if (messageIds[requestIndex] == null) {
+                    messageIds[requestIndex] = results[i].messageId();
+                }
+            } else if (errors[requestIndex] == null) {
+                errors[requestIndex] = results[i].error();
+            }
+        }
+
+        List<NotificationResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (messageIds[i] != null) {
+                responses.add(NotificationResponse.success(messageIds[i]));
+            } else if (errors[i] != null) {
+                responses.add(NotificationResponse.failure(errors[i]));
+            } else {
+                responses.add(NotificationResponse.failure("No active device tokens for user " + requests.get(i).getTargetUserId()));
+            }
+        }
+        return responses;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
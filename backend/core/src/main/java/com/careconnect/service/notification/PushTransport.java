@@ -0,0 +1,54 @@
+package com.careconnect.service.notification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a batch of device push messages in one call.
+ *
+ * <p>
+ * Implementations return exactly one {@link PushResult} per message, in order, and
+ * report per-message problems through {@link PushResult#status()} rather than by
+ * throwing. An exception means the whole batch failed and may be retried.
+ * </p>
+ */
+public interface PushTransport {
+
+    /**
+     * A push message addressed to a single device token.
+     */
+    record PushMessage(String token, String title, String body, String imageUrl, Map<String, String> data) {}
+
+    /**
+     * Delivery outcome for one {@link PushMessage}.
+     */
+    record PushResult(Status status, String messageId, String error) {
+
+        public enum Status {
+            SENT,
+            /** Token is unregistered or belongs to another sender and should be deactivated */
+            INVALID_TOKEN,
+            /** Transient failure (throttling, unavailable); worth retrying */
+            RETRYABLE,
+            FAILED
+        }
+
+        public static PushResult sent(String messageId) {
+            return new PushResult(Status.SENT, messageId, null);
+        }
+
+        public static PushResult invalidToken(String error) {
+            return new PushResult(Status.INVALID_TOKEN, null, error);
+        }
+
+        public static PushResult retryable(String error) {
+            return new PushResult(Status.RETRYABLE, null, error);
+        }
+
+        public static PushResult failed(String error) {
+            return new PushResult(Status.FAILED, null, error);
+        }
+    }
+
+    List<PushResult> sendBatch(List<PushMessage> messages);
+}
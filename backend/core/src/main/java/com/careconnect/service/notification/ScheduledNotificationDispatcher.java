@@ -0,0 +1,254 @@
+package com.careconnect.service.notification;
+
+import com.careconnect.config.NotificationDispatchConfig;
+import com.careconnect.dto.FirebaseNotificationRequest;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository.DeliveryFailure;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository.LeasedNotification;
+import com.careconnect.service.NotificationService;
+import com.careconnect.service.WebSocketNotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Dispatch engine for {@link com.careconnect.model.ScheduledNotification} rows.
+ *
+ * <p>
+ * Every lease cycle the node leases the notifications due within the configured horizon
+ * (one hour by default) in batches and parks them in a {@link HierarchicalTimingWheel}.
+ * Each tick the wheel hands over whatever became due; those notifications are claimed,
+ * delivered over WebSocket and push in batches, and their {@code status},
+ * {@code sentTime} and {@code errorMessage} are written back with set-based updates.
+ * A burst of reminders at the top of the hour therefore costs a few statements per
+ * batch rather than several per notification.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "careconnect.notifications.dispatch.enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduledNotificationDispatcher {
+
+    /** Wheel levels; with 60 one-second buckets this covers 60 hours, well past the lease horizon */
+    private static final int WHEEL_LEVELS = 3;
+    private static final int WHEEL_SIZE = 60;
+
+    private final ScheduledNotificationLeaseRepository leaseRepository;
+    private final WebSocketNotificationService webSocketNotificationService;
+    private final NotificationService notificationService;
+    private final NotificationDispatchConfig config;
+
+    private final Queue<LeasedNotification> ready = new ConcurrentLinkedQueue<>();
+    private HierarchicalTimingWheel<LeasedNotification> wheel;
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = config.getNodeId() != null && !config.getNodeId().isBlank()
+                ? config.getNodeId()
+                : "node-" + UUID.randomUUID();
+        wheel = new HierarchicalTimingWheel<>(config.getTickMs(), WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        log.info("Scheduled notification dispatcher started as {}", nodeId);
+    }
+
+    /**
+     * Lease notifications due within the horizon into the timing wheel
+     */
+    @Scheduled(fixedDelayString = "${careconnect.notifications.dispatch.lease-interval-ms:30000}")
+    public void leaseUpcoming() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = now.plusMinutes(config.getHorizonMinutes());
+            int leased = 0;
+            List<LeasedNotification> batch;
+            do {
+                batch = leaseRepository.leaseDue(nodeId, now, horizon,
+                        config.getLeaseGraceMinutes(), config.getLeaseBatchSize());
+                batch.forEach(this::schedule);
+                leased += batch.size();
+            } while (batch.size() == config.getLeaseBatchSize() && leased < config.getMaxLeasedPerCycle());
+
+            if (leased > 0) {
+                log.info("Leased {} scheduled notifications due before {}", leased, horizon);
+            }
+        } catch (Exception e) {
+            log.error("Error leasing scheduled notifications", e);
+        }
+    }
+
+    private void schedule(LeasedNotification notification) {
+        long dueAt = notification.scheduledTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean parked;
+        synchronized (wheel) {
+            parked = wheel.add(dueAt, notification);
+        }
+        if (!parked) {
+            ready.add(notification);
+        }
+    }
+
+    /**
+     * Advance the wheel and deliver everything that became due
+     */
+    @Scheduled(fixedRateString = "${careconnect.notifications.dispatch.tick-ms:1000}")
+    public void tick() {
+        synchronized (wheel) {
+            wheel.advanceClock(System.currentTimeMillis(), ready::add);
+        }
+
+        List<LeasedNotification> batch = new ArrayList<>(config.getDispatchBatchSize());
+        LeasedNotification next;
+        while ((next = ready.poll()) != null) {
+            batch.add(next);
+            if (batch.size() >= config.getDispatchBatchSize()) {
+                dispatchSafely(batch);
+                batch = new ArrayList<>(config.getDispatchBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            dispatchSafely(batch);
+        }
+    }
+
+    private void dispatchSafely(List<LeasedNotification> batch) {
+        try {
+            dispatch(batch);
+        } catch (Exception e) {
+            // Rows stay LEASED/SENDING and are picked up again once their lease expires
+            log.error("Error dispatching {} scheduled notifications", batch.size(), e);
+        }
+    }
+
+    private void dispatch(List<LeasedNotification> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> claimed = new HashSet<>(leaseRepository.claimForDelivery(
+                nodeId, batch.stream().map(LeasedNotification::id).toList(), now));
+        List<LeasedNotification> deliverable = batch.stream().filter(n -> claimed.contains(n.id())).toList();
+        if (deliverable.isEmpty()) {
+            return;
+        }
+
+        String[] errors = new String[deliverable.size()];
+        boolean[] delivered = new boolean[deliverable.size()];
+        List<FirebaseNotificationRequest> pushRequests = new ArrayList<>(deliverable.size());
+
+        for (int i = 0; i < deliverable.size(); i++) {
+            LeasedNotification n = deliverable.get(i);
+            try {
+                // Only an open session counts; an offline receiver depends on push
+                if (webSocketNotificationService.sendScheduledNotification(
+                        n.receiverId().toString(), n.id(), n.title(), n.body(),
+                        n.notificationType(), n.scheduledTime().toString())) {
+                    delivered[i] = true;
+                } else {
+                    errors[i] = "WebSocket: receiver not connected";
+                }
+            } catch (Exception e) {
+                errors[i] = "WebSocket: " + e.getMessage();
+            }
+            pushRequests.add(FirebaseNotificationRequest.builder()
+                    .targetUserId(n.receiverId())
+                    .title(n.title())
+                    .body(n.body())
+                    .notificationType(n.notificationType() != null ? n.notificationType() : "REMINDER")
+                    .data(Map.of("scheduledNotificationId", n.id().toString()))
+                    .build());
+        }
+
+        try {
+            List<NotificationResponse> responses = notificationService.sendBulkNotifications(pushRequests);
+            if (responses.size() == deliverable.size()) {
+                for (int i = 0; i < responses.size(); i++) {
+                    NotificationResponse response = responses.get(i);
+                    if (response != null && response.isSuccess()) {
+                        delivered[i] = true;
+                    } else if (!delivered[i]) {
+                        errors[i] = appendError(errors[i],
+                                "Push: " + (response != null ? response.getError() : "no response"));
+                    }
+                }
+            } else {
+                log.warn("Push returned {} responses for {} scheduled notifications", responses.size(),
+                        pushRequests.size());
+                for (int i = 0; i < deliverable.size(); i++) {
+                    if (!delivered[i]) {
+                        errors[i] = appendError(errors[i], "Push: no matching response");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Push delivery failed for {} scheduled notifications: {}", pushRequests.size(), e.getMessage());
+            for (int i = 0; i < deliverable.size(); i++) {
+                if (!delivered[i]) {
+                    errors[i] = appendError(errors[i], "Push: " + e.getMessage());
+                }
+            }
+        }
+
+        List<Long> sent = new ArrayList<>();
+        List<DeliveryFailure> failed = new ArrayList<>();
+        for (int i = 0; i < deliverable.size(); i++) {
+            if (delivered[i]) {
+                sent.add(deliverable.get(i).id());
+            } else {
+                failed.add(new DeliveryFailure(deliverable.get(i).id(), errors[i]));
+            }
+        }
+        LocalDateTime completedAt = LocalDateTime.now();
+        leaseRepository.completeSent(nodeId, sent, completedAt);
+        leaseRepository.completeFailed(nodeId, failed, completedAt);
+        log.info("Dispatched {} scheduled notifications ({} failed)", sent.size(), failed.size());
+    }
+
+    private static String appendError(String errors, String error) {
+        return errors == null ? error : errors + "; " + error;
+    }
+
+    /**
+     * Return notifications still waiting in memory to the pool so other nodes pick them up
+     */
+    @PreDestroy
+    void shutdown() {
+        List<Long> held = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.drainAll().forEach(n -> held.add(n.id()));
+        }
+        LeasedNotification next;
+        while ((next = ready.poll()) != null) {
+            held.add(next.id());
+        }
+        try {
+            int released = leaseRepository.release(nodeId, held);
+            log.info("Released {} leased scheduled notifications on shutdown", released);
+        } catch (Exception e) {
+            log.warn("Failed to release {} leased notifications; they return after lease expiry: {}",
+                    held.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Number of notifications currently held in memory (for monitoring)
+     */
+    public int getPendingCount() {
+        synchronized (wheel) {
+            return wheel.size() + ready.size();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.careconnect.service.notification;
+
+import com.careconnect.config.TaskRecurrenceConfig;
+import com.careconnect.model.Task;
+import com.careconnect.repository.TaskRepository;
+import com.careconnect.service.v2.TaskServiceV2;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Materializes reminders of upcoming occurrences of lazily expanded task series.
+ *
+ * <p>
+ * A series stores its reminders once, as templates on the parent task. Each run
+ * copies them, shifted, onto the occurrences falling in the next few days, so the
+ * {@link ScheduledNotificationDispatcher} leases them like any other notification.
+ * Each parent's {@code remindersThrough} watermark is claimed with a compare-and-set,
+ * so nodes running this job concurrently never duplicate a reminder.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "careconnect.tasks.recurrence.reminders-enabled", havingValue = "true", matchIfMissing = true)
+public class SeriesReminderScheduler {
+
+    private final TaskRepository taskRepository;
+    private final TaskServiceV2 taskService;
+    private final TaskRecurrenceConfig config;
+
+    /**
+     * Materialize reminders of series occurrences up to the configured horizon
+     */
+    @Scheduled(initialDelayString = "${careconnect.tasks.recurrence.reminder-interval-ms:300000}",
+               fixedDelayString = "${careconnect.tasks.recurrence.reminder-interval-ms:300000}")
+    public void materializeUpcoming() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate horizon = today.plusDays(config.getReminderHorizonDays());
+            PageRequest page = PageRequest.of(0, config.getReminderBatchSize());
+            long afterId = 0;
+            int series = 0;
+            int created = 0;
+            List<Task> batch;
+            do {
+                batch = taskRepository.findSeriesNeedingReminders(today, horizon, afterId, page);
+                for (Task parent : batch) {
+                    created += taskService.materializeReminders(parent.getId(), today, horizon);
+                    afterId = parent.getId();
+                }
+                series += batch.size();
+            } while (batch.size() == config.getReminderBatchSize());
+            if (created > 0) {
+                log.info("Materialized {} series reminders across {} series through {}", created, series, horizon);
+            }
+        } catch (Exception e) {
+            log.error("Series reminder materialization failed", e);
+        }
+    }
+}
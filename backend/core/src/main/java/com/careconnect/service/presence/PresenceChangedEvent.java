@@ -0,0 +1,24 @@
+package com.careconnect.service.presence;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Published when a user comes online or goes offline.
+ *
+ * @param userId     user whose presence changed
+ * @param online     new presence state
+ * @param reason     what caused the change
+ * @param sessionIds WebSocket sessions the user still had when expired (empty otherwise)
+ * @param at         when the change was detected
+ */
+public record PresenceChangedEvent(Long userId, boolean online, Reason reason, Set<String> sessionIds, Instant at) {
+
+    public enum Reason {
+        CONNECTED,
+        HEARTBEAT,
+        DISCONNECTED,
+        /** No heartbeat within the TTL; the remaining sessions are considered half-open */
+        EXPIRED
+    }
+}
@@ -0,0 +1,178 @@
+package com.careconnect.service.presence;
+
+import com.careconnect.config.PresenceConfig;
+import com.careconnect.service.presence.PresenceChangedEvent.Reason;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users are online.
+ *
+ * <p>
+ * Each online user has one small entry holding the time of the last heartbeat (any
+ * inbound WebSocket message counts) and the IDs of their open sessions. A coarse timer
+ * expires users that went silent, which also catches half-open connections the
+ * container never reported as closed. Lookups, including bulk "which of these users
+ * are online" queries, are single hash probes per user; changes are published as
+ * {@link PresenceChangedEvent}s.
+ * </p>
+ */
+@Service
+@Slf4j
+public class PresenceService {
+
+    private static final class Presence {
+        volatile long lastSeenMs;
+        final Set<String> sessionIds = ConcurrentHashMap.newKeySet(2);
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final PresenceConfig config;
+    private final Clock clock;
+
+    private final Map<Long, Presence> presence = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PresenceService(ApplicationEventPublisher eventPublisher, PresenceConfig config) {
+        this(eventPublisher, config, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock source of heartbeat and expiry times
+     */
+    PresenceService(ApplicationEventPublisher eventPublisher, PresenceConfig config, Clock clock) {
+        this.eventPublisher = eventPublisher;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Record a newly authenticated WebSocket session
+     */
+    public void connected(Long userId, String sessionId) {
+        touch(userId, sessionId, Reason.CONNECTED);
+    }
+
+    /**
+     * Record a heartbeat (or any other sign of life) from a user
+     */
+    public void heartbeat(Long userId) {
+        touch(userId, null, Reason.HEARTBEAT);
+    }
+
+    private void touch(Long userId, String sessionId, Reason reason) {
+        if (userId == null) {
+            return;
+        }
+        long now = clock.millis();
+        boolean[] cameOnline = {false};
+        presence.compute(userId, (id, entry) -> {
+            if (entry == null || isExpired(entry, now)) {
+                entry = entry != null ? entry : new Presence();
+                cameOnline[0] = true;
+            }
+            entry.lastSeenMs = now;
+            if (sessionId != null) {
+                entry.sessionIds.add(sessionId);
+            }
+            return entry;
+        });
+        if (cameOnline[0]) {
+            publish(userId, true, reason, Set.of());
+        }
+    }
+
+    /**
+     * Record a closed WebSocket session; the user goes offline with their last session
+     */
+    public void disconnected(Long userId, String sessionId) {
+        if (userId == null) {
+            return;
+        }
+        boolean[] wentOffline = {false};
+        presence.computeIfPresent(userId, (id, entry) -> {
+            entry.sessionIds.remove(sessionId);
+            if (entry.sessionIds.isEmpty()) {
+                wentOffline[0] = true;
+                return null;
+            }
+            return entry;
+        });
+        if (wentOffline[0]) {
+            publish(userId, false, Reason.DISCONNECTED, Set.of());
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        Presence entry = userId != null ? presence.get(userId) : null;
+        return entry != null && !isExpired(entry, clock.millis());
+    }
+
+    /**
+     * The subset of {@code userIds} that is currently online
+     */
+    public Set<Long> onlineAmong(Collection<Long> userIds) {
+        long now = clock.millis();
+        Set<Long> online = new HashSet<>();
+        for (Long userId : userIds) {
+            Presence entry = userId != null ? presence.get(userId) : null;
+            if (entry != null && !isExpired(entry, now)) {
+                online.add(userId);
+            }
+        }
+        return online;
+    }
+
+    public Set<Long> onlineUserIds() {
+        return onlineAmong(List.copyOf(presence.keySet()));
+    }
+
+    public int onlineCount() {
+        long now = clock.millis();
+        return (int) presence.values().stream().filter(entry -> !isExpired(entry, now)).count();
+    }
+
+    /**
+     * Expire users whose last heartbeat is older than the TTL
+     */
+    @Scheduled(fixedDelayString = "${careconnect.presence.sweep-interval-ms:15000}")
+    public void expireSilentUsers() {
+        long now = clock.millis();
+        int expired = 0;
+        for (Map.Entry<Long, Presence> e : presence.entrySet()) {
+            Presence entry = e.getValue();
+            if (isExpired(entry, now) && presence.remove(e.getKey(), entry)) {
+                expired++;
+                publish(e.getKey(), false, Reason.EXPIRED, Set.copyOf(entry.sessionIds));
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired presence of {} silent users", expired);
+        }
+    }
+
+    private boolean isExpired(Presence entry, long now) {
+        return now - entry.lastSeenMs > config.getTtlSeconds() * 1000L;
+    }
+
+    private void publish(Long userId, boolean online, Reason reason, Set<String> sessionIds) {
+        try {
+            eventPublisher.publishEvent(
+                    new PresenceChangedEvent(userId, online, reason, sessionIds, Instant.now(clock)));
+        } catch (Exception e) {
+            log.warn("Presence listener failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
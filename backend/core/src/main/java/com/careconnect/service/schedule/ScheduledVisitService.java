@@ -6,6 +6,7 @@ import com.careconnect.dto.schedule.ScheduledVisitSummary;
 import com.careconnect.model.schedule.ScheduledVisit;
 import com.careconnect.repository.PatientRepository;
 import com.careconnect.repository.schedule.ScheduledVisitRepository;
+import com.careconnect.service.calendar.CalendarFeedService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +22,7 @@ public class ScheduledVisitService {
     
     private final ScheduledVisitRepository scheduledVisitRepository;
     private final PatientRepository patientRepository;
+    private final CalendarFeedService calendarFeedService;
     
     @Transactional
     public ScheduledVisitResponse createScheduledVisit(Long caregiverId, ScheduledVisitRequest request) {
@@ -36,6 +38,7 @@ public class ScheduledVisitService {
         visit.setStatus("Scheduled");
         
         ScheduledVisit savedVisit = scheduledVisitRepository.save(visit);
+        invalidateFeeds(savedVisit);
         
         String patientName = getPatientName(savedVisit.getPatientId());
         return new ScheduledVisitResponse(savedVisit, patientName);
@@ -138,6 +141,7 @@ public class ScheduledVisitService {
     public ScheduledVisitResponse updateScheduledVisit(Long visitId, ScheduledVisitRequest request) {
         ScheduledVisit visit = scheduledVisitRepository.findById(visitId)
             .orElseThrow(() -> new RuntimeException("Scheduled visit not found with id: " + visitId));
+        invalidateFeeds(visit); // the visit may move to another patient
         
         visit.setPatientId(request.getPatientId());
         visit.setServiceType(request.getServiceType());
@@ -148,6 +152,7 @@ public class ScheduledVisitService {
         visit.setNotes(request.getNotes());
         
         ScheduledVisit updatedVisit = scheduledVisitRepository.save(visit);
+        invalidateFeeds(updatedVisit);
         
         String patientName = getPatientName(updatedVisit.getPatientId());
         return new ScheduledVisitResponse(updatedVisit, patientName);
@@ -160,6 +165,7 @@ public class ScheduledVisitService {
         
         visit.markCancelled();
         scheduledVisitRepository.save(visit);
+        invalidateFeeds(visit);
     }
     
     @Transactional
@@ -169,6 +175,7 @@ public class ScheduledVisitService {
         
         visit.setStatus(status);
         ScheduledVisit updatedVisit = scheduledVisitRepository.save(visit);
+        invalidateFeeds(updatedVisit);
         
         String patientName = getPatientName(updatedVisit.getPatientId());
         return new ScheduledVisitResponse(updatedVisit, patientName);
@@ -176,9 +183,15 @@ public class ScheduledVisitService {
     
     @Transactional
     public void deleteScheduledVisit(Long visitId) {
+        scheduledVisitRepository.findById(visitId).ifPresent(this::invalidateFeeds);
         scheduledVisitRepository.deleteById(visitId);
     }
     
+    private void invalidateFeeds(ScheduledVisit visit) {
+        calendarFeedService.invalidatePatient(visit.getPatientId());
+        calendarFeedService.invalidateCaregiver(visit.getCaregiverId());
+    }
+    
     private String getPatientName(Long patientId) {
         return patientRepository.findById(patientId)
             .map(patient -> patient.getFirstName() + " " + patient.getLastName())
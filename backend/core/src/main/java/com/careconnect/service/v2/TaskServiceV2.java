@@ -1,14 +1,18 @@
 package com.careconnect.service.v2;
 
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -16,11 +20,15 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.careconnect.dto.ScheduledNotificationDTO;
 import com.careconnect.dto.v2.TaskDtoV2;
+import com.careconnect.exception.AppException;
 import com.careconnect.exception.ParentTaskNotFoundException;
 import com.careconnect.exception.PatientNotFoundException;
 import com.careconnect.exception.TaskNotFoundException;
@@ -28,7 +36,10 @@ import com.careconnect.model.Patient;
 import com.careconnect.model.ScheduledNotification;
 import com.careconnect.model.Task;
 import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.ScheduledNotificationRepository;
 import com.careconnect.repository.TaskRepository;
+import com.careconnect.service.calendar.CalendarFeedService;
+import com.careconnect.util.RecurrenceRule;
 import com.careconnect.util.TaskMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -44,6 +55,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * </p>
  *
  * <p>
+ * A recurring series is stored as one parent task holding the rule (see
+ * {@link RecurrenceRule}); its occurrences are expanded on read, only for the
+ * requested window. Children are stored only for exceptions: occurrences that
+ * were completed, edited or cancelled, keyed by their
+ * {@link Task#getOccurrenceDate() occurrence date}. Creating or editing a
+ * series therefore writes the parent (and its exceptions), never one row per
+ * occurrence. An occurrence that has not been stored is identified by the
+ * parent's ID plus its {@code occurrenceDate}.
+ * </p>
+ *
+ * <p>
  * Key responsibilities:
  * <ul>
  * <li>CRUD operations on tasks</li>
@@ -61,20 +83,41 @@ public class TaskServiceV2 {
     private static final Logger log = LoggerFactory.getLogger(TaskServiceV2.class);
     private TaskRepository taskRepository;
     private PatientRepository patientRepository;
+    private ScheduledNotificationRepository notificationRepository;
+    private final CalendarFeedService calendarFeedService;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /** Largest page returned by a range query. */
+    public static final int MAX_RANGE_PAGE_SIZE = 500;
+
+    /**
+     * Days past today through which unwindowed listings expand a series;
+     * later occurrences are only returned by range queries.
+     */
+    public static final int LISTING_HORIZON_DAYS = 365;
+
+    private static final Comparator<TaskDtoV2> BY_DATE_AND_ID = Comparator
+            .comparing((TaskDtoV2 t) -> onlyDate(t.getDate()), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(TaskDtoV2::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
     private final ObjectMapper mapper;
 
     /**
      * Constructs the service with required repositories and mapper.
      *
-     * @param taskRepository    repository for tasks
-     * @param patientRepository repository for patients
-     * @param mapper            Jackson object mapper
+     * @param taskRepository         repository for tasks
+     * @param patientRepository      repository for patients
+     * @param notificationRepository repository for scheduled notifications
+     * @param mapper                 Jackson object mapper
+     * @param calendarFeedService    calendar feeds to invalidate on writes
      */
-    public TaskServiceV2(TaskRepository taskRepository, PatientRepository patientRepository, ObjectMapper mapper) {
+    public TaskServiceV2(TaskRepository taskRepository, PatientRepository patientRepository,
+            ScheduledNotificationRepository notificationRepository, ObjectMapper mapper,
+            CalendarFeedService calendarFeedService) {
         this.taskRepository = taskRepository;
         this.patientRepository = patientRepository;
+        this.notificationRepository = notificationRepository;
         this.mapper = mapper;
+        this.calendarFeedService = calendarFeedService;
     }
 
     /**
@@ -101,21 +144,104 @@ public class TaskServiceV2 {
     }
 
     /**
-     * Retrieves all tasks for a given patient.
+     * Retrieves all tasks for a given patient, with the occurrences of each
+     * series expanded through {@link #LISTING_HORIZON_DAYS} days from today.
+     *
+     * <p>
+     * Built from two queries, the task rows and their reminder templates, both
+     * read as projections; no {@link Task} or {@link Patient} entity is loaded.
+     * </p>
      *
      * @param patientId the ID of the patient
      * @return list of {@link TaskDtoV2} objects (empty if none found)
      */
+    @Transactional(readOnly = true)
     public List<TaskDtoV2> getTasksByPatient(Long patientId) {
-        Optional<List<Task>> tasksOpt = taskRepository.findByPatientId(patientId);
-        return tasksOpt.orElseGet(ArrayList::new).stream()
-                .map(this::mapToDto)
+        return expandRows(taskRepository.findRowsByPatientId(patientId),
+                notificationRepository.findTemplatesByPatientId(patientId));
+    }
+
+    /**
+     * Retrieves one page of a patient's tasks dated in {@code [from, to)},
+     * ordered by date and then ID, with series occurrences expanded for the
+     * window.
+     *
+     * <p>
+     * Pages are keyset-based: pass the date and ID of the last task of the
+     * previous page as {@code afterDate}/{@code afterId} to continue, or
+     * {@code null} for the first page. A page shorter than {@code limit} is the
+     * last one. Expanded occurrences carry their series parent's ID.
+     * </p>
+     *
+     * @param patientId the ID of the patient
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @param afterDate date of the last task already returned, or {@code null}
+     * @param afterId   ID of the last task already returned, or {@code null}
+     * @param limit     page size, capped at {@value #MAX_RANGE_PAGE_SIZE}
+     * @return list of {@link TaskDtoV2} objects (empty if none found)
+     * @throws AppException if the window or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDtoV2> getTasksByPatientInRange(Long patientId, LocalDate from, LocalDate to,
+            LocalDate afterDate, Long afterId, int limit) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        if ((afterDate == null) != (afterId == null)) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "'afterDate' and 'afterId' must be given together");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_RANGE_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, size);
+        List<Task> stored = afterDate == null
+                ? taskRepository.findInRange(patientId, from, to, page)
+                : taskRepository.findInRangeAfter(patientId, from, to, afterDate, afterId, page);
+
+        // Stored rows are capped at one page, so the first page of the merge is
+        // among them and the expanded occurrences
+        LocalDate seriesFrom = afterDate != null && afterDate.isAfter(from) ? afterDate : from;
+        List<TaskDtoV2> merged = new ArrayList<>(stored.stream().map(this::mapToDto).toList());
+        merged.addAll(expandSeriesInRange(patientId, seriesFrom, to));
+        return merged.stream()
+                .filter(t -> afterDate == null || isAfter(t, afterDate, afterId))
+                .sorted(BY_DATE_AND_ID)
+                .limit(size)
                 .toList();
     }
 
     /**
-     * Creates a new task for a patient. Expands recurrence
-     * into additional occurrences if defined.
+     * Retrieves all of a patient's tasks dated in {@code [from, to)}, ordered by
+     * date and then ID, with series occurrences expanded for the window.
+     *
+     * @param patientId the ID of the patient
+     * @param from      first date of the window (inclusive)
+     * @param to        end of the window (exclusive)
+     * @return list of {@link TaskDtoV2} objects (empty if none found)
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDtoV2> getTasksByPatientInRange(Long patientId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        Pageable page = PageRequest.of(0, MAX_RANGE_PAGE_SIZE);
+        List<TaskDtoV2> all = new ArrayList<>();
+        List<Task> stored = taskRepository.findInRange(patientId, from, to, page);
+        while (true) {
+            stored.forEach(t -> all.add(mapToDto(t)));
+            if (stored.size() < MAX_RANGE_PAGE_SIZE) {
+                break;
+            }
+            Task last = stored.get(stored.size() - 1);
+            stored = taskRepository.findInRangeAfter(patientId, from, to, last.getDate(), last.getId(), page);
+        }
+        all.addAll(expandSeriesInRange(patientId, from, to));
+        all.sort(BY_DATE_AND_ID);
+        return all;
+    }
+
+    /**
+     * Creates a new task for a patient. A recurring task is stored as a single
+     * parent holding the rule; its occurrences are expanded on read.
      *
      * @param patientId the ID of the patient
      * @param taskDto   DTO containing task details
@@ -129,7 +255,8 @@ public class TaskServiceV2 {
         log.debug("Task details: " + taskDto);
 
         // --- Normalize recurrence for imported/partial tasks --------------------
-        if (taskDto.getFrequency() != null && taskDto.getCount() == null && taskDto.getDate() != null) {
+        if (taskDto.getFrequency() != null && taskDto.getCount() == null && taskDto.getUntil() == null
+                && taskDto.getDate() != null) {
             try {
                 // Determine start and end (use start date + frequency to estimate)
                 LocalDate startDate = LocalDate.parse(taskDto.getDate().substring(0, 10));
@@ -156,7 +283,7 @@ public class TaskServiceV2 {
         Task parentTask = Task.builder()
                 .name(taskDto.getName())
                 .description(taskDto.getDescription())
-                .date(taskDto.getDate())
+                .date(onlyDate(taskDto.getDate()))
                 .createdAt(Instant.now().toEpochMilli())
                 .timeOfDay(taskDto.getTimeOfDay())
                 .isCompleted(taskDto.isCompleted())
@@ -164,10 +291,12 @@ public class TaskServiceV2 {
                 .taskInterval(taskDto.getInterval() != null ? taskDto.getInterval() : 0)
                 .doCount(taskDto.getCount() != null ? taskDto.getCount() : 0)
                 .daysOfWeek(TaskMapper.serializeDays(taskDto.getDaysOfWeek()))
+                .recurrenceUntil(onlyDate(taskDto.getUntil()))
                 .taskType(taskDto.getTaskType())
                 .patient(patient)
                 .parentTaskId(null)
                 .build();
+        applyRule(parentTask);
         if (taskDto.getNotifications() != null && !taskDto.getNotifications().isEmpty()) {
             for (ScheduledNotificationDTO n : taskDto.getNotifications()) {
                 ScheduledNotification sn = ScheduledNotification.builder()
@@ -185,11 +314,7 @@ public class TaskServiceV2 {
         }
         Task savedParent = taskRepository.save(parentTask);
         log.info("New task created: " + parentTask);
-
-        // Expand occurrences if recurrence is defined
-        if (taskDto.getFrequency() != null && taskDto.getCount() != null && taskDto.getCount() > 1) {
-            generateOccurrences(savedParent, taskDto, patient);
-        }
+        calendarFeedService.invalidatePatient(patient.getId());
 
         return mapToDto(savedParent);
 
@@ -218,11 +343,36 @@ public class TaskServiceV2 {
      * @throws TaskNotFoundException if no task exists with the given ID
      */
     public TaskDtoV2 updateCompletionStatus(Long id, boolean isComplete) {
+        return updateCompletionStatus(id, isComplete, null);
+    }
+
+    /**
+     * Updates the completion status of a task or of one occurrence of a series.
+     *
+     * <p>
+     * For a series parent the occurrence on {@code occurrenceDate} (the first
+     * one if {@code null}) is stored as an exception carrying the new state;
+     * the series itself is left unchanged.
+     * </p>
+     *
+     * @param id             the ID of the task or series parent
+     * @param isComplete     the new completion state
+     * @param occurrenceDate occurrence of the series to update; ignored for
+     *                       tasks that are not series parents
+     * @return a {@link TaskDtoV2} representing the updated task or occurrence
+     * @throws TaskNotFoundException if no task exists with the given ID
+     * @throws AppException          if the series has no occurrence on that date
+     */
+    public TaskDtoV2 updateCompletionStatus(Long id, boolean isComplete, LocalDate occurrenceDate) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new TaskNotFoundException(id));
+        if (task.isSeriesParent()) {
+            task = exceptionFor(task, occurrenceDate != null ? occurrenceDate : task.getDate());
+        }
 
         task.setCompleted(isComplete);
         Task saved = taskRepository.save(task);
+        invalidateFeeds(saved);
         return mapToDto(saved);
     }
 
@@ -230,6 +380,16 @@ public class TaskServiceV2 {
      * Updates a task. Can apply updates to a single task
      * or an entire recurring series based on {@code updateSeries}.
      *
+     * <p>
+     * A single-occurrence update of a series parent is stored as an exception
+     * for {@code taskDto.occurrenceDate} (the first occurrence if absent). A
+     * series update rewrites only the parent's rule and fields and its stored
+     * exceptions; exceptions that no longer fall on the rule are dropped.
+     * Children are never loaded: they are diffed through a projection and
+     * changed with bulk statements keyed by {@code parent_task_id}, so the
+     * cost does not grow with the length of the series.
+     * </p>
+     *
      * @param taskId  ID of the task to update
      * @param taskDto updated task details
      * @return the updated {@link TaskDtoV2}
@@ -239,8 +399,14 @@ public class TaskServiceV2 {
 
         if (!Boolean.TRUE.equals(taskDto.getUpdateSeries())) {
             // ---- Single-task update ----
-            applyTaskUpdates(existingTask, taskDto, false);
-            Task saved = taskRepository.save(existingTask);
+            Task target = existingTask;
+            if (existingTask.isSeriesParent()) {
+                LocalDate occurrence = onlyDate(taskDto.getOccurrenceDate());
+                target = exceptionFor(existingTask, occurrence != null ? occurrence : existingTask.getDate());
+            }
+            applyTaskUpdates(target, taskDto, false);
+            Task saved = taskRepository.save(target);
+            invalidateFeeds(saved);
             return mapToDto(saved);
         }
 
@@ -254,32 +420,22 @@ public class TaskServiceV2 {
                 : taskRepository.findById(parentId)
                         .orElseThrow(() -> new ParentTaskNotFoundException(parentId));
 
-        // Snapshot old recurrence fields BEFORE applying edits
-        String originalParentDate = parentTask.getDate();
+        // Snapshot old series fields BEFORE applying edits
+        String originalName = parentTask.getName();
+        String originalDescription = parentTask.getDescription();
+        String originalTaskType = parentTask.getTaskType();
+        LocalDate originalDate = parentTask.getDate();
         String originalFreq = parentTask.getFrequency();
         Integer originalInterval = parentTask.getTaskInterval();
         Integer originalCount = parentTask.getDoCount();
         String originalDays = parentTask.getDaysOfWeek();
+        LocalDate originalEnd = RecurrenceRule.of(parentTask).end();
 
-        // Original implied end before change
-        LocalDate originalEnd = impliedEndDateFromSaved(parentTask);
-
-        // Apply updates but preserve recurrence fields and start date if editing a
-        // later occurrence
         applyTaskUpdates(parentTask, taskDto, true);
+        if (taskDto.getUntil() != null) {
+            parentTask.setRecurrenceUntil(onlyDate(taskDto.getUntil()));
+        }
 
-        // Force parent to keep its original recurrence anchor
-        parentTask.setDate(originalParentDate);
-        if (originalFreq != null)
-            parentTask.setFrequency(originalFreq);
-        if (originalInterval != null)
-            parentTask.setTaskInterval(originalInterval);
-        if (originalCount != null)
-            parentTask.setDoCount(originalCount);
-        if (originalDays != null)
-            parentTask.setDaysOfWeek(originalDays);
-
-        taskRepository.save(parentTask);
         // ---- Detect changes (compare DTO vs original series values) ----
         List<Boolean> originalDaysList = TaskMapper.parseDays(originalDays);
 
@@ -297,72 +453,59 @@ public class TaskServiceV2 {
         boolean daysChanged = taskDto.getDaysOfWeek() != null &&
                 !Objects.equals(taskDto.getDaysOfWeek(), originalDaysList);
 
-        boolean recurrenceChanged = freqChanged || intvChanged || countChanged || daysChanged;
+        boolean dateChanged = !Objects.equals(parentTask.getDate(), originalDate);
 
-        // 2) Update children selectively
-        List<Task> children = taskRepository.findByParentTaskId(parentId);
+        boolean recurrenceChanged = freqChanged || intvChanged || daysChanged || dateChanged
+                || countChanged || taskDto.getUntil() != null;
 
-        if (recurrenceChanged) {
-            // Recurrence-defining fields changed → wipe children and regenerate
-            taskRepository.deleteAll(children);
-
-            SeriesParams newParams = new SeriesParams(
-                    onlyDate(parentTask.getDate()),
-                    parentTask.getTimeOfDay() != null ? LocalTime.parse(parentTask.getTimeOfDay()) : null,
-                    parentTask.getFrequency(),
-                    Optional.ofNullable(parentTask.getTaskInterval()).orElse(1),
-                    Optional.ofNullable(parentTask.getDoCount()).orElse(1),
-                    TaskMapper.parseDays(parentTask.getDaysOfWeek()));
+        if (recurrenceChanged && taskDto.getCount() == null && taskDto.getUntil() == null) {
+            // No new length given → keep the same calendar END and recompute COUNT
+            RecurrenceRule toOriginalEnd = RecurrenceRule.of(parentTask.getDate(), parentTask.getFrequency(),
+                    parentTask.getTaskInterval(), TaskMapper.parseDays(parentTask.getDaysOfWeek()),
+                    null, originalEnd);
+            parentTask.setDoCount(Math.max(1, toOriginalEnd.countThrough(originalEnd)));
+        }
+        applyRule(parentTask);
 
-            LocalDate impliedEnd = impliedEndDateFromSaved(parentTask);
-            if (taskDto.getDate() != null && taskDto.getCount() == null) {
-                LocalDate newEnd = impliedEnd;
-                LocalDate startDate = onlyDate(parentTask.getDate());
-                int newCount = calculateCount(
-                        startDate,
-                        newEnd,
-                        parentTask.getFrequency(),
-                        Optional.ofNullable(parentTask.getTaskInterval()).orElse(1),
-                        TaskMapper.parseDays(parentTask.getDaysOfWeek()));
-                parentTask.setDoCount(newCount);
-                taskRepository.save(parentTask);
-                newParams = newParams.withCount(newCount);
-            }
-            List<LocalDate> targetDates = generateDates(newParams, null);
-            if (!targetDates.isEmpty()) {
-                LocalDate earliest = targetDates.get(0);
-                LocalDate parentDate = onlyDate(parentTask.getDate());
-                if (earliest.isBefore(parentDate)) {
-                    log.info("Adjusting parent date from {} → {}", parentDate, earliest);
-                    parentTask.setDate(earliest.toString());
-                    taskRepository.save(parentTask);
+        // Upcoming reminders are materialized again from the updated parent
+        parentTask.setRemindersThrough(null);
+        taskRepository.save(parentTask);
+        notificationRepository.deleteUnsentMaterialized(parentTask.getId());
+
+        // ---- Stored children: diff by projection, then bulk statements ----
+        List<TaskRepository.SeriesChild> children = taskRepository.findSeriesChildren(parentId);
+        List<Long> stale = new ArrayList<>();
+        if (recurrenceChanged && parentTask.isSeriesParent()) {
+            RecurrenceRule rule = RecurrenceRule.of(parentTask);
+            for (TaskRepository.SeriesChild child : children) {
+                LocalDate occurrence = child.getOccurrenceDate() != null ? child.getOccurrenceDate() : child.getDate();
+                if (occurrence == null || !rule.occursOn(occurrence)) {
+                    stale.add(child.getId());
                 }
             }
-            if ("weekly".equalsIgnoreCase(newParams.frequency) && daysChanged) {
-                // Weekly days changed → keep the same calendar END, recompute COUNT
-                int newCount = recomputeCountFromEnd(newParams, originalEnd);
-                parentTask.setDoCount(newCount);
-                taskRepository.save(parentTask);
-
-                newParams = newParams.withCount(newCount);
-                reconcileSeries(parentTask, newParams, originalEnd); // end-capped
-            } else {
-                // All other edits → use implied end from parentTask
-                LocalDate afterEditEnd = impliedEndDateFromSaved(parentTask);
-                reconcileSeries(parentTask, newParams, afterEditEnd);
-            }
-
-        } else {
-            // Non-recurrence edits → update children safely
-            for (Task child : children) {
-                applySeriesFieldUpdatesToChild(child, taskDto,
-                        taskDto.getName() != null,
-                        taskDto.getDescription() != null,
-                        taskDto.getTaskType() != null,
-                        freqChanged, intvChanged, countChanged, daysChanged);
+            if (!stale.isEmpty()) {
+                notificationRepository.deleteByTaskIds(stale);
+                taskRepository.deleteByIds(stale);
             }
-            taskRepository.saveAll(children);
         }
+        if (children.size() > stale.size()) {
+            // Children whose name, description or type differ from the parent's were edited alone
+            taskRepository.updateSeriesFields(parentId,
+                    originalName,
+                    originalDescription,
+                    originalTaskType,
+                    taskDto.getName(),
+                    taskDto.getDescription(),
+                    taskDto.getTaskType(),
+                    freqChanged ? taskDto.getFrequency() : null,
+                    intvChanged ? taskDto.getInterval() : null,
+                    countChanged ? taskDto.getCount() : null,
+                    daysChanged ? TaskMapper.serializeDays(taskDto.getDaysOfWeek()) : null);
+        }
+
+        log.info("Updated series {} ({} children kept, {} dropped)", parentId, children.size() - stale.size(),
+                stale.size());
+        invalidateFeeds(parentTask);
         return mapToDto(parentTask);
     }
 
@@ -427,47 +570,6 @@ public class TaskServiceV2 {
         }
     }
 
-    /**
-     * Applies selective updates from a parent DTO to a child task
-     * in a recurring series.
-     *
-     * <p>
-     * This method is used during series updates to propagate
-     * only the fields that actually changed on the parent, leaving
-     * other child-specific details untouched (e.g., completion state).
-     * </p>
-     *
-     * @param task         the child {@link Task} to update
-     * @param dto          the updated task DTO
-     * @param nameChanged  whether the name field changed
-     * @param descChanged  whether the description field changed
-     * @param typeChanged  whether the task type field changed
-     * @param freqChanged  whether the frequency field changed
-     * @param intvChanged  whether the interval field changed
-     * @param countChanged whether the occurrence count changed
-     * @param daysChanged  whether the days-of-week field changed
-     */
-    private void applySeriesFieldUpdatesToChild(
-            Task task, TaskDtoV2 dto,
-            boolean nameChanged, boolean descChanged, boolean typeChanged,
-            boolean freqChanged, boolean intvChanged, boolean countChanged, boolean daysChanged) {
-        if (nameChanged)
-            task.setName(dto.getName());
-        if (descChanged)
-            task.setDescription(dto.getDescription());
-        if (typeChanged)
-            task.setTaskType(dto.getTaskType());
-
-        if (freqChanged)
-            task.setFrequency(dto.getFrequency());
-        if (intvChanged)
-            task.setTaskInterval(dto.getInterval());
-        if (countChanged)
-            task.setDoCount(dto.getCount());
-        if (daysChanged)
-            task.setDaysOfWeek(TaskMapper.serializeDays(dto.getDaysOfWeek()));
-    }
-
     /**
      * Deletes a task. If {@code deleteSeries} is true,
      * deletes the entire recurring series.
@@ -476,40 +578,71 @@ public class TaskServiceV2 {
      * @param deleteSeries whether to delete just this task or the whole series
      */
     public void deleteTask(Long taskId, boolean deleteSeries) {
+        deleteTask(taskId, deleteSeries, null);
+    }
+
+    /**
+     * Deletes a task, one occurrence of a series, or the entire series.
+     *
+     * <p>
+     * A single occurrence of a series (the one on {@code occurrenceDate} of a
+     * series parent, or a stored exception) is kept as a cancelled exception,
+     * so expansion does not bring it back.
+     * </p>
+     *
+     * @param taskId         ID of the task to delete
+     * @param deleteSeries   whether to delete just this task or the whole series
+     * @param occurrenceDate occurrence of the series to delete; the first one
+     *                       if {@code null}; ignored for other tasks
+     */
+    public void deleteTask(Long taskId, boolean deleteSeries, LocalDate occurrenceDate) {
         Task task = getTaskById(taskId);
+        invalidateFeeds(task);
 
         if (deleteSeries) {
             Long parentId = task.getParentTaskId() != null
                     ? task.getParentTaskId()
                     : task.getId();
 
-            List<Task> seriesTasks = taskRepository.findByParentTaskId(parentId);
-            seriesTasks.add(taskRepository.findById(parentId)
-                    .orElseThrow(() -> new ParentTaskNotFoundException(parentId)));
+            if (!parentId.equals(task.getId()) && !taskRepository.existsById(parentId)) {
+                throw new ParentTaskNotFoundException(parentId);
+            }
 
-            taskRepository.deleteAll(seriesTasks);
-            log.info(" Deleted series with parentId=" + parentId + " (count=" + seriesTasks.size() + ")");
+            notificationRepository.deleteBySeries(parentId);
+            int deleted = taskRepository.deleteSeries(parentId);
+            log.info(" Deleted series with parentId=" + parentId + " (count=" + deleted + ")");
+        } else if (task.isSeriesParent() || task.getParentTaskId() != null) {
+            Task occurrence = task.isSeriesParent()
+                    ? exceptionFor(task, occurrenceDate != null ? occurrenceDate : task.getDate())
+                    : task;
+            occurrence.setCancelled(true);
+            occurrence.getNotifications().clear();
+            taskRepository.save(occurrence);
+            log.info("Cancelled occurrence {} of series {}", occurrence.getOccurrenceDate(),
+                    occurrence.getParentTaskId());
         } else {
-            if (task.getParentTaskId() == null) {
-                // Deleting the parent but not the series → promote a child
-                List<Task> children = taskRepository.findByParentTaskId(task.getId());
-                if (!children.isEmpty()) {
-                    Task newParent = children.get(0); // promote the first child
-                    newParent.setParentTaskId(null);
-                    taskRepository.save(newParent);
-
-                    for (int i = 1; i < children.size(); i++) {
-                        children.get(i).setParentTaskId(newParent.getId());
-                    }
-                    taskRepository.saveAll(children.subList(1, children.size()));
-                    log.info("Promoted child " + newParent.getId() + " as new parent for series");
-                }
+            // Parent of a series stored before lazy expansion → promote a child
+            List<TaskRepository.SeriesChild> children = taskRepository.findSeriesChildren(task.getId());
+            if (!children.isEmpty()) {
+                Task newParent = getTaskById(children.get(0).getId()); // promote the first child
+                newParent.setParentTaskId(null);
+                newParent.setOccurrenceDate(null);
+                taskRepository.save(newParent);
+
+                taskRepository.reparentSeries(task.getId(), newParent.getId());
+                log.info("Promoted child " + newParent.getId() + " as new parent for series");
             }
             taskRepository.delete(task);
             log.info("Deleted single task id=" + taskId);
         }
     }
 
+    private void invalidateFeeds(Task task) {
+        if (task.getPatient() != null) {
+            calendarFeedService.invalidatePatient(task.getPatient().getId());
+        }
+    }
+
     /**
      * Checks if a task exists by ID.
      *
@@ -521,17 +654,71 @@ public class TaskServiceV2 {
     }
 
     /**
-     * Retrieves all tasks in the system.
+     * Retrieves all tasks in the system, with the occurrences of each series
+     * expanded through {@link #LISTING_HORIZON_DAYS} days from today.
      *
      * @return list of all {@link TaskDtoV2}
      * @throws TaskNotFoundException if no tasks exist
      */
+    @Transactional(readOnly = true)
     public List<TaskDtoV2> getAllTasks() {
-        List<Task> tasks = taskRepository.findAll();
-        if (tasks.isEmpty()) {
+        List<TaskRepository.TaskRow> rows = taskRepository.findAllRows();
+        if (rows.isEmpty()) {
             throw new TaskNotFoundException("No tasks found");
         }
-        return tasks.stream().map(this::mapToDto).toList();
+        return expandRows(rows, notificationRepository.findAllTemplates());
+    }
+
+    /**
+     * Materializes reminders of a series' upcoming occurrences from the
+     * parent's notification templates, through {@code horizon}.
+     *
+     * <p>
+     * Occurrences with a stored exception are skipped (the exception carries
+     * its own reminders), as is the first occurrence, whose reminders are the
+     * templates themselves. The parent's {@code remindersThrough} watermark is
+     * moved with a compare-and-set, so concurrent nodes never materialize the
+     * same range twice.
+     * </p>
+     *
+     * @param parentId ID of the series parent
+     * @param today    first occurrence date considered
+     * @param horizon  last occurrence date considered
+     * @return number of reminders created
+     */
+    public int materializeReminders(Long parentId, LocalDate today, LocalDate horizon) {
+        Task parent = taskRepository.findById(parentId).orElse(null);
+        if (parent == null || !parent.isSeriesParent()) {
+            return 0;
+        }
+        LocalDate watermark = parent.getRemindersThrough();
+        LocalDate from = watermark != null && !watermark.isBefore(today) ? watermark.plusDays(1) : today;
+        if (from.isAfter(horizon)
+                || taskRepository.advanceRemindersThrough(parentId, watermark, horizon) == 0) {
+            return 0;
+        }
+
+        Set<LocalDate> overridden = new HashSet<>();
+        taskRepository.findExceptions(List.of(parentId), from, horizon.plusDays(1))
+                .forEach(e -> overridden.add(e.getOccurrenceDate()));
+        List<ScheduledNotification> templates = templatesOf(parent);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ScheduledNotification> created = new ArrayList<>();
+        for (LocalDate date : RecurrenceRule.of(parent).between(from, horizon.plusDays(1))) {
+            if (date.equals(parent.getDate()) || overridden.contains(date)) {
+                continue;
+            }
+            for (ScheduledNotification template : templates) {
+                ScheduledNotification reminder = shift(template, parent, parent.getDate(), date, now);
+                if (reminder != null) {
+                    reminder.setOccurrenceDate(date);
+                    created.add(reminder);
+                }
+            }
+        }
+        notificationRepository.saveAll(created);
+        return created.size();
     }
 
     // -----------------------------
@@ -546,18 +733,20 @@ public class TaskServiceV2 {
                 .id(task.getId())
                 .name(task.getName())
                 .description(task.getDescription())
-                .date(task.getDate())
+                .date(formatDate(task.getDate()))
                 .createdAt(task.getCreatedAt())
                 .timeOfDay(task.getTimeOfDay())
                 .isCompleted(task.isCompleted())
                 .frequency(task.getFrequency())
                 .interval(task.getTaskInterval())
                 .count(task.getDoCount())
+                .until(task.getRecurrenceUntil() != null ? task.getRecurrenceUntil().toString() : null)
                 .daysOfWeek(TaskMapper.parseDays(task.getDaysOfWeek()))
                 .taskType(task.getTaskType())
                 .patientId(task.getPatient() != null ? task.getPatient().getId() : null)
+                .occurrenceDate(task.getOccurrenceDate() != null ? task.getOccurrenceDate().toString() : null)
                 .notifications(task.getNotifications() != null
-                        ? task.getNotifications().stream()
+                        ? templatesOf(task).stream()
                                 .map(n -> new ScheduledNotificationDTO(
                                         n.getReceiverId(),
                                         n.getTitle(),
@@ -570,49 +759,244 @@ public class TaskServiceV2 {
     }
 
     /**
-     * Generates missing occurrences of a recurring task series.
+     * Maps a projected task row and its reminder templates to a
+     * {@link TaskDtoV2}, as {@link #mapToDto(Task)} does for an entity.
      */
-    private void generateOccurrences(Task parentTask, TaskDtoV2 dto, Patient patient) {
-        List<LocalDate> expectedDates = calculateExpectedDates(dto);
-        if (expectedDates.isEmpty())
-            return;
+    private static TaskDtoV2 mapToDto(TaskRepository.TaskRow row, List<ScheduledNotificationDTO> notifications) {
+        return TaskDtoV2.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .date(formatDate(row.getDate()))
+                .createdAt(row.getCreatedAt())
+                .timeOfDay(row.getTimeOfDay())
+                .isCompleted(row.isCompleted())
+                .frequency(row.getFrequency())
+                .interval(row.getTaskInterval())
+                .count(row.getDoCount())
+                .until(row.getRecurrenceUntil() != null ? row.getRecurrenceUntil().toString() : null)
+                .daysOfWeek(TaskMapper.parseDays(row.getDaysOfWeek()))
+                .taskType(row.getTaskType())
+                .patientId(row.getPatientId())
+                .occurrenceDate(row.getOccurrenceDate() != null ? row.getOccurrenceDate().toString() : null)
+                .notifications(notifications)
+                .build();
+    }
+
+    /**
+     * Maps projected rows, expanding each series parent up to the listing
+     * horizon; a series starting beyond it still lists its first occurrence.
+     * Reminder templates are grouped by task up front, so no row loads its own.
+     */
+    private List<TaskDtoV2> expandRows(List<TaskRepository.TaskRow> rows,
+            List<ScheduledNotificationRepository.ReminderTemplate> templates) {
+        Map<Long, List<ScheduledNotificationDTO>> reminders = new HashMap<>();
+        for (ScheduledNotificationRepository.ReminderTemplate n : templates) {
+            reminders.computeIfAbsent(n.getTaskId(), id -> new ArrayList<>())
+                    .add(new ScheduledNotificationDTO(
+                            n.getReceiverId(),
+                            n.getTitle(),
+                            n.getBody(),
+                            n.getNotificationType(),
+                            n.getScheduledTime() != null ? n.getScheduledTime().toString() : null));
+        }
+
+        Map<Long, Set<LocalDate>> overridden = new HashMap<>();
+        for (TaskRepository.TaskRow row : rows) {
+            if (!row.isSeriesParent() && row.getParentTaskId() != null && row.getOccurrenceDate() != null) {
+                overridden.computeIfAbsent(row.getParentTaskId(), id -> new HashSet<>()).add(row.getOccurrenceDate());
+            }
+        }
+
+        LocalDate horizon = LocalDate.now().plusDays(LISTING_HORIZON_DAYS + 1L);
+        List<TaskDtoV2> out = new ArrayList<>();
+        for (TaskRepository.TaskRow row : rows) {
+            TaskDtoV2 dto = mapToDto(row, reminders.getOrDefault(row.getId(), List.of()));
+            if (row.isSeriesParent()) {
+                RecurrenceRule rule = RecurrenceRule.of(row.getDate(), row.getFrequency(), row.getTaskInterval(),
+                        TaskMapper.parseDays(row.getDaysOfWeek()), row.getDoCount(), row.getRecurrenceUntil());
+                LocalDate to = row.getRecurrenceEnd().plusDays(1);
+                if (to.isAfter(horizon)) {
+                    to = horizon.isAfter(row.getDate()) ? horizon : row.getDate().plusDays(1);
+                }
+                out.addAll(expandSeries(dto, rule, overridden.getOrDefault(row.getId(), Set.of()),
+                        row.getDate(), to));
+            } else if (!row.isCancelled()) {
+                out.add(dto);
+            }
+        }
+        out.sort(BY_DATE_AND_ID);
+        return out;
+    }
+
+    /**
+     * Expands a patient's series overlapping {@code [from, to)}, skipping
+     * occurrences replaced by stored exceptions.
+     */
+    private List<TaskDtoV2> expandSeriesInRange(Long patientId, LocalDate from, LocalDate to) {
+        List<Task> series = taskRepository.findSeriesInRange(patientId, from, to);
+        if (series.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<LocalDate>> overridden = new HashMap<>();
+        taskRepository.findExceptions(series.stream().map(Task::getId).toList(), from, to)
+                .forEach(e -> overridden.computeIfAbsent(e.getParentTaskId(), id -> new HashSet<>())
+                        .add(e.getOccurrenceDate()));
+
+        List<TaskDtoV2> out = new ArrayList<>();
+        for (Task parent : series) {
+            out.addAll(expandSeries(mapToDto(parent), RecurrenceRule.of(parent),
+                    overridden.getOrDefault(parent.getId(), Set.of()), from, to));
+        }
+        return out;
+    }
+
+    /**
+     * Occurrences of one series in {@code [from, to)} that have no stored
+     * exception, as copies of the parent's DTO carrying their
+     * {@code occurrenceDate}. Reminders are shifted from the parent's
+     * templates.
+     */
+    private static List<TaskDtoV2> expandSeries(TaskDtoV2 base, RecurrenceRule rule, Set<LocalDate> overridden,
+            LocalDate from, LocalDate to) {
+        List<LocalDate> dates = rule.between(from, to);
+        if (dates.isEmpty()) {
+            return List.of();
+        }
+        List<TaskDtoV2> out = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            if (overridden.contains(date)) {
+                continue;
+            }
+            long offset = ChronoUnit.DAYS.between(rule.start(), date);
+            out.add(base.toBuilder()
+                    .date(formatDate(date))
+                    .occurrenceDate(date.toString())
+                    .isCompleted(offset == 0 && base.isCompleted())
+                    .notifications(base.getNotifications() == null ? null
+                            : base.getNotifications().stream()
+                                    .map(n -> new ScheduledNotificationDTO(
+                                            n.getReceiverId(),
+                                            n.getTitle(),
+                                            n.getBody(),
+                                            n.getNotificationType(),
+                                            n.getScheduledTime() != null
+                                                    ? LocalDateTime.parse(n.getScheduledTime()).plusDays(offset).toString()
+                                                    : null))
+                                    .toList())
+                    .build());
+        }
+        return out;
+    }
+
+    /**
+     * The stored exception for one occurrence of a series, created from the
+     * parent if the occurrence is still virtual.
+     *
+     * <p>
+     * A new exception takes over the occurrence's reminders: those already
+     * materialized on the parent are deleted (for the first occurrence, the
+     * parent's own reminders are cancelled) and upcoming ones are copied onto
+     * the exception.
+     * </p>
+     *
+     * @throws AppException if the series has no occurrence on {@code date}
+     */
+    private Task exceptionFor(Task parent, LocalDate date) {
+        RecurrenceRule rule = RecurrenceRule.of(parent);
+        if (!rule.occursOn(date)) {
+            throw new AppException(HttpStatus.BAD_REQUEST,
+                    "Series " + parent.getId() + " has no occurrence on " + date);
+        }
+        Optional<Task> stored = taskRepository.findFirstByParentTaskIdAndOccurrenceDate(parent.getId(), date);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        List<ScheduledNotification> templates = templatesOf(parent);
+        if (date.equals(parent.getDate())) {
+            templates.stream()
+                    .filter(n -> "PENDING".equals(n.getStatus()))
+                    .forEach(n -> n.setStatus("CANCELLED"));
+        } else {
+            notificationRepository.deleteUnsentForOccurrence(parent.getId(), date);
+        }
 
-        LocalDate startDate = LocalDate.parse(dto.getDate().substring(0, 10));
-        LocalTime baseTime = (dto.getTimeOfDay() != null)
-                ? LocalTime.parse(dto.getTimeOfDay())
-                : LocalTime.MIDNIGHT;
-        LocalDateTime baseDateTime = startDate.atTime(baseTime);
-
-        Long parentId = parentTask.getParentTaskId() != null
-                ? parentTask.getParentTaskId()
-                : parentTask.getId();
-
-        // Load existing occurrences for this series only
-        List<Task> existing = taskRepository.findByParentTaskId(parentId);
-        existing.add(parentTask);
-
-        // Track existing by (parentIdOrSelf, date)
-        Set<String> existingKeys = existing.stream()
-                .map(t -> {
-                    String d = t.getDate();
-                    String normalized = (d != null && d.length() >= 10) ? d.substring(0, 10) : d;
-                    return parentId + "|" + normalized;
-                })
-                .collect(Collectors.toSet());
-
-        List<Task> newOnes = new ArrayList<>();
-
-        for (LocalDate occurrenceDate : expectedDates) {
-            String key = parentId + "|" + occurrenceDate.toString();
-            if (!existingKeys.contains(key)) {
-                newOnes.add(buildOccurrence(parentTask, dto, patient, baseDateTime, occurrenceDate));
+        Task exception = Task.builder()
+                .name(parent.getName())
+                .description(parent.getDescription())
+                .date(date)
+                .createdAt(Instant.now().toEpochMilli())
+                .timeOfDay(parent.getTimeOfDay())
+                .isCompleted(date.equals(parent.getDate()) && parent.isCompleted())
+                .taskType(parent.getTaskType())
+                .frequency(parent.getFrequency())
+                .taskInterval(parent.getTaskInterval())
+                .doCount(parent.getDoCount())
+                .daysOfWeek(parent.getDaysOfWeek())
+                .patient(parent.getPatient())
+                .parentTaskId(parent.getId())
+                .occurrenceDate(date)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ScheduledNotification template : templates) {
+            ScheduledNotification reminder = shift(template, exception, parent.getDate(), date, now);
+            if (reminder != null) {
+                exception.getNotifications().add(reminder);
             }
         }
+        return exception;
+    }
 
-        if (!newOnes.isEmpty()) {
-            taskRepository.saveAll(newOnes);
-            log.info("Added " + newOnes.size() + " new occurrences to series " + parentTask.getId());
+    /**
+     * Copy of a reminder template moved from the series start to
+     * {@code date}, or {@code null} if that time has already passed.
+     */
+    private static ScheduledNotification shift(ScheduledNotification template, Task owner,
+            LocalDate start, LocalDate date, LocalDateTime now) {
+        LocalDateTime time = template.getScheduledTime().plus(Duration.ofDays(ChronoUnit.DAYS.between(start, date)));
+        if (!time.isAfter(now)) {
+            return null;
         }
+        return ScheduledNotification.builder()
+                .receiverId(template.getReceiverId())
+                .title(template.getTitle())
+                .body(template.getBody())
+                .notificationType(template.getNotificationType())
+                .scheduledTime(time)
+                .status("PENDING")
+                .task(owner)
+                .build();
+    }
+
+    /**
+     * The task's own reminders, without those materialized for later
+     * occurrences of a series.
+     */
+    private static List<ScheduledNotification> templatesOf(Task task) {
+        return task.getNotifications().stream()
+                .filter(n -> n.getOccurrenceDate() == null)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Derives {@code recurrenceEnd} from the task's rule; {@code null} unless
+     * the rule has more than one occurrence.
+     */
+    private static void applyRule(Task task) {
+        if (task.getParentTaskId() != null || task.getFrequency() == null || task.getDate() == null) {
+            task.setRecurrenceEnd(null);
+            return;
+        }
+        RecurrenceRule rule = RecurrenceRule.of(task);
+        task.setRecurrenceEnd(rule.repeats() ? rule.end() : null);
+    }
+
+    private static boolean isAfter(TaskDtoV2 task, LocalDate afterDate, Long afterId) {
+        LocalDate date = onlyDate(task.getDate());
+        int cmp = date.compareTo(afterDate);
+        return cmp > 0 || (cmp == 0 && task.getId() != null && task.getId() > afterId);
     }
 
     /**
@@ -666,12 +1050,12 @@ public class TaskServiceV2 {
                     if ("monthly".equalsIgnoreCase(task.getFrequency())
                             || "yearly".equalsIgnoreCase(task.getFrequency())) {
                         // Always allow updating parent date to new selected day
-                        task.setDate(dto.getDate());
+                        task.setDate(onlyDate(dto.getDate()));
                     } else {
-                        LocalDate newStart = LocalDate.parse(dto.getDate().substring(0, 10));
-                        LocalDate currentParent = LocalDate.parse(task.getDate().substring(0, 10));
-                        if (newStart.isBefore(currentParent)) {
-                            task.setDate(dto.getDate());
+                        LocalDate newStart = onlyDate(dto.getDate());
+                        LocalDate currentParent = task.getDate();
+                        if (currentParent == null || newStart.isBefore(currentParent)) {
+                            task.setDate(newStart);
                         }
                     }
                 }
@@ -682,7 +1066,7 @@ public class TaskServiceV2 {
         } else {
             // One-off edits
             if (dto.getDate() != null) {
-                task.setDate(dto.getDate());
+                task.setDate(onlyDate(dto.getDate()));
             }
             if (dto.getTimeOfDay() != null) {
                 task.setTimeOfDay(dto.getTimeOfDay());
@@ -724,356 +1108,23 @@ public class TaskServiceV2 {
         }
     }
 
-    /**
-     * Builds a new recurring occurrence based on parent task and DTO.
-     */
-    private Task buildOccurrence(Task parentTask, TaskDtoV2 dto, Patient patient,
-            LocalDateTime baseDateTime, LocalDate occurrenceDate) {
-
-        LocalTime occTime = (dto.getTimeOfDay() != null)
-                ? LocalTime.parse(dto.getTimeOfDay())
-                : LocalTime.MIDNIGHT;
-        LocalDateTime occurrenceDateTime = occurrenceDate.atTime(occTime);
-
-        Task occurrence = Task.builder()
-                .name(dto.getName())
-                .description(dto.getDescription())
-                .date(occurrenceDate.toString())
-                .timeOfDay(dto.getTimeOfDay())
-                .isCompleted(false)
-                .taskType(dto.getTaskType())
-                .frequency(dto.getFrequency())
-                .taskInterval(dto.getInterval())
-                .doCount(dto.getCount())
-                .daysOfWeek(TaskMapper.serializeDays(dto.getDaysOfWeek()))
-                .patient(patient)
-                .parentTaskId(parentTask.getId())
-                .build();
-
-        // Notifications: shift relative to base
-        if (dto.getNotifications() != null && !dto.getNotifications().isEmpty()) {
-            for (ScheduledNotificationDTO n : dto.getNotifications()) {
-                LocalDateTime originalScheduledTime = LocalDateTime.parse(n.getScheduledTime(), FORMATTER);
-                Duration offset = Duration.between(baseDateTime, originalScheduledTime);
 
-                LocalDateTime adjustedTime = occurrenceDateTime.plus(offset);
-
-                ScheduledNotification sn = ScheduledNotification.builder()
-                        .receiverId(n.getReceiverId())
-                        .title(n.getTitle())
-                        .body(n.getBody())
-                        .notificationType(n.getNotificationType())
-                        .scheduledTime(adjustedTime)
-                        .status("PENDING")
-                        .task(occurrence)
-                        .build();
-
-                occurrence.getNotifications().add(sn);
-            }
-        }
-
-        return occurrence;
-    }
-
-    /**
-     * Calculates expected occurrence dates for a recurring task.
-     *
-     * <p>
-     * Supports daily, weekly, monthly, yearly frequencies.
-     * </p>
-     */
-    private List<LocalDate> calculateExpectedDates(TaskDtoV2 dto) {
-        LocalDate startDate = LocalDate.parse(dto.getDate().substring(0, 10));
-        int interval = (dto.getInterval() != null && dto.getInterval() > 0) ? dto.getInterval() : 1;
-        int count = dto.getCount() != null ? dto.getCount() : 1;
-
-        List<LocalDate> dates = new ArrayList<>();
-
-        switch (dto.getFrequency().toLowerCase()) {
-            case "daily" -> {
-                for (int i = 0; i < count; i++) {
-                    dates.add(startDate.plusDays(i * interval));
-                }
-            }
-            case "weekly" -> {
-                List<Boolean> daysOfWeek = dto.getDaysOfWeek();
-                if (daysOfWeek == null || daysOfWeek.isEmpty())
-                    return dates;
-
-                int created = 0;
-                LocalDate weekCursor = startDate;
-
-                while (created < count) {
-                    LocalDate weekStart = weekCursor.with(DayOfWeek.SUNDAY);
-                    for (int i = 0; i < 7 && created < count; i++) {
-                        if (Boolean.TRUE.equals(daysOfWeek.get(i))) {
-                            DayOfWeek targetDOW = DayOfWeek.of(((i + 6) % 7) + 1);
-                            LocalDate occurrenceDate = weekStart.with(targetDOW);
-
-                            if (!occurrenceDate.isBefore(startDate)) {
-                                dates.add(occurrenceDate);
-                                created++;
-                            }
-                        }
-                    }
-                    weekCursor = weekCursor.plusWeeks(interval);
-                }
-            }
-            case "monthly" -> {
-                for (int i = 0; i < count; i++) {
-                    dates.add(startDate.plusMonths(i * interval));
-                }
-            }
-            case "yearly" -> {
-                for (int i = 0; i < count; i++) {
-                    dates.add(startDate.plusYears(i * interval));
-                }
-            }
-        }
-        return dates;
-    }
     // --- Utilities ---------------------------------------------------------------
 
     private static LocalDate onlyDate(String isoDateOrDateTime) {
         // accepts "YYYY-MM-DD" or "YYYY-MM-DDTHH:mm..."
-        return LocalDate.parse(isoDateOrDateTime.substring(0, 10));
-    }
-
-    /** Parameters that define a recurrence. */
-    private static final class SeriesParams {
-        final LocalDate startDate; // parent date (first occurrence)
-        final LocalTime time; // may be null
-        final String frequency; // daily|weekly|monthly|yearly
-        final int interval; // >= 1
-        final int count; // >= 1
-        final List<Boolean> days; // weekly: length=7 (Sun..Sat), else null
-
-        SeriesParams(LocalDate startDate, LocalTime time, String frequency,
-                int interval, int count, List<Boolean> days) {
-            this.startDate = startDate;
-            this.time = time;
-            this.frequency = frequency != null ? frequency : "daily";
-            this.interval = Math.max(1, interval);
-            this.count = Math.max(1, count);
-            this.days = days;
-        }
-
-        SeriesParams withCount(int newCount) {
-            return new SeriesParams(startDate, time, frequency, interval, Math.max(1, newCount), days);
+        if (isoDateOrDateTime == null || isoDateOrDateTime.isBlank()) {
+            return null;
         }
-    }
-
-    /**
-     * Build the full list of occurrence dates either by COUNT (endCap=null) or by
-     * END cap (inclusive).
-     */
-    private List<LocalDate> generateDates(SeriesParams p, LocalDate endCap) {
-        List<LocalDate> out = new ArrayList<>();
-
-        switch (p.frequency.toLowerCase()) {
-            case "daily" -> {
-                if (endCap != null) {
-                    for (LocalDate d = p.startDate; !d.isAfter(endCap); d = d.plusDays(p.interval)) {
-                        out.add(d);
-                    }
-                } else {
-                    for (int i = 0; i < p.count; i++) {
-                        out.add(p.startDate.plusDays((long) i * p.interval));
-                    }
-                }
-            }
-            case "weekly" -> {
-                List<Boolean> days = p.days;
-                if (days == null || days.size() != 7) {
-                    // fallback to simple weekly step-by-step if days are missing
-                    if (endCap != null) {
-                        for (LocalDate d = p.startDate; !d.isAfter(endCap); d = d.plusWeeks(p.interval)) {
-                            out.add(d);
-                        }
-                    } else {
-                        for (int i = 0; i < p.count; i++) {
-                            out.add(p.startDate.plusWeeks((long) i * p.interval));
-                        }
-                    }
-                    break;
-                }
-
-                // Iterate week by week starting from the week containing startDate.
-                LocalDate cursor = p.startDate;
-                int made = 0;
-                while (true) {
-                    LocalDate weekStart = cursor.with(DayOfWeek.SUNDAY);
-                    for (int i = 0; i < 7; i++) {
-                        if (Boolean.TRUE.equals(days.get(i))) {
-                            // Map i=0..6 (Sun..Sat) -> DayOfWeek (Mon=1..Sun=7)
-                            DayOfWeek dow = DayOfWeek.of(((i + 6) % 7) + 1);
-                            LocalDate occ = weekStart.with(dow);
-                            if (!occ.isBefore(p.startDate)) {
-                                if (endCap != null) {
-                                    if (occ.isAfter(endCap)) {
-                                        // If same day as endCap, still include
-                                        if (!occ.isEqual(endCap))
-                                            return out;
-                                    }
-                                    out.add(occ);
-                                } else {
-                                    out.add(occ);
-                                    made++;
-                                    if (made >= p.count)
-                                        return out;
-                                }
-                            }
-                        }
-                    }
-                    cursor = cursor.plusWeeks(p.interval);
-                }
-            }
-            case "monthly" -> {
-                if (endCap != null) {
-                    for (LocalDate d = p.startDate; !d.isAfter(endCap); d = d.plusMonths(p.interval)) {
-                        out.add(d);
-                    }
-                } else {
-                    for (int i = 0; i < p.count; i++) {
-                        out.add(p.startDate.plusMonths((long) i * p.interval));
-                    }
-                }
-            }
-            case "yearly" -> {
-                if (endCap != null) {
-                    for (LocalDate d = p.startDate; !d.isAfter(endCap); d = d.plusYears(p.interval)) {
-                        out.add(d);
-                    }
-                } else {
-                    for (int i = 0; i < p.count; i++) {
-                        out.add(p.startDate.plusYears((long) i * p.interval));
-                    }
-                }
-            }
-            default -> {
-                // Unknown frequency: treat as one-time
-                out.add(p.startDate);
-            }
+        try {
+            return LocalDate.parse(isoDateOrDateTime.substring(0, Math.min(10, isoDateOrDateTime.length())));
+        } catch (DateTimeParseException e) {
+            throw new AppException(HttpStatus.BAD_REQUEST, "Invalid task date: " + isoDateOrDateTime);
         }
-        return out;
     }
 
-    /** End of current saved series = last date from (parent + count). */
-    private LocalDate impliedEndDateFromSaved(Task parent) {
-        SeriesParams p = new SeriesParams(
-                onlyDate(parent.getDate()),
-                parent.getTimeOfDay() != null ? LocalTime.parse(parent.getTimeOfDay()) : null,
-                parent.getFrequency(),
-                Optional.ofNullable(parent.getTaskInterval()).orElse(1),
-                Optional.ofNullable(parent.getDoCount()).orElse(1),
-                TaskMapper.parseDays(parent.getDaysOfWeek()));
-        List<LocalDate> dates = generateDates(p, null);
-        return dates.isEmpty() ? onlyDate(parent.getDate()) : dates.get(dates.size() - 1);
+    private static String formatDate(LocalDate date) {
+        // DTOs keep the "YYYY-MM-DDT00:00:00" form clients send
+        return date != null ? date.atStartOfDay().format(FORMATTER) : null;
     }
-
-    /** Count given a target end cap. */
-    private int recomputeCountFromEnd(SeriesParams params, LocalDate endCap) {
-        return generateDates(params, endCap).size();
-    }
-
-    /**
-     * Make DB occurrences match exactly the target dates (add missing, delete
-     * extras).
-     */
-    private void reconcileSeries(Task parentTask, SeriesParams params, LocalDate endCap) {
-        Long parentId = parentTask.getParentTaskId() != null ? parentTask.getParentTaskId() : parentTask.getId();
-
-        List<LocalDate> target = generateDates(params, endCap);
-        Set<String> targetKeys = target.stream().map(LocalDate::toString).collect(Collectors.toSet());
-
-        // Load existing series (parent + children)
-        List<Task> existing = taskRepository.findByParentTaskId(parentId);
-        existing.add(parentTask);
-
-        LocalDate parentStart = params.startDate;
-
-        // Index by date (YYYY-MM-DD)
-        var byDate = existing.stream().collect(Collectors.toMap(
-                t -> onlyDate(t.getDate()).toString(),
-                t -> t,
-                (a, b) -> a));
-
-        // ADD missing
-        List<Task> toAdd = new ArrayList<>();
-        for (LocalDate day : target) {
-            String key = day.toString();
-            if (!byDate.containsKey(key)) {
-                Task occ = Task.builder()
-                        .name(parentTask.getName())
-                        .description(parentTask.getDescription())
-                        .date(day.toString())
-                        .timeOfDay(parentTask.getTimeOfDay())
-                        .isCompleted(false)
-                        .taskType(parentTask.getTaskType())
-                        .frequency(parentTask.getFrequency())
-                        .taskInterval(parentTask.getTaskInterval())
-                        .doCount(parentTask.getDoCount())
-                        .daysOfWeek(parentTask.getDaysOfWeek())
-                        .patient(parentTask.getPatient())
-                        .parentTaskId(parentId)
-                        .build();
-                toAdd.add(occ);
-            }
-        }
-
-        // DELETE extras
-        List<Task> toDelete = existing.stream()
-                .filter(t -> {
-                    String key = onlyDate(t.getDate()).toString();
-                    boolean isParent = Objects.equals(t.getId(), parentTask.getId());
-
-                    // Rule 1: delete if not in target list
-                    if (!isParent && !targetKeys.contains(key)) {
-                        return true;
-                    }
-
-                    // Rule 2: delete if before parent anchor
-                    LocalDate occDate = onlyDate(t.getDate());
-                    if (!isParent && occDate.isBefore(parentStart)) {
-                        return true;
-                    }
-
-                    return false;
-                })
-                .toList();
-
-        if (!toAdd.isEmpty()) {
-            taskRepository.saveAll(toAdd);
-            log.info("Reconcile: added {} new tasks", toAdd.size());
-        }
-        if (!toDelete.isEmpty()) {
-            taskRepository.deleteAll(toDelete);
-            log.info("Reconcile: deleted {} old tasks", toDelete.size());
-        }
-        // -------------------------------------------------------
-        // Safety check: ensure full recurrence count exists
-        // -------------------------------------------------------
-        List<Task> currentSeries = taskRepository.findByParentTaskId(parentId);
-        int expectedCount = Optional.ofNullable(parentTask.getDoCount()).orElse(1);
-
-        // +1 accounts for the parent itself
-        if (currentSeries.size() + 1 < expectedCount) {
-            log.warn("Series undercount detected (have {}, expected {}). Rebuilding...",
-                    currentSeries.size() + 1, expectedCount);
-
-            // Regenerate any missing occurrences
-            generateOccurrences(parentTask, mapToDto(parentTask), parentTask.getPatient());
-        }
-
-        if (currentSeries.size() + 1 < expectedCount) {
-            log.warn("Series undercount detected (have {}, expected {}). Rebuilding...",
-                    currentSeries.size() + 1, expectedCount);
-            generateOccurrences(parentTask, mapToDto(parentTask), parentTask.getPatient());
-        } else {
-            log.info("Series count OK (have {}, expected {})",
-                    currentSeries.size() + 1, expectedCount);
-        }
-
-    }
-
 }
@@ -0,0 +1,130 @@
+package com.careconnect.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes iCalendar (RFC 5545) content lines.
+ *
+ * <p>
+ * Lines end in CRLF and are folded at 75 octets without splitting a UTF-8
+ * sequence. Values passed to {@link #text(String, String)} are escaped; those
+ * passed to {@link #property(String, String)} are written as given.
+ * </p>
+ */
+public final class ICalendarWriter {
+
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    /**
+     * Opens a component, e.g. {@code VCALENDAR} or {@code VEVENT}.
+     *
+     * @param component component name
+     * @return this writer
+     */
+    public ICalendarWriter begin(String component) {
+        return line("BEGIN:" + component);
+    }
+
+    /**
+     * Closes a component.
+     *
+     * @param component component name
+     * @return this writer
+     */
+    public ICalendarWriter end(String component) {
+        return line("END:" + component);
+    }
+
+    /**
+     * Writes a property whose value is already in iCalendar form (dates,
+     * recurrence rules, parameters). Skipped if {@code value} is {@code null}.
+     *
+     * @param name  property name, with any parameters
+     * @param value property value
+     * @return this writer
+     */
+    public ICalendarWriter property(String name, String value) {
+        return value == null ? this : line(name + ":" + value);
+    }
+
+    /**
+     * Writes a TEXT property, escaping backslashes, semicolons, commas and
+     * newlines. Skipped if {@code value} is {@code null} or blank.
+     *
+     * @param name  property name
+     * @param value plain text
+     * @return this writer
+     */
+    public ICalendarWriter text(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return this;
+        }
+        String escaped = value
+                .replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+        return line(name + ":" + escaped);
+    }
+
+    /**
+     * @return the content written so far
+     */
+    public String build() {
+        return out.toString();
+    }
+
+    /**
+     * @param date a date
+     * @return the date as an iCalendar DATE value
+     */
+    public static String date(LocalDate date) {
+        return DATE.format(date);
+    }
+
+    /**
+     * @param dateTime a wall-clock time
+     * @return the time as a floating iCalendar DATE-TIME value
+     */
+    public static String dateTime(LocalDateTime dateTime) {
+        return DATE_TIME.format(dateTime);
+    }
+
+    /**
+     * @param instant an instant
+     * @return the instant as a UTC iCalendar DATE-TIME value
+     */
+    public static String utc(Instant instant) {
+        return DATE_TIME.format(instant.atOffset(ZoneOffset.UTC)) + "Z";
+    }
+
+    private ICalendarWriter line(String line) {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < line.length();) {
+            int codePoint = line.codePointAt(i);
+            int width = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + width > limit) {
+                out.append("\r\n ");
+                octets = 0;
+                limit = MAX_LINE_OCTETS - 1; // the leading space counts
+            }
+            out.appendCodePoint(codePoint);
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+        return this;
+    }
+}
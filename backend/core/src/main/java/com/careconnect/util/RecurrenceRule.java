@@ -0,0 +1,283 @@
+package com.careconnect.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.careconnect.model.Task;
+
+/**
+ * Recurrence rule of a task series, expanded on demand.
+ *
+ * <p>
+ * A series is stored as a single parent {@link Task} holding the rule
+ * (frequency, interval, days of week, count and/or until). Occurrence dates
+ * are computed here for whatever window is asked for, so neither creating nor
+ * editing a series writes one row per occurrence.
+ * </p>
+ *
+ * <p>
+ * Semantics:
+ * <ul>
+ * <li><b>daily / monthly / yearly</b> – every {@code interval} days, months or
+ * years from the start date (month ends are clamped, as by
+ * {@link LocalDate#plusMonths(long)})</li>
+ * <li><b>weekly</b> – with a 7-element {@code daysOfWeek} mask (Sun=0..Sat=6),
+ * the selected days of every {@code interval}-th Monday-based week from the
+ * start's week, never before the start; without a mask, every
+ * {@code interval} weeks from the start</li>
+ * <li>anything else – the start date only</li>
+ * </ul>
+ * The series ends at the {@code count}-th occurrence or on {@code until},
+ * whichever comes first; with neither it has a single occurrence.
+ * </p>
+ */
+public final class RecurrenceRule {
+
+    private final LocalDate start;
+    private final String frequency;
+    private final int interval;
+    private final boolean[] days; // indexed by DayOfWeek ordinal (Mon=0..Sun=6), null without mask
+    private final int daysPerWeek;
+    private final LocalDate end;
+
+    private RecurrenceRule(LocalDate start, String frequency, int interval, List<Boolean> daysOfWeek,
+            Integer count, LocalDate until) {
+        this.start = start;
+        this.frequency = frequency != null ? frequency.toLowerCase() : "";
+        this.interval = Math.max(1, interval);
+
+        boolean[] mask = null;
+        int selected = 0;
+        if ("weekly".equals(this.frequency) && daysOfWeek != null && daysOfWeek.size() == 7) {
+            mask = new boolean[7];
+            for (int i = 0; i < 7; i++) {
+                // Sun=0..Sat=6 -> DayOfWeek ordinal Mon=0..Sun=6
+                if (Boolean.TRUE.equals(daysOfWeek.get(i))) {
+                    mask[(i + 6) % 7] = true;
+                    selected++;
+                }
+            }
+        }
+        this.days = selected > 0 ? mask : null;
+        this.daysPerWeek = selected;
+
+        LocalDate last = count != null && count > 0 ? nthDate(count) : null;
+        if (until != null && (last == null || until.isBefore(last))) {
+            last = until;
+        }
+        this.end = last != null && !last.isBefore(start) ? last : start;
+    }
+
+    /**
+     * Builds a rule.
+     *
+     * @param start      first occurrence
+     * @param frequency  daily|weekly|monthly|yearly
+     * @param interval   spacing between occurrences (values below 1 mean 1)
+     * @param daysOfWeek weekly mask, Sun=0..Sat=6; may be {@code null}
+     * @param count      number of occurrences; {@code null} or below 1 for none
+     * @param until      last possible occurrence (inclusive); may be {@code null}
+     * @return the rule
+     */
+    public static RecurrenceRule of(LocalDate start, String frequency, Integer interval,
+            List<Boolean> daysOfWeek, Integer count, LocalDate until) {
+        return new RecurrenceRule(start, frequency, interval != null ? interval : 1, daysOfWeek, count, until);
+    }
+
+    /**
+     * Builds the rule stored on a series parent.
+     *
+     * @param task the parent task
+     * @return the rule
+     */
+    public static RecurrenceRule of(Task task) {
+        return of(task.getDate(), task.getFrequency(), task.getTaskInterval(),
+                TaskMapper.parseDays(task.getDaysOfWeek()), task.getDoCount(), task.getRecurrenceUntil());
+    }
+
+    /**
+     * @return the first occurrence
+     */
+    public LocalDate start() {
+        return start;
+    }
+
+    /**
+     * @return the last occurrence
+     */
+    public LocalDate end() {
+        return end;
+    }
+
+    /**
+     * @return whether the rule has more than one occurrence
+     */
+    public boolean repeats() {
+        return end.isAfter(start);
+    }
+
+    /**
+     * Whether {@code date} is an occurrence of this rule.
+     *
+     * @param date the date to test
+     * @return {@code true} if the series occurs on {@code date}
+     */
+    public boolean occursOn(LocalDate date) {
+        if (date.isBefore(start) || date.isAfter(end)) {
+            return false;
+        }
+        switch (frequency) {
+            case "daily":
+                return ChronoUnit.DAYS.between(start, date) % interval == 0;
+            case "weekly":
+                if (days == null) {
+                    return ChronoUnit.DAYS.between(start, date) % (7L * interval) == 0;
+                }
+                return days[date.getDayOfWeek().ordinal()]
+                        && ChronoUnit.WEEKS.between(monday(start), monday(date)) % interval == 0;
+            case "monthly": {
+                long months = monthIndex(date) - monthIndex(start);
+                return months % interval == 0 && start.plusMonths(months).equals(date);
+            }
+            case "yearly": {
+                long years = date.getYear() - start.getYear();
+                return years % interval == 0 && start.plusYears(years).equals(date);
+            }
+            default:
+                return date.equals(start);
+        }
+    }
+
+    /**
+     * Occurrences in {@code [from, to)}, oldest first. Only the window is
+     * visited, however long the series is.
+     *
+     * @param from first date of the window (inclusive)
+     * @param to   end of the window (exclusive)
+     * @return occurrence dates in the window
+     */
+    public List<LocalDate> between(LocalDate from, LocalDate to) {
+        LocalDate lo = from.isAfter(start) ? from : start;
+        LocalDate hi = to.isAfter(end) ? end.plusDays(1) : to;
+        List<LocalDate> out = new ArrayList<>();
+        if (!lo.isBefore(hi)) {
+            return out;
+        }
+        switch (frequency) {
+            case "daily" -> stepDays(lo, hi, interval, out);
+            case "weekly" -> {
+                if (days == null) {
+                    stepDays(lo, hi, 7 * interval, out);
+                    break;
+                }
+                long weeks = ChronoUnit.WEEKS.between(monday(start), monday(lo));
+                weeks = ((weeks + interval - 1) / interval) * interval;
+                LocalDate week = monday(start).plusWeeks(weeks);
+                for (; week.isBefore(hi); week = week.plusWeeks(interval)) {
+                    for (int d = 0; d < 7; d++) {
+                        LocalDate date = week.plusDays(d);
+                        if (days[d] && !date.isBefore(lo) && date.isBefore(hi)) {
+                            out.add(date);
+                        }
+                    }
+                }
+            }
+            case "monthly" -> {
+                long months = Math.max(0, monthIndex(lo) - monthIndex(start));
+                for (long m = (months / interval) * interval;; m += interval) {
+                    LocalDate date = start.plusMonths(m);
+                    if (!date.isBefore(hi)) {
+                        break;
+                    }
+                    if (!date.isBefore(lo)) {
+                        out.add(date);
+                    }
+                }
+            }
+            case "yearly" -> {
+                long years = Math.max(0, lo.getYear() - start.getYear());
+                for (long y = (years / interval) * interval;; y += interval) {
+                    LocalDate date = start.plusYears(y);
+                    if (!date.isBefore(hi)) {
+                        break;
+                    }
+                    if (!date.isBefore(lo)) {
+                        out.add(date);
+                    }
+                }
+            }
+            default -> out.add(start);
+        }
+        return out;
+    }
+
+    /**
+     * Number of occurrences from the start through {@code endInclusive}.
+     *
+     * @param endInclusive last date counted
+     * @return occurrences up to and including {@code endInclusive}
+     */
+    public int countThrough(LocalDate endInclusive) {
+        return between(start, endInclusive.plusDays(1)).size();
+    }
+
+    /** Date of the n-th occurrence (1-based), ignoring any end. */
+    private LocalDate nthDate(int n) {
+        long k = n - 1L;
+        switch (frequency) {
+            case "daily":
+                return start.plusDays(k * interval);
+            case "weekly": {
+                if (days == null) {
+                    return start.plusWeeks(k * interval);
+                }
+                // Occurrences in the start's own week, from the start on
+                List<LocalDate> firstWeek = new ArrayList<>(7);
+                for (int d = start.getDayOfWeek().ordinal(); d < 7; d++) {
+                    if (days[d]) {
+                        firstWeek.add(monday(start).plusDays(d));
+                    }
+                }
+                if (n <= firstWeek.size()) {
+                    return firstWeek.get(n - 1);
+                }
+                long rest = n - firstWeek.size() - 1L;
+                LocalDate week = monday(start).plusWeeks((rest / daysPerWeek + 1) * interval);
+                long position = rest % daysPerWeek;
+                for (int d = 0; d < 7; d++) {
+                    if (days[d] && position-- == 0) {
+                        return week.plusDays(d);
+                    }
+                }
+                throw new IllegalStateException("unreachable");
+            }
+            case "monthly":
+                return start.plusMonths(k * interval);
+            case "yearly":
+                return start.plusYears(k * interval);
+            default:
+                return start;
+        }
+    }
+
+    private void stepDays(LocalDate lo, LocalDate hi, long step, List<LocalDate> out) {
+        // lo is never before start, so this only rounds forward
+        long offset = ChronoUnit.DAYS.between(start, lo);
+        LocalDate date = start.plusDays(((offset + step - 1) / step) * step);
+        for (; date.isBefore(hi); date = date.plusDays(step)) {
+            out.add(date);
+        }
+    }
+
+    private static LocalDate monday(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static long monthIndex(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,136 @@
+package com.careconnect.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the free-form {@code value}/{@code unit} of a {@link com.careconnect.model.Vital}
+ * into typed, unit-normalized numbers.
+ *
+ * Canonical types and units:
+ *  - BLOOD_PRESSURE: systolic/diastolic in mmHg ("120/80")
+ *  - HEART_RATE: bpm
+ *  - TEMPERATURE: °C (°F converted; a unitless value above 45 is taken as °F)
+ *  - SPO2: % (a fraction such as 0.97 is scaled)
+ *  - WEIGHT: kg (lb converted; a unitless weight is left unparsed)
+ *  - BLOOD_GLUCOSE: mg/dL (mmol/L converted; a unitless value below 35 is taken as mmol/L)
+ *  - RESPIRATORY_RATE: breaths/min
+ * Any other type keeps its first number and its unit, lower-cased.
+ */
+public final class VitalValueParser {
+    private VitalValueParser() {}
+
+    /**
+     * Typed reading; {@code type} is the canonical type whenever one was given, and every
+     * other field is {@code null} when the value could not be parsed
+     */
+    public record Parsed(String type, Double numericValue, Integer systolic, Integer diastolic, String unit) {
+        public boolean isParsed() {
+            return numericValue != null || systolic != null;
+        }
+    }
+
+    public static final String BLOOD_PRESSURE = "BLOOD_PRESSURE";
+    public static final String HEART_RATE = "HEART_RATE";
+    public static final String TEMPERATURE = "TEMPERATURE";
+    public static final String SPO2 = "SPO2";
+    public static final String WEIGHT = "WEIGHT";
+    public static final String BLOOD_GLUCOSE = "BLOOD_GLUCOSE";
+    public static final String RESPIRATORY_RATE = "RESPIRATORY_RATE";
+
+    private static final Pattern PRESSURE = Pattern.compile("(\\d{2,3})\\s*/\\s*(\\d{2,3})");
+    private static final Pattern NUMBER = Pattern.compile("[-+]?\\d+(?:[.,]\\d+)?");
+
+    private static final Map<String, String> TYPE_ALIASES = Map.ofEntries(
+            Map.entry("BP", BLOOD_PRESSURE),
+            Map.entry("BLOOD_PRESSURE", BLOOD_PRESSURE),
+            Map.entry("HR", HEART_RATE),
+            Map.entry("PULSE", HEART_RATE),
+            Map.entry("HEART_RATE", HEART_RATE),
+            Map.entry("TEMP", TEMPERATURE),
+            Map.entry("TEMPERATURE", TEMPERATURE),
+            Map.entry("BODY_TEMPERATURE", TEMPERATURE),
+            Map.entry("SPO2", SPO2),
+            Map.entry("O2_SAT", SPO2),
+            Map.entry("OXYGEN_SATURATION", SPO2),
+            Map.entry("BLOOD_OXYGEN", SPO2),
+            Map.entry("WEIGHT", WEIGHT),
+            Map.entry("BODY_WEIGHT", WEIGHT),
+            Map.entry("GLUCOSE", BLOOD_GLUCOSE),
+            Map.entry("BLOOD_GLUCOSE", BLOOD_GLUCOSE),
+            Map.entry("BLOOD_SUGAR", BLOOD_GLUCOSE),
+            Map.entry("RR", RESPIRATORY_RATE),
+            Map.entry("RESP_RATE", RESPIRATORY_RATE),
+            Map.entry("RESPIRATORY_RATE", RESPIRATORY_RATE));
+
+    private static final double LB_TO_KG = 0.45359237;
+    private static final double MMOL_TO_MG_DL = 18.0182;
+
+    /**
+     * Canonical type key for a free-form vital type, e.g. "Blood Pressure" and "bp" both
+     * become {@code BLOOD_PRESSURE}
+     */
+    public static String canonicalType(String vitalType) {
+        if (vitalType == null || vitalType.isBlank()) {
+            return null;
+        }
+        String key = vitalType.trim().toUpperCase(Locale.ROOT).replaceAll("[\\s\\-]+", "_");
+        return TYPE_ALIASES.getOrDefault(key, key);
+    }
+
+    public static Parsed parse(String vitalType, String value, String unit) {
+        String type = canonicalType(vitalType);
+        if (type == null || value == null || value.isBlank()) {
+            return new Parsed(type, null, null, null, null);
+        }
+        String unitText = ((unit != null ? unit : "") + " " + value).toLowerCase(Locale.ROOT);
+
+        if (BLOOD_PRESSURE.equals(type)) {
+            Matcher m = PRESSURE.matcher(value);
+            if (!m.find()) {
+                return new Parsed(type, null, null, null, null);
+            }
+            return new Parsed(type, null, Integer.valueOf(m.group(1)), Integer.valueOf(m.group(2)), "mmHg");
+        }
+
+        Matcher m = NUMBER.matcher(value);
+        if (!m.find()) {
+            return new Parsed(type, null, null, null, null);
+        }
+        double number = Double.parseDouble(m.group().replace(',', '.'));
+
+        switch (type) {
+            case HEART_RATE:
+                return new Parsed(type, number, null, null, "bpm");
+            case RESPIRATORY_RATE:
+                return new Parsed(type, number, null, null, "breaths/min");
+            case SPO2:
+                return new Parsed(type, number <= 1.0 ? number * 100 : number, null, null, "%");
+            case TEMPERATURE: {
+                boolean fahrenheit = unitText.contains("f") || (!unitText.contains("c") && number > 45);
+                return new Parsed(type, fahrenheit ? round((number - 32) * 5 / 9) : number, null, null, "°C");
+            }
+            case WEIGHT:
+                if (unitText.contains("lb") || unitText.contains("pound")) {
+                    return new Parsed(type, round(number * LB_TO_KG), null, null, "kg");
+                }
+                if (unitText.contains("kg") || unitText.contains("kilo")) {
+                    return new Parsed(type, number, null, null, "kg");
+                }
+                return new Parsed(type, null, null, null, null);
+            case BLOOD_GLUCOSE: {
+                boolean mmol = unitText.contains("mmol") || (!unitText.contains("mg") && number < 35);
+                return new Parsed(type, mmol ? round(number * MMOL_TO_MG_DL) : number, null, null, "mg/dL");
+            }
+            default:
+                String canonicalUnit = unit != null && !unit.isBlank() ? unit.trim().toLowerCase(Locale.ROOT) : null;
+                return new Parsed(type, number, null, null, canonicalUnit);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
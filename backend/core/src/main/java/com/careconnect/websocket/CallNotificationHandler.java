@@ -3,9 +3,12 @@ package com.careconnect.websocket;
 import com.careconnect.model.User;
 import com.careconnect.repository.UserRepository;
 import com.careconnect.security.JwtTokenProvider;
+import com.careconnect.service.presence.PresenceChangedEvent;
+import com.careconnect.service.presence.PresenceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -29,6 +32,8 @@ public class CallNotificationHandler extends TextWebSocketHandler {
 
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final WebSocketSessionSupport sessionSupport;
+    private final PresenceService presenceService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Store active connections: userId -> WebSocketSession
@@ -59,6 +64,12 @@ public class CallNotificationHandler extends TextWebSocketHandler {
             );
             String type = (String) payload.get("type");
 
+            // Any message from an authenticated session counts as a sign of life
+            User sender = sessionUsers.get(session.getId());
+            if (sender != null) {
+                presenceService.heartbeat(sender.getId());
+            }
+
             log.info("Received WebSocket message: {} from session: {}", type, session.getId());
 
             switch (type) {
@@ -83,6 +94,13 @@ public class CallNotificationHandler extends TextWebSocketHandler {
                 case "end-call":
                     handleCallEnd(session, payload);
                     break;
+                case "resume":
+                    handleResume(session, payload);
+                    break;
+                case "sos-ack":
+                    handleSosAck(session, payload);
+                    break;
+                case "ping":
                 case "heartbeat":
                     handleHeartbeat(session, payload);
                     break;
@@ -125,6 +143,7 @@ public class CallNotificationHandler extends TextWebSocketHandler {
         // Store user session
         userSessions.put(user.getId().toString(), session);
         sessionUsers.put(session.getId(), user);
+        presenceService.connected(user.getId(), session.getId());
         
         Map<String, Object> response = Map.of(
             "type", "authentication-success",
@@ -135,6 +154,9 @@ public class CallNotificationHandler extends TextWebSocketHandler {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
         
         log.info("User authenticated: {} ({})", user.getEmail(), user.getRole());
+
+        // Reconnecting clients pass the last notification seq they received
+        sessionSupport.replayMissedNotifications(session, user.getId().toString(), payload.get("lastSeq"));
     }
 
     private void handleUserJoin(WebSocketSession session, Map<String, Object> payload) throws Exception {
@@ -365,6 +387,24 @@ public class CallNotificationHandler extends TextWebSocketHandler {
         }
     }
 
+    private void handleResume(WebSocketSession session, Map<String, Object> payload) throws Exception {
+        User user = sessionUsers.get(session.getId());
+        if (user == null) {
+            sendErrorMessage(session, "User not authenticated");
+            return;
+        }
+        sessionSupport.handleResume(session, user.getId().toString(), payload);
+    }
+
+    private void handleSosAck(WebSocketSession session, Map<String, Object> payload) throws Exception {
+        User user = sessionUsers.get(session.getId());
+        if (user == null) {
+            sendErrorMessage(session, "User not authenticated");
+            return;
+        }
+        sessionSupport.handleSosAck(session, user.getId(), payload);
+    }
+
     private void handleHeartbeat(WebSocketSession session, Map<String, Object> payload) throws Exception {
         Map<String, Object> response = Map.of(
             "type", "heartbeat-response",
@@ -390,13 +430,23 @@ public class CallNotificationHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         User user = sessionUsers.remove(session.getId());
         if (user != null) {
-            userSessions.remove(user.getId().toString());
+            userSessions.remove(user.getId().toString(), session);
+            presenceService.disconnected(user.getId(), session.getId());
             log.info("WebSocket connection closed for user: {} - Status: {}", user.getEmail(), status);
         } else {
             log.info("WebSocket connection closed: {} - Status: {}", session.getId(), status);
         }
     }
 
+    /**
+     * Close sessions of users whose presence expired; they stopped sending heartbeats
+     * and the connection is most likely half-open.
+     */
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        sessionSupport.closeExpiredSession(event, userSessions);
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         User user = sessionUsers.get(session.getId());
@@ -405,18 +455,23 @@ public class CallNotificationHandler extends TextWebSocketHandler {
     }
 
     // Public method to send notifications from other services
-    public void sendNotificationToUser(String userId, Map<String, Object> notification) {
+    public boolean sendNotificationToUser(String userId, Map<String, Object> notification) {
         WebSocketSession session = userSessions.get(userId);
         if (session != null && session.isOpen()) {
             try {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(notification)));
+                // Sessions are not thread-safe for concurrent sends
+                synchronized (session) {
+                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(notification)));
+                }
                 log.info("Notification sent to user {}: {}", userId, notification.get("type"));
+                return true;
             } catch (Exception e) {
                 log.error("Failed to send notification to user {}", userId, e);
             }
         } else {
             log.warn("User {} not connected for notification: {}", userId, notification.get("type"));
         }
+        return false;
     }
 
     // Get online users (for admin/monitoring purposes)
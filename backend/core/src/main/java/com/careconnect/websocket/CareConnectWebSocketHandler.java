@@ -3,9 +3,12 @@ package com.careconnect.websocket;
 import com.careconnect.model.User;
 import com.careconnect.repository.UserRepository;
 import com.careconnect.security.JwtTokenProvider;
+import com.careconnect.service.presence.PresenceChangedEvent;
+import com.careconnect.service.presence.PresenceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
@@ -27,6 +30,7 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
         user.setEmail(userName + "@dummy.local");
         // No WebSocketSession, but store user info for monitoring
         sessionUsers.put(userId, user);
+        presenceService.heartbeat(user.getId());
         log.info("Registered user {} ({}) for undying HTTP session", userId, userName);
     }
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CareConnectWebSocketHandler.class);
@@ -41,6 +45,8 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
 
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final WebSocketSessionSupport sessionSupport;
+    private final PresenceService presenceService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Store active connections: userId -> WebSocketSession
@@ -73,6 +79,12 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
             );
             String type = (String) payload.get("type");
 
+            // Any message from an authenticated session counts as a sign of life
+            User sender = sessionUsers.get(session.getId());
+            if (sender != null) {
+                presenceService.heartbeat(sender.getId());
+            }
+
             log.info("Received CareConnect WebSocket message: {} from session: {}", type, session.getId());
 
             switch (type) {
@@ -100,6 +112,13 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
                 case "family-member-request":
                     handleFamilyMemberRequest(session, payload);
                     break;
+                case "resume":
+                    handleResume(session, payload);
+                    break;
+                case "sos-ack":
+                    handleSosAck(session, payload);
+                    break;
+                case "ping":
                 case "heartbeat":
                     handleHeartbeat(session, payload);
                     break;
@@ -140,6 +159,7 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
         // Store user session
         userSessions.put(user.getId().toString(), session);
         sessionUsers.put(session.getId(), user);
+        presenceService.connected(user.getId(), session.getId());
         
         Map<String, Object> response = Map.of(
             "type", "authentication-success",
@@ -150,6 +170,9 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
         
         log.info("CareConnect user authenticated: {} ({})", user.getEmail(), user.getRole());
+
+        // Reconnecting clients pass the last notification seq they received
+        sessionSupport.replayMissedNotifications(session, user.getId().toString(), payload.get("lastSeq"));
     }
 
     private void handleSubscribeToUpdates(WebSocketSession session, Map<String, Object> payload) throws Exception {
@@ -312,6 +335,24 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    private void handleResume(WebSocketSession session, Map<String, Object> payload) throws Exception {
+        User user = sessionUsers.get(session.getId());
+        if (user == null) {
+            sendErrorMessage(session, "User not authenticated");
+            return;
+        }
+        sessionSupport.handleResume(session, user.getId().toString(), payload);
+    }
+
+    private void handleSosAck(WebSocketSession session, Map<String, Object> payload) throws Exception {
+        User user = sessionUsers.get(session.getId());
+        if (user == null) {
+            sendErrorMessage(session, "User not authenticated");
+            return;
+        }
+        sessionSupport.handleSosAck(session, user.getId(), payload);
+    }
+
     private void handleHeartbeat(WebSocketSession session, Map<String, Object> payload) throws Exception {
         Map<String, Object> response = Map.of(
             "type", "heartbeat-response",
@@ -337,13 +378,23 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         User user = sessionUsers.remove(session.getId());
         if (user != null) {
-            userSessions.remove(user.getId().toString());
+            userSessions.remove(user.getId().toString(), session);
+            presenceService.disconnected(user.getId(), session.getId());
             log.info("CareConnect WebSocket connection closed for user: {} - Status: {}", user.getEmail(), status);
         } else {
             log.info("CareConnect WebSocket connection closed: {} - Status: {}", session.getId(), status);
         }
     }
 
+    /**
+     * Close sessions of users whose presence expired; they stopped sending heartbeats
+     * and the connection is most likely half-open.
+     */
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        sessionSupport.closeExpiredSession(event, userSessions);
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         User user = sessionUsers.get(session.getId());
@@ -352,18 +403,23 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
     }
 
     // Public method to send real-time updates from other services
-    public void sendRealTimeUpdate(String userId, Map<String, Object> update) {
+    public boolean sendRealTimeUpdate(String userId, Map<String, Object> update) {
         WebSocketSession session = userSessions.get(userId);
         if (session != null && session.isOpen()) {
             try {
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(update)));
+                // Sessions are not thread-safe for concurrent sends
+                synchronized (session) {
+                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(update)));
+                }
                 log.info("Real-time update sent to user {}: {}", userId, update.get("type"));
+                return true;
             } catch (Exception e) {
                 log.error("Failed to send real-time update to user {}: {}", userId, e.getMessage());
             }
         } else {
             log.warn("User {} not connected for real-time update: {}", userId, update.get("type"));
         }
+        return false;
     }
 
     // Broadcast to all connected users (admin feature)
@@ -384,12 +440,19 @@ public class CareConnectWebSocketHandler extends TextWebSocketHandler {
 
     // Get online users count
     public int getOnlineUsersCount() {
-        return userSessions.size();
+        return presenceService.onlineCount();
     }
 
-    // Check if user is online
+    // Check if user is online; an ID that is not a number is never online
     public boolean isUserOnline(String userId) {
-        return userSessions.containsKey(userId) && userSessions.get(userId).isOpen();
+        if (userId == null) {
+            return false;
+        }
+        try {
+            return presenceService.isOnline(Long.valueOf(userId.trim()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
 
     /**
@@ -0,0 +1,139 @@
+package com.careconnect.websocket;
+
+import com.careconnect.service.NotificationLogService;
+import com.careconnect.service.emergency.SosAcknowledgedEvent;
+import com.careconnect.service.presence.PresenceChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol steps shared by the WebSocket handlers, so both endpoints answer
+ * the same messages the same way.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketSessionSupport {
+
+    private final NotificationLogService notificationLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Replay notifications logged after the client's last seen sequence, then
+     * confirm with the latest sequence so the client can switch to live delivery.
+     * Live notifications sent meanwhile carry their own seq; clients drop duplicates.
+     * A {@code lastSeq} that is not a non-negative integer is answered with an error
+     * frame and nothing is replayed; the session stays open.
+     */
+    public void replayMissedNotifications(WebSocketSession session, String userId, Object lastSeq) throws Exception {
+        if (lastSeq == null) {
+            return;
+        }
+        Long afterSeq = parseSeq(lastSeq);
+        if (afterSeq == null) {
+            sendError(session, "Invalid lastSeq: " + lastSeq);
+            return;
+        }
+        List<String> missed = notificationLogService.replay(userId, afterSeq);
+        for (String notification : missed) {
+            session.sendMessage(new TextMessage(notification));
+        }
+        Map<String, Object> response = Map.of(
+            "type", "replay-complete",
+            "replayed", missed.size(),
+            "lastSeq", notificationLogService.currentSeq(userId),
+            "timestamp", System.currentTimeMillis()
+        );
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        log.info("Replayed {} notifications to user {} after seq {}", missed.size(), userId, afterSeq);
+    }
+
+    /**
+     * Handle a {@code resume} message from an authenticated user; a missing
+     * {@code lastSeq} replays everything still logged.
+     */
+    public void handleResume(WebSocketSession session, String userId, Map<String, Object> payload) throws Exception {
+        replayMissedNotifications(session, userId, payload.getOrDefault("lastSeq", 0));
+    }
+
+    /**
+     * Handle an {@code sos-ack} message from an authenticated user: hand the
+     * acknowledgement to the SOS dispatcher and confirm receipt to the client.
+     */
+    public void handleSosAck(WebSocketSession session, Long userId, Map<String, Object> payload) throws Exception {
+        Object callId = payload.get("callId");
+        if (callId == null) {
+            sendError(session, "Missing callId");
+            return;
+        }
+        eventPublisher.publishEvent(new SosAcknowledgedEvent(callId.toString(), userId));
+
+        Map<String, Object> response = Map.of(
+            "type", "sos-ack-received",
+            "callId", callId,
+            "timestamp", System.currentTimeMillis()
+        );
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+    }
+
+    /**
+     * Send an {@code error} frame, logging instead of throwing if the session is gone.
+     */
+    public void sendError(WebSocketSession session, String errorMessage) {
+        try {
+            Map<String, Object> error = Map.of(
+                "type", "error",
+                "message", errorMessage,
+                "timestamp", System.currentTimeMillis()
+            );
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
+        } catch (Exception e) {
+            log.error("Failed to send error message to session {}", session.getId(), e);
+        }
+    }
+
+    /**
+     * Close the session of a user whose presence expired, if it is one of the sessions
+     * the expiry reported; the user stopped sending heartbeats and the connection is
+     * most likely half-open.
+     *
+     * @param userSessions the handler's open sessions by user ID
+     */
+    public void closeExpiredSession(PresenceChangedEvent event, Map<String, WebSocketSession> userSessions) {
+        if (event.online() || event.reason() != PresenceChangedEvent.Reason.EXPIRED) {
+            return;
+        }
+        WebSocketSession session = userSessions.get(event.userId().toString());
+        if (session != null && event.sessionIds().contains(session.getId())) {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Heartbeat timeout"));
+            } catch (Exception e) {
+                log.debug("Failed to close expired session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static Long parseSeq(Object lastSeq) {
+        long seq;
+        if (lastSeq instanceof Integer || lastSeq instanceof Long || lastSeq instanceof Short) {
+            seq = ((Number) lastSeq).longValue();
+        } else {
+            try {
+                seq = Long.parseLong(lastSeq.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return seq >= 0 ? seq : null;
+    }
+}
@@ -0,0 +1,13 @@
+-- V34: Append-only per-user notification log for replay on WebSocket reconnect
+CREATE TABLE IF NOT EXISTS notification_log (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    notification_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uk_notification_log_user_seq UNIQUE (user_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_log_created_at ON notification_log(created_at);
@@ -0,0 +1,12 @@
+-- V35: Lease columns for the scheduled notification dispatch engine
+ALTER TABLE IF EXISTS scheduled_notification ADD COLUMN IF NOT EXISTS leased_by VARCHAR(64);
+ALTER TABLE IF EXISTS scheduled_notification ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
+
+-- The table may be created by Hibernate rather than a migration; skip the index until it exists.
+DO $$
+BEGIN
+    IF to_regclass('scheduled_notification') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_scheduled_notification_status_time
+            ON scheduled_notification(status, scheduled_time);
+    END IF;
+END $$;
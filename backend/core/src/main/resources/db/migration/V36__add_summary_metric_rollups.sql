@@ -0,0 +1,22 @@
+-- V36: Hourly and daily rollup buckets in summary_metrics.
+-- Buckets store sums and counts so any period can be answered by adding buckets up.
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS granularity VARCHAR(10) NOT NULL DEFAULT 'CUSTOM';
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS symptom_total BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS symptom_completed BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS heart_rate_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS heart_rate_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS spo2_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS spo2_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS systolic_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS systolic_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS diastolic_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS diastolic_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS weight_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS weight_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS mood_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS mood_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS pain_sum DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS summary_metrics ADD COLUMN IF NOT EXISTS pain_count BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_summary_patient_granularity_start
+    ON summary_metrics(patient_user_id, granularity, period_start);
@@ -0,0 +1,10 @@
+-- One row per patient, metric and timestamp so device re-uploads can be ingested idempotently
+DELETE FROM wearable_metric a
+USING wearable_metric b
+WHERE a.id > b.id
+  AND a.patient_user_id = b.patient_user_id
+  AND a.metric = b.metric
+  AND a.recorded_at = b.recorded_at;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_wearable_metric_patient_metric_time
+    ON wearable_metric (patient_user_id, metric, recorded_at);
@@ -0,0 +1,170 @@
+-- V38: Range-partition vital_sample, wearable_metric and mood_pain_log by month.
+-- Queries filter on (patient, time range), so each scan only touches the months it covers,
+-- and retention drops whole partitions instead of deleting rows. Every table gets a btree on
+-- (patient, time) and a BRIN on time; both are declared on the parent and cascade to partitions.
+-- Primary keys must contain the partition key, so they become (id, time); ids stay unique
+-- because they still come from a single sequence per table.
+
+-- Creates the missing monthly partitions <parent>_pYYYY_MM covering [from_month, to_month].
+-- Bounds are UTC midnights, which suits both TIMESTAMP (UTC wall clock) and TIMESTAMPTZ columns.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, to_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    m DATE := date_trunc('month', from_month)::date;
+    part TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE m <= to_month LOOP
+        part := format('%s_p%s', parent, to_char(m, 'YYYY_MM'));
+        IF to_regclass(part) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           part, parent, m::text || ' 00:00:00+00',
+                           (m + INTERVAL '1 month')::date::text || ' 00:00:00+00');
+            created := created + 1;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+-- Drops the monthly partitions of parent that end on or before cutoff and returns their names.
+CREATE OR REPLACE FUNCTION drop_monthly_partitions_before(parent TEXT, cutoff DATE)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    part TEXT;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ '_p[0-9]{4}_[0-9]{2}$'
+          AND (to_date(right(c.relname, 7), 'YYYY_MM') + INTERVAL '1 month')::date <= cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('DROP TABLE %I', part);
+        RETURN NEXT part;
+    END LOOP;
+END;
+$$ language 'plpgsql';
+
+-- ---------- vital_sample (TIMESTAMPTZ) ----------
+ALTER TABLE vital_sample RENAME TO vital_sample_unpartitioned;
+ALTER TABLE vital_sample_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER SEQUENCE IF EXISTS vital_sample_id_seq OWNED BY NONE;
+ALTER TABLE vital_sample_unpartitioned ALTER COLUMN id DROP DEFAULT;
+DROP INDEX IF EXISTS idx_vital_sample_patient_timestamp;
+DROP INDEX IF EXISTS idx_vital_sample_timestamp;
+CREATE SEQUENCE IF NOT EXISTS vital_sample_id_seq;
+
+CREATE TABLE vital_sample (
+    id BIGINT NOT NULL DEFAULT nextval('vital_sample_id_seq'),
+    patient_id BIGINT NOT NULL,
+    timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    heart_rate DOUBLE PRECISION,
+    spo2 DOUBLE PRECISION,
+    systolic INTEGER,
+    diastolic INTEGER,
+    weight DOUBLE PRECISION,
+    mood_value INTEGER CHECK (mood_value >= 1 AND mood_value <= 10),
+    pain_value INTEGER CHECK (pain_value >= 1 AND pain_value <= 10),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, timestamp),
+    CONSTRAINT fk_vital_sample_patient FOREIGN KEY (patient_id) REFERENCES patient(id) ON DELETE CASCADE
+) PARTITION BY RANGE (timestamp);
+ALTER SEQUENCE vital_sample_id_seq OWNED BY vital_sample.id;
+
+CREATE TABLE vital_sample_default PARTITION OF vital_sample DEFAULT;
+SELECT create_monthly_partitions('vital_sample',
+        COALESCE((SELECT MIN(timestamp) AT TIME ZONE 'UTC' FROM vital_sample_unpartitioned), now() AT TIME ZONE 'UTC')::date,
+        ((now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date);
+
+INSERT INTO vital_sample (id, patient_id, timestamp, heart_rate, spo2, systolic, diastolic, weight,
+                          mood_value, pain_value, created_at, updated_at)
+SELECT id, patient_id, timestamp, heart_rate, spo2, systolic, diastolic, weight,
+       mood_value, pain_value, created_at, updated_at
+FROM vital_sample_unpartitioned;
+DROP TABLE vital_sample_unpartitioned;
+SELECT setval('vital_sample_id_seq', COALESCE((SELECT MAX(id) FROM vital_sample), 0) + 1, false);
+
+CREATE INDEX idx_vital_sample_patient_timestamp ON vital_sample (patient_id, timestamp);
+CREATE INDEX brin_vital_sample_timestamp ON vital_sample USING brin (timestamp) WITH (pages_per_range = 32);
+
+-- ---------- wearable_metric (TIMESTAMP holding UTC) ----------
+ALTER TABLE wearable_metric RENAME TO wearable_metric_unpartitioned;
+ALTER SEQUENCE IF EXISTS wearable_metric_id_seq OWNED BY NONE;
+ALTER TABLE wearable_metric_unpartitioned ALTER COLUMN id DROP DEFAULT;
+DROP INDEX IF EXISTS idx_wearable_patient_time;
+DROP INDEX IF EXISTS uq_wearable_metric_patient_metric_time;
+CREATE SEQUENCE IF NOT EXISTS wearable_metric_id_seq;
+
+CREATE TABLE wearable_metric
+(
+    id              BIGINT           NOT NULL DEFAULT nextval('wearable_metric_id_seq'),
+    patient_user_id BIGINT           NOT NULL,
+    metric          VARCHAR(20)      NOT NULL CHECK (metric IN
+                                                     ('HEART_RATE', 'SPO2', 'TEMPERATURE',
+                                                      'BLOOD_PRESSURE_SYS', 'BLOOD_PRESSURE_DIA', 'WEIGHT',
+                                                      'STEPS')),
+    metric_value    DOUBLE PRECISION NOT NULL,
+    recorded_at     TIMESTAMP        NOT NULL,
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, recorded_at),
+    FOREIGN KEY (patient_user_id) REFERENCES users (id) ON DELETE CASCADE
+) PARTITION BY RANGE (recorded_at);
+ALTER SEQUENCE wearable_metric_id_seq OWNED BY wearable_metric.id;
+
+CREATE TABLE wearable_metric_default PARTITION OF wearable_metric DEFAULT;
+SELECT create_monthly_partitions('wearable_metric',
+        COALESCE((SELECT MIN(recorded_at) FROM wearable_metric_unpartitioned), now() AT TIME ZONE 'UTC')::date,
+        ((now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date);
+
+INSERT INTO wearable_metric (id, patient_user_id, metric, metric_value, recorded_at, created_at, updated_at)
+SELECT id, patient_user_id, metric, metric_value, recorded_at, created_at, updated_at
+FROM wearable_metric_unpartitioned;
+DROP TABLE wearable_metric_unpartitioned;
+SELECT setval('wearable_metric_id_seq', COALESCE((SELECT MAX(id) FROM wearable_metric), 0) + 1, false);
+
+CREATE UNIQUE INDEX uq_wearable_metric_patient_metric_time ON wearable_metric (patient_user_id, metric, recorded_at);
+CREATE INDEX idx_wearable_patient_time ON wearable_metric (patient_user_id, recorded_at);
+CREATE INDEX brin_wearable_metric_recorded_at ON wearable_metric USING brin (recorded_at) WITH (pages_per_range = 32);
+
+-- ---------- mood_pain_log (TIMESTAMP holding UTC) ----------
+ALTER TABLE mood_pain_log RENAME TO mood_pain_log_unpartitioned;
+ALTER SEQUENCE IF EXISTS mood_pain_log_id_seq OWNED BY NONE;
+ALTER TABLE mood_pain_log_unpartitioned ALTER COLUMN id DROP DEFAULT;
+DROP INDEX IF EXISTS idx_mood_pain_patient_timestamp;
+DROP INDEX IF EXISTS idx_mood_pain_timestamp;
+CREATE SEQUENCE IF NOT EXISTS mood_pain_log_id_seq;
+
+-- Pain uses the 0-10 scale introduced in V21 (the original 1-10 check was never dropped there)
+CREATE TABLE mood_pain_log (
+    id BIGINT NOT NULL DEFAULT nextval('mood_pain_log_id_seq'),
+    patient_id BIGINT NOT NULL,
+    mood_value INT NOT NULL CHECK (mood_value >= 1 AND mood_value <= 10),
+    pain_value INT NOT NULL CONSTRAINT chk_pain_value_0_10 CHECK (pain_value >= 0 AND pain_value <= 10),
+    note TEXT,
+    timestamp TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW(),
+    PRIMARY KEY (id, timestamp),
+    FOREIGN KEY (patient_id) REFERENCES patient(id) ON DELETE CASCADE
+) PARTITION BY RANGE (timestamp);
+ALTER SEQUENCE mood_pain_log_id_seq OWNED BY mood_pain_log.id;
+
+CREATE TABLE mood_pain_log_default PARTITION OF mood_pain_log DEFAULT;
+SELECT create_monthly_partitions('mood_pain_log',
+        COALESCE((SELECT MIN(timestamp) FROM mood_pain_log_unpartitioned), now() AT TIME ZONE 'UTC')::date,
+        ((now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date);
+
+INSERT INTO mood_pain_log (id, patient_id, mood_value, pain_value, note, timestamp, created_at, updated_at)
+SELECT id, patient_id, mood_value, pain_value, note, timestamp, created_at, updated_at
+FROM mood_pain_log_unpartitioned;
+DROP TABLE mood_pain_log_unpartitioned;
+SELECT setval('mood_pain_log_id_seq', COALESCE((SELECT MAX(id) FROM mood_pain_log), 0) + 1, false);
+
+CREATE INDEX idx_mood_pain_patient_timestamp ON mood_pain_log (patient_id, timestamp);
+CREATE INDEX brin_mood_pain_log_timestamp ON mood_pain_log USING brin (timestamp) WITH (pages_per_range = 32);
@@ -0,0 +1,31 @@
+-- V39: Linked wearable provider accounts and their incremental sync state.
+-- sync_cursor is the newest sample time already stored (UTC); each sync only asks the provider
+-- for data from there on. Every connection keeps a fixed offset within the sync interval, so
+-- syncs of many devices are spread evenly instead of all firing at the top of the hour.
+-- Due rows are leased with FOR UPDATE SKIP LOCKED, so several nodes can share the work.
+CREATE TABLE wearable_connection
+(
+    id                   BIGSERIAL PRIMARY KEY,
+    patient_user_id      BIGINT       NOT NULL,
+    provider             VARCHAR(20)  NOT NULL CHECK (provider IN ('FITBIT')),
+    external_user_id     VARCHAR(64),
+    access_token_enc     TEXT,
+    refresh_token_enc    TEXT,
+    token_expires_at     TIMESTAMP,
+    time_zone            VARCHAR(64),
+    sync_cursor          TIMESTAMP,
+    slot_offset_seconds  INTEGER      NOT NULL DEFAULT 0,
+    next_sync_at         TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    leased_by            VARCHAR(100),
+    lease_until          TIMESTAMP,
+    last_synced_at       TIMESTAMP,
+    consecutive_failures INTEGER      NOT NULL DEFAULT 0,
+    last_error           TEXT,
+    active               BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at           TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at           TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_wearable_connection_user_provider UNIQUE (patient_user_id, provider),
+    FOREIGN KEY (patient_user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_wearable_connection_due ON wearable_connection (next_sync_at) WHERE active;
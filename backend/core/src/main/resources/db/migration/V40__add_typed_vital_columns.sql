@@ -0,0 +1,33 @@
+-- V40: Typed numeric columns for vitals.
+-- vitals.value is free-form text ("120/80", "98.6 F"), so nothing could be aggregated in SQL.
+-- The parsed reading is now stored next to it in canonical units; new rows are parsed on save
+-- and existing rows are backfilled in chunks by VitalBackfillService (normalized_at IS NULL).
+
+-- The table was created by Hibernate before migrations covered it
+CREATE TABLE IF NOT EXISTS vitals (
+    id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    vital_type VARCHAR(255) NOT NULL,
+    value VARCHAR(255) NOT NULL,
+    unit VARCHAR(255),
+    recorded_at TIMESTAMP NOT NULL,
+    recorded_by BIGINT,
+    notes VARCHAR(255),
+    is_abnormal BOOLEAN,
+    created_at TIMESTAMP
+);
+
+ALTER TABLE vitals
+    ADD COLUMN IF NOT EXISTS canonical_type VARCHAR(32),
+    ADD COLUMN IF NOT EXISTS numeric_value DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS systolic INTEGER,
+    ADD COLUMN IF NOT EXISTS diastolic INTEGER,
+    ADD COLUMN IF NOT EXISTS canonical_unit VARCHAR(16),
+    ADD COLUMN IF NOT EXISTS normalized_at TIMESTAMP;
+
+-- Trend and threshold queries: one patient, one type, a time range
+CREATE INDEX IF NOT EXISTS idx_vitals_patient_type_recorded
+    ON vitals (patient_id, canonical_type, recorded_at);
+CREATE INDEX IF NOT EXISTS idx_vitals_patient_recorded ON vitals (patient_id, recorded_at DESC);
+-- Rows still waiting for the backfill; the index empties as it progresses
+CREATE INDEX IF NOT EXISTS idx_vitals_unnormalized ON vitals (id) WHERE normalized_at IS NULL;
@@ -0,0 +1,12 @@
+-- V41: Typed, indexed task dates.
+-- tasks.date held ISO strings ("2025-01-05" or "2025-01-05T00:00:00"), so calendar views loaded
+-- every task of a patient and parsed the string to filter a week. It is now a DATE (the time
+-- of day stays in time_of_day) and (patient_id, date, id) serves [from, to) range queries with
+-- keyset pagination on (date, id).
+
+-- Works whether Hibernate created the column as VARCHAR or V23 as TIMESTAMP
+ALTER TABLE tasks
+    ALTER COLUMN date TYPE DATE
+    USING CAST(NULLIF(substring(CAST(date AS TEXT) FROM 1 FOR 10), '') AS DATE);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_patient_date_id ON tasks (patient_id, date, id);
@@ -0,0 +1,36 @@
+-- V42: Lazy recurrence for task series.
+-- A series used to be written as one child row per occurrence, and every series edit diffed and
+-- rewrote all of them. The parent now holds the rule and occurrences are expanded per requested
+-- window; children are only stored for exceptions (completed, edited or cancelled occurrences),
+-- keyed by the rule date they replace.
+--
+-- Existing series keep their materialized children: recurrence_end stays NULL, so they are read
+-- as plain rows until the series is next edited, after which the children act as exceptions.
+
+ALTER TABLE tasks
+    ADD COLUMN IF NOT EXISTS parent_task_id BIGINT,
+    ADD COLUMN IF NOT EXISTS occurrence_date DATE,
+    ADD COLUMN IF NOT EXISTS cancelled BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN IF NOT EXISTS recurrence_until DATE,
+    ADD COLUMN IF NOT EXISTS recurrence_end DATE,
+    ADD COLUMN IF NOT EXISTS reminders_through DATE;
+
+UPDATE tasks SET occurrence_date = date
+WHERE parent_task_id IS NOT NULL AND occurrence_date IS NULL;
+
+-- Series overlapping a window, per patient
+CREATE INDEX IF NOT EXISTS idx_tasks_series_patient_date
+    ON tasks (patient_id, date) WHERE recurrence_end IS NOT NULL;
+-- Exceptions of a series in a window
+CREATE INDEX IF NOT EXISTS idx_tasks_parent_occurrence ON tasks (parent_task_id, occurrence_date);
+
+-- Reminders materialized for one occurrence of a series parent; the table may be created by
+-- Hibernate rather than a migration, as in V35 and V43.
+DO $$
+BEGIN
+    IF to_regclass('scheduled_notification') IS NOT NULL THEN
+        ALTER TABLE scheduled_notification ADD COLUMN IF NOT EXISTS occurrence_date DATE;
+        CREATE INDEX IF NOT EXISTS idx_scheduled_notification_task_occurrence
+            ON scheduled_notification (task_id, occurrence_date);
+    END IF;
+END $$;
@@ -0,0 +1,38 @@
+-- V43: Pooled sequence ids for the high-volume entities.
+-- Task, ScheduledNotification, ChatMessage, VitalSample and MoodPainLog used IDENTITY ids, which
+-- makes Hibernate insert each row on its own to read the generated key, so
+-- hibernate.jdbc.batch_size never applied to them. They now take ids from a sequence with the
+-- pooled optimizer: each nextval hands out a block of 50 ids (value - 49 .. value), so the
+-- sequences must step by 50 and restart above the current maximum.
+--
+-- The column defaults still draw from the same sequences, so plain SQL inserts stay unique; each
+-- one just consumes a whole block.
+
+-- tasks and chat_messages are BIGSERIAL; vital_sample and mood_pain_log got explicit sequences in V38.
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
+SELECT setval('tasks_id_seq', COALESCE((SELECT MAX(id) FROM tasks), 0) + 50, false);
+
+ALTER SEQUENCE chat_messages_id_seq INCREMENT BY 50;
+SELECT setval('chat_messages_id_seq', COALESCE((SELECT MAX(id) FROM chat_messages), 0) + 50, false);
+
+ALTER SEQUENCE vital_sample_id_seq INCREMENT BY 50;
+SELECT setval('vital_sample_id_seq', COALESCE((SELECT MAX(id) FROM vital_sample), 0) + 50, false);
+
+ALTER SEQUENCE mood_pain_log_id_seq INCREMENT BY 50;
+SELECT setval('mood_pain_log_id_seq', COALESCE((SELECT MAX(id) FROM mood_pain_log), 0) + 50, false);
+
+-- scheduled_notification may have been created by Hibernate with an identity column; replace it
+-- with a plain sequence default.
+DO $$
+BEGIN
+    IF to_regclass('scheduled_notification') IS NOT NULL THEN
+        ALTER TABLE scheduled_notification ALTER COLUMN id DROP IDENTITY IF EXISTS;
+        CREATE SEQUENCE IF NOT EXISTS scheduled_notification_id_seq;
+        ALTER SEQUENCE scheduled_notification_id_seq INCREMENT BY 50 OWNED BY scheduled_notification.id;
+        ALTER TABLE scheduled_notification ALTER COLUMN id SET DEFAULT nextval('scheduled_notification_id_seq');
+        PERFORM setval('scheduled_notification_id_seq',
+                       COALESCE((SELECT MAX(id) FROM scheduled_notification), 0) + 50, false);
+    ELSE
+        CREATE SEQUENCE IF NOT EXISTS scheduled_notification_id_seq INCREMENT BY 50 START WITH 50;
+    END IF;
+END $$;
@@ -0,0 +1,8 @@
+-- V44: Widen the typed vitals columns to the width of the columns they are parsed from.
+-- Types and units the parser does not know are copied through (trimmed, case-folded), so a
+-- legacy vital_type or unit longer than 32/16 characters overflowed canonical_type or
+-- canonical_unit and failed the whole backfill chunk it was in.
+
+ALTER TABLE vitals
+    ALTER COLUMN canonical_type TYPE VARCHAR(255),
+    ALTER COLUMN canonical_unit TYPE VARCHAR(255);
@@ -166,7 +166,7 @@ class TaskControllerV2Test {
                 .taskType(sampleTask.getTaskType())
                 .build();
 
-        Mockito.when(taskService.updateCompletionStatus(1L, true)).thenReturn(updated);
+        Mockito.when(taskService.updateCompletionStatus(1L, true, null)).thenReturn(updated);
 
         mockMvc.perform(put("/v2/api/tasks/1/complete")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -187,6 +187,6 @@ class TaskControllerV2Test {
                 .param("deleteSeries", "false"))
                 .andExpect(status().isNoContent());
 
-        Mockito.verify(taskService).deleteTask(1L, false);
+        Mockito.verify(taskService).deleteTask(1L, false, null);
     }
 }
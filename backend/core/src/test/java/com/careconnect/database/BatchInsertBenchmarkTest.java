@@ -0,0 +1,176 @@
+package com.careconnect.database;
+
+import com.careconnect.model.ChatConversation;
+import com.careconnect.model.ChatMessage;
+import com.careconnect.model.Patient;
+import com.careconnect.model.ScheduledNotification;
+import com.careconnect.model.Task;
+import com.careconnect.repository.ChatMessageRepository;
+import com.careconnect.repository.ScheduledNotificationRepository;
+import com.careconnect.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC statements and time spent inserting {@link Task}, {@link ScheduledNotification} and
+ * {@link ChatMessage} rows through their repositories, one row per flush versus {@code saveAll}.
+ *
+ * <p>
+ * "Before" flushes after every row, so each insert is its own round trip, as it was while the
+ * ids were IDENTITY columns and Hibernate had to execute each insert to read its key. "After"
+ * calls {@code saveAll} and flushes once, which with pooled sequence ids (V43) goes out in
+ * batches of {@code hibernate.jdbc.batch_size}. Statements are counted with Hibernate statistics;
+ * every run is rolled back, so only sequence values are used up. Runs against the dev PostgreSQL
+ * database, which must hold at least one patient, task and chat conversation, only with
+ * {@code -Dbenchmark=true}.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchInsertBenchmarkTest {
+
+    private static final int ROWS = 2_000;
+    private static final int WARMUP_ROWS = 200;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ScheduledNotificationRepository notificationRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Statistics statistics;
+    private TransactionTemplate transaction;
+    private Long patientId;
+    private Long taskId;
+    private Long conversationId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transaction = new TransactionTemplate(transactionManager);
+        patientId = jdbc.queryForObject("SELECT MIN(id) FROM patient", Long.class);
+        taskId = jdbc.queryForObject("SELECT MIN(id) FROM tasks", Long.class);
+        conversationId = jdbc.queryForObject("SELECT MIN(id) FROM chat_conversations", Long.class);
+        assertNotNull(patientId, "No patient to attach tasks to");
+        assertNotNull(taskId, "No task to attach notifications to");
+        assertNotNull(conversationId, "No conversation to attach messages to");
+    }
+
+    @Test
+    @DisplayName("saveAll should insert entities in batches instead of one statement per row")
+    void benchmarkEntityInserts() {
+        compare("Task", this::task, taskRepository);
+        compare("ScheduledNotification", this::notification, notificationRepository);
+        compare("ChatMessage", this::message, chatMessageRepository);
+    }
+
+    private <T> void compare(String entity, IntFunction<T> row, JpaRepository<T, Long> repository) {
+        Consumer<List<T>> oneByOne = rows -> rows.forEach(repository::saveAndFlush);
+        Consumer<List<T>> saveAll = rows -> {
+            repository.saveAll(rows);
+            repository.flush();
+        };
+        run(row, WARMUP_ROWS, oneByOne);
+        run(row, WARMUP_ROWS, saveAll);
+
+        Sample before = run(row, ROWS, oneByOne);
+        Sample after = run(row, ROWS, saveAll);
+
+        System.out.printf("%-22s row by row: %,6d statements, %,7d ms%n", entity, before.statements(), before.millis());
+        System.out.printf("%-22s saveAll   : %,6d statements, %,7d ms (%.1fx faster)%n",
+                entity, after.statements(), after.millis(), (double) before.nanos() / after.nanos());
+        assertTrue(after.statements() * 10 < before.statements(),
+                entity + " inserts should be batched, got " + after.statements() + " statements for " + ROWS + " rows");
+    }
+
+    /** Inserts {@code count} fresh rows in one transaction that is rolled back */
+    private <T> Sample run(IntFunction<T> row, int count, Consumer<List<T>> insert) {
+        return transaction.execute(status -> {
+            List<T> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(row.apply(i));
+            }
+            statistics.clear();
+            long start = System.nanoTime();
+            insert.accept(rows);
+            long nanos = System.nanoTime() - start;
+            long statements = statistics.getPrepareStatementCount();
+            status.setRollbackOnly();
+            entityManager.clear();
+            return new Sample(statements, nanos);
+        });
+    }
+
+    private Task task(int i) {
+        return Task.builder()
+                .patient(entityManager.getReference(Patient.class, patientId))
+                .name("Benchmark task " + i)
+                .date(LocalDate.now().plusDays(i % 30))
+                .taskType("General")
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private ScheduledNotification notification(int i) {
+        return ScheduledNotification.builder()
+                .task(entityManager.getReference(Task.class, taskId))
+                .receiverId(patientId)
+                .title("Reminder " + i)
+                .body("Benchmark reminder")
+                .notificationType("REMINDER")
+                .scheduledTime(LocalDateTime.now().plusMinutes(i))
+                .build();
+    }
+
+    private ChatMessage message(int i) {
+        return ChatMessage.builder()
+                .conversation(entityManager.getReference(ChatConversation.class, conversationId))
+                .messageType(ChatMessage.MessageType.USER)
+                .content("Benchmark message " + i)
+                .build();
+    }
+
+    private record Sample(long statements, long nanos) {
+        long millis() {
+            return nanos / 1_000_000;
+        }
+    }
+}
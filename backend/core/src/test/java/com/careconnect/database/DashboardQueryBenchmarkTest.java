@@ -0,0 +1,129 @@
+package com.careconnect.database;
+
+import com.careconnect.repository.DashboardAggregateRepository;
+import com.careconnect.repository.SummaryMetricRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of the dashboard queries before and after they were folded into single statements.
+ *
+ * <p>
+ * "Before" replays, in plain JDBC, the statements the dashboard used to issue: on the live path
+ * the patient lookup, two symptom counts, five wearable averages and four mood/pain aggregates;
+ * on the rollup path the patient lookup followed by the bucket sum. "After" calls
+ * {@link DashboardAggregateRepository#aggregate} and
+ * {@link SummaryMetricRollupRepository#sumForPatient}. Runs read-only against the dev PostgreSQL
+ * database, only with {@code -Dbenchmark=true}; {@code -Dbenchmark.patientId} picks the patient,
+ * otherwise the one with the most wearable readings is used.
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("dev")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DashboardQueryBenchmarkTest {
+
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+    private static final List<String> VITALS =
+            List.of("HEART_RATE", "SPO2", "BLOOD_PRESSURE_SYS", "BLOOD_PRESSURE_DIA", "WEIGHT");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DashboardAggregateRepository dashboardAggregateRepository;
+
+    @Autowired
+    private SummaryMetricRollupRepository rollupRepository;
+
+    @Test
+    @DisplayName("Single-statement dashboards should need fewer round trips than the per-figure queries")
+    void benchmarkDashboardQueries() {
+        Long patientId = patientId();
+        assertNotNull(patientId, "No patient to benchmark");
+        Instant to = Instant.now();
+        Instant from = to.minus(30, ChronoUnit.DAYS);
+        Timestamp fromTs = Timestamp.valueOf(LocalDateTime.ofInstant(from, ZoneOffset.UTC));
+        Timestamp toTs = Timestamp.valueOf(LocalDateTime.ofInstant(to, ZoneOffset.UTC));
+        LocalDateTime hourFrom = LocalDateTime.ofInstant(from, ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourTo = LocalDateTime.ofInstant(to, ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime dayFrom = hourFrom.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime dayTo = hourTo.truncatedTo(ChronoUnit.DAYS);
+
+        long liveBefore = time(() -> livePerFigure(patientId, fromTs, toTs));
+        long liveAfter = time(() -> dashboardAggregateRepository.aggregate(patientId, from, to));
+        long rollupBefore = time(() -> {
+            Long userId = jdbc.queryForObject("SELECT user_id FROM patient WHERE id = ?", Long.class, patientId);
+            rollupRepository.sum(userId, hourFrom, dayFrom, dayTo, hourTo);
+        });
+        long rollupAfter = time(() -> rollupRepository.sumForPatient(patientId, hourFrom, dayFrom, dayTo, hourTo));
+
+        assertTrue(dashboardAggregateRepository.aggregate(patientId, from, to).isPresent());
+
+        report("Live, per figure (12 statements)", liveBefore);
+        report("Live, one statement", liveAfter);
+        report("Rollup, lookup + sum (2 statements)", rollupBefore);
+        report("Rollup, one statement", rollupAfter);
+        System.out.printf("Speed-up: live %.1fx, rollup %.1fx%n",
+                (double) liveBefore / liveAfter, (double) rollupBefore / rollupAfter);
+    }
+
+    private void livePerFigure(Long patientId, Timestamp from, Timestamp to) {
+        Long userId = jdbc.queryForObject("SELECT user_id FROM patient WHERE id = ?", Long.class, patientId);
+        jdbc.queryForObject("SELECT COUNT(*) FROM symptom_entry WHERE patient_id = ? AND completed "
+                + "AND taken_at BETWEEN ? AND ?", Long.class, patientId, from, to);
+        jdbc.queryForObject("SELECT COUNT(*) FROM symptom_entry WHERE patient_id = ? "
+                + "AND taken_at BETWEEN ? AND ?", Long.class, patientId, from, to);
+        for (String metric : VITALS) {
+            jdbc.queryForObject("SELECT AVG(metric_value) FROM wearable_metric WHERE patient_user_id = ? "
+                    + "AND metric = ? AND recorded_at BETWEEN ? AND ?", Double.class, userId, metric, from, to);
+        }
+        for (String aggregate : List.of("AVG(mood_value)", "AVG(pain_value)", "COUNT(mood_value)", "COUNT(pain_value)")) {
+            jdbc.queryForObject("SELECT " + aggregate + " FROM mood_pain_log WHERE patient_id = ? "
+                    + "AND timestamp BETWEEN ? AND ?", Double.class, patientId, from, to);
+        }
+    }
+
+    private Long patientId() {
+        String configured = System.getProperty("benchmark.patientId");
+        if (configured != null) {
+            return Long.valueOf(configured);
+        }
+        return jdbc.query("""
+                SELECT p.id FROM patient p
+                LEFT JOIN wearable_metric w ON w.patient_user_id = p.user_id
+                GROUP BY p.id ORDER BY COUNT(w.id) DESC LIMIT 1
+                """, rs -> rs.next() ? rs.getLong(1) : null);
+    }
+
+    /** Nanoseconds per call, after warming up plan caches and the JIT */
+    private static long time(Runnable call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static void report(String label, long nanosPerCall) {
+        System.out.printf("%-38s: %,8.3f ms per dashboard%n", label, nanosPerCall / 1e6);
+    }
+}
@@ -0,0 +1,175 @@
+package com.careconnect.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.ExportConfig;
+import com.careconnect.dto.DashboardDTO;
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.model.Patient;
+import com.careconnect.model.User;
+import com.careconnect.repository.DashboardAggregateRepository;
+import com.careconnect.repository.MoodPainLogRepository;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.SummaryMetricRollupRepository.DayTotals;
+import com.careconnect.repository.SummaryMetricRollupRepository.RollupTotals;
+import com.careconnect.repository.UserRepository;
+import com.careconnect.repository.VitalAggregateRepository;
+import com.careconnect.repository.VitalDownsampleRepository;
+import com.careconnect.repository.VitalExportRepository;
+import com.careconnect.repository.VitalExportRepository.ExportRow;
+import com.careconnect.repository.WearableMetricRepository;
+import com.careconnect.service.analytics.SummaryRollupService;
+import com.careconnect.service.analytics.VitalDownsampler;
+import com.careconnect.service.analytics.VitalSeriesCache;
+
+/**
+ * Unit tests for {@link AnalyticsService} exports.
+ */
+class AnalyticsServiceTest {
+
+    private static final Long PATIENT_ID = 2L;
+    private static final Long PATIENT_USER_ID = 20L;
+
+    @Mock private WearableMetricRepository wearableRepo;
+    @Mock private SummaryRollupService summaryRollupService;
+    @Mock private DashboardAggregateRepository dashboardAggregateRepo;
+    @Mock private VitalSeriesCache vitalSeriesCache;
+    @Mock private VitalDownsampler vitalDownsampler;
+    @Mock private VitalDownsampleRepository vitalDownsampleRepo;
+    @Mock private VitalExportRepository vitalExportRepo;
+    @Mock private MoodPainLogRepository moodPainLogRepo;
+    @Mock private PatientRepository patientRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private ExportSigner exportSigner;
+    @Mock private VitalAggregateRepository vitalAggregateRepo;
+
+    private ExportConfig exportConfig;
+    private AnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportConfig = new ExportConfig();
+        service = new AnalyticsService(wearableRepo, summaryRollupService, dashboardAggregateRepo,
+                vitalSeriesCache, vitalDownsampler, vitalDownsampleRepo, vitalExportRepo, exportConfig,
+                moodPainLogRepo, patientRepo, userRepo, exportSigner, vitalAggregateRepo);
+
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        patient.setUser(User.builder().id(PATIENT_USER_ID).build());
+        when(patientRepo.findById(PATIENT_ID)).thenReturn(Optional.of(patient));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamRows(int samples) {
+        doAnswer(inv -> {
+            Consumer<ExportRow> sink = inv.getArgument(5);
+            long t0 = Instant.parse("2025-03-01T00:00:00Z").toEpochMilli();
+            for (int i = 0; i < samples; i++) {
+                sink.accept(new ExportRow(t0 + i * 60_000L, "HEART_RATE", 70 + i % 5));
+                sink.accept(new ExportRow(t0 + i * 60_000L, "SPO2", 97));
+            }
+            return (long) samples * 2;
+        }).when(vitalExportRepo).streamVitals(eq(PATIENT_ID), eq(PATIENT_USER_ID), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Dashboard from rollups resolves the patient inside the rollup query")
+    void getDashboard_rollupsWithoutPatientLookup() {
+        when(summaryRollupService.isEnabled()).thenReturn(true);
+        when(summaryRollupService.totalsForPatient(eq(PATIENT_ID), any(), any())).thenReturn(Optional.of(
+                new RollupTotals(4, 3, 720, 10, 0, 0, 0, 0, 0, 0, 0, 0, 12, 2, 0, 0)));
+
+        DashboardDTO dashboard = service.getDashboard(PATIENT_ID, Period.ofDays(7));
+
+        assertEquals(75.0, dashboard.adherenceRate());
+        assertEquals(72.0, dashboard.avgHeartRate());
+        assertEquals(6.0, dashboard.avgMood());
+        verify(patientRepo, never()).findById(any());
+        verify(dashboardAggregateRepo, never()).aggregate(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Long windows the series cache holds are downsampled from the cache, not bucketed in SQL")
+    void getVitals_longWindowFromCache() {
+        List<VitalSampleDTO> cached = List.of(VitalSampleDTO.builder().heartRate(70.0).build());
+        when(vitalDownsampler.resolvePoints(any(), any(), any(), any())).thenReturn(500);
+        when(vitalDownsampler.inMemory(any(), any())).thenReturn(false);
+        when(vitalSeriesCache.isEnabled()).thenReturn(true);
+        when(vitalSeriesCache.covers(any(), any())).thenReturn(true);
+        when(vitalSeriesCache.range(eq(PATIENT_ID), eq(PATIENT_USER_ID), any(), any())).thenReturn(cached);
+        when(vitalDownsampler.lttb(cached, 500)).thenReturn(cached);
+
+        assertEquals(cached, service.getVitals(PATIENT_ID, Period.ofDays(60), 500, null));
+        verify(vitalDownsampleRepo, never()).wearableBuckets(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("CSV rows are written as the cursor is read, one line per timestamp")
+    void writeVitalsCsv_streamsMergedRows() throws Exception {
+        streamRows(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = service.writeVitalsCsv(PATIENT_ID, Period.ofDays(7), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals("timestamp,heartRate,spo2,systolic,diastolic,weight,moodValue,painValue", lines[0]);
+        assertEquals("2025-03-01T00:00:00Z,70.0,97.0,null,null,null,null,null", lines[1]);
+    }
+
+    @Test
+    @DisplayName("Long PDF reports are rendered in chunks across many pages")
+    void writeVitalsPdf_rendersInChunks() {
+        exportConfig.setPdfChunkRows(50);
+        streamRows(2_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeVitalsPdf(PATIENT_ID, Period.ofDays(7), false, out);
+
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF"));
+        assertTrue(pdf.contains("/Count "));
+        assertTrue(pdf.split("/Type\\s*/Page\\b").length > 20, "expected many pages");
+    }
+
+    @Test
+    @DisplayName("Summary PDFs list daily rollups instead of raw samples")
+    void writeVitalsPdf_summaryUsesRollups() {
+        when(summaryRollupService.isEnabled()).thenReturn(true);
+        RollupTotals totals = new RollupTotals(0, 0, 720, 10, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        when(summaryRollupService.dailyTotals(eq(PATIENT_USER_ID), any(), any()))
+                .thenReturn(List.of(new DayTotals(LocalDate.parse("2025-03-01"), totals)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeVitalsPdf(PATIENT_ID, Period.ofDays(30), true, out);
+
+        assertTrue(out.toString(StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+        verify(vitalExportRepo, never()).streamVitals(any(), any(), any(), any(), anyInt(), any());
+    }
+}
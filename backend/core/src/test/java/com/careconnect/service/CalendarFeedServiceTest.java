@@ -0,0 +1,179 @@
+package com.careconnect.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.CalendarFeedConfig;
+import com.careconnect.model.Caregiver;
+import com.careconnect.model.Patient;
+import com.careconnect.model.Task;
+import com.careconnect.model.User;
+import com.careconnect.model.schedule.ScheduledVisit;
+import com.careconnect.repository.CaregiverPatientLinkRepository;
+import com.careconnect.repository.CaregiverRepository;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.TaskRepository;
+import com.careconnect.repository.schedule.ScheduledVisitRepository;
+import com.careconnect.service.calendar.CalendarFeedService;
+import com.careconnect.service.calendar.CalendarFeedService.CalendarFeed;
+import com.careconnect.util.TaskMapper;
+
+/**
+ * Unit tests for {@link CalendarFeedService}.
+ */
+class CalendarFeedServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ScheduledVisitRepository visitRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private CaregiverRepository caregiverRepository;
+
+    @Mock
+    private CaregiverPatientLinkRepository linkRepository;
+
+    private CalendarFeedService service;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new CalendarFeedService(taskRepository, visitRepository, patientRepository, caregiverRepository,
+                linkRepository, new CalendarFeedConfig());
+        patient = Patient.builder().id(5L).firstName("Ada").lastName("Lovelace").build();
+        when(patientRepository.findById(5L)).thenReturn(Optional.of(patient));
+        when(visitRepository.findByPatientId(5L)).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("series should be one event with RRULE, EXDATE for cancelled and RECURRENCE-ID for edited occurrences")
+    void testPatientFeed_series() {
+        Task parent = Task.builder().id(1L).patient(patient).name("Walk").timeOfDay("08:00")
+                .date(LocalDate.of(2025, 1, 1)).frequency("weekly").taskInterval(1)
+                .daysOfWeek(TaskMapper.serializeDays(List.of(false, true, false, true, false, false, false)))
+                .recurrenceUntil(LocalDate.of(2025, 1, 29)).recurrenceEnd(LocalDate.of(2025, 1, 29))
+                .createdAt(0L).build();
+        Task cancelled = Task.builder().id(2L).patient(patient).name("Walk").timeOfDay("08:00")
+                .date(LocalDate.of(2025, 1, 6)).parentTaskId(1L).occurrenceDate(LocalDate.of(2025, 1, 6))
+                .cancelled(true).build();
+        Task completed = Task.builder().id(3L).patient(patient).name("Walk").timeOfDay("09:30")
+                .date(LocalDate.of(2025, 1, 8)).parentTaskId(1L).occurrenceDate(LocalDate.of(2025, 1, 8))
+                .isCompleted(true).build();
+        when(taskRepository.findByPatientId(5L)).thenReturn(Optional.of(List.of(completed, parent, cancelled)));
+
+        String body = service.patientFeed(5L).body();
+
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(body.contains("X-WR-CALNAME:Care calendar: Ada Lovelace\r\n"));
+        assertTrue(body.contains("DTSTART:20250101T080000\r\n"));
+        assertTrue(body.contains("RRULE:FREQ=WEEKLY;BYDAY=MO,WE;WKST=MO;UNTIL=20250129T080000\r\n"));
+        assertTrue(body.contains("EXDATE:20250106T080000\r\n"));
+        assertTrue(body.contains("RECURRENCE-ID:20250108T080000\r\nDTSTAMP:"));
+        assertTrue(body.contains("DTSTART:20250108T093000\r\n"));
+        assertTrue(body.contains("X-CARECONNECT-COMPLETED:TRUE\r\n"));
+        assertEquals(2, body.split("BEGIN:VEVENT", -1).length - 1);
+        assertTrue(body.endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    @DisplayName("monthly series from a late month day should fall on the last day of shorter months")
+    void testPatientFeed_monthlyEndOfMonth() {
+        Task parent = Task.builder().id(1L).patient(patient).name("Refill")
+                .date(LocalDate.of(2025, 1, 31)).frequency("monthly").taskInterval(1).doCount(3)
+                .recurrenceEnd(LocalDate.of(2025, 3, 31)).build();
+        when(taskRepository.findByPatientId(5L)).thenReturn(Optional.of(List.of(parent)));
+
+        String body = service.patientFeed(5L).body();
+
+        assertTrue(body.contains("DTSTART;VALUE=DATE:20250131\r\n"));
+        assertTrue(body.contains("RRULE:FREQ=MONTHLY;BYMONTHDAY=28,29,30,31;BYSETPOS=-1;UNTIL=20250331\r\n"));
+    }
+
+    @Test
+    @DisplayName("visits should be timed events with their duration and status")
+    void testPatientFeed_visit() {
+        ScheduledVisit visit = new ScheduledVisit();
+        visit.setId(7L);
+        visit.setCaregiverId(3L);
+        visit.setPatientId(5L);
+        visit.setServiceType("Home check");
+        visit.setScheduledDate(LocalDate.of(2025, 2, 3));
+        visit.setScheduledTime(LocalTime.of(14, 15));
+        visit.setDurationMinutes(45);
+        visit.markCancelled();
+        when(taskRepository.findByPatientId(5L)).thenReturn(Optional.empty());
+        when(visitRepository.findByPatientId(5L)).thenReturn(List.of(visit));
+
+        String body = service.patientFeed(5L).body();
+
+        assertTrue(body.contains("UID:visit-7@careconnect\r\n"));
+        assertTrue(body.contains("DTSTART:20250203T141500\r\nDURATION:PT45M\r\n"));
+        assertTrue(body.contains("STATUS:CANCELLED\r\n"));
+    }
+
+    @Test
+    @DisplayName("feed should be cached until invalidated and keep its ETag and Last-Modified if unchanged")
+    void testPatientFeed_caching() {
+        Task task = Task.builder().id(1L).patient(patient).name("Walk").date(LocalDate.of(2025, 1, 1)).build();
+        when(taskRepository.findByPatientId(5L)).thenReturn(Optional.of(List.of(task)));
+
+        CalendarFeed first = service.patientFeed(5L);
+        assertSame(first, service.patientFeed(5L));
+        verify(taskRepository, times(1)).findByPatientId(5L);
+
+        service.invalidatePatient(5L);
+        CalendarFeed rebuilt = service.patientFeed(5L);
+        verify(taskRepository, times(2)).findByPatientId(5L);
+        assertEquals(first.etag(), rebuilt.etag());
+        assertEquals(first.lastModified(), rebuilt.lastModified());
+
+        task.setName("Walk outside");
+        service.invalidatePatient(5L);
+        CalendarFeed changed = service.patientFeed(5L);
+        assertFalse(first.etag().equals(changed.etag()));
+        assertTrue(changed.body().contains("SUMMARY:Walk outside\r\n"));
+    }
+
+    @Test
+    @DisplayName("caregiver feed should be rebuilt after one of the caregiver's links changed")
+    void testCaregiverFeed_invalidatedByUser() {
+        User user = User.builder().id(40L).build();
+        Caregiver caregiver = Caregiver.builder().id(4L).user(user).firstName("Grace").lastName("Hopper").build();
+        when(caregiverRepository.findById(4L)).thenReturn(Optional.of(caregiver));
+        when(caregiverRepository.findByUserId(40L)).thenReturn(Optional.of(caregiver));
+        when(linkRepository.findActivePatientsByCaregiver(eq(user), any())).thenReturn(List.of());
+        when(visitRepository.findByCaregiverId(4L)).thenReturn(List.of());
+
+        CalendarFeed first = service.caregiverFeed(4L);
+        assertSame(first, service.caregiverFeed(4L));
+
+        service.invalidateCaregiverUser(40L);
+        service.caregiverFeed(4L);
+        verify(caregiverRepository, times(2)).findById(4L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.careconnect.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import com.careconnect.config.NotificationLogConfig;
+import com.careconnect.repository.NotificationLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link NotificationLogService}.
+ */
+class NotificationLogServiceTest {
+
+    @Mock
+    private NotificationLogRepository notificationLogRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbc;
+
+    private NotificationLogService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        NotificationLogConfig config = new NotificationLogConfig();
+        config.setBatchSize(2);
+        service = new NotificationLogService(notificationLogRepository, jdbc, new ObjectMapper(), config);
+        when(notificationLogRepository.findMaxSeqByUserId(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("a failed batch should be re-queued and written by the next flush")
+    void testFlush_failedBatchRequeued() {
+        for (int i = 0; i < 3; i++) {
+            service.append("7", Map.of("type", "REMINDER", "n", i));
+        }
+        List<Long> written = new ArrayList<>();
+        when(jdbc.batchUpdate(anyString(), any(SqlParameterSource[].class)))
+                .thenAnswer(invocation -> record(invocation.getArgument(1), written))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenAnswer(invocation -> record(invocation.getArgument(1), written));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.flush());
+        assertEquals(List.of(1L, 2L), written);
+
+        service.flush();
+        assertEquals(List.of(1L, 2L, 3L), written);
+        verify(jdbc, times(3)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    @DisplayName("sequences should continue from the highest logged seq after a restart")
+    void testSeedSequences() {
+        NotificationLogRepository.UserSeq seed = mock(NotificationLogRepository.UserSeq.class);
+        when(seed.getUserId()).thenReturn(7L);
+        when(seed.getMaxSeq()).thenReturn(41L);
+        when(notificationLogRepository.findMaxSeqPerUser()).thenReturn(List.of(seed));
+
+        service.seedSequences();
+
+        assertEquals(41L, service.currentSeq("7"));
+        assertEquals(42L, service.append("7", Map.of("type", "REMINDER")).get("seq"));
+        assertEquals(43L, service.append("7", Map.of("type", "REMINDER")).get("seq"));
+        assertEquals(1L, service.append("8", Map.of("type", "REMINDER")).get("seq"));
+    }
+
+    private static int[] record(SqlParameterSource[] batch, List<Long> written) {
+        for (SqlParameterSource params : batch) {
+            written.add((Long) params.getValue("seq"));
+        }
+        return new int[batch.length];
+    }
+}
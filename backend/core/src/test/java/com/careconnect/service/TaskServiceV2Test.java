@@ -6,12 +6,17 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -20,13 +25,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import com.careconnect.dto.v2.TaskDtoV2;
+import com.careconnect.exception.AppException;
 import com.careconnect.exception.TaskNotFoundException;
 import com.careconnect.model.Patient;
 import com.careconnect.model.Task;
 import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.ScheduledNotificationRepository;
 import com.careconnect.repository.TaskRepository;
+import com.careconnect.service.calendar.CalendarFeedService;
 import com.careconnect.service.v2.TaskServiceV2;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -43,15 +55,24 @@ class TaskServiceV2Test {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private ScheduledNotificationRepository notificationRepository;
+
+    @Mock
+    private CalendarFeedService calendarFeedService;
+
     @InjectMocks
     private TaskServiceV2 taskService;
 
     private ObjectMapper mapper = new ObjectMapper();
 
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        taskService = new TaskServiceV2(taskRepository, patientRepository, mapper);
+        taskService = new TaskServiceV2(taskRepository, patientRepository, notificationRepository, mapper,
+                calendarFeedService);
     }
 
     // --------------------------------------------------------------------------
@@ -83,17 +104,131 @@ class TaskServiceV2Test {
     // getTasksByPatient
     // --------------------------------------------------------------------------
     @Test
-    @DisplayName("getTasksByPatient should map entity list to DTOs")
+    @DisplayName("getTasksByPatient should map projected rows to DTOs with their reminder templates")
     void testGetTasksByPatient() {
-        Task t1 = Task.builder().id(1L).name("Check Vitals").build();
-        Task t2 = Task.builder().id(2L).name("Take Medication").build();
-        when(taskRepository.findByPatientId(5L)).thenReturn(Optional.of(List.of(t1, t2)));
+        TaskRepository.TaskRow t1 = row(1L, "Check Vitals", LocalDate.of(2025, 1, 1), Map.of());
+        TaskRepository.TaskRow t2 = row(2L, "Take Medication", LocalDate.of(2025, 1, 2), Map.of());
+        when(taskRepository.findRowsByPatientId(5L)).thenReturn(List.of(t2, t1));
+        when(notificationRepository.findTemplatesByPatientId(5L)).thenReturn(List.of(
+                template(2L, LocalDateTime.of(2025, 1, 2, 9, 0))));
 
         List<TaskDtoV2> dtos = taskService.getTasksByPatient(5L);
 
         assertEquals(2, dtos.size());
         assertEquals("Check Vitals", dtos.get(0).getName());
-        verify(taskRepository).findByPatientId(5L);
+        assertEquals(5L, dtos.get(0).getPatientId());
+        assertTrue(dtos.get(0).getNotifications().isEmpty());
+        assertEquals("2025-01-02T09:00", dtos.get(1).getNotifications().get(0).getScheduledTime());
+        verify(taskRepository, never()).findByPatientId(any());
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("getTasksByPatient should expand projected series rows except stored exceptions")
+    void testGetTasksByPatient_series() {
+        TaskRepository.TaskRow parent = row(10L, "Walk", LocalDate.of(2025, 1, 1), Map.of(
+                "frequency", "daily", "taskInterval", 1, "doCount", 3,
+                "recurrenceEnd", LocalDate.of(2025, 1, 3)));
+        TaskRepository.TaskRow cancelled = row(11L, "Walk", LocalDate.of(2025, 1, 2), Map.of(
+                "parentTaskId", 10L, "occurrenceDate", LocalDate.of(2025, 1, 2), "cancelled", true));
+        when(taskRepository.findRowsByPatientId(5L)).thenReturn(List.of(parent, cancelled));
+        when(notificationRepository.findTemplatesByPatientId(5L)).thenReturn(List.of(
+                template(10L, LocalDateTime.of(2025, 1, 1, 8, 0))));
+
+        List<TaskDtoV2> dtos = taskService.getTasksByPatient(5L);
+
+        assertEquals(2, dtos.size());
+        assertEquals("2025-01-01", dtos.get(0).getOccurrenceDate());
+        assertEquals("2025-01-03", dtos.get(1).getOccurrenceDate());
+        assertEquals(10L, dtos.get(1).getId());
+        assertEquals("2025-01-03T08:00", dtos.get(1).getNotifications().get(0).getScheduledTime());
+    }
+
+    @Test
+    @DisplayName("getTasksByPatient should stop expanding a long series at the listing horizon")
+    void testGetTasksByPatient_seriesCappedAtHorizon() {
+        LocalDate today = LocalDate.now();
+        TaskRepository.TaskRow daily = row(10L, "Walk", today, Map.of(
+                "frequency", "daily", "taskInterval", 1,
+                "recurrenceUntil", LocalDate.of(2099, 12, 31), "recurrenceEnd", LocalDate.of(2099, 12, 31)));
+        LocalDate farStart = today.plusYears(5);
+        TaskRepository.TaskRow later = row(20L, "Checkup", farStart, Map.of(
+                "frequency", "daily", "taskInterval", 1, "recurrenceEnd", farStart.plusDays(9)));
+        when(taskRepository.findRowsByPatientId(5L)).thenReturn(List.of(daily, later));
+        when(notificationRepository.findTemplatesByPatientId(5L)).thenReturn(List.of());
+
+        List<TaskDtoV2> dtos = taskService.getTasksByPatient(5L);
+
+        assertEquals(TaskServiceV2.LISTING_HORIZON_DAYS + 2, dtos.size());
+        assertEquals(today.plusDays(TaskServiceV2.LISTING_HORIZON_DAYS).toString(),
+                dtos.get(dtos.size() - 2).getOccurrenceDate());
+        assertEquals(farStart.toString(), dtos.get(dtos.size() - 1).getOccurrenceDate());
+    }
+
+    // --------------------------------------------------------------------------
+    // getTasksByPatientInRange
+    // --------------------------------------------------------------------------
+    @Test
+    @DisplayName("getTasksByPatientInRange should query the window and format dates")
+    void testGetTasksByPatientInRange_firstPage() {
+        LocalDate from = LocalDate.of(2025, 1, 6);
+        LocalDate to = LocalDate.of(2025, 1, 13);
+        Task t1 = Task.builder().id(3L).name("Check Vitals").date(LocalDate.of(2025, 1, 7)).build();
+        when(taskRepository.findInRange(eq(5L), eq(from), eq(to), any(Pageable.class))).thenReturn(List.of(t1));
+
+        List<TaskDtoV2> dtos = taskService.getTasksByPatientInRange(5L, from, to, null, null, 50);
+
+        assertEquals(1, dtos.size());
+        assertEquals("2025-01-07T00:00:00", dtos.get(0).getDate());
+        verify(taskRepository).findInRange(5L, from, to, PageRequest.of(0, 50));
+    }
+
+    @Test
+    @DisplayName("getTasksByPatientInRange should continue after the cursor")
+    void testGetTasksByPatientInRange_afterCursor() {
+        LocalDate from = LocalDate.of(2025, 1, 6);
+        LocalDate to = LocalDate.of(2025, 1, 13);
+        LocalDate afterDate = LocalDate.of(2025, 1, 8);
+        when(taskRepository.findInRangeAfter(eq(5L), eq(from), eq(to), eq(afterDate), eq(9L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        List<TaskDtoV2> dtos = taskService.getTasksByPatientInRange(5L, from, to, afterDate, 9L, 10_000);
+
+        assertTrue(dtos.isEmpty());
+        verify(taskRepository).findInRangeAfter(5L, from, to, afterDate, 9L,
+                PageRequest.of(0, TaskServiceV2.MAX_RANGE_PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("getTasksByPatientInRange should expand series occurrences except stored exceptions")
+    void testGetTasksByPatientInRange_expandsSeries() {
+        LocalDate from = LocalDate.of(2025, 1, 6);
+        LocalDate to = LocalDate.of(2025, 1, 9);
+        Task parent = Task.builder().id(20L).name("Walk").date(LocalDate.of(2025, 1, 1))
+                .frequency("daily").taskInterval(1).doCount(30).recurrenceEnd(LocalDate.of(2025, 1, 30)).build();
+        Task exception = Task.builder().id(21L).name("Walk").parentTaskId(20L)
+                .date(LocalDate.of(2025, 1, 7)).occurrenceDate(LocalDate.of(2025, 1, 7)).isCompleted(true).build();
+        when(taskRepository.findInRange(eq(5L), eq(from), eq(to), any(Pageable.class))).thenReturn(List.of(exception));
+        when(taskRepository.findSeriesInRange(5L, from, to)).thenReturn(List.of(parent));
+        when(taskRepository.findExceptions(List.of(20L), from, to)).thenReturn(List.of(exception));
+
+        List<TaskDtoV2> dtos = taskService.getTasksByPatientInRange(5L, from, to, null, null, 50);
+
+        assertEquals(3, dtos.size());
+        assertEquals("2025-01-06", dtos.get(0).getOccurrenceDate());
+        assertEquals(20L, dtos.get(0).getId());
+        assertEquals(21L, dtos.get(1).getId());
+        assertTrue(dtos.get(1).isCompleted());
+        assertEquals("2025-01-08T00:00:00", dtos.get(2).getDate());
+    }
+
+    @Test
+    @DisplayName("getTasksByPatientInRange should reject an empty window")
+    void testGetTasksByPatientInRange_invalidWindow() {
+        LocalDate day = LocalDate.of(2025, 1, 6);
+
+        assertThrows(AppException.class,
+                () -> taskService.getTasksByPatientInRange(5L, day, day, null, null, 50));
     }
 
     // --------------------------------------------------------------------------
@@ -112,6 +247,35 @@ class TaskServiceV2Test {
         verify(taskRepository).save(any(Task.class));
     }
 
+    @Test
+    @DisplayName("updateCompletionStatus should store an exception for a series occurrence")
+    void testUpdateCompletionStatus_seriesOccurrence() {
+        Task parent = Task.builder().id(20L).name("Walk").date(LocalDate.of(2025, 1, 1))
+                .frequency("daily").taskInterval(1).doCount(30).recurrenceEnd(LocalDate.of(2025, 1, 30)).build();
+        LocalDate occurrence = LocalDate.of(2025, 1, 5);
+        when(taskRepository.findById(20L)).thenReturn(Optional.of(parent));
+        when(taskRepository.findFirstByParentTaskIdAndOccurrenceDate(20L, occurrence)).thenReturn(Optional.empty());
+        when(taskRepository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TaskDtoV2 result = taskService.updateCompletionStatus(20L, true, occurrence);
+
+        assertTrue(result.isCompleted());
+        assertEquals("2025-01-05", result.getOccurrenceDate());
+        assertFalse(parent.isCompleted());
+        verify(notificationRepository).deleteUnsentForOccurrence(20L, occurrence);
+    }
+
+    @Test
+    @DisplayName("updateCompletionStatus should reject a date the series does not occur on")
+    void testUpdateCompletionStatus_notAnOccurrence() {
+        Task parent = Task.builder().id(20L).name("Walk").date(LocalDate.of(2025, 1, 1))
+                .frequency("daily").taskInterval(2).doCount(10).recurrenceEnd(LocalDate.of(2025, 1, 19)).build();
+        when(taskRepository.findById(20L)).thenReturn(Optional.of(parent));
+
+        assertThrows(AppException.class,
+                () -> taskService.updateCompletionStatus(20L, true, LocalDate.of(2025, 1, 2)));
+    }
+
     // --------------------------------------------------------------------------
     // createTask
     // --------------------------------------------------------------------------
@@ -148,6 +312,119 @@ class TaskServiceV2Test {
         verify(patientRepository).findById(5L);
     }
 
+    @Test
+    @DisplayName("createTask should reject an unparseable date with 400, like the v1 service")
+    void testCreateTask_invalidDate() {
+        when(patientRepository.findById(5L)).thenReturn(Optional.of(Patient.builder().id(5L).build()));
+        TaskDtoV2 dto = TaskDtoV2.builder().name("Walk").date("next tuesday").build();
+
+        AppException e = assertThrows(AppException.class, () -> taskService.createTask(5L, dto));
+        assertEquals(400, e.getStatus().value());
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
+    // --------------------------------------------------------------------------
+    // series updates and deletes
+    // --------------------------------------------------------------------------
+    @Test
+    @DisplayName("updateTask for a series should drop stale children and update the rest in bulk")
+    void testUpdateTask_seriesBulk() {
+        Task parent = Task.builder().id(20L).name("Walk").date(LocalDate.of(2025, 1, 1))
+                .frequency("daily").taskInterval(1).doCount(10).recurrenceEnd(LocalDate.of(2025, 1, 10)).build();
+        TaskRepository.SeriesChild kept = child(21L, LocalDate.of(2025, 1, 3));
+        TaskRepository.SeriesChild stale = child(22L, LocalDate.of(2025, 1, 4));
+        when(taskRepository.findById(20L)).thenReturn(Optional.of(parent));
+        when(taskRepository.findSeriesChildren(20L)).thenReturn(List.of(kept, stale));
+
+        TaskDtoV2 dto = TaskDtoV2.builder().name("Morning walk").interval(2).updateSeries(true).build();
+        TaskDtoV2 result = taskService.updateTask(20L, dto);
+
+        assertEquals("Morning walk", result.getName());
+        verify(notificationRepository).deleteByTaskIds(List.of(22L));
+        verify(taskRepository).deleteByIds(List.of(22L));
+        verify(taskRepository).updateSeriesFields(20L, "Walk", null, null, "Morning walk", null, null, null, 2, null, null);
+        verify(taskRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("updateTask for a series should only rename children still carrying the parent's previous values")
+    void testUpdateTask_seriesKeepsEditedOccurrence() {
+        Task parent = Task.builder().id(20L).name("Walk").description("Around the park").taskType("Exercise")
+                .date(LocalDate.of(2025, 1, 1)).frequency("daily").taskInterval(1).doCount(10)
+                .recurrenceEnd(LocalDate.of(2025, 1, 10)).build();
+        Task edited = Task.builder().id(21L).name("Walk with Ada").parentTaskId(20L)
+                .date(LocalDate.of(2025, 1, 3)).occurrenceDate(LocalDate.of(2025, 1, 3)).build();
+        when(taskRepository.findById(21L)).thenReturn(Optional.of(edited));
+        when(taskRepository.findById(20L)).thenReturn(Optional.of(parent));
+        when(taskRepository.findSeriesChildren(20L)).thenReturn(List.of(child(21L, LocalDate.of(2025, 1, 3))));
+
+        TaskDtoV2 dto = TaskDtoV2.builder().name("Evening walk").description("Along the river")
+                .updateSeries(true).build();
+        taskService.updateTask(21L, dto);
+
+        assertEquals("Evening walk", parent.getName());
+        assertEquals("Walk with Ada", edited.getName());
+        verify(taskRepository).updateSeriesFields(20L, "Walk", "Around the park", "Exercise",
+                "Evening walk", "Along the river", null, null, null, null, null);
+        verify(taskRepository, never()).save(edited);
+    }
+
+    @Test
+    @DisplayName("deleteTask for a series should delete the parent and children in bulk")
+    void testDeleteTask_seriesBulk() {
+        Task child = Task.builder().id(21L).parentTaskId(20L).build();
+        when(taskRepository.findById(21L)).thenReturn(Optional.of(child));
+        when(taskRepository.existsById(20L)).thenReturn(true);
+
+        taskService.deleteTask(21L, true);
+
+        verify(notificationRepository).deleteBySeries(20L);
+        verify(taskRepository).deleteSeries(20L);
+        verify(taskRepository, never()).deleteAll(any());
+    }
+
+    /** Map-backed projection, as Spring Data builds from a query's aliased columns. */
+    private static TaskRepository.TaskRow row(Long id, String name, LocalDate date, Map<String, Object> fields) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", id);
+        columns.put("name", name);
+        columns.put("date", date);
+        columns.put("patientId", 5L);
+        columns.put("completed", false);
+        columns.put("cancelled", false);
+        columns.putAll(fields);
+        return PROJECTIONS.createProjection(TaskRepository.TaskRow.class, columns);
+    }
+
+    private static ScheduledNotificationRepository.ReminderTemplate template(Long taskId, LocalDateTime time) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("taskId", taskId);
+        columns.put("receiverId", 5L);
+        columns.put("title", "Reminder");
+        columns.put("notificationType", "TASK");
+        columns.put("scheduledTime", time);
+        return PROJECTIONS.createProjection(ScheduledNotificationRepository.ReminderTemplate.class, columns);
+    }
+
+    private static TaskRepository.SeriesChild child(Long id, LocalDate occurrenceDate) {
+        return new TaskRepository.SeriesChild() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getDate() {
+                return occurrenceDate;
+            }
+
+            @Override
+            public LocalDate getOccurrenceDate() {
+                return occurrenceDate;
+            }
+        };
+    }
+
     // --------------------------------------------------------------------------
     // existsById
     // --------------------------------------------------------------------------
@@ -173,21 +450,23 @@ class TaskServiceV2Test {
     @Test
     @DisplayName("getAllTasks should map all tasks to DTOs")
     void testGetAllTasks() {
-        Task t1 = Task.builder().id(1L).name("Task1").build();
-        Task t2 = Task.builder().id(2L).name("Task2").build();
-        when(taskRepository.findAll()).thenReturn(List.of(t1, t2));
+        TaskRepository.TaskRow t1 = row(1L, "Task1", LocalDate.of(2025, 1, 1), Map.of());
+        TaskRepository.TaskRow t2 = row(2L, "Task2", LocalDate.of(2025, 1, 2), Map.of());
+        when(taskRepository.findAllRows()).thenReturn(List.of(t1, t2));
+        when(notificationRepository.findAllTemplates()).thenReturn(List.of());
 
         List<TaskDtoV2> result = taskService.getAllTasks();
 
         assertEquals(2, result.size());
         assertEquals("Task1", result.get(0).getName());
-        verify(taskRepository).findAll();
+        verify(taskRepository).findAllRows();
+        verify(taskRepository, never()).findAll();
     }
 
     @Test
     @DisplayName("getAllTasks should throw if repository empty")
     void testGetAllTasks_emptyThrows() {
-        when(taskRepository.findAll()).thenReturn(List.of());
+        when(taskRepository.findAllRows()).thenReturn(List.of());
 
         assertThrows(TaskNotFoundException.class, () -> taskService.getAllTasks());
     }
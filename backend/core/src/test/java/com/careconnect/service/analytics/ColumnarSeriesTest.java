@@ -0,0 +1,95 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ColumnarSeries}.
+ */
+class ColumnarSeriesTest {
+
+    @Test
+    @DisplayName("Samples stay ordered when late and earlier-than-base samples arrive")
+    void append_keepsTimestampOrder() {
+        ColumnarSeries series = new ColumnarSeries();
+        series.append(1_000, 1);
+        series.append(3_000, 3);
+        series.append(2_000, 2);
+        series.append(500, 0.5);
+
+        assertEquals(4, series.size());
+        assertEquals(500, series.timestampAt(0));
+        assertEquals(1_000, series.timestampAt(1));
+        assertEquals(2_000, series.timestampAt(2));
+        assertEquals(3_000, series.timestampAt(3));
+        assertEquals(2, series.valueAt(2));
+    }
+
+    @Test
+    @DisplayName("Bounds locate inclusive ranges by binary search")
+    void bounds_findRange() {
+        ColumnarSeries series = new ColumnarSeries();
+        for (int i = 0; i < 200; i++) {
+            series.append(i * 10L, i);
+        }
+
+        assertEquals(5, series.lowerBound(50));
+        assertEquals(6, series.lowerBound(51));
+        assertEquals(6, series.upperBound(50));
+        assertEquals(0, series.lowerBound(-100));
+        assertEquals(200, series.upperBound(10_000));
+    }
+
+    @Test
+    @DisplayName("Late samples across checkpoint blocks keep every timestamp and bound exact")
+    void append_matchesSortedReference() {
+        ColumnarSeries series = new ColumnarSeries();
+        List<Long> reference = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            long timestamp = random.nextInt(5) == 0 ? random.nextInt(100_000) : 100_000L + i * 37L;
+            series.append(timestamp, i);
+            int at = 0;
+            while (at < reference.size() && reference.get(at) <= timestamp) {
+                at++;
+            }
+            reference.add(at, timestamp);
+        }
+
+        assertEquals(reference.size(), series.size());
+        long previous = series.timestampAt(0);
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals(reference.get(i), series.timestampAt(i));
+            if (i > 0) {
+                previous += series.gapAt(i);
+                assertEquals(reference.get(i), previous);
+            }
+        }
+        for (long probe : new long[] {-1, 0, 50_000, 100_000, 100_037, 200_000}) {
+            assertEquals(reference.stream().filter(t -> t < probe).count(), series.lowerBound(probe));
+            assertEquals(reference.stream().filter(t -> t <= probe).count(), series.upperBound(probe));
+        }
+    }
+
+    @Test
+    @DisplayName("Gaps too large for an int widen the series without losing timestamps")
+    void append_widensLargeGaps() {
+        ColumnarSeries series = new ColumnarSeries();
+        long month = 31L * 24 * 60 * 60 * 1000;
+        series.append(1_000, 1);
+        series.append(2_000, 2);
+        series.append(2_000 + month, 3);
+        series.append(1_500, 1.5);
+
+        assertEquals(month, series.gapAt(3));
+        assertEquals(1_500, series.timestampAt(1));
+        assertEquals(2_000 + month, series.timestampAt(3));
+        assertEquals(3, series.lowerBound(2_001));
+    }
+}
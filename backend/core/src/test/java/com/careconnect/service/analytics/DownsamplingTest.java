@@ -0,0 +1,63 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.repository.VitalDownsampleRepository.MetricBucket;
+
+/**
+ * Unit tests for {@link Downsampling}.
+ */
+class DownsamplingTest {
+
+    private static long[] minutes(int n) {
+        return IntStream.range(0, n).mapToLong(i -> i * 60_000L).toArray();
+    }
+
+    @Test
+    @DisplayName("Series at or below the threshold are kept whole")
+    void lttb_shortSeriesUnchanged() {
+        assertArrayEquals(new int[] {0, 1, 2}, Downsampling.lttb(minutes(3), new double[] {1, 2, 3}, 3, 10));
+    }
+
+    @Test
+    @DisplayName("LTTB keeps the endpoints, respects the threshold and keeps a single spike")
+    void lttb_keepsSpike() {
+        int n = 10_000;
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = 70 + Math.sin(i / 50.0);
+        }
+        v[4321] = 180;
+
+        int[] kept = Downsampling.lttb(minutes(n), v, n, 100);
+
+        assertEquals(100, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(n - 1, kept[kept.length - 1]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+        assertTrue(IntStream.of(kept).anyMatch(i -> i == 4321));
+    }
+
+    @Test
+    @DisplayName("Min/max buckets skip empty buckets and record where the extremes occurred")
+    void minMax_buckets() {
+        long[] t = {0, 10, 20, 250, 260};
+        double[] v = {5, 9, 1, 4, 6};
+
+        List<MetricBucket> buckets = Downsampling.minMax("PAIN", t, v, t.length, 0, 100, 3);
+
+        assertEquals(List.of(
+                new MetricBucket("PAIN", 0, 1, 20, 9, 10, 5, 3),
+                new MetricBucket("PAIN", 200, 4, 250, 6, 260, 5, 2)), buckets);
+    }
+}
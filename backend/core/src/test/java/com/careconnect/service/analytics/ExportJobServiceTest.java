@@ -0,0 +1,186 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Period;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.ExportConfig;
+import com.careconnect.dto.ExportJobDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.service.AnalyticsService;
+import com.careconnect.service.ExportSigner;
+import com.careconnect.service.analytics.ExportJobService.Format;
+
+/**
+ * Unit tests for {@link ExportJobService}.
+ */
+class ExportJobServiceTest {
+
+    private static final Long PATIENT_ID = 3L;
+    private static final Long USER_ID = 30L;
+    private static final String CSV = "timestamp,heartRate\n2025-03-01T10:00:00Z,72\n";
+
+    @Mock
+    private AnalyticsService analyticsService;
+    @Mock
+    private PatientRepository patientRepository;
+
+    @TempDir
+    Path storage;
+
+    private ExportJobService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ExportConfig config = new ExportConfig();
+        config.setJobWorkers(1);
+        config.setJobStorageDir(storage.toString());
+        config.setSigningSecret("test-secret");
+        ExportSigner signer = new ExportSigner(config, "http://localhost:8080");
+        service = new ExportJobService(analyticsService, patientRepository, signer, config);
+        service.start();
+
+        when(patientRepository.existsById(PATIENT_ID)).thenReturn(true);
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(analyticsService).writeVitalsCsv(eq(PATIENT_ID), any(Period.class), any(OutputStream.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private ExportJobDTO awaitFinished(String jobId) throws Exception {
+        service.finished(jobId).get(5, TimeUnit.SECONDS);
+        return service.status(jobId, USER_ID);
+    }
+
+    private static String param(String url, String name) {
+        for (String pair : url.substring(url.indexOf('?') + 1).split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    @Test
+    @DisplayName("A completed job carries a signed link that resolves to the written file")
+    void submit_completesWithSignedLink() throws Exception {
+        ExportJobDTO submitted = service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false);
+        ExportJobDTO done = awaitFinished(submitted.jobId());
+
+        assertEquals("COMPLETED", done.status());
+        assertEquals(CSV.length(), done.bytesWritten());
+        String url = done.link().getUrl();
+        assertTrue(url.startsWith("http://localhost:8080" + ExportJobService.DOWNLOAD_PATH + done.jobId() + "?"));
+
+        ExportJobService.Artifact artifact = service.download(done.jobId(),
+                Long.parseLong(param(url, "expires")), param(url, "sig"));
+        assertEquals(CSV, Files.readString(artifact.file()));
+        assertEquals("vitals.csv", artifact.fileName());
+    }
+
+    @Test
+    @DisplayName("Tampered or expired links are refused")
+    void download_rejectsBadSignature() throws Exception {
+        ExportJobDTO done = awaitFinished(service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false).jobId());
+        String url = done.link().getUrl();
+        long expires = Long.parseLong(param(url, "expires"));
+
+        AppException tampered = assertThrows(AppException.class,
+                () -> service.download(done.jobId(), expires + 3600, param(url, "sig")));
+        assertEquals(403, tampered.getStatus().value());
+        assertThrows(AppException.class, () -> service.download(done.jobId(), 1L, param(url, "sig")));
+    }
+
+    @Test
+    @DisplayName("Identical requests share one job while it is pending and after it completed")
+    void submit_deduplicatesIdenticalRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(analyticsService).writeVitalsCsv(eq(PATIENT_ID), any(Period.class), any(OutputStream.class));
+
+        ExportJobDTO first = service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false);
+        ExportJobDTO second = service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false);
+        ExportJobDTO otherPeriod = service.submit(USER_ID, PATIENT_ID, 30, Format.CSV, false);
+        release.countDown();
+        awaitFinished(first.jobId());
+        ExportJobDTO afterCompletion = service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false);
+
+        assertEquals(first.jobId(), second.jobId());
+        assertEquals(first.jobId(), afterCompletion.jobId());
+        assertNotEquals(first.jobId(), otherPeriod.jobId());
+        awaitFinished(otherPeriod.jobId());
+        verify(analyticsService, times(2)).writeVitalsCsv(eq(PATIENT_ID), any(Period.class), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("A failed job is reported and the next identical request starts over")
+    void submit_retriesAfterFailure() throws Exception {
+        doThrow(new IllegalStateException("boom")).when(analyticsService)
+                .writeVitalsPdf(eq(PATIENT_ID), any(Period.class), eq(true), any(OutputStream.class));
+
+        ExportJobDTO failed = awaitFinished(service.submit(USER_ID, PATIENT_ID, 7, Format.PDF, true).jobId());
+        try (var files = Files.list(storage)) {
+            assertEquals(0, files.count());
+        }
+        ExportJobDTO retried = service.submit(USER_ID, PATIENT_ID, 7, Format.PDF, true);
+
+        assertEquals("FAILED", failed.status());
+        assertNotNull(failed.error());
+        assertNotEquals(failed.jobId(), retried.jobId());
+    }
+
+    @Test
+    @DisplayName("Job status is only shown to users who requested the job")
+    void status_onlyForRequesters() throws Exception {
+        ExportJobDTO submitted = service.submit(USER_ID, PATIENT_ID, 7, Format.CSV, false);
+        awaitFinished(submitted.jobId());
+
+        AppException other = assertThrows(AppException.class, () -> service.status(submitted.jobId(), 31L));
+        assertEquals(404, other.getStatus().value());
+
+        ExportJobDTO joined = service.submit(31L, PATIENT_ID, 7, Format.CSV, false);
+        assertEquals(submitted.jobId(), joined.jobId());
+        assertEquals("COMPLETED", service.status(submitted.jobId(), 31L).status());
+    }
+
+    @Test
+    @DisplayName("Unknown patients are rejected before a job is queued")
+    void submit_unknownPatient() {
+        assertThrows(AppException.class, () -> service.submit(USER_ID, 99L, 7, Format.CSV, false));
+    }
+}
@@ -0,0 +1,102 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.careconnect.config.LiveMetricsConfig;
+import com.careconnect.dto.DashboardDTO;
+import com.careconnect.service.AnalyticsService;
+
+/**
+ * Unit tests for {@link LiveMetricsHub}.
+ */
+class LiveMetricsHubTest {
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    private LiveMetricsHub hub;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        LiveMetricsConfig config = new LiveMetricsConfig();
+        config.setRefreshIntervalMs(Long.MAX_VALUE);
+        hub = new LiveMetricsHub(analyticsService, config);
+        when(analyticsService.getDashboard(any(), any())).thenReturn(DashboardDTO.builder()
+                .periodStart(Instant.now())
+                .periodEnd(Instant.now())
+                .build());
+    }
+
+    @Test
+    @DisplayName("subscribers on the same patient should share one dashboard computation per tick")
+    void testTick_sharedComputation() {
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+
+        hub.tick();
+
+        verify(analyticsService, times(1)).getDashboard(eq(1L), any());
+        assertEquals(3, hub.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("tick should recompute only after a write marks the topic dirty")
+    void testTick_recomputesOnlyWhenDirty() {
+        hub.subscribe(1L);
+        hub.tick();
+        hub.tick();
+        verify(analyticsService, times(1)).getDashboard(eq(1L), any());
+
+        hub.markDirty(1L);
+        hub.markDirty(1L);
+        hub.tick();
+        verify(analyticsService, times(2)).getDashboard(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("a write inside a transaction should mark the topic dirty only after commit")
+    void testMarkDirty_afterCommit() {
+        hub.subscribe(1L);
+        hub.tick();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.markDirty(1L);
+            hub.tick();
+            verify(analyticsService, times(1)).getDashboard(eq(1L), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        hub.tick();
+        verify(analyticsService, times(2)).getDashboard(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("writes for patients nobody is watching should not trigger queries")
+    void testMarkDirty_unwatchedPatient() {
+        hub.markDirty(42L);
+        hub.tick();
+
+        verify(analyticsService, never()).getDashboard(any(), any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.MoodPainAnalyticsConfig;
+import com.careconnect.dto.MoodPainAnalyticsDTO;
+import com.careconnect.repository.MoodPainAnalyticsRepository;
+import com.careconnect.repository.MoodPainAnalyticsRepository.DailyPoint;
+import com.careconnect.repository.MoodPainAnalyticsRepository.Entry;
+import com.careconnect.repository.MoodPainAnalyticsRepository.Summary;
+
+/**
+ * Unit tests for {@link MoodPainAnalyticsService}.
+ */
+class MoodPainAnalyticsServiceTest {
+
+    private static final Long PATIENT_ID = 3L;
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 3, 31, 0, 0);
+
+    @Mock
+    private MoodPainAnalyticsRepository analyticsRepository;
+
+    private MoodPainAnalyticsConfig config;
+    private MoodPainAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new MoodPainAnalyticsConfig();
+        service = new MoodPainAnalyticsService(analyticsRepository, config);
+
+        when(analyticsRepository.summary(any(), any(), any())).thenReturn(
+                new Summary(2, 2, 2, 6.5, 3.0, 6, 7, 2, 4, 1.0, 2.0));
+        when(analyticsRepository.daily(any(), any(), any(), anyInt())).thenReturn(List.of(
+                new DailyPoint(LocalDate.of(2025, 3, 1), 1, 6, 2, 6, 2),
+                new DailyPoint(LocalDate.of(2025, 3, 2), 1, 7, 4, 6.5, 3)));
+        when(analyticsRepository.entries(any(), any(), any())).thenReturn(List.of(
+                new Entry(LocalDateTime.of(2025, 3, 2, 9, 0), 7, 4, null),
+                new Entry(LocalDateTime.of(2025, 3, 1, 9, 0), 6, 2, "tired")));
+    }
+
+    @Test
+    @DisplayName("Summary, daily series and raw entries are mapped into the DTO")
+    void analytics_mapsRepositoryResults() {
+        MoodPainAnalyticsDTO dto = service.analytics(PATIENT_ID, FROM, TO);
+
+        assertEquals(2, dto.getTotalEntries());
+        assertEquals(6.5, dto.getAvgMood());
+        assertEquals(2.0, dto.getPainTrend());
+        assertEquals(4, dto.getMaxPain());
+        assertEquals(2, dto.getDailySeries().size());
+        assertEquals(6.5, dto.getDailySeries().get(1).getRollingAvgMood());
+        assertEquals("tired", dto.getTimeSeries().get(1).getNote());
+    }
+
+    @Test
+    @DisplayName("Ranges above the raw series limit return the daily series only")
+    void analytics_skipsRawEntriesForLargeRanges() {
+        config.setRawSeriesLimit(1);
+
+        MoodPainAnalyticsDTO dto = service.analytics(PATIENT_ID, FROM, TO);
+
+        assertTrue(dto.getTimeSeries().isEmpty());
+        assertEquals(2, dto.getDailySeries().size());
+        verify(analyticsRepository, never()).entries(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Empty ranges skip the series queries")
+    void analytics_emptyRange() {
+        when(analyticsRepository.summary(any(), any(), any())).thenReturn(
+                new Summary(0, 0, 0, null, null, null, null, null, null, null, null));
+
+        MoodPainAnalyticsDTO dto = service.analytics(PATIENT_ID, FROM, TO);
+
+        assertEquals(0, dto.getTotalEntries());
+        assertNull(dto.getAvgMood());
+        verify(analyticsRepository, never()).daily(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Repeated requests are served from the cache until the patient writes")
+    void analytics_cachesUntilInvalidated() {
+        MoodPainAnalyticsDTO first = service.analytics(PATIENT_ID, FROM, TO);
+        MoodPainAnalyticsDTO second = service.analytics(PATIENT_ID, FROM, TO);
+        service.analytics(PATIENT_ID, FROM, TO.plusDays(1));
+        service.invalidate(PATIENT_ID);
+        service.analytics(PATIENT_ID, FROM, TO);
+
+        assertSame(first, second);
+        verify(analyticsRepository, times(3)).summary(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Writes by one patient leave other patients cached")
+    void analytics_invalidatesPerPatient() {
+        service.analytics(PATIENT_ID, FROM, TO);
+        service.analytics(4L, FROM, TO);
+        service.invalidate(4L);
+        service.analytics(PATIENT_ID, FROM, TO);
+
+        verify(analyticsRepository, times(1)).summary(PATIENT_ID, FROM, TO);
+    }
+}
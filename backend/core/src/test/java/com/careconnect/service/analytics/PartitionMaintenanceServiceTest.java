@@ -0,0 +1,88 @@
+package com.careconnect.service.analytics;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.PartitionConfig;
+import com.careconnect.repository.PartitionMaintenanceRepository;
+
+/**
+ * Unit tests for {@link PartitionMaintenanceService}.
+ */
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private PartitionMaintenanceRepository partitionRepository;
+
+    private PartitionConfig config;
+    private PartitionMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new PartitionConfig();
+        service = new PartitionMaintenanceService(partitionRepository, config);
+        when(partitionRepository.isPartitioned(anyString())).thenReturn(true);
+        when(partitionRepository.dropPartitionsBefore(anyString(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Partitions are created from the current month up to the configured months ahead")
+    void maintain_createsUpcomingPartitions() {
+        config.setMonthsAhead(2);
+
+        service.maintain(LocalDate.of(2025, 11, 17));
+
+        for (String table : PartitionMaintenanceService.TABLES) {
+            verify(partitionRepository).createMonthlyPartitions(table,
+                    LocalDate.of(2025, 11, 1), LocalDate.of(2026, 1, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Partitions older than the retention window are dropped")
+    void maintain_dropsExpiredPartitions() {
+        config.setRetentionMonths(12);
+
+        service.maintain(LocalDate.of(2025, 11, 17));
+
+        verify(partitionRepository).dropPartitionsBefore("vital_sample", LocalDate.of(2024, 11, 1));
+        verify(partitionRepository).dropPartitionsBefore("mood_pain_log", LocalDate.of(2024, 11, 1));
+    }
+
+    @Test
+    @DisplayName("A retention of zero keeps every partition")
+    void maintain_retentionDisabled() {
+        config.setRetentionMonths(0);
+
+        service.maintain(LocalDate.of(2025, 11, 17));
+
+        verify(partitionRepository, never()).dropPartitionsBefore(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Tables that are not partitioned yet are skipped, and a failing table does not stop the others")
+    void maintain_skipsAndIsolatesTables() {
+        when(partitionRepository.isPartitioned("wearable_metric")).thenReturn(false);
+        when(partitionRepository.createMonthlyPartitions(eq("vital_sample"), any(), any()))
+                .thenThrow(new IllegalStateException("boom"));
+
+        service.maintain(LocalDate.of(2025, 11, 17));
+
+        verify(partitionRepository, never()).createMonthlyPartitions(eq("wearable_metric"), any(), any());
+        verify(partitionRepository).createMonthlyPartitions(eq("mood_pain_log"), any(), any());
+    }
+}
@@ -0,0 +1,179 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.RollupConfig;
+import com.careconnect.repository.SummaryMetricRollupRepository;
+import com.careconnect.repository.SummaryMetricRollupRepository.PatientTotals;
+import com.careconnect.repository.SummaryMetricRollupRepository.RollupTotals;
+
+/**
+ * Unit tests for {@link SummaryRollupService}.
+ */
+class SummaryRollupServiceTest {
+
+    private static final Long PATIENT = 7L;
+
+    @Mock
+    private SummaryMetricRollupRepository rollupRepository;
+
+    private RollupConfig config;
+    private SummaryRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new RollupConfig();
+        service = new SummaryRollupService(rollupRepository, config);
+    }
+
+    @Test
+    @DisplayName("Dirty hours of a patient are re-rolled as one range on flush")
+    void flush_rollsUpDirtyRange() {
+        service.markDirty(PATIENT, Instant.parse("2025-03-01T10:15:00Z"));
+        service.markDirty(PATIENT, Instant.parse("2025-03-01T13:59:59Z"));
+
+        service.flush();
+
+        verify(rollupRepository).rollup(Set.of(PATIENT),
+                LocalDateTime.parse("2025-03-01T10:00"), LocalDateTime.parse("2025-03-01T14:00"));
+        assertEquals(0, service.getDirtyPatientCount());
+    }
+
+    @Test
+    @DisplayName("A failed rollup keeps the range dirty for the next flush")
+    void flush_retriesAfterFailure() {
+        doThrow(new RuntimeException("db down")).when(rollupRepository).rollup(any(), any(), any());
+        service.markDirty(PATIENT, Instant.parse("2025-03-01T10:15:00Z"));
+
+        service.flush();
+
+        assertEquals(1, service.getDirtyPatientCount());
+    }
+
+    @Test
+    @DisplayName("Catch-up compares updated_at in the zone the sources write it in")
+    void catchUp_usesSourceZone() {
+        TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            when(rollupRepository.hasRollups()).thenReturn(true);
+            when(rollupRepository.findChangedBuckets(any())).thenReturn(List.of());
+            LocalDateTime before = LocalDateTime.now();
+
+            service.catchUp();
+
+            ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(rollupRepository).findChangedBuckets(since.capture());
+            LocalDateTime expected = before.minusHours(config.getCatchUpLookbackHours());
+            assertFalse(since.getValue().isBefore(expected));
+            assertTrue(since.getValue().isBefore(expected.plusMinutes(1)));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    @DisplayName("Patient totals come from one query unless the patient has pending writes")
+    void totalsForPatient_flushesOnlyDirtyPatients() {
+        RollupTotals totals = new RollupTotals(1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        when(rollupRepository.sumForPatient(eq(3L), any(), any(), any(), any()))
+                .thenReturn(Optional.of(new PatientTotals(PATIENT, totals)));
+        when(rollupRepository.sum(any(), any(), any(), any(), any())).thenReturn(totals);
+        Instant from = Instant.parse("2025-03-01T10:30:00Z");
+        Instant to = Instant.parse("2025-03-04T08:10:00Z");
+
+        assertEquals(Optional.of(totals), service.totalsForPatient(3L, from, to));
+        verify(rollupRepository, never()).sum(any(), any(), any(), any(), any());
+
+        service.markDirty(PATIENT, Instant.parse("2025-03-02T10:15:00Z"));
+        service.totalsForPatient(3L, from, to);
+        verify(rollupRepository).rollup(any(), any(), any());
+        verify(rollupRepository).sum(PATIENT,
+                LocalDateTime.parse("2025-03-01T10:00"),
+                LocalDateTime.parse("2025-03-02T00:00"),
+                LocalDateTime.parse("2025-03-04T00:00"),
+                LocalDateTime.parse("2025-03-04T09:00"));
+    }
+
+    @Test
+    @DisplayName("Unknown patients and patients without an account have no rollup totals")
+    void totalsForPatient_empty() {
+        when(rollupRepository.sumForPatient(eq(3L), any(), any(), any(), any())).thenReturn(Optional.empty());
+        RollupTotals zero = new RollupTotals(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        when(rollupRepository.sumForPatient(eq(4L), any(), any(), any(), any()))
+                .thenReturn(Optional.of(new PatientTotals(null, zero)));
+
+        assertTrue(service.totalsForPatient(3L, Instant.EPOCH, Instant.EPOCH.plusSeconds(60)).isEmpty());
+        assertTrue(service.totalsForPatient(4L, Instant.EPOCH, Instant.EPOCH.plusSeconds(60)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Multi-day windows use day buckets in the middle and hour buckets at the edges")
+    void totals_splitsWindowIntoDaysAndEdgeHours() {
+        service.totals(PATIENT, Instant.parse("2025-03-01T10:30:00Z"), Instant.parse("2025-03-04T08:10:00Z"));
+
+        verify(rollupRepository).sum(PATIENT,
+                LocalDateTime.parse("2025-03-01T10:00"),
+                LocalDateTime.parse("2025-03-02T00:00"),
+                LocalDateTime.parse("2025-03-04T00:00"),
+                LocalDateTime.parse("2025-03-04T09:00"));
+    }
+
+    @Test
+    @DisplayName("Windows inside one day use hour buckets only")
+    void totals_withinOneDay() {
+        service.totals(PATIENT, Instant.parse("2025-03-01T02:30:00Z"), Instant.parse("2025-03-01T20:10:00Z"));
+
+        verify(rollupRepository).sum(PATIENT,
+                LocalDateTime.parse("2025-03-01T02:00"),
+                LocalDateTime.parse("2025-03-01T21:00"),
+                LocalDateTime.parse("2025-03-01T21:00"),
+                LocalDateTime.parse("2025-03-01T21:00"));
+    }
+
+    @Test
+    @DisplayName("Reading totals first flushes that patient's pending writes")
+    void totals_flushesPatientFirst() {
+        service.markDirty(PATIENT, Instant.parse("2025-03-01T10:15:00Z"));
+
+        service.totals(PATIENT, Instant.parse("2025-03-01T00:00:00Z"), Instant.parse("2025-03-02T00:00:00Z"));
+
+        verify(rollupRepository).rollup(Set.of(PATIENT),
+                LocalDateTime.parse("2025-03-01T10:00"), LocalDateTime.parse("2025-03-01T11:00"));
+    }
+
+    @Test
+    @DisplayName("Nothing is tracked when rollups are disabled")
+    void markDirty_disabled() {
+        config.setEnabled(false);
+        service.markDirty(PATIENT, Instant.now());
+
+        service.flush();
+
+        assertEquals(0, service.getDirtyPatientCount());
+        verify(rollupRepository, never()).rollup(any(), any(), any());
+    }
+}
@@ -0,0 +1,113 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.config.VitalAnomalyConfig;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Anomaly;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Kind;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Metric;
+import com.careconnect.service.analytics.VitalAnomalyDetector.Severity;
+
+/**
+ * Unit tests for {@link VitalAnomalyDetector}.
+ */
+class VitalAnomalyDetectorTest {
+
+    private static final Long PATIENT_ID = 3L;
+
+    private VitalAnomalyConfig config;
+    private VitalAnomalyDetector detector;
+    private Instant start;
+
+    @BeforeEach
+    void setUp() {
+        config = new VitalAnomalyConfig();
+        detector = new VitalAnomalyDetector(config);
+        start = Instant.now().minus(Duration.ofMinutes(30));
+    }
+
+    private List<Anomaly> observe(int minute, Metric metric, double value) {
+        return detector.observe(PATIENT_ID, start.plus(Duration.ofMinutes(minute)), metric, value);
+    }
+
+    @Test
+    @DisplayName("Values beyond the configured limits are reported with their severity")
+    void observe_limits() {
+        List<Anomaly> high = observe(0, Metric.SYSTOLIC, 150);
+        List<Anomaly> critical = detector.observe(4L, start, Metric.SPO2, 85);
+
+        assertEquals(Kind.LIMIT, high.get(0).kind());
+        assertEquals(Severity.HIGH, high.get(0).severity());
+        assertEquals(Severity.CRITICAL, critical.get(0).severity());
+        assertTrue(observe(1, Metric.HEART_RATE, 72).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Repeated alerts are debounced unless the severity escalates")
+    void observe_debounces() {
+        assertEquals(1, observe(0, Metric.HEART_RATE, 110).size());
+        assertTrue(observe(1, Metric.HEART_RATE, 112).isEmpty());
+
+        List<Anomaly> escalated = observe(2, Metric.HEART_RATE, 135);
+
+        assertEquals(Severity.CRITICAL, escalated.get(0).severity());
+    }
+
+    @Test
+    @DisplayName("A value far from the patient's own weighted mean is a deviation once warmed up")
+    void observe_deviationAfterWarmup() {
+        config.setWarmupSamples(5);
+        for (int i = 0; i < 5; i++) {
+            observe(i, Metric.WEIGHT, i % 2 == 0 ? 80.0 : 80.4);
+        }
+
+        // Weight has no limits; 5 kg is far outside a ~0.2 kg spread but too slow for the rate rule
+        config.getWeight().setMaxChange(null);
+        List<Anomaly> anomalies = observe(10, Metric.WEIGHT, 85);
+
+        assertEquals(1, anomalies.size());
+        assertEquals(Kind.DEVIATION, anomalies.get(0).kind());
+    }
+
+    @Test
+    @DisplayName("No deviation is reported before warmup")
+    void observe_noDeviationBeforeWarmup() {
+        observe(0, Metric.WEIGHT, 80);
+        observe(1, Metric.WEIGHT, 80.2);
+        config.getWeight().setMaxChange(null);
+
+        assertTrue(observe(2, Metric.WEIGHT, 90).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A fast change between consecutive samples is reported as rate of change")
+    void observe_rateOfChange() {
+        observe(0, Metric.HEART_RATE, 70);
+
+        List<Anomaly> anomalies = observe(5, Metric.HEART_RATE, 98);
+        List<Anomaly> slow = detector.observe(PATIENT_ID, start.plus(Duration.ofMinutes(5)), Metric.SPO2, 99);
+        List<Anomaly> outsideWindow = detector.observe(PATIENT_ID, start.plus(Duration.ofMinutes(25)), Metric.SPO2, 95.5);
+
+        assertTrue(anomalies.isEmpty(), "28 bpm is within the allowed change");
+        assertEquals(Kind.RATE_OF_CHANGE, observe(8, Metric.HEART_RATE, 60).get(0).kind());
+        assertTrue(slow.isEmpty());
+        assertTrue(outsideWindow.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Old samples update the baseline without alerting")
+    void observe_oldSamplesDoNotAlert() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+
+        assertTrue(detector.observe(PATIENT_ID, old, Metric.SPO2, 80).isEmpty());
+    }
+}
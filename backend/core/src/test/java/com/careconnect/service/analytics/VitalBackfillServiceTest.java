@@ -0,0 +1,120 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.careconnect.config.VitalBackfillConfig;
+import com.careconnect.repository.VitalAggregateRepository;
+import com.careconnect.repository.VitalAggregateRepository.Normalized;
+import com.careconnect.repository.VitalAggregateRepository.RawVital;
+
+/**
+ * Unit tests for {@link VitalBackfillService}.
+ */
+class VitalBackfillServiceTest {
+
+    @Mock
+    private VitalAggregateRepository vitalRepository;
+
+    private VitalBackfillConfig config;
+    private VitalBackfillService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new VitalBackfillConfig();
+        config.setChunkSize(2);
+        config.setPauseBetweenChunksMs(0);
+        service = new VitalBackfillService(vitalRepository, config);
+        when(vitalRepository.writeNormalized(anyList(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+    }
+
+    @Test
+    @DisplayName("Chunks are walked in id order and every row is marked, parsed or not")
+    @SuppressWarnings("unchecked")
+    void runChunks_walksChunksUntilDone() throws Exception {
+        when(vitalRepository.findUnnormalized(0L, 2)).thenReturn(List.of(
+                new RawVital(1, "BP", "118/76", "mmHg"),
+                new RawVital(4, "HEART_RATE", "72", "bpm")));
+        when(vitalRepository.findUnnormalized(4L, 2)).thenReturn(List.of(
+                new RawVital(9, "HEART_RATE", "n/a", null)));
+
+        int written = service.runChunks();
+
+        assertEquals(3, written);
+        assertTrue(service.isDone());
+        ArgumentCaptor<List<Normalized>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(vitalRepository, times(2)).writeNormalized(chunks.capture(), any());
+        Normalized bp = chunks.getAllValues().get(0).get(0);
+        assertEquals("BLOOD_PRESSURE", bp.canonicalType());
+        assertEquals(118, bp.systolic());
+        Normalized unparsed = chunks.getAllValues().get(1).get(0);
+        assertEquals(9, unparsed.id());
+        assertNull(unparsed.numericValue());
+    }
+
+    @Test
+    @DisplayName("A run stops after its chunk budget and resumes after the last id")
+    void runChunks_resumesAfterLastId() throws Exception {
+        config.setMaxChunksPerRun(1);
+        when(vitalRepository.findUnnormalized(0L, 2)).thenReturn(List.of(
+                new RawVital(1, "HR", "70", null), new RawVital(2, "HR", "71", null)));
+        when(vitalRepository.findUnnormalized(2L, 2)).thenReturn(List.of());
+
+        service.runChunks();
+        assertFalse(service.isDone());
+        service.runChunks();
+
+        assertTrue(service.isDone());
+        verify(vitalRepository).findUnnormalized(eq(2L), eq(2));
+        service.backfill();
+        verify(vitalRepository, never()).findUnnormalized(eq(3L), eq(2));
+    }
+
+    @Test
+    @DisplayName("A row the database rejects is marked unparsed and the backfill moves past it")
+    @SuppressWarnings("unchecked")
+    void runChunks_skipsRejectedRow() throws Exception {
+        when(vitalRepository.findUnnormalized(0L, 2)).thenReturn(List.of(
+                new RawVital(1, "HR", "70", null),
+                new RawVital(2, "X".repeat(300), "5", null)));
+        when(vitalRepository.findUnnormalized(2L, 2)).thenReturn(List.of());
+        when(vitalRepository.writeNormalized(anyList(), any())).thenAnswer(inv -> {
+            List<Normalized> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.canonicalType() != null && r.canonicalType().length() > 255)) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            return rows.size();
+        });
+
+        int written = service.runChunks();
+
+        assertEquals(2, written);
+        assertTrue(service.isDone());
+        ArgumentCaptor<List<Normalized>> writes = ArgumentCaptor.forClass(List.class);
+        verify(vitalRepository, times(4)).writeNormalized(writes.capture(), any());
+        Normalized marked = writes.getAllValues().get(3).get(0);
+        assertEquals(2, marked.id());
+        assertNull(marked.canonicalType());
+        verify(vitalRepository).findUnnormalized(eq(2L), eq(2));
+    }
+}
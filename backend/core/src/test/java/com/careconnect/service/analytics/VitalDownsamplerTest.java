@@ -0,0 +1,125 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.config.DownsampleConfig;
+import com.careconnect.dto.VitalBucketDTO;
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.repository.VitalDownsampleRepository.MetricBucket;
+
+/**
+ * Unit tests for {@link VitalDownsampler}.
+ */
+class VitalDownsamplerTest {
+
+    private static final Long PATIENT = 5L;
+    private static final Instant FROM = Instant.parse("2025-03-01T00:00:00Z");
+
+    private DownsampleConfig config;
+    private VitalDownsampler downsampler;
+
+    @BeforeEach
+    void setUp() {
+        config = new DownsampleConfig();
+        downsampler = new VitalDownsampler(config);
+    }
+
+    private static List<VitalSampleDTO> heartRateAndMood(int n) {
+        List<VitalSampleDTO> samples = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            samples.add(VitalSampleDTO.builder()
+                    .patientId(PATIENT)
+                    .timestamp(FROM.plusSeconds(i * 60L))
+                    .heartRate(70.0 + (i % 7))
+                    .moodValue(i % 100 == 0 ? 5 : null)
+                    .build());
+        }
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Points come from maxPoints, then resolution, then the default, within the limit")
+    void resolvePoints() {
+        Instant to = FROM.plus(Duration.ofDays(1));
+        assertEquals(500, downsampler.resolvePoints(500, Duration.ofMinutes(1), FROM, to));
+        assertEquals(24, downsampler.resolvePoints(null, Duration.ofHours(1), FROM, to));
+        assertEquals(2000, downsampler.resolvePoints(null, null, FROM, to));
+        assertEquals(10000, downsampler.resolvePoints(1_000_000, null, FROM, to));
+        assertEquals(3, downsampler.resolvePoints(0, null, FROM, to));
+    }
+
+    @Test
+    @DisplayName("Each metric is reduced on its own and rows keep only the selected metrics")
+    void lttb_perMetric() {
+        List<VitalSampleDTO> samples = heartRateAndMood(10_000);
+
+        List<VitalSampleDTO> result = downsampler.lttb(samples, 50);
+
+        assertEquals(50, result.stream().filter(s -> s.heartRate() != null).count());
+        // 100 mood entries reduced to 50
+        assertEquals(50, result.stream().filter(s -> s.moodValue() != null).count());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i).timestamp().isAfter(result.get(i - 1).timestamp()));
+        }
+    }
+
+    @Test
+    @DisplayName("Series within the limit are returned as-is")
+    void lttb_smallSeriesUnchanged() {
+        List<VitalSampleDTO> samples = heartRateAndMood(20);
+        assertSame(samples, downsampler.lttb(samples, 50));
+    }
+
+    @Test
+    @DisplayName("SQL buckets contribute their min and max samples in time order")
+    void lttb_fromBuckets() {
+        long t0 = FROM.toEpochMilli();
+        List<MetricBucket> buckets = List.of(
+                new MetricBucket("HEART_RATE", t0, 60, t0 + 500, 150, t0 + 100, 80, 10),
+                new MetricBucket("SYSTOLIC", t0, 120, t0 + 100, 120, t0 + 100, 120, 1));
+
+        List<VitalSampleDTO> result = downsampler.lttb(PATIENT, buckets, 10);
+
+        assertEquals(2, result.size());
+        assertEquals(150.0, result.get(0).heartRate());
+        assertEquals(120, result.get(0).systolic());
+        assertEquals(60.0, result.get(1).heartRate());
+        assertNull(result.get(1).systolic());
+    }
+
+    @Test
+    @DisplayName("In-memory bands cover the window with fixed-width buckets per metric")
+    void minMax_inMemory() {
+        Instant to = FROM.plus(Duration.ofHours(10));
+        List<VitalBucketDTO> bands = downsampler.minMax(heartRateAndMood(600), FROM, to, 10);
+
+        List<VitalBucketDTO> heartRate = bands.stream().filter(b -> b.metric().equals("HEART_RATE")).toList();
+        assertEquals(10, heartRate.size());
+        assertEquals(Duration.ofHours(1), Duration.between(heartRate.get(0).bucketStart(), heartRate.get(0).bucketEnd()));
+        assertEquals(70.0, heartRate.get(0).min());
+        assertEquals(76.0, heartRate.get(0).max());
+        assertEquals(60, heartRate.get(0).count());
+    }
+
+    @Test
+    @DisplayName("Unknown modes are rejected")
+    void parseMode() {
+        assertEquals(VitalDownsampler.Mode.MINMAX, VitalDownsampler.Mode.parse("minmax"));
+        assertEquals(VitalDownsampler.Mode.LTTB, VitalDownsampler.Mode.parse(null));
+        assertThrows(AppException.class, () -> VitalDownsampler.Mode.parse("median"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.repository.VitalExportRepository.ExportRow;
+
+/**
+ * Unit tests for {@link VitalRowMerger}.
+ */
+class VitalRowMergerTest {
+
+    private static final Long PATIENT = 4L;
+
+    @Test
+    @DisplayName("Rows sharing a timestamp become one sample, emitted when the timestamp changes")
+    void mergesByTimestamp() {
+        List<VitalSampleDTO> out = new ArrayList<>();
+        VitalRowMerger merger = new VitalRowMerger(PATIENT, out::add);
+
+        merger.accept(new ExportRow(1000, "HEART_RATE", 72));
+        merger.accept(new ExportRow(1000, "SYSTOLIC", 121.6));
+        merger.accept(new ExportRow(1000, "MOOD", 6));
+        assertTrue(out.isEmpty());
+        merger.accept(new ExportRow(2000, "SPO2", 97));
+        assertEquals(1, out.size());
+        merger.finish();
+
+        assertEquals(2, out.size());
+        assertEquals(2, merger.getSamples());
+        VitalSampleDTO first = out.get(0);
+        assertEquals(Instant.ofEpochMilli(1000), first.timestamp());
+        assertEquals(PATIENT, first.patientId());
+        assertEquals(72.0, first.heartRate());
+        assertEquals(121, first.systolic());
+        assertEquals(6, first.moodValue());
+        assertNull(first.spo2());
+        assertNull(out.get(1).heartRate());
+        assertEquals(97.0, out.get(1).spo2());
+    }
+
+    @Test
+    @DisplayName("The last row of a metric within a timestamp wins")
+    void lastRowWins() {
+        List<VitalSampleDTO> out = new ArrayList<>();
+        VitalRowMerger merger = new VitalRowMerger(PATIENT, out::add);
+
+        merger.accept(new ExportRow(1000, "PAIN", 3));
+        merger.accept(new ExportRow(1000, "PAIN", 7));
+        merger.finish();
+
+        assertEquals(7, out.get(0).painValue());
+    }
+
+    @Test
+    @DisplayName("An empty stream emits nothing")
+    void emptyStream() {
+        List<VitalSampleDTO> out = new ArrayList<>();
+        VitalRowMerger merger = new VitalRowMerger(PATIENT, out::add);
+        merger.finish();
+        assertTrue(out.isEmpty());
+    }
+}
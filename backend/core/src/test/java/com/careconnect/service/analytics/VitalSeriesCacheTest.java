@@ -0,0 +1,180 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.VitalSeriesCacheConfig;
+import com.careconnect.dto.VitalSampleDTO;
+import com.careconnect.model.WearableMetric.MetricType;
+import com.careconnect.repository.MoodPainLogRepository;
+import com.careconnect.repository.MoodPainLogRepository.MoodPainPoint;
+import com.careconnect.repository.WearableMetricIngestRepository.InsertedSample;
+import com.careconnect.repository.WearableMetricRepository;
+import com.careconnect.repository.WearableMetricRepository.MetricPoint;
+
+/**
+ * Unit tests for {@link VitalSeriesCache}.
+ */
+class VitalSeriesCacheTest {
+
+    private static final Long PATIENT = 1L;
+    private static final Long PATIENT_USER = 100L;
+
+    @Mock
+    private WearableMetricRepository wearableMetricRepository;
+    @Mock
+    private MoodPainLogRepository moodPainLogRepository;
+
+    private VitalSeriesCacheConfig config;
+    private VitalSeriesCache cache;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new VitalSeriesCacheConfig();
+        cache = new VitalSeriesCache(wearableMetricRepository, moodPainLogRepository, config);
+        now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static MetricPoint point(MetricType metric, double value, Instant at) {
+        return new MetricPoint() {
+            public MetricType getMetric() { return metric; }
+            public Double getMetricValue() { return value; }
+            public Instant getRecordedAt() { return at; }
+        };
+    }
+
+    private static MoodPainPoint mood(int mood, int pain, Instant at) {
+        return new MoodPainPoint() {
+            public LocalDateTime getTimestamp() { return LocalDateTime.ofInstant(at, ZoneOffset.UTC); }
+            public Integer getMoodValue() { return mood; }
+            public Integer getPainValue() { return pain; }
+        };
+    }
+
+    @Test
+    @DisplayName("Windows up to the preload length are covered by the cache")
+    void covers_preloadWindow() {
+        assertTrue(cache.covers(now.minus(90, ChronoUnit.DAYS), now));
+        assertFalse(cache.covers(now.minus(91, ChronoUnit.DAYS), now));
+
+        config.setEnabled(false);
+        assertFalse(cache.covers(now.minus(1, ChronoUnit.DAYS), now));
+    }
+
+    @Test
+    @DisplayName("Metrics sharing a timestamp are merged into one sample")
+    void range_mergesByTimestamp() {
+        Instant t1 = now.minus(2, ChronoUnit.HOURS);
+        Instant t2 = now.minus(1, ChronoUnit.HOURS);
+        when(wearableMetricRepository.findPointsSince(eq(PATIENT_USER), any())).thenReturn(List.of(
+                point(MetricType.HEART_RATE, 70, t1),
+                point(MetricType.BLOOD_PRESSURE_SYS, 120, t1),
+                point(MetricType.HEART_RATE, 75, t2),
+                point(MetricType.TEMPERATURE, 37, t2)));
+        when(moodPainLogRepository.findPointsSince(eq(PATIENT), any())).thenReturn(List.of(mood(6, 2, t2)));
+
+        List<VitalSampleDTO> samples = cache.range(PATIENT, PATIENT_USER, now.minus(1, ChronoUnit.DAYS), now);
+
+        assertEquals(2, samples.size());
+        assertEquals(t1, samples.get(0).timestamp());
+        assertEquals(70.0, samples.get(0).heartRate());
+        assertEquals(120, samples.get(0).systolic());
+        assertNull(samples.get(0).moodValue());
+        assertEquals(75.0, samples.get(1).heartRate());
+        assertEquals(6, samples.get(1).moodValue());
+        assertEquals(2, samples.get(1).painValue());
+    }
+
+    @Test
+    @DisplayName("Writes after load are appended without reloading")
+    void append_updatesCachedPatient() {
+        when(wearableMetricRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        when(moodPainLogRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        cache.range(PATIENT, PATIENT_USER, now.minus(1, ChronoUnit.DAYS), now);
+
+        cache.appendWearables(PATIENT, List.of(
+                new InsertedSample(MetricType.SPO2, 97, now.minusSeconds(30).toEpochMilli())));
+        List<VitalSampleDTO> samples = cache.range(PATIENT, PATIENT_USER, now.minus(1, ChronoUnit.DAYS), now);
+
+        assertEquals(1, samples.size());
+        assertEquals(97.0, samples.get(0).spo2());
+        verify(wearableMetricRepository, times(1)).findPointsSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Invalidation and windows older than the loaded history trigger a reload")
+    void range_reloadsWhenNeeded() {
+        when(wearableMetricRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        when(moodPainLogRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+
+        cache.range(PATIENT, PATIENT_USER, now.minus(7, ChronoUnit.DAYS), now);
+        cache.range(PATIENT, PATIENT_USER, now.minus(30, ChronoUnit.DAYS), now);
+        cache.range(PATIENT, PATIENT_USER, now.minus(365, ChronoUnit.DAYS), now);
+        cache.invalidate(PATIENT);
+        cache.range(PATIENT, PATIENT_USER, now.minus(7, ChronoUnit.DAYS), now);
+
+        verify(wearableMetricRepository, times(3)).findPointsSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Windows older than the preload window are read without extending the cached history")
+    void range_olderWindowNotRetained() {
+        Instant old = now.minus(200, ChronoUnit.DAYS);
+        when(wearableMetricRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        when(wearableMetricRepository.findPointsSince(PATIENT_USER, old))
+                .thenReturn(List.of(point(MetricType.WEIGHT, 80, old)));
+        when(moodPainLogRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+
+        cache.range(PATIENT, PATIENT_USER, now.minus(7, ChronoUnit.DAYS), now);
+        List<VitalSampleDTO> samples = cache.range(PATIENT, PATIENT_USER, old, old.plus(1, ChronoUnit.DAYS));
+        cache.range(PATIENT, PATIENT_USER, old, old.plus(1, ChronoUnit.DAYS));
+        cache.range(PATIENT, PATIENT_USER, now.minus(30, ChronoUnit.DAYS), now);
+
+        assertEquals(80.0, samples.get(0).weight());
+        assertEquals(1, cache.size());
+        verify(wearableMetricRepository, times(2)).findPointsSince(PATIENT_USER, old);
+        verify(wearableMetricRepository, times(3)).findPointsSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("The least recently read patient is evicted")
+    void lru_evictsEldest() {
+        config.setMaxPatients(2);
+        when(wearableMetricRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        when(moodPainLogRepository.findPointsSince(anyLong(), any())).thenReturn(List.of());
+        Instant from = now.minus(1, ChronoUnit.DAYS);
+
+        cache.range(1L, 101L, from, now);
+        cache.range(2L, 102L, from, now);
+        cache.range(1L, 101L, from, now);
+        cache.range(3L, 103L, from, now);
+        cache.range(1L, 101L, from, now);
+        cache.range(2L, 102L, from, now);
+
+        assertEquals(2, cache.size());
+        verify(wearableMetricRepository, times(1)).findPointsSince(eq(101L), any());
+        verify(wearableMetricRepository, times(2)).findPointsSince(eq(102L), any());
+    }
+}
@@ -0,0 +1,184 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.WearableIngestConfig;
+import com.careconnect.dto.WearableIngestResultDTO;
+import com.careconnect.exception.AppException;
+import com.careconnect.model.Patient;
+import com.careconnect.model.User;
+import com.careconnect.model.WearableMetric.MetricType;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.WearableMetricIngestRepository;
+import com.careconnect.repository.WearableMetricIngestRepository.InsertedSample;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Unit tests for {@link WearableIngestionService}.
+ */
+class WearableIngestionServiceTest {
+
+    private static final Long PATIENT_ID = 3L;
+    private static final Long PATIENT_USER_ID = 30L;
+
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private WearableMetricIngestRepository ingestRepository;
+    @Mock
+    private VitalSeriesCache vitalSeriesCache;
+    @Mock
+    private SummaryRollupService summaryRollupService;
+    @Mock
+    private LiveMetricsHub liveMetricsHub;
+
+    private WearableIngestConfig config;
+    private WearableIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new WearableIngestConfig();
+        service = new WearableIngestionService(patientRepository, ingestRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                vitalSeriesCache, summaryRollupService, liveMetricsHub, config);
+
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        patient.setUser(User.builder().id(PATIENT_USER_ID).build());
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient));
+        // Every sample sent is reported as newly inserted
+        when(ingestRepository.insertIgnoringDuplicates(eq(PATIENT_USER_ID), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    String[] metrics = inv.getArgument(1);
+                    Double[] values = inv.getArgument(2);
+                    Long[] times = inv.getArgument(3);
+                    List<InsertedSample> inserted = new ArrayList<>();
+                    for (int i = 0; i < metrics.length; i++) {
+                        inserted.add(new InsertedSample(MetricType.valueOf(metrics[i]), values[i], times[i]));
+                    }
+                    return inserted;
+                });
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("A JSON array is written as column arrays in one batch")
+    void ingest_jsonArray() {
+        WearableIngestResultDTO result = service.ingest(PATIENT_ID, body("""
+                [{"metric":"HEART_RATE","value":72,"recordedAt":"2025-03-01T10:00:00Z"},
+                 {"metric":"spo2","value":97.5,"recordedAt":"2025-03-01T10:00:00Z"}]
+                """));
+
+        ArgumentCaptor<String[]> metrics = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<Long[]> times = ArgumentCaptor.forClass(Long[].class);
+        verify(ingestRepository).insertIgnoringDuplicates(eq(PATIENT_USER_ID), metrics.capture(), any(), times.capture());
+        assertArrayEquals(new String[] {"HEART_RATE", "SPO2"}, metrics.getValue());
+        long at = Instant.parse("2025-03-01T10:00:00Z").toEpochMilli();
+        assertArrayEquals(new Long[] {at, at}, times.getValue());
+        assertEquals(2, result.received());
+        assertEquals(2, result.inserted());
+        verify(vitalSeriesCache).appendWearables(eq(PATIENT_ID), anyList());
+        verify(summaryRollupService).markDirty(PATIENT_USER_ID, Instant.ofEpochMilli(at), Instant.ofEpochMilli(at));
+        verify(liveMetricsHub).markDirty(PATIENT_ID);
+    }
+
+    @Test
+    @DisplayName("NDJSON bodies are split into batches of the configured size")
+    void ingest_ndjsonInBatches() {
+        config.setBatchSize(2);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append("{\"metric\":\"WEIGHT\",\"value\":80,\"recordedAt\":\"2025-03-0")
+                    .append(i + 1).append("T08:00:00Z\"}\n");
+        }
+
+        WearableIngestResultDTO result = service.ingest(PATIENT_ID, body(ndjson.toString()));
+
+        verify(ingestRepository, times(3)).insertIgnoringDuplicates(eq(PATIENT_USER_ID), any(), any(), any());
+        assertEquals(5, result.inserted());
+        verify(liveMetricsHub, times(3)).markDirty(PATIENT_ID);
+    }
+
+    @Test
+    @DisplayName("Invalid samples are rejected individually and the rest is stored")
+    void ingest_rejectsInvalidSamples() {
+        WearableIngestResultDTO result = service.ingest(PATIENT_ID, body("""
+                [{"metric":"STEPS","value":10,"recordedAt":"2025-03-01T10:00:00Z"},
+                 {"metric":"HEART_RATE","value":-1,"recordedAt":"2025-03-01T10:00:00Z"},
+                 {"metric":"HEART_RATE","value":"fast","recordedAt":"2025-03-01T10:00:00Z"},
+                 {"metric":"HEART_RATE","value":70,"recordedAt":"2999-01-01T00:00:00Z"},
+                 {"metric":"HEART_RATE","value":70,"recordedAt":"2025-03-01T10:00:00Z"}]
+                """));
+
+        assertEquals(5, result.received());
+        assertEquals(1, result.inserted());
+        assertEquals(4, result.rejected());
+        assertEquals(4, result.errors().size());
+    }
+
+    @Test
+    @DisplayName("Samples repeated within a request or already stored count as duplicates")
+    void ingest_countsDuplicates() {
+        when(ingestRepository.insertIgnoringDuplicates(eq(PATIENT_USER_ID), any(), any(), any()))
+                .thenReturn(List.of());
+
+        WearableIngestResultDTO result = service.ingest(PATIENT_ID, body("""
+                {"metric":"HEART_RATE","value":72,"recordedAt":"2025-03-01T10:00:00Z"}
+                {"metric":"HEART_RATE","value":73,"recordedAt":"2025-03-01T10:00:00Z"}
+                """));
+
+        assertEquals(2, result.duplicates());
+        assertEquals(0, result.inserted());
+        verify(vitalSeriesCache, never()).appendWearables(any(), anyList());
+        verify(liveMetricsHub, never()).markDirty(any());
+    }
+
+    @Test
+    @DisplayName("Malformed JSON stops reading but keeps what was already parsed")
+    void ingest_malformedJson() {
+        WearableIngestResultDTO result = service.ingest(PATIENT_ID, body("""
+                [{"metric":"HEART_RATE","value":72,"recordedAt":"2025-03-01T10:00:00Z"},
+                 {"metric":"HEART_RATE",
+                """));
+
+        assertEquals(1, result.inserted());
+        assertTrue(result.errors().get(0).startsWith("Malformed JSON"));
+    }
+
+    @Test
+    @DisplayName("Unknown patients are rejected before reading the body")
+    void ingest_unknownPatient() {
+        assertThrows(AppException.class, () -> service.ingest(99L, body("[]")));
+        verify(ingestRepository, never()).insertIgnoringDuplicates(any(), any(), any(), any());
+    }
+}
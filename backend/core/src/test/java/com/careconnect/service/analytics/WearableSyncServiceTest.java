@@ -0,0 +1,249 @@
+package com.careconnect.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.client.RestTemplate;
+
+import com.careconnect.config.WearableSyncConfig;
+import com.careconnect.dto.WearableSampleDTO;
+import com.careconnect.model.Patient;
+import com.careconnect.repository.PatientRepository;
+import com.careconnect.repository.WearableConnectionRepository;
+import com.careconnect.repository.WearableConnectionRepository.Connection;
+import com.careconnect.security.TokenCryptor;
+import com.careconnect.service.FitbitService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link WearableSyncService}, against a local stub of the Fitbit API.
+ */
+class WearableSyncServiceTest {
+
+    private static final Long PATIENT_ID = 3L;
+    private static final Long PATIENT_USER_ID = 30L;
+
+    @Mock
+    private WearableConnectionRepository connectionRepository;
+    @Mock
+    private WearableIngestionService ingestionService;
+    @Mock
+    private PatientRepository patientRepository;
+
+    private HttpServer stub;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Instant> heartRatePoints = new ArrayList<>();
+    private volatile String rateLimitRemaining = "150";
+    private volatile int heartRateStatus = 200;
+    private volatile int tokenStatus = 200;
+
+    private final TokenCryptor cryptor = new TokenCryptor("test-secret");
+    private WearableSyncConfig config;
+    private WearableSyncService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/", this::handle);
+        stub.start();
+
+        config = new WearableSyncConfig();
+        String baseUrl = "http://127.0.0.1:" + stub.getAddress().getPort();
+        config.setApiBaseUrl(baseUrl);
+        config.setTokenUri(baseUrl + "/oauth2/token");
+        config.setNodeId("node-a");
+        FitbitService fitbit = new FitbitService(new RestTemplate(), config, "client", "secret");
+        service = new WearableSyncService(connectionRepository, fitbit, ingestionService, patientRepository,
+                cryptor, config);
+        service.start();
+
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        when(patientRepository.findByUserId(PATIENT_USER_ID)).thenReturn(Optional.of(patient));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+        stub.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(path + " " + exchange.getRequestHeaders().getFirst("Authorization"));
+        int status = 200;
+        String body;
+        if (path.equals("/oauth2/token")) {
+            status = tokenStatus;
+            body = "{\"access_token\":\"fresh-access\",\"refresh_token\":\"fresh-refresh\",\"expires_in\":28800}";
+        } else if (path.contains("/spo2/")) {
+            body = "[]";
+        } else if (path.contains("/body/log/weight/")) {
+            body = "{\"weight\":[]}";
+        } else if (path.contains("/activities/heart/date/")) {
+            status = heartRateStatus;
+            LocalDate day = LocalDate.parse(path.split("/")[7]);
+            body = "{\"activities-heart-intraday\":{\"dataset\":[" + heartRatePoints.stream()
+                    .filter(at -> at.atZone(ZoneOffset.UTC).toLocalDate().equals(day))
+                    .map(at -> "{\"time\":\"" + at.atZone(ZoneOffset.UTC).toLocalTime() + "\",\"value\":70}")
+                    .collect(Collectors.joining(",")) + "]}}";
+        } else {
+            status = 404;
+            body = "{}";
+        }
+        if (status == 429) {
+            exchange.getResponseHeaders().add("Retry-After", "900");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Fitbit-Rate-Limit-Remaining", rateLimitRemaining);
+        exchange.getResponseHeaders().add("Fitbit-Rate-Limit-Reset", "600");
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private Connection connection(Instant cursor, Instant tokenExpiresAt) {
+        return new Connection(1L, PATIENT_USER_ID, FitbitService.PROVIDER, cryptor.encrypt("access"),
+                cryptor.encrypt("refresh"), tokenExpiresAt, "UTC", cursor, 0, 0);
+    }
+
+    private long heartRateRequests() {
+        return requests.stream().filter(r -> r.contains("/activities/heart/")).count();
+    }
+
+    @Test
+    @DisplayName("Only the days since the cursor are fetched and only newer samples are written")
+    void sync_pullsDeltaSinceCursor() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant cursor = now.minus(Duration.ofHours(26));
+        Instant newest = now.minus(Duration.ofMinutes(10));
+        heartRatePoints.add(cursor.minus(Duration.ofHours(3)));
+        heartRatePoints.add(cursor.plus(Duration.ofHours(1)));
+        heartRatePoints.add(newest);
+
+        service.sync(connection(cursor, now.plus(Duration.ofHours(1))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<WearableSampleDTO>> samples = ArgumentCaptor.forClass(Iterable.class);
+        verify(ingestionService).ingest(eq(PATIENT_ID), eq(PATIENT_USER_ID), samples.capture());
+        List<Instant> written = new ArrayList<>();
+        samples.getValue().forEach(s -> written.add(s.recordedAt()));
+        assertEquals(List.of(cursor.plus(Duration.ofHours(1)), newest), written);
+
+        long days = ChronoUnit.DAYS.between(cursor.minus(Duration.ofHours(2)).atZone(ZoneOffset.UTC).toLocalDate(),
+                now.atZone(ZoneOffset.UTC).toLocalDate()) + 1;
+        assertEquals(days, heartRateRequests());
+        assertFalse(requests.stream().anyMatch(r -> r.contains("profile")));
+
+        ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+        verify(connectionRepository).complete(eq(1L), eq("node-a"), eq(newest), eq("UTC"), next.capture(), any());
+        assertTrue(next.getValue().isAfter(now));
+        assertTrue(!next.getValue().isAfter(now.plus(Duration.ofMinutes(config.getSyncIntervalMinutes()))));
+    }
+
+    @Test
+    @DisplayName("A nearly exhausted rate-limit window stops the sync until the window resets")
+    void sync_honoursRateLimitHeaders() {
+        rateLimitRemaining = "3";
+        Instant before = Instant.now();
+
+        service.sync(connection(before.minus(Duration.ofHours(1)), null));
+
+        assertEquals(1, requests.size());
+        ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+        verify(connectionRepository).complete(eq(1L), eq("node-a"), any(), eq("UTC"), next.capture(), any());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(600)));
+        verify(connectionRepository, never()).fail(any(), any(), any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    @DisplayName("A 429 keeps the cursor where it was and resumes after Retry-After")
+    void sync_backsOffOn429() {
+        heartRateStatus = 429;
+        Instant before = Instant.now();
+
+        service.sync(connection(before.minus(Duration.ofHours(1)), null));
+
+        ArgumentCaptor<Instant> cursor = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+        verify(connectionRepository).complete(eq(1L), eq("node-a"), cursor.capture(), eq("UTC"), next.capture(), any());
+        assertNull(cursor.getValue());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(900)));
+    }
+
+    @Test
+    @DisplayName("An expiring token is refreshed and the rotated tokens are stored encrypted")
+    void sync_refreshesExpiringToken() {
+        Instant now = Instant.now();
+
+        service.sync(connection(now.minus(Duration.ofHours(1)), now.minusSeconds(5)));
+
+        ArgumentCaptor<String> access = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> refresh = ArgumentCaptor.forClass(String.class);
+        verify(connectionRepository).updateTokens(eq(1L), access.capture(), refresh.capture(), any(), any());
+        assertEquals("fresh-access", cryptor.decrypt(access.getValue()));
+        assertEquals("fresh-refresh", cryptor.decrypt(refresh.getValue()));
+        assertTrue(requests.stream().filter(r -> r.contains("/activities/heart/"))
+                .allMatch(r -> r.endsWith("Bearer fresh-access")));
+    }
+
+    @Test
+    @DisplayName("A refused refresh deactivates the connection")
+    void sync_deactivatesRevokedConnection() {
+        tokenStatus = 400;
+
+        service.sync(connection(null, Instant.now().minusSeconds(5)));
+
+        verify(connectionRepository).fail(eq(1L), eq("node-a"), anyString(), any(), eq(true), any());
+        verify(connectionRepository, never()).complete(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Users are spread evenly over the sync interval")
+    void nextSlot_spreadsUsers() {
+        Instant now = Instant.parse("2026-10-19T10:00:00Z");
+        int[] perMinute = new int[60];
+        for (long userId = 1; userId <= 6000; userId++) {
+            Instant next = service.nextSlot(now, WearableSyncService.slotOffset(userId));
+            assertTrue(next.isAfter(now) && !next.isAfter(now.plus(Duration.ofHours(1))));
+            perMinute[(int) Duration.between(now, next).minusSeconds(1).toMinutes()]++;
+        }
+
+        for (int count : perMinute) {
+            assertTrue(count > 60 && count < 140, "uneven slot distribution: " + count);
+        }
+    }
+}
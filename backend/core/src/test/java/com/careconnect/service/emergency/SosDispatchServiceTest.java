@@ -0,0 +1,176 @@
+package com.careconnect.service.emergency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.SosConfig;
+import com.careconnect.dto.FirebaseNotificationRequest;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.service.EmailService;
+import com.careconnect.service.NotificationLogService;
+import com.careconnect.service.emergency.CaregiverRoutingTable.Route;
+import com.careconnect.service.notification.PushNotificationSender;
+import com.careconnect.websocket.CallNotificationHandler;
+import com.careconnect.websocket.CareConnectWebSocketHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link SosDispatchService}.
+ */
+class SosDispatchServiceTest {
+
+    private static final Long PATIENT = 1L;
+
+    @Mock
+    private CaregiverRoutingTable routingTable;
+    @Mock
+    private CallNotificationHandler callNotificationHandler;
+    @Mock
+    private CareConnectWebSocketHandler careConnectWebSocketHandler;
+    @Mock
+    private PushNotificationSender pushNotificationSender;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private NotificationLogService notificationLogService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SosDispatchService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        SosConfig config = new SosConfig();
+        config.setEscalateAfterSeconds(3600);
+        service = new SosDispatchService(routingTable, callNotificationHandler, careConnectWebSocketHandler,
+                pushNotificationSender, emailService, notificationLogService, meterRegistry, config);
+
+        when(routingTable.routesFor(PATIENT)).thenReturn(List.of(
+                new Route(10L, "Online Caregiver", "online@example.com"),
+                new Route(20L, "Offline Caregiver", "offline@example.com")));
+        when(notificationLogService.append(anyString(), anyMap())).thenAnswer(inv -> inv.getArgument(1));
+        when(callNotificationHandler.sendNotificationToUser(eq("10"), anyMap())).thenReturn(true);
+        when(pushNotificationSender.sendAsync(anyList(), any(Executor.class))).thenAnswer(inv -> {
+            List<FirebaseNotificationRequest> requests = inv.getArgument(0);
+            return CompletableFuture.completedFuture(requests.stream()
+                    .map(r -> NotificationResponse.failure("No active device tokens"))
+                    .toList());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Caregivers not reached over socket or push fall back to email")
+    void dispatch_fallsBackToEmail() {
+        SosDispatchService.SosDispatchResult result =
+                service.dispatch(PATIENT, "Pat", "call-1", "FALL", "Home", null, false);
+
+        assertEquals(2, result.recipients());
+        assertEquals(2, result.reached());
+        verify(emailService).sendHtmlEmail(eq("offline@example.com"), anyString(), anyString());
+        verify(emailService, never()).sendHtmlEmail(eq("online@example.com"), anyString(), anyString());
+        assertEquals(1, meterRegistry.get("careconnect.sos.fanout.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Reached count only includes caregivers a channel delivered to")
+    void dispatch_countsOnlyDeliveredRecipients() {
+        when(routingTable.routesFor(PATIENT)).thenReturn(List.of(
+                new Route(10L, "Online Caregiver", "online@example.com"),
+                new Route(30L, "No Email Caregiver", null)));
+
+        SosDispatchService.SosDispatchResult result =
+                service.dispatch(PATIENT, "Pat", "call-2", "FALL", null, null, false);
+
+        assertEquals(2, result.recipients());
+        assertEquals(1, result.reached());
+    }
+
+    @Test
+    @DisplayName("First acknowledgement is recorded once and stops the incident")
+    void acknowledge_recordsFirstAck() {
+        service.dispatch(PATIENT, "Pat", "call-3", "FALL", null, null, false);
+
+        assertTrue(service.acknowledge("call-3", 20L));
+        assertTrue(service.acknowledge("call-3", 10L));
+
+        Map<String, Object> status = service.getIncidentStatus("call-3").orElseThrow();
+        assertEquals(SosDispatchService.Status.ACKNOWLEDGED, status.get("status"));
+        assertEquals(20L, status.get("firstAcknowledgedBy"));
+        assertEquals(1, meterRegistry.get("careconnect.sos.first.ack.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Acknowledgements from non-recipients or for unknown calls are rejected")
+    void acknowledge_rejectsUnknown() {
+        service.dispatch(PATIENT, "Pat", "call-4", "FALL", null, null, false);
+
+        assertFalse(service.acknowledge("call-4", 99L));
+        assertFalse(service.acknowledge("missing", 10L));
+        assertEquals(SosDispatchService.Status.ACTIVE, service.getIncidentStatus("call-4").orElseThrow().get("status"));
+    }
+
+    @Test
+    @DisplayName("Only the patient and the recipients are participants of an SOS")
+    void isParticipant_patientAndRecipientsOnly() {
+        service.dispatch(PATIENT, "Pat", "call-6", "FALL", null, null, false);
+
+        assertTrue(service.isParticipant("call-6", PATIENT));
+        assertTrue(service.isParticipant("call-6", 20L));
+        assertFalse(service.isParticipant("call-6", 99L));
+        assertFalse(service.isParticipant("missing", PATIENT));
+    }
+
+    @Test
+    @DisplayName("Caller-supplied text is HTML-escaped in the fallback email")
+    void dispatch_escapesEmailHtml() {
+        service.dispatch(PATIENT, "<b>Pat</b>", "call-7", "<script>x</script>", "A & B", null, false);
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendHtmlEmail(eq("offline@example.com"), anyString(), body.capture());
+        assertTrue(body.getValue().contains("&lt;b&gt;Pat&lt;/b&gt;"));
+        assertTrue(body.getValue().contains("&lt;script&gt;x&lt;/script&gt;"));
+        assertTrue(body.getValue().contains("A &amp; B"));
+        assertFalse(body.getValue().contains("<script>"));
+    }
+
+    @Test
+    @DisplayName("Patients without caregivers reach nobody")
+    void dispatch_noCaregivers() {
+        when(routingTable.routesFor(2L)).thenReturn(List.of());
+
+        SosDispatchService.SosDispatchResult result =
+                service.dispatch(2L, "Solo", "call-5", "FALL", null, null, false);
+
+        assertEquals(0, result.reached());
+        assertTrue(service.getIncidentStatus("call-5").isEmpty());
+    }
+}
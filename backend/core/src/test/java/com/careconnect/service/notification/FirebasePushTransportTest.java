@@ -0,0 +1,43 @@
+package com.careconnect.service.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.service.notification.PushTransport.PushResult;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+
+/**
+ * Unit tests for {@link FirebasePushTransport}.
+ */
+class FirebasePushTransportTest {
+
+    @Test
+    @DisplayName("only unregistered or foreign tokens should be reported as invalid")
+    void testToResult_invalidToken() {
+        assertEquals(PushResult.Status.INVALID_TOKEN,
+                FirebasePushTransport.toResult(error(MessagingErrorCode.UNREGISTERED)).status());
+        assertEquals(PushResult.Status.INVALID_TOKEN,
+                FirebasePushTransport.toResult(error(MessagingErrorCode.SENDER_ID_MISMATCH)).status());
+    }
+
+    @Test
+    @DisplayName("an invalid argument should fail the message without invalidating the token")
+    void testToResult_invalidArgument() {
+        PushResult result = FirebasePushTransport.toResult(error(MessagingErrorCode.INVALID_ARGUMENT));
+
+        assertEquals(PushResult.Status.FAILED, result.status());
+        assertEquals("Message payload too large", result.error());
+    }
+
+    private static FirebaseMessagingException error(MessagingErrorCode code) {
+        FirebaseMessagingException e = mock(FirebaseMessagingException.class);
+        when(e.getMessagingErrorCode()).thenReturn(code);
+        when(e.getMessage()).thenReturn("Message payload too large");
+        return e;
+    }
+}
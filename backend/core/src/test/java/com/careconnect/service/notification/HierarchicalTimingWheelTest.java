@@ -0,0 +1,93 @@
+package com.careconnect.service.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HierarchicalTimingWheel}.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    @DisplayName("add should reject items that are already due")
+    void testAdd_alreadyDue() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+
+        assertFalse(wheel.add(START - 5000, "past"));
+        assertFalse(wheel.add(START + 500, "same-tick"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("advanceClock should expire items only once their tick has passed")
+    void testAdvanceClock_levelZero() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+        assertTrue(wheel.add(START + 3000, "a"));
+        assertTrue(wheel.add(START + 10_000, "b"));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advanceClock(START + 2000, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advanceClock(START + 3000, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    @DisplayName("items beyond the first level should cascade down and expire on time")
+    void testAdvanceClock_cascade() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+        long inFortyMinutes = START + 40 * 60_000L;
+        assertTrue(wheel.add(inFortyMinutes, "reminder"));
+
+        List<String> expired = new ArrayList<>();
+        for (long now = START; now < inFortyMinutes; now += 1000) {
+            wheel.advanceClock(now, expired::add);
+        }
+        assertTrue(expired.isEmpty());
+
+        wheel.advanceClock(inFortyMinutes, expired::add);
+        assertEquals(List.of("reminder"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("a large clock jump should expire everything that became due")
+    void testAdvanceClock_jump() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+        for (int i = 2; i <= 5001; i++) {
+            assertTrue(wheel.add(START + i * 700L, i));
+        }
+
+        List<Integer> expired = new ArrayList<>();
+        wheel.advanceClock(START + 3_600_000L, expired::add);
+
+        assertEquals(5000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("drainAll should return every held item and reject items past the horizon")
+    void testDrainAll_andHorizon() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 10, 2, START);
+        assertTrue(wheel.add(START + 5000, "near"));
+        assertTrue(wheel.add(START + 50_000, "far"));
+        assertFalse(wheel.add(wheel.horizonMs() + 1000, "beyond"));
+
+        List<String> drained = wheel.drainAll();
+
+        assertEquals(2, drained.size());
+        assertTrue(drained.containsAll(List.of("near", "far")));
+        assertEquals(0, wheel.size());
+    }
+}
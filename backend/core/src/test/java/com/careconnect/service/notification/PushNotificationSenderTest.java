@@ -0,0 +1,113 @@
+package com.careconnect.service.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.PushNotificationConfig;
+import com.careconnect.dto.FirebaseNotificationRequest;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.repository.DeviceTokenRepository;
+
+/**
+ * Unit tests for {@link PushNotificationSender}, using {@link LocalPushTransport} as the transport.
+ */
+class PushNotificationSenderTest {
+
+    @Mock
+    private DeviceTokenRepository deviceTokenRepository;
+
+    private LocalPushTransport transport;
+    private PushNotificationSender sender;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PushNotificationConfig config = new PushNotificationConfig();
+        config.setInitialBackoffMs(1);
+        transport = new LocalPushTransport();
+        sender = new PushNotificationSender(transport, deviceTokenRepository, config);
+    }
+
+    private static DeviceTokenRepository.UserToken token(Long userId, String fcmToken) {
+        return new DeviceTokenRepository.UserToken() {
+            public Long getUserId() { return userId; }
+            public String getFcmToken() { return fcmToken; }
+        };
+    }
+
+    private static FirebaseNotificationRequest toUser(long userId) {
+        return FirebaseNotificationRequest.builder()
+                .targetUserId(userId)
+                .title("Reminder")
+                .body("Take your medication")
+                .notificationType("MEDICATION_REMINDER")
+                .build();
+    }
+
+    @Test
+    @DisplayName("sendAsync should resolve tokens once and send devices in batches of at most 500")
+    void testSendAsync_batchesDevices() {
+        List<DeviceTokenRepository.UserToken> tokens = new ArrayList<>();
+        IntStream.range(0, 1200).forEach(i -> tokens.add(token((long) i, "token-" + i)));
+        when(deviceTokenRepository.findActiveUserTokens(anyCollection())).thenReturn(tokens);
+
+        List<FirebaseNotificationRequest> requests = IntStream.range(0, 1200).mapToObj(PushNotificationSenderTest::toUser).toList();
+        List<NotificationResponse> responses = sender.sendAsync(requests).join();
+
+        assertEquals(1200, responses.size());
+        assertTrue(responses.stream().allMatch(NotificationResponse::isSuccess));
+        assertEquals(3, transport.getBatches().size());
+        assertTrue(transport.getBatches().stream().allMatch(batch -> batch.size() <= 500));
+        verify(deviceTokenRepository).findActiveUserTokens(anyCollection());
+        verify(deviceTokenRepository, never()).deactivateByFcmTokens(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("invalid tokens should be deactivated in one call and users without devices should fail")
+    void testSendAsync_prunesInvalidTokens() {
+        when(deviceTokenRepository.findActiveUserTokens(anyCollection())).thenReturn(List.of(
+                token(1L, "invalid-a"),
+                token(1L, "good-a"),
+                token(2L, "invalid-b")));
+
+        List<NotificationResponse> responses = sender.sendAsync(List.of(toUser(1), toUser(2), toUser(3))).join();
+
+        assertTrue(responses.get(0).isSuccess());
+        assertFalse(responses.get(1).isSuccess());
+        assertFalse(responses.get(2).isSuccess());
+        verify(deviceTokenRepository).deactivateByFcmTokens(eq(Set.of("invalid-a", "invalid-b")), any());
+    }
+
+    @Test
+    @DisplayName("retryable failures should be resent until they succeed")
+    void testSendAsync_retriesTransientFailures() {
+        when(deviceTokenRepository.findActiveUserTokens(anyCollection())).thenReturn(List.of(
+                token(1L, "flaky-1"),
+                token(2L, "ok-2")));
+
+        List<NotificationResponse> responses = sender.sendAsync(List.of(toUser(1), toUser(2))).join();
+
+        assertTrue(responses.stream().allMatch(NotificationResponse::isSuccess));
+        assertEquals(2, transport.getBatches().size());
+        assertEquals(1, transport.getBatches().get(1).size());
+        assertEquals("flaky-1", transport.getBatches().get(1).get(0).token());
+    }
+}
@@ -0,0 +1,96 @@
+package com.careconnect.service.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.careconnect.config.NotificationDispatchConfig;
+import com.careconnect.dto.NotificationResponse;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository.DeliveryFailure;
+import com.careconnect.repository.ScheduledNotificationLeaseRepository.LeasedNotification;
+import com.careconnect.service.NotificationService;
+import com.careconnect.service.WebSocketNotificationService;
+
+/**
+ * Unit tests for {@link ScheduledNotificationDispatcher}.
+ */
+class ScheduledNotificationDispatcherTest {
+
+    @Mock
+    private ScheduledNotificationLeaseRepository leaseRepository;
+
+    @Mock
+    private WebSocketNotificationService webSocketNotificationService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private ScheduledNotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        NotificationDispatchConfig config = new NotificationDispatchConfig();
+        config.setNodeId("test-node");
+        dispatcher = new ScheduledNotificationDispatcher(leaseRepository, webSocketNotificationService,
+                notificationService, config);
+        dispatcher.init();
+
+        LeasedNotification due = new LeasedNotification(1L, 7L, "Walk", "Time for a walk", "REMINDER",
+                LocalDateTime.now().minusMinutes(1), 3L);
+        when(leaseRepository.leaseDue(anyString(), any(), any(), anyInt(), anyInt())).thenReturn(List.of(due));
+        when(leaseRepository.claimForDelivery(eq("test-node"), anyList(), any())).thenReturn(List.of(1L));
+        dispatcher.leaseUpcoming();
+    }
+
+    @Test
+    @DisplayName("offline receiver with failed push should be marked failed, not sent")
+    @SuppressWarnings("unchecked")
+    void testDispatch_offlineAndPushFailed() {
+        when(webSocketNotificationService.sendScheduledNotification(anyString(), anyLong(), any(), any(), any(), any()))
+                .thenReturn(false);
+        when(notificationService.sendBulkNotifications(anyList()))
+                .thenReturn(List.of(NotificationResponse.failure("no device token")));
+
+        dispatcher.tick();
+
+        ArgumentCaptor<List<DeliveryFailure>> failed = ArgumentCaptor.forClass(List.class);
+        verify(leaseRepository).completeSent(eq("test-node"), eq(List.of()), any());
+        verify(leaseRepository).completeFailed(eq("test-node"), failed.capture(), any());
+        assertEquals(1L, failed.getValue().get(0).id());
+        assertTrue(failed.getValue().get(0).errorMessage().contains("not connected"));
+        assertTrue(failed.getValue().get(0).errorMessage().contains("no device token"));
+    }
+
+    @Test
+    @DisplayName("offline receiver reached by push should be marked sent")
+    void testDispatch_offlineButPushed() {
+        when(webSocketNotificationService.sendScheduledNotification(anyString(), anyLong(), any(), any(), any(), any()))
+                .thenReturn(false);
+        when(notificationService.sendBulkNotifications(anyList()))
+                .thenReturn(List.of(NotificationResponse.success("msg-1")));
+
+        dispatcher.tick();
+
+        verify(leaseRepository).completeSent(eq("test-node"), eq(List.of(1L)), any());
+        verify(leaseRepository).completeFailed(eq("test-node"), eq(List.of()), any());
+    }
+}
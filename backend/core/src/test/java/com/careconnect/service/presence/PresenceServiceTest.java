@@ -0,0 +1,124 @@
+package com.careconnect.service.presence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.careconnect.config.PresenceConfig;
+
+/**
+ * Unit tests for {@link PresenceService}.
+ */
+class PresenceServiceTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private PresenceConfig config;
+    private MutableClock clock;
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new PresenceConfig();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        presenceService = new PresenceService(eventPublisher, config, clock);
+    }
+
+    /** Clock the tests move forward explicitly. */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    @DisplayName("user should stay online until the last session disconnects")
+    void testConnectDisconnect_multipleSessions() {
+        presenceService.connected(1L, "s1");
+        presenceService.connected(1L, "s2");
+        presenceService.disconnected(1L, "s1");
+        assertTrue(presenceService.isOnline(1L));
+
+        presenceService.disconnected(1L, "s2");
+        assertFalse(presenceService.isOnline(1L));
+
+        ArgumentCaptor<PresenceChangedEvent> events = ArgumentCaptor.forClass(PresenceChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().get(0).online());
+        assertFalse(events.getAllValues().get(1).online());
+    }
+
+    @Test
+    @DisplayName("onlineAmong should return only the online subset")
+    void testOnlineAmong() {
+        presenceService.connected(1L, "s1");
+        presenceService.connected(3L, "s3");
+        presenceService.heartbeat(5L);
+
+        assertEquals(Set.of(1L, 3L, 5L), presenceService.onlineAmong(List.of(1L, 2L, 3L, 4L, 5L)));
+        assertEquals(3, presenceService.onlineCount());
+    }
+
+    @Test
+    @DisplayName("silent users should expire and report their half-open sessions")
+    void testExpireSilentUsers() {
+        config.setTtlSeconds(1);
+        presenceService.connected(1L, "s1");
+        presenceService.connected(2L, "s2");
+
+        clock.advance(Duration.ofMillis(700));
+        presenceService.heartbeat(2L);
+        clock.advance(Duration.ofMillis(500));
+        presenceService.expireSilentUsers();
+
+        assertFalse(presenceService.isOnline(1L));
+        assertTrue(presenceService.isOnline(2L));
+        ArgumentCaptor<PresenceChangedEvent> events = ArgumentCaptor.forClass(PresenceChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        PresenceChangedEvent expired = events.getAllValues().get(2);
+        assertEquals(1L, expired.userId());
+        assertEquals(PresenceChangedEvent.Reason.EXPIRED, expired.reason());
+        assertEquals(Set.of("s1"), expired.sessionIds());
+    }
+}
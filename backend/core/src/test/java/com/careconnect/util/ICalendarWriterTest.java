@@ -0,0 +1,52 @@
+package com.careconnect.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ICalendarWriter}.
+ */
+class ICalendarWriterTest {
+
+    @Test
+    @DisplayName("text values should be escaped and null or blank properties skipped")
+    void testText_escaping() {
+        String out = new ICalendarWriter()
+                .text("SUMMARY", "Pills; water, food\\rest\nthen sleep")
+                .text("DESCRIPTION", " ")
+                .property("LOCATION", null)
+                .build();
+
+        assertEquals("SUMMARY:Pills\\; water\\, food\\\\rest\\nthen sleep\r\n", out);
+    }
+
+    @Test
+    @DisplayName("long lines should be folded at 75 octets without splitting a character")
+    void testLine_folding() {
+        String out = new ICalendarWriter().text("DESCRIPTION", "é".repeat(100)).build();
+
+        String[] lines = out.split("\r\n");
+        assertTrue(lines.length > 1);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].getBytes(StandardCharsets.UTF_8).length <= 75);
+            assertEquals(i > 0, lines[i].startsWith(" "));
+        }
+        assertEquals("DESCRIPTION:" + "é".repeat(100), out.replace("\r\n ", "").trim());
+    }
+
+    @Test
+    @DisplayName("date values should use the iCalendar basic formats")
+    void testDateFormats() {
+        assertEquals("20250301", ICalendarWriter.date(LocalDate.of(2025, 3, 1)));
+        assertEquals("20250301T083000", ICalendarWriter.dateTime(LocalDateTime.of(2025, 3, 1, 8, 30)));
+        assertEquals("20250301T083000Z", ICalendarWriter.utc(Instant.parse("2025-03-01T08:30:00Z")));
+    }
+}
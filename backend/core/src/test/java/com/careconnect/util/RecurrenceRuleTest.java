@@ -0,0 +1,82 @@
+package com.careconnect.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RecurrenceRule}.
+ *
+ * <p>
+ * These tests validate occurrence dates, series ends and window expansion
+ * of recurring task rules.
+ * </p>
+ */
+class RecurrenceRuleTest {
+
+    @Test
+    @DisplayName("daily rule should only expand the requested window")
+    void testDaily_window() {
+        RecurrenceRule rule = RecurrenceRule.of(LocalDate.of(2025, 1, 1), "daily", 2, null, 5, null);
+
+        assertEquals(LocalDate.of(2025, 1, 9), rule.end());
+        assertEquals(List.of(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 7)),
+                rule.between(LocalDate.of(2025, 1, 4), LocalDate.of(2025, 1, 8)));
+        assertTrue(rule.occursOn(LocalDate.of(2025, 1, 3)));
+        assertFalse(rule.occursOn(LocalDate.of(2025, 1, 4)));
+        assertFalse(rule.occursOn(LocalDate.of(2025, 1, 11)));
+    }
+
+    @Test
+    @DisplayName("weekly rule with daysOfWeek mask should count occurrences from the start")
+    void testWeekly_daysMask() {
+        // Monday + Wednesday (Sun=0), starting on Wednesday 2025-01-01
+        List<Boolean> days = List.of(false, true, false, true, false, false, false);
+        RecurrenceRule rule = RecurrenceRule.of(LocalDate.of(2025, 1, 1), "weekly", 1, days, 4, null);
+
+        List<LocalDate> expected = List.of(
+                LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 6),
+                LocalDate.of(2025, 1, 8),
+                LocalDate.of(2025, 1, 13));
+        assertEquals(LocalDate.of(2025, 1, 13), rule.end());
+        assertEquals(expected, rule.between(rule.start(), rule.end().plusDays(1)));
+        assertEquals(4, rule.countThrough(rule.end()));
+    }
+
+    @Test
+    @DisplayName("monthly rule should clamp to the end of shorter months")
+    void testMonthly_clampsMonthEnd() {
+        RecurrenceRule rule = RecurrenceRule.of(LocalDate.of(2025, 1, 31), "monthly", 1, null, 3, null);
+
+        assertEquals(List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 31)),
+                rule.between(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)));
+        assertTrue(rule.occursOn(LocalDate.of(2025, 2, 28)));
+    }
+
+    @Test
+    @DisplayName("until should end the series before count when it comes first")
+    void testUntil_beforeCount() {
+        RecurrenceRule rule = RecurrenceRule.of(LocalDate.of(2025, 1, 1), "daily", 1, null, 10,
+                LocalDate.of(2025, 1, 3));
+
+        assertEquals(LocalDate.of(2025, 1, 3), rule.end());
+        assertEquals(3, rule.countThrough(LocalDate.of(2025, 12, 31)));
+    }
+
+    @Test
+    @DisplayName("rule without frequency should have a single occurrence")
+    void testNoFrequency_single() {
+        RecurrenceRule rule = RecurrenceRule.of(LocalDate.of(2025, 1, 1), null, null, null, 5, null);
+
+        assertFalse(rule.repeats());
+        assertEquals(List.of(LocalDate.of(2025, 1, 1)),
+                rule.between(LocalDate.of(2024, 12, 1), LocalDate.of(2025, 2, 1)));
+    }
+}
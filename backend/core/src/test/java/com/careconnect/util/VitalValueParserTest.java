@@ -0,0 +1,73 @@
+package com.careconnect.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.careconnect.util.VitalValueParser.Parsed;
+
+/**
+ * Unit tests for {@link VitalValueParser}.
+ */
+class VitalValueParserTest {
+
+    @Test
+    @DisplayName("Blood pressure is split into systolic and diastolic")
+    void parse_bloodPressure() {
+        Parsed parsed = VitalValueParser.parse("Blood Pressure", "120 / 80", "mmHg");
+
+        assertEquals("BLOOD_PRESSURE", parsed.type());
+        assertEquals(120, parsed.systolic());
+        assertEquals(80, parsed.diastolic());
+        assertNull(parsed.numericValue());
+        assertEquals("mmHg", parsed.unit());
+    }
+
+    @Test
+    @DisplayName("Aliases map to one canonical type")
+    void canonicalType_aliases() {
+        assertEquals("HEART_RATE", VitalValueParser.canonicalType("pulse"));
+        assertEquals("BLOOD_PRESSURE", VitalValueParser.canonicalType("bp"));
+        assertEquals("SPO2", VitalValueParser.canonicalType("oxygen saturation"));
+        assertEquals("PEAK_FLOW", VitalValueParser.canonicalType("peak-flow"));
+    }
+
+    @Test
+    @DisplayName("Temperatures are stored in Celsius, from an explicit or inferred Fahrenheit")
+    void parse_temperature() {
+        assertEquals(37.0, VitalValueParser.parse("TEMPERATURE", "98.6", "°F").numericValue());
+        assertEquals(37.0, VitalValueParser.parse("TEMPERATURE", "98.6", null).numericValue());
+        assertEquals(37.2, VitalValueParser.parse("TEMPERATURE", "37,2", "°C").numericValue());
+        assertEquals("°C", VitalValueParser.parse("TEMPERATURE", "98.6", null).unit());
+    }
+
+    @Test
+    @DisplayName("Weight is converted to kg and left unparsed without a unit")
+    void parse_weight() {
+        assertEquals(68.04, VitalValueParser.parse("WEIGHT", "150 lbs", null).numericValue());
+        assertEquals(70.5, VitalValueParser.parse("WEIGHT", "70.5", "kg").numericValue());
+        assertFalse(VitalValueParser.parse("WEIGHT", "150", null).isParsed());
+    }
+
+    @Test
+    @DisplayName("Glucose, SpO2 and unknown types are normalized")
+    void parse_otherTypes() {
+        assertEquals(99.0, VitalValueParser.parse("GLUCOSE", "5.5", "mmol/L").numericValue(), 0.1);
+        assertEquals(110.0, VitalValueParser.parse("GLUCOSE", "110", null).numericValue());
+        assertEquals(97.0, VitalValueParser.parse("SPO2", "0.97", null).numericValue(), 1e-9);
+        Parsed other = VitalValueParser.parse("Peak Flow", "450", "L/min");
+        assertEquals(450.0, other.numericValue());
+        assertEquals("l/min", other.unit());
+    }
+
+    @Test
+    @DisplayName("Text without a number is not parsed")
+    void parse_unparseable() {
+        assertFalse(VitalValueParser.parse("HEART_RATE", "irregular", "bpm").isParsed());
+        assertFalse(VitalValueParser.parse("BLOOD_PRESSURE", "120", "mmHg").isParsed());
+        assertFalse(VitalValueParser.parse(null, "72", "bpm").isParsed());
+    }
+}
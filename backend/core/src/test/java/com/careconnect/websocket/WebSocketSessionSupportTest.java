@@ -0,0 +1,92 @@
+package com.careconnect.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.careconnect.service.NotificationLogService;
+import com.careconnect.service.emergency.SosAcknowledgedEvent;
+
+/**
+ * Unit tests for {@link WebSocketSessionSupport}.
+ */
+class WebSocketSessionSupportTest {
+
+    @Mock
+    private NotificationLogService notificationLogService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WebSocketSession session;
+
+    private WebSocketSessionSupport support;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        support = new WebSocketSessionSupport(notificationLogService, eventPublisher);
+        when(session.getId()).thenReturn("s1");
+    }
+
+    @Test
+    @DisplayName("replay should send missed notifications then replay-complete")
+    void testReplay() throws Exception {
+        when(notificationLogService.replay("7", 3L)).thenReturn(List.of("{\"seq\":4}", "{\"seq\":5}"));
+        when(notificationLogService.currentSeq("7")).thenReturn(5L);
+
+        support.replayMissedNotifications(session, "7", "3");
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(3)).sendMessage(sent.capture());
+        assertEquals("{\"seq\":4}", sent.getAllValues().get(0).getPayload());
+        assertTrue(sent.getAllValues().get(2).getPayload().contains("\"replay-complete\""));
+    }
+
+    @Test
+    @DisplayName("a non-numeric or negative lastSeq should get an error frame instead of an exception")
+    void testReplay_invalidSeq() throws Exception {
+        support.replayMissedNotifications(session, "7", "abc");
+        support.handleResume(session, "7", Map.of("lastSeq", -1));
+
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertTrue(sent.getAllValues().get(0).getPayload().contains("Invalid lastSeq: abc"));
+        assertTrue(sent.getAllValues().get(1).getPayload().contains("\"error\""));
+        verify(notificationLogService, never()).replay(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("sos-ack should publish the acknowledgement and confirm it; a missing callId should not")
+    void testHandleSosAck() throws Exception {
+        support.handleSosAck(session, 20L, Map.of("callId", "call-1"));
+        support.handleSosAck(session, 20L, Map.of());
+
+        verify(eventPublisher).publishEvent(new SosAcknowledgedEvent("call-1", 20L));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(2)).sendMessage(sent.capture());
+        assertTrue(sent.getAllValues().get(0).getPayload().contains("\"sos-ack-received\""));
+        assertTrue(sent.getAllValues().get(1).getPayload().contains("Missing callId"));
+    }
+}
@@ -32,6 +32,7 @@ class Task {
   final String? taskType; // "General" | "Lab" | "Appointment" | "custom"
   bool applyToSeries;
   int? parentTaskId;
+  String? occurrenceDate; // "YYYY-MM-DD" of a series occurrence; id is then the series parent's
 
   Task({
     this.id,
@@ -50,6 +51,7 @@ class Task {
     this.taskType,
     this.applyToSeries = false,
     this.parentTaskId,
+    this.occurrenceDate,
   });
 
   /// Factory constructor: build a [Task] from JSON data.
@@ -93,6 +95,7 @@ class Task {
       taskType: json['taskType'],
       applyToSeries: json['applyToSeries'] ?? false,
       parentTaskId: json['parentTaskId'],
+      occurrenceDate: json['occurrenceDate'],
     );
   }
 
@@ -121,6 +124,7 @@ class Task {
       'patientId': assignedPatientId,
       'applyToSeries': applyToSeries,
       'parentTaskId': parentTaskId,
+      if (occurrenceDate != null) 'occurrenceDate': occurrenceDate,
     };
   }
 
@@ -167,6 +171,7 @@ extension TaskCopyWith on Task {
       count: count ?? this.count,
       daysOfWeek: daysOfWeek ?? this.daysOfWeek,
       taskType: taskType ?? this.taskType,
+      occurrenceDate: this.occurrenceDate, // same occurrence of the series
     );
   }
 }
@@ -1026,6 +1026,7 @@ class _CalendarAssistantScreenState extends State<CalendarAssistantScreen> {
       final response = await ApiService.deleteTaskV2(
         task.id!,
         deleteSeries: deleteSeries,
+        occurrenceDate: deleteSeries ? null : task.occurrenceDate,
       );
 
       if (response.statusCode == 200 || response.statusCode == 204) {
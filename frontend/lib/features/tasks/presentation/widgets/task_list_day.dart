@@ -28,8 +28,9 @@ class TaskListDay extends StatelessWidget {
   /// Callback when the user taps the delete button on a task.
   final void Function(Task) onDelete;
 
-  /// injectable completion updater for testing
-  final Future<void> Function(int taskId, bool complete) updateCompletion;
+  /// injectable completion updater for testing; defaults to the API, which
+  /// also receives the occurrence date of series occurrences
+  final Future<void> Function(int taskId, bool complete)? updateCompletion;
 
   TaskListDay({
     Key? key,
@@ -37,12 +38,8 @@ class TaskListDay extends StatelessWidget {
     required this.patientNames,
     required this.onEdit,
     required this.onDelete,
-    Future<void> Function(int, bool)? updateCompletion,
-  }) : updateCompletion =
-           updateCompletion ??
-           ((int id, bool complete) =>
-               ApiService.updateTaskCompletionV2(id, complete)),
-       super(key: key);
+    this.updateCompletion,
+  }) : super(key: key);
 
   @override
   Widget build(BuildContext context) {
@@ -146,7 +143,13 @@ class TaskListDay extends StatelessWidget {
                           final newStatus = !task.isComplete;
                           setState(() => task.isComplete = newStatus);
                           try {
-                            await updateCompletion(task.id!, newStatus);
+                            await (updateCompletion != null
+                                ? updateCompletion!(task.id!, newStatus)
+                                : ApiService.updateTaskCompletionV2(
+                                    task.id!,
+                                    newStatus,
+                                    occurrenceDate: task.occurrenceDate,
+                                  ));
                           } catch (e) {
                             setState(() => task.isComplete = !newStatus);
                             ScaffoldMessenger.of(context).showSnackBar(
@@ -28,8 +28,9 @@ class TaskListWeek extends StatelessWidget {
   /// Callback when the user taps the delete button on a task.
   final void Function(Task) onDelete;
 
-  /// Injectable backend update callback for easier testing.
-  final Future<void> Function(int taskId, bool complete) updateCompletion;
+  /// Injectable backend update callback for easier testing; defaults to the
+  /// API, which also receives the occurrence date of series occurrences.
+  final Future<void> Function(int taskId, bool complete)? updateCompletion;
 
   TaskListWeek({
     super.key,
@@ -37,11 +38,8 @@ class TaskListWeek extends StatelessWidget {
     required this.patientNames,
     required this.onEdit,
     required this.onDelete,
-    Future<void> Function(int, bool)? updateCompletion,
-  }) : updateCompletion =
-           updateCompletion ??
-           ((int id, bool complete) =>
-               ApiService.updateTaskCompletionV2(id, complete));
+    this.updateCompletion,
+  });
 
   @override
   Widget build(BuildContext context) {
@@ -145,7 +143,13 @@ class TaskListWeek extends StatelessWidget {
                           final newStatus = !task.isComplete;
                           setState(() => task.isComplete = newStatus);
                           try {
-                            await updateCompletion(task.id!, newStatus);
+                            await (updateCompletion != null
+                                ? updateCompletion!(task.id!, newStatus)
+                                : ApiService.updateTaskCompletionV2(
+                                    task.id!,
+                                    newStatus,
+                                    occurrenceDate: task.occurrenceDate,
+                                  ));
                           } catch (e) {
                             setState(() => task.isComplete = !newStatus);
                             ScaffoldMessenger.of(context).showSnackBar(
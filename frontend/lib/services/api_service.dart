@@ -1437,15 +1437,20 @@ class ApiService {
 
     // Delete a task by task ID (v2)
     // Delete a task by task ID (v2), with optional deleteSeries flag
+    // and the occurrenceDate of a single series occurrence
     static Future<http.Response> deleteTaskV2(
       int taskId, {
       bool deleteSeries = false,
+      String? occurrenceDate,
     }) async {
       final headers = await AuthTokenManager.getAuthHeaders();
 
-      final url = Uri.parse(
-        '${ApiConstants.tasksV2}/$taskId',
-      ).replace(queryParameters: {'deleteSeries': deleteSeries.toString()});
+      final url = Uri.parse('${ApiConstants.tasksV2}/$taskId').replace(
+        queryParameters: {
+          'deleteSeries': deleteSeries.toString(),
+          if (occurrenceDate != null) 'occurrenceDate': occurrenceDate,
+        },
+      );
 
       return await _httpClient
           .delete(url, headers: headers)
@@ -1476,16 +1481,22 @@ class ApiService {
     ///
     /// Sends a PUT request to /v2/api/tasks/{id}/complete with a JSON body:
     /// `{ "isComplete": true/false }`
+    /// For an occurrence of a recurring series, pass its [occurrenceDate].
     ///
     /// Throws an [Exception] if the request fails.
     static Future<void> updateTaskCompletionV2(
       int taskId,
-      bool isComplete,
-    ) async {
+      bool isComplete, {
+      String? occurrenceDate,
+    }) async {
       final headers = await AuthTokenManager.getAuthHeaders();
       headers['Content-Type'] = 'application/json';
 
-      final url = Uri.parse('${ApiConstants.tasksV2}/$taskId/complete');
+      final url = Uri.parse('${ApiConstants.tasksV2}/$taskId/complete').replace(
+        queryParameters: occurrenceDate != null
+            ? {'occurrenceDate': occurrenceDate}
+            : null,
+      );
       final body = jsonEncode({'isComplete': isComplete});
 
       final response = await _httpClient